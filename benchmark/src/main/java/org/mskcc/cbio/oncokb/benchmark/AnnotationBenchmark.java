@@ -0,0 +1,127 @@
+package org.mskcc.cbio.oncokb.benchmark;
+
+import org.mskcc.cbio.oncokb.model.*;
+import org.mskcc.cbio.oncokb.util.*;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+import static org.mskcc.cbio.oncokb.Constants.DEFAULT_REFERENCE_GENOME;
+
+/**
+ * Benchmarks of the annotation hot paths against the curated data in the {@link BenchmarkFixture}.
+ * <p>
+ * Run with: java -Doncokb.benchmark.fixture=/path/to/oncokb-fixture.ser.gz -jar benchmark/target/benchmarks.jar
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AnnotationBenchmark {
+    static {
+        if (System.getProperty(ApplicationContextSingleton.SPRING_CONFIG_PROPERTY) == null) {
+            System.setProperty(ApplicationContextSingleton.SPRING_CONFIG_PROPERTY, "spring/benchmark/BeanLocations.xml");
+        }
+    }
+
+    private static final String CPL_TEMPLATE = "The [[gene]] [[mutation]] [[[mutant]]] is oncogenic in [[tumor type]]. ";
+
+    /**
+     * Gene, alteration and tumor type separated by colons.
+     */
+    @Param({
+        "BRAF:V600E:Melanoma",
+        "EGFR:L858R:Non-Small Cell Lung Cancer",
+        "KRAS:G12C:Colorectal Cancer",
+        "PIK3CA:H1047R:Breast Cancer",
+        "TP53:R248Q:Pancreatic Adenocarcinoma"
+    })
+    public String variant;
+
+    private String hugoSymbol;
+    private String proteinChange;
+    private String tumorTypeName;
+
+    private Gene gene;
+    private Alteration alteration;
+    private Alteration matchedAlteration;
+    private List<Alteration> fullAlterations;
+    private List<Alteration> relevantAlterations;
+    private TumorType matchedTumorType;
+    private List<TumorType> relevantTumorTypes;
+    private Query query;
+    private String description;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        String[] parts = variant.split(":");
+        hugoSymbol = parts[0];
+        proteinChange = parts[1];
+        tumorTypeName = parts[2];
+
+        // Load the CacheUtils snapshot before measuring anything
+        CacheUtils.getAllGenes();
+
+        gene = GeneUtils.getGeneByHugoSymbol(hugoSymbol);
+        if (gene == null) {
+            throw new IllegalStateException("The fixture does not include " + hugoSymbol);
+        }
+        alteration = AlterationUtils.getAlteration(hugoSymbol, proteinChange, null, null, null, null, DEFAULT_REFERENCE_GENOME);
+        fullAlterations = AlterationUtils.getAllAlterations(DEFAULT_REFERENCE_GENOME, gene);
+        relevantAlterations = new ArrayList<>(ApplicationContextSingleton.getAlterationBo()
+            .findRelevantAlterations(DEFAULT_REFERENCE_GENOME, alteration, fullAlterations, true));
+        matchedAlteration = AlterationUtils.findExactlyMatchedAlteration(DEFAULT_REFERENCE_GENOME, alteration, fullAlterations);
+        if (matchedAlteration == null) {
+            matchedAlteration = alteration;
+        }
+        matchedTumorType = ApplicationContextSingleton.getTumorTypeBo().getByName(tumorTypeName);
+        relevantTumorTypes = TumorTypeUtils.findRelevantTumorTypes(tumorTypeName);
+        query = newQuery();
+
+        // Use the longest curated description of the variant so the CPL replacement works on realistic text
+        String longestDescription = "";
+        for (Evidence evidence : ApplicationContextSingleton.getEvidenceBo().findEvidencesByAlteration(relevantAlterations)) {
+            if (evidence.getDescription() != null && evidence.getDescription().length() > longestDescription.length()) {
+                longestDescription = evidence.getDescription();
+            }
+        }
+        description = CPL_TEMPLATE + longestDescription;
+    }
+
+    private Query newQuery() {
+        return new Query(null, DEFAULT_REFERENCE_GENOME, null, hugoSymbol, proteinChange, null, null, tumorTypeName, null, null, null, null);
+    }
+
+    @Benchmark
+    public IndicatorQueryResp processQuery() {
+        // processQuery updates the query it annotates, use a new one for every invocation
+        return IndicatorUtils.processQuery(newQuery(), null, false, null, false);
+    }
+
+    @Benchmark
+    public LinkedHashSet<Alteration> findRelevantAlterations() {
+        return ApplicationContextSingleton.getAlterationBo()
+            .findRelevantAlterations(DEFAULT_REFERENCE_GENOME, alteration, fullAlterations, true);
+    }
+
+    @Benchmark
+    public void findEvidencesByAlteration(Blackhole blackhole) {
+        blackhole.consume(ApplicationContextSingleton.getEvidenceBo().findEvidencesByAlteration(relevantAlterations));
+        blackhole.consume(ApplicationContextSingleton.getEvidenceBo().findEvidencesByAlteration(
+            relevantAlterations, EvidenceTypeUtils.getTreatmentEvidenceTypes(), matchedTumorType, relevantTumorTypes));
+    }
+
+    @Benchmark
+    public String variantSummary() {
+        return SummaryUtils.variantSummary(gene, matchedAlteration, relevantAlterations, query);
+    }
+
+    @Benchmark
+    public String cplAnnotate() {
+        return CplUtils.annotate(description, hugoSymbol, proteinChange, tumorTypeName, DEFAULT_REFERENCE_GENOME, gene, matchedTumorType);
+    }
+}
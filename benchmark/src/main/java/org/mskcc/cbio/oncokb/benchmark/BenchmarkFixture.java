@@ -0,0 +1,151 @@
+package org.mskcc.cbio.oncokb.benchmark;
+
+import org.mskcc.cbio.oncokb.model.*;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * A snapshot of the curated data used to run the benchmarks without MySQL.
+ * The snapshot is written with java serialization so the object graph, i.e. the genes shared by alterations and evidences,
+ * looks the same as the one loaded by hibernate.
+ */
+public class BenchmarkFixture implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    public static final String FIXTURE_PROPERTY = "oncokb.benchmark.fixture";
+    public static final String DEFAULT_FIXTURE = "oncokb-fixture.ser.gz";
+
+    private static volatile BenchmarkFixture instance;
+
+    private List<Gene> genes = new ArrayList<>();
+    private List<Alteration> alterations = new ArrayList<>();
+    private List<Evidence> evidences = new ArrayList<>();
+    private List<Drug> drugs = new ArrayList<>();
+    private List<TumorType> tumorTypes = new ArrayList<>();
+    private List<VariantConsequence> variantConsequences = new ArrayList<>();
+    private List<Geneset> genesets = new ArrayList<>();
+    private Info info;
+
+    /**
+     * The fixture configured by the {@link #FIXTURE_PROPERTY} system property, loaded on first use.
+     */
+    public static BenchmarkFixture get() {
+        if (instance == null) {
+            synchronized (BenchmarkFixture.class) {
+                if (instance == null) {
+                    File file = new File(System.getProperty(FIXTURE_PROPERTY, DEFAULT_FIXTURE));
+                    try {
+                        instance = read(file);
+                    } catch (IOException e) {
+                        throw new IllegalStateException("Cannot load the benchmark fixture " + file.getAbsolutePath()
+                            + ", export one with " + FixtureExporter.class.getName(), e);
+                    }
+                }
+            }
+        }
+        return instance;
+    }
+
+    public static BenchmarkFixture read(File file) throws IOException {
+        try (ObjectInputStream in = new ObjectInputStream(new GZIPInputStream(new BufferedInputStream(new FileInputStream(file))))) {
+            return (BenchmarkFixture) in.readObject();
+        } catch (ClassNotFoundException e) {
+            throw new IOException(e);
+        }
+    }
+
+    public void write(File file) throws IOException {
+        try (ObjectOutputStream out = new ObjectOutputStream(new GZIPOutputStream(new BufferedOutputStream(new FileOutputStream(file))))) {
+            out.writeObject(this);
+        }
+    }
+
+    /**
+     * Articles are not loaded on their own, they are collected from the evidences.
+     */
+    public List<Article> getArticles() {
+        Set<Article> articles = new LinkedHashSet<>();
+        for (Evidence evidence : evidences) {
+            articles.addAll(evidence.getArticles());
+        }
+        return new ArrayList<>(articles);
+    }
+
+    public List<Treatment> getTreatments() {
+        Set<Treatment> treatments = new LinkedHashSet<>();
+        for (Evidence evidence : evidences) {
+            treatments.addAll(evidence.getTreatments());
+        }
+        return new ArrayList<>(treatments);
+    }
+
+    public List<Gene> getGenes() {
+        return genes;
+    }
+
+    public void setGenes(List<Gene> genes) {
+        this.genes = genes;
+    }
+
+    public List<Alteration> getAlterations() {
+        return alterations;
+    }
+
+    public void setAlterations(List<Alteration> alterations) {
+        this.alterations = alterations;
+    }
+
+    public List<Evidence> getEvidences() {
+        return evidences;
+    }
+
+    public void setEvidences(List<Evidence> evidences) {
+        this.evidences = evidences;
+    }
+
+    public List<Drug> getDrugs() {
+        return drugs;
+    }
+
+    public void setDrugs(List<Drug> drugs) {
+        this.drugs = drugs;
+    }
+
+    public List<TumorType> getTumorTypes() {
+        return tumorTypes;
+    }
+
+    public void setTumorTypes(List<TumorType> tumorTypes) {
+        this.tumorTypes = tumorTypes;
+    }
+
+    public List<VariantConsequence> getVariantConsequences() {
+        return variantConsequences;
+    }
+
+    public void setVariantConsequences(List<VariantConsequence> variantConsequences) {
+        this.variantConsequences = variantConsequences;
+    }
+
+    public List<Geneset> getGenesets() {
+        return genesets;
+    }
+
+    public void setGenesets(List<Geneset> genesets) {
+        this.genesets = genesets;
+    }
+
+    public Info getInfo() {
+        return info;
+    }
+
+    public void setInfo(Info info) {
+        this.info = info;
+    }
+}
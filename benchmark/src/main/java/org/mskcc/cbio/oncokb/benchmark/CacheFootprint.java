@@ -0,0 +1,45 @@
+package org.mskcc.cbio.oncokb.benchmark;
+
+import org.mskcc.cbio.oncokb.util.ApplicationContextSingleton;
+import org.mskcc.cbio.oncokb.util.CacheUtils;
+
+/**
+ * Print the heap used by the CacheUtils snapshot of the curated data in the {@link BenchmarkFixture}.
+ * The curated entities are loaded before the first measurement, so the difference is what the cache keeps on top of
+ * them, i.e. its maps, indexes and resolved relevant cancer types.
+ * <p>
+ * Run with: java -Doncokb.benchmark.fixture=/path/to/oncokb-fixture.ser.gz -cp benchmark/target/benchmarks.jar org.mskcc.cbio.oncokb.benchmark.CacheFootprint
+ */
+public class CacheFootprint {
+    public static void main(String[] args) throws InterruptedException {
+        if (System.getProperty(ApplicationContextSingleton.SPRING_CONFIG_PROPERTY) == null) {
+            System.setProperty(ApplicationContextSingleton.SPRING_CONFIG_PROPERTY, "spring/benchmark/BeanLocations.xml");
+        }
+
+        BenchmarkFixture fixture = BenchmarkFixture.get();
+        long before = usedHeap();
+        CacheUtils.getAllGenes();
+        long after = usedHeap();
+
+        System.out.println("Cached " + fixture.getGenes().size() + " genes, "
+            + fixture.getAlterations().size() + " alterations and "
+            + fixture.getEvidences().size() + " evidences");
+        System.out.println("Used heap before loading the cache: " + toMegabytes(before) + " MB");
+        System.out.println("Used heap after loading the cache: " + toMegabytes(after) + " MB");
+        System.out.println("Cache footprint: " + toMegabytes(after - before) + " MB");
+    }
+
+    private static long usedHeap() throws InterruptedException {
+        Runtime runtime = Runtime.getRuntime();
+        // a single gc call may leave garbage behind, settle the heap before reading it
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+            Thread.sleep(100);
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static String toMegabytes(long bytes) {
+        return String.format("%.1f", bytes / (1024.0 * 1024.0));
+    }
+}
@@ -0,0 +1,92 @@
+package org.mskcc.cbio.oncokb.benchmark;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import org.mskcc.cbio.oncokb.cache.CacheValueCodec;
+import org.mskcc.cbio.oncokb.cache.CacheValueFixtures;
+import org.mskcc.cbio.oncokb.model.IndicatorQueryResp;
+import org.openjdk.jmh.annotations.*;
+import org.redisson.client.codec.Codec;
+import org.redisson.codec.SnappyCodecV2;
+
+import java.io.*;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Benchmarks of the cache value codecs against the previous path, which serialized and gzipped the value before
+ * handing it to the snappy codec. The encoded size of each codec is printed when the trial starts.
+ * The benchmarks do not need the fixture, the value is the one of the codec tests.
+ * <p>
+ * Run with: java -jar benchmark/target/benchmarks.jar CacheValueCodecBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CacheValueCodecBenchmark {
+    private static final String GZIP_SNAPPY = "gzip-snappy";
+
+    /**
+     * The name of a {@link CacheValueCodec}, or gzip-snappy for the previous path.
+     */
+    @Param({GZIP_SNAPPY, "snappy", "java-snappy", "kryo-snappy", "kryo"})
+    public String codecName;
+
+    private Codec codec;
+    private boolean gzipped;
+    private IndicatorQueryResp resp;
+    private byte[] encoded;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        gzipped = GZIP_SNAPPY.equals(codecName);
+        codec = gzipped ? new SnappyCodecV2() : CacheValueCodec.getByName(codecName).createCodec();
+        resp = CacheValueFixtures.createIndicatorQueryResp();
+
+        ByteBuf buf = codec.getValueEncoder().encode(gzipped ? toGzipBytes(resp) : resp);
+        try {
+            encoded = new byte[buf.readableBytes()];
+            buf.readBytes(encoded);
+        } finally {
+            buf.release();
+        }
+        System.out.println("Encoded size of " + codecName + ": " + encoded.length + " bytes");
+    }
+
+    @Benchmark
+    public int encode() throws IOException {
+        ByteBuf buf = codec.getValueEncoder().encode(gzipped ? toGzipBytes(resp) : resp);
+        try {
+            return buf.readableBytes();
+        } finally {
+            buf.release();
+        }
+    }
+
+    @Benchmark
+    public Object decode() throws IOException {
+        Object decoded = codec.getValueDecoder().decode(Unpooled.wrappedBuffer(encoded), null);
+        return gzipped ? fromGzipBytes((byte[]) decoded) : decoded;
+    }
+
+    private static byte[] toGzipBytes(Object value) throws IOException {
+        ByteArrayOutputStream byteOut = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzipOut = new GZIPOutputStream(byteOut);
+             ObjectOutputStream objectOut = new ObjectOutputStream(gzipOut)) {
+            objectOut.writeObject(value);
+        }
+        return byteOut.toByteArray();
+    }
+
+    private static Object fromGzipBytes(byte[] bytes) throws IOException {
+        try (ObjectInputStream objectIn = new ObjectInputStream(new GZIPInputStream(new ByteArrayInputStream(bytes)))) {
+            return objectIn.readObject();
+        } catch (ClassNotFoundException e) {
+            throw new IOException(e);
+        }
+    }
+}
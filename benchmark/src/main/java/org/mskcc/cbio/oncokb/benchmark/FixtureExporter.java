@@ -0,0 +1,31 @@
+package org.mskcc.cbio.oncokb.benchmark;
+
+import org.mskcc.cbio.oncokb.util.ApplicationContextSingleton;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Export the curated data from the database configured in properties/database.properties into a benchmark fixture.
+ * Usage: FixtureExporter [output file], the default output is {@link BenchmarkFixture#DEFAULT_FIXTURE}
+ */
+public class FixtureExporter {
+    public static void main(String[] args) throws IOException {
+        File output = new File(args.length > 0 ? args[0] : BenchmarkFixture.DEFAULT_FIXTURE);
+
+        BenchmarkFixture fixture = new BenchmarkFixture();
+        fixture.setGenes(ApplicationContextSingleton.getGeneBo().findAll());
+        fixture.setAlterations(ApplicationContextSingleton.getAlterationBo().findAll());
+        fixture.setEvidences(ApplicationContextSingleton.getEvidenceBo().findAll());
+        fixture.setDrugs(ApplicationContextSingleton.getDrugBo().findAll());
+        fixture.setTumorTypes(ApplicationContextSingleton.getTumorTypeBo().findAll());
+        fixture.setVariantConsequences(ApplicationContextSingleton.getVariantConsequenceBo().findAll());
+        fixture.setGenesets(ApplicationContextSingleton.getGenesetBo().findAll());
+        fixture.setInfo(ApplicationContextSingleton.getInfoBo().get());
+        fixture.write(output);
+
+        System.out.println("Exported " + fixture.getGenes().size() + " genes, "
+            + fixture.getAlterations().size() + " alterations and "
+            + fixture.getEvidences().size() + " evidences to " + output.getAbsolutePath());
+    }
+}
@@ -0,0 +1,49 @@
+package org.mskcc.cbio.oncokb.benchmark.dao;
+
+import org.mskcc.cbio.oncokb.benchmark.BenchmarkFixture;
+import org.mskcc.cbio.oncokb.dao.AlterationDao;
+import org.mskcc.cbio.oncokb.model.*;
+
+import java.util.List;
+import java.util.Objects;
+
+public class FixtureAlterationDao extends FixtureGenericDao<Alteration, Integer> implements AlterationDao {
+    @Override
+    protected List<Alteration> getAll(BenchmarkFixture fixture) {
+        return fixture.getAlterations();
+    }
+
+    @Override
+    protected Integer getId(Alteration alteration) {
+        return alteration.getId();
+    }
+
+    @Override
+    public List<Alteration> findAlterationsByGene(Gene gene) {
+        return filter(alteration -> Objects.equals(alteration.getGene(), gene));
+    }
+
+    @Override
+    public Alteration findAlteration(Gene gene, AlterationType alterationType, ReferenceGenome referenceGenome, String alteration) {
+        return findFirst(alt -> Objects.equals(alt.getGene(), gene)
+            && Objects.equals(alt.getAlteration(), alteration)
+            && (referenceGenome == null || alt.getReferenceGenomes().contains(referenceGenome)));
+    }
+
+    @Override
+    public Alteration findAlteration(Gene gene, AlterationType alterationType, ReferenceGenome referenceGenome, String alteration, String name) {
+        return findFirst(alt -> Objects.equals(alt.getGene(), gene)
+            && Objects.equals(alt.getAlteration(), alteration)
+            && Objects.equals(alt.getName(), name)
+            && (referenceGenome == null || alt.getReferenceGenomes().contains(referenceGenome)));
+    }
+
+    @Override
+    public List<Alteration> findMutationsByConsequenceAndPositionOnSamePosition(Gene gene, ReferenceGenome referenceGenome, VariantConsequence consequence, int start, int end) {
+        return filter(alt -> Objects.equals(alt.getGene(), gene)
+            && Objects.equals(alt.getConsequence(), consequence)
+            && alt.getProteinStart() != null && alt.getProteinStart() >= start && alt.getProteinStart() <= end
+            && alt.getProteinStart().equals(alt.getProteinEnd())
+            && (referenceGenome == null || alt.getReferenceGenomes().contains(referenceGenome)));
+    }
+}
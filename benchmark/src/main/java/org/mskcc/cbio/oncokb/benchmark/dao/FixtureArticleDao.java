@@ -0,0 +1,29 @@
+package org.mskcc.cbio.oncokb.benchmark.dao;
+
+import org.mskcc.cbio.oncokb.benchmark.BenchmarkFixture;
+import org.mskcc.cbio.oncokb.dao.ArticleDao;
+import org.mskcc.cbio.oncokb.model.Article;
+
+import java.util.List;
+
+public class FixtureArticleDao extends FixtureGenericDao<Article, Integer> implements ArticleDao {
+    @Override
+    protected List<Article> getAll(BenchmarkFixture fixture) {
+        return fixture.getArticles();
+    }
+
+    @Override
+    protected Integer getId(Article article) {
+        return article.getId();
+    }
+
+    @Override
+    public Article findArticleByPmid(String pmid) {
+        return findFirst(article -> pmid.equals(article.getPmid()));
+    }
+
+    @Override
+    public Article findArticleByAbstract(String abstractContent) {
+        return findFirst(article -> abstractContent.equals(article.getAbstractContent()));
+    }
+}
@@ -0,0 +1,40 @@
+package org.mskcc.cbio.oncokb.benchmark.dao;
+
+import org.mskcc.cbio.oncokb.benchmark.BenchmarkFixture;
+import org.mskcc.cbio.oncokb.dao.DrugDao;
+import org.mskcc.cbio.oncokb.model.Drug;
+import org.mskcc.cbio.oncokb.model.DrugTableItemType;
+
+import java.util.List;
+
+public class FixtureDrugDao extends FixtureGenericDao<Drug, Integer> implements DrugDao {
+    @Override
+    protected List<Drug> getAll(BenchmarkFixture fixture) {
+        return fixture.getDrugs();
+    }
+
+    @Override
+    protected Integer getId(Drug drug) {
+        return drug.getId();
+    }
+
+    @Override
+    public Drug findDrugById(Integer id) {
+        return findById(id);
+    }
+
+    @Override
+    public Drug findDrugByName(String drugName) {
+        return findFirst(drug -> DrugTableItemType.DRUG.equals(drug.getType()) && drug.getDrugName().equals(drugName));
+    }
+
+    @Override
+    public List<Drug> findDrugBySynonym(String synonym) {
+        return filter(drug -> DrugTableItemType.DRUG.equals(drug.getType()) && drug.getSynonyms().contains(synonym));
+    }
+
+    @Override
+    public Drug findDrugByNcitCode(String ncitCode) {
+        return findFirst(drug -> DrugTableItemType.DRUG.equals(drug.getType()) && ncitCode.equals(drug.getNcitCode()));
+    }
+}
@@ -0,0 +1,108 @@
+package org.mskcc.cbio.oncokb.benchmark.dao;
+
+import org.mskcc.cbio.oncokb.benchmark.BenchmarkFixture;
+import org.mskcc.cbio.oncokb.dao.EvidenceDao;
+import org.mskcc.cbio.oncokb.model.*;
+
+import java.util.*;
+
+public class FixtureEvidenceDao extends FixtureGenericDao<Evidence, Integer> implements EvidenceDao {
+    @Override
+    protected List<Evidence> getAll(BenchmarkFixture fixture) {
+        return fixture.getEvidences();
+    }
+
+    @Override
+    protected Integer getId(Evidence evidence) {
+        return evidence.getId();
+    }
+
+    @Override
+    public List<Evidence> findEvidencesByAlteration(Alteration alteration) {
+        return filter(evidence -> evidence.getAlterations().contains(alteration));
+    }
+
+    @Override
+    public List<Evidence> findEvidencesByAlterationAndTumorType(Alteration alteration, TumorType tumorType) {
+        return filter(evidence -> evidence.getAlterations().contains(alteration)
+            && evidence.getCancerTypes().contains(tumorType));
+    }
+
+    @Override
+    public List<Evidence> findEvidencesByAlterationsAndTumorTypesAndEvidenceTypes(List<Alteration> alterations, List<TumorType> tumorTypes, List<EvidenceType> evidenceTypes) {
+        return filter(evidence -> !Collections.disjoint(evidence.getAlterations(), alterations)
+            && !Collections.disjoint(evidence.getCancerTypes(), tumorTypes)
+            && evidenceTypes.contains(evidence.getEvidenceType()));
+    }
+
+    @Override
+    public List<Evidence> findEvidencesByAlterationsAndTumorTypesAndEvidenceTypesAndLevelOfEvidence(List<Alteration> alterations, List<TumorType> tumorTypes, List<EvidenceType> evidenceTypes, List<LevelOfEvidence> levelOfEvidences) {
+        return filter(evidence -> !Collections.disjoint(evidence.getAlterations(), alterations)
+            && !Collections.disjoint(evidence.getCancerTypes(), tumorTypes)
+            && evidenceTypes.contains(evidence.getEvidenceType())
+            && levelOfEvidences.contains(evidence.getLevelOfEvidence()));
+    }
+
+    @Override
+    public List<Evidence> findEvidencesByAlteration(Alteration alteration, EvidenceType evidenceType) {
+        return filter(evidence -> evidence.getAlterations().contains(alteration)
+            && evidenceType == evidence.getEvidenceType());
+    }
+
+    @Override
+    public List<Evidence> findEvidencesByAlterationAndLevels(Alteration alteration, EvidenceType evidenceType, LevelOfEvidence levelOfEvidence) {
+        return filter(evidence -> evidence.getAlterations().contains(alteration)
+            && evidenceType == evidence.getEvidenceType()
+            && levelOfEvidence == evidence.getLevelOfEvidence());
+    }
+
+    @Override
+    public List<Evidence> findEvidencesByAlterationAndTumorType(Alteration alteration, EvidenceType evidenceType, TumorType tumorType) {
+        return filter(evidence -> evidence.getAlterations().contains(alteration)
+            && evidenceType == evidence.getEvidenceType()
+            && evidence.getCancerTypes().contains(tumorType));
+    }
+
+    @Override
+    public List<Evidence> findEvidencesByGene(Gene gene) {
+        return filter(evidence -> Objects.equals(evidence.getGene(), gene));
+    }
+
+    @Override
+    public List<Evidence> findEvidencesByGene(Gene gene, EvidenceType evidenceType) {
+        return filter(evidence -> Objects.equals(evidence.getGene(), gene) && evidenceType == evidence.getEvidenceType());
+    }
+
+    @Override
+    public List<Evidence> findEvidencesByIds(List<Integer> ids) {
+        Set<Integer> idSet = new HashSet<>(ids);
+        return filter(evidence -> idSet.contains(evidence.getId()));
+    }
+
+    @Override
+    public List<Object> findTumorTypesWithEvidencesForAlterations(List<Alteration> alterations) {
+        Set<Object> tumorTypes = new LinkedHashSet<>();
+        for (Evidence evidence : getAll()) {
+            if (!Collections.disjoint(evidence.getAlterations(), alterations)) {
+                tumorTypes.addAll(evidence.getCancerTypes());
+            }
+        }
+        return new ArrayList<>(tumorTypes);
+    }
+
+    @Override
+    public List<Object> findCancerTypesWithEvidencesForAlterations(List<Alteration> alterations) {
+        return findTumorTypesWithEvidencesForAlterations(alterations);
+    }
+
+    @Override
+    public List<Object> findSubtypesWithEvidencesForAlterations(List<Alteration> alterations) {
+        return findTumorTypesWithEvidencesForAlterations(alterations);
+    }
+
+    @Override
+    public List<Evidence> findEvidenceByUUIDs(List<String> uuids) {
+        Set<String> uuidSet = new HashSet<>(uuids);
+        return filter(evidence -> uuidSet.contains(evidence.getUuid()));
+    }
+}
@@ -0,0 +1,34 @@
+package org.mskcc.cbio.oncokb.benchmark.dao;
+
+import org.mskcc.cbio.oncokb.benchmark.BenchmarkFixture;
+import org.mskcc.cbio.oncokb.dao.GeneDao;
+import org.mskcc.cbio.oncokb.model.Gene;
+
+import java.util.List;
+
+public class FixtureGeneDao extends FixtureGenericDao<Gene, Integer> implements GeneDao {
+    @Override
+    protected List<Gene> getAll(BenchmarkFixture fixture) {
+        return fixture.getGenes();
+    }
+
+    @Override
+    protected Integer getId(Gene gene) {
+        return gene.getEntrezGeneId();
+    }
+
+    @Override
+    public Gene findGeneByHugoSymbol(String symbol) {
+        return findFirst(gene -> gene.getHugoSymbol().equals(symbol));
+    }
+
+    @Override
+    public Gene findGeneByEntrezGeneId(int entrezGeneId) {
+        return findFirst(gene -> gene.getEntrezGeneId() == entrezGeneId);
+    }
+
+    @Override
+    public Gene findGeneByAlias(String geneAlias) {
+        return findFirst(gene -> gene.getGeneAliases().contains(geneAlias));
+    }
+}
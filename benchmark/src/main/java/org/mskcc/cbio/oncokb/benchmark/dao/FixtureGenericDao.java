@@ -0,0 +1,118 @@
+package org.mskcc.cbio.oncokb.benchmark.dao;
+
+import org.mskcc.cbio.oncokb.benchmark.BenchmarkFixture;
+import org.mskcc.cbio.oncokb.dao.GenericDao;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+/**
+ * Read only DAO backed by the {@link BenchmarkFixture}. HQL is not available, the named queries used by the business
+ * objects are implemented by the subclasses as filters over the fixture.
+ */
+public abstract class FixtureGenericDao<T, ID extends Serializable> implements GenericDao<T, ID> {
+
+    protected abstract List<T> getAll(BenchmarkFixture fixture);
+
+    protected abstract ID getId(T t);
+
+    protected List<T> getAll() {
+        return getAll(BenchmarkFixture.get());
+    }
+
+    protected List<T> filter(Predicate<T> predicate) {
+        return getAll().stream().filter(predicate).collect(Collectors.toList());
+    }
+
+    protected T findFirst(Predicate<T> predicate) {
+        return getAll().stream().filter(predicate).findFirst().orElse(null);
+    }
+
+    @Override
+    public T findById(ID id) {
+        return findFirst(t -> Objects.equals(getId(t), id));
+    }
+
+    @Override
+    public List<T> find(String queryString) {
+        throw new UnsupportedOperationException("HQL is not supported by the fixture DAO");
+    }
+
+    @Override
+    public List<T> find(String queryString, Object... values) {
+        throw new UnsupportedOperationException("HQL is not supported by the fixture DAO");
+    }
+
+    @Override
+    public List<T> findByParamValue(String param, Object value) {
+        throw new UnsupportedOperationException("HQL is not supported by the fixture DAO");
+    }
+
+    @Override
+    public List<T> findByNamedQuery(String queryName) {
+        return findByNamedQuery(queryName, new Object[0]);
+    }
+
+    @Override
+    public List<T> findByNamedQuery(String queryName, Object value) {
+        return findByNamedQuery(queryName, new Object[]{value});
+    }
+
+    @Override
+    public List<T> findByNamedQuery(String queryName, Object... values) {
+        throw new UnsupportedOperationException("The named query " + queryName + " is not supported by the fixture DAO");
+    }
+
+    @Override
+    public List<T> findByNamedQueryAndNamedParam(String queryName, String[] params, List[] values) {
+        throw new UnsupportedOperationException("The named query " + queryName + " is not supported by the fixture DAO");
+    }
+
+    @Override
+    public <C> List<C> findByNamedQueryOfAnyType(String queryName, Object... values) {
+        throw new UnsupportedOperationException("The named query " + queryName + " is not supported by the fixture DAO");
+    }
+
+    @Override
+    public void save(T t) {
+        throw new UnsupportedOperationException("The fixture DAO is read only");
+    }
+
+    @Override
+    public void update(T t) {
+        throw new UnsupportedOperationException("The fixture DAO is read only");
+    }
+
+    @Override
+    public void saveOrUpdate(T t) {
+        throw new UnsupportedOperationException("The fixture DAO is read only");
+    }
+
+    @Override
+    public List<T> findAll() {
+        return new ArrayList<>(getAll());
+    }
+
+    @Override
+    public int countAll() {
+        return getAll().size();
+    }
+
+    @Override
+    public void delete(T t) {
+        throw new UnsupportedOperationException("The fixture DAO is read only");
+    }
+
+    @Override
+    public void deleteAll(List<T> ts) {
+        throw new UnsupportedOperationException("The fixture DAO is read only");
+    }
+
+    @Override
+    public void setCacheQueries(boolean cacheQueries) {
+    }
+}
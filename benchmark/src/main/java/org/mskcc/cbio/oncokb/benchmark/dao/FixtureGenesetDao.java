@@ -0,0 +1,32 @@
+package org.mskcc.cbio.oncokb.benchmark.dao;
+
+import org.mskcc.cbio.oncokb.benchmark.BenchmarkFixture;
+import org.mskcc.cbio.oncokb.dao.GenesetDao;
+import org.mskcc.cbio.oncokb.model.Geneset;
+
+import java.util.List;
+
+public class FixtureGenesetDao extends FixtureGenericDao<Geneset, Integer> implements GenesetDao {
+    @Override
+    protected List<Geneset> getAll(BenchmarkFixture fixture) {
+        return fixture.getGenesets();
+    }
+
+    @Override
+    protected Integer getId(Geneset geneset) {
+        return geneset.getId();
+    }
+
+    @Override
+    public Geneset findByUuid(String uuid) {
+        return findFirst(geneset -> uuid.equals(geneset.getUuid()));
+    }
+
+    @Override
+    public List<Geneset> findByNamedQuery(String queryName, Object... values) {
+        if ("findGenesetByName".equals(queryName)) {
+            return filter(geneset -> geneset.getName().equals(values[0]));
+        }
+        return super.findByNamedQuery(queryName, values);
+    }
+}
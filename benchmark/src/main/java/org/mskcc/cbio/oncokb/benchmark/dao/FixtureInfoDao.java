@@ -0,0 +1,25 @@
+package org.mskcc.cbio.oncokb.benchmark.dao;
+
+import org.mskcc.cbio.oncokb.benchmark.BenchmarkFixture;
+import org.mskcc.cbio.oncokb.dao.InfoDao;
+import org.mskcc.cbio.oncokb.model.Info;
+
+import java.util.Collections;
+import java.util.List;
+
+public class FixtureInfoDao extends FixtureGenericDao<Info, Integer> implements InfoDao {
+    @Override
+    protected List<Info> getAll(BenchmarkFixture fixture) {
+        return fixture.getInfo() == null ? Collections.emptyList() : Collections.singletonList(fixture.getInfo());
+    }
+
+    @Override
+    protected Integer getId(Info info) {
+        return info.getId();
+    }
+
+    @Override
+    public Info get() {
+        return BenchmarkFixture.get().getInfo();
+    }
+}
@@ -0,0 +1,41 @@
+package org.mskcc.cbio.oncokb.benchmark.dao;
+
+import org.mskcc.cbio.oncokb.apiModels.CancerTypeCount;
+import org.mskcc.cbio.oncokb.benchmark.BenchmarkFixture;
+import org.mskcc.cbio.oncokb.dao.PortalAlterationDao;
+import org.mskcc.cbio.oncokb.model.Gene;
+import org.mskcc.cbio.oncokb.model.PortalAlteration;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The portal alterations are not part of the annotation path, the fixture does not include them.
+ */
+public class FixturePortalAlterationDao extends FixtureGenericDao<PortalAlteration, Integer> implements PortalAlterationDao {
+    @Override
+    protected List<PortalAlteration> getAll(BenchmarkFixture fixture) {
+        return Collections.emptyList();
+    }
+
+    @Override
+    protected Integer getId(PortalAlteration portalAlteration) {
+        return portalAlteration.getId();
+    }
+
+    @Override
+    public List<CancerTypeCount> findPortalAlterationCountByGene(Gene gene) {
+        return new ArrayList<>();
+    }
+
+    @Override
+    public List<CancerTypeCount> findPortalAlterationCount() {
+        return new ArrayList<>();
+    }
+
+    @Override
+    public List<PortalAlteration> findMutationMapperData(Gene gene) {
+        return new ArrayList<>();
+    }
+}
@@ -0,0 +1,19 @@
+package org.mskcc.cbio.oncokb.benchmark.dao;
+
+import org.mskcc.cbio.oncokb.benchmark.BenchmarkFixture;
+import org.mskcc.cbio.oncokb.dao.TreatmentDao;
+import org.mskcc.cbio.oncokb.model.Treatment;
+
+import java.util.List;
+
+public class FixtureTreatmentDao extends FixtureGenericDao<Treatment, Integer> implements TreatmentDao {
+    @Override
+    protected List<Treatment> getAll(BenchmarkFixture fixture) {
+        return fixture.getTreatments();
+    }
+
+    @Override
+    protected Integer getId(Treatment treatment) {
+        return treatment.getId();
+    }
+}
@@ -0,0 +1,24 @@
+package org.mskcc.cbio.oncokb.benchmark.dao;
+
+import org.mskcc.cbio.oncokb.benchmark.BenchmarkFixture;
+import org.mskcc.cbio.oncokb.dao.TumorTypeDao;
+import org.mskcc.cbio.oncokb.model.TumorType;
+
+import java.util.List;
+
+public class FixtureTumorTypeDao extends FixtureGenericDao<TumorType, Integer> implements TumorTypeDao {
+    @Override
+    protected List<TumorType> getAll(BenchmarkFixture fixture) {
+        return fixture.getTumorTypes();
+    }
+
+    @Override
+    protected Integer getId(TumorType tumorType) {
+        return tumorType.getId();
+    }
+
+    @Override
+    public TumorType findTumorTypeByCode(String code) {
+        return findFirst(tumorType -> code.equals(tumorType.getCode()));
+    }
+}
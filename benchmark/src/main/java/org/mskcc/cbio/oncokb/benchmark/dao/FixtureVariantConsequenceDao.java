@@ -0,0 +1,24 @@
+package org.mskcc.cbio.oncokb.benchmark.dao;
+
+import org.mskcc.cbio.oncokb.benchmark.BenchmarkFixture;
+import org.mskcc.cbio.oncokb.dao.VariantConsequenceDao;
+import org.mskcc.cbio.oncokb.model.VariantConsequence;
+
+import java.util.List;
+
+public class FixtureVariantConsequenceDao extends FixtureGenericDao<VariantConsequence, Integer> implements VariantConsequenceDao {
+    @Override
+    protected List<VariantConsequence> getAll(BenchmarkFixture fixture) {
+        return fixture.getVariantConsequences();
+    }
+
+    @Override
+    protected Integer getId(VariantConsequence variantConsequence) {
+        throw new UnsupportedOperationException("Variant consequences are identified by their term");
+    }
+
+    @Override
+    public VariantConsequence findVariantConsequenceByTerm(String term) {
+        return findFirst(consequence -> consequence.getTerm().equals(term));
+    }
+}
@@ -1,6 +1,5 @@
 package org.mskcc.cbio.oncokb.bo.impl;
 
-import com.google.common.collect.Sets;
 import org.apache.commons.lang3.StringUtils;
 import org.mskcc.cbio.oncokb.bo.EvidenceBo;
 import org.mskcc.cbio.oncokb.dao.EvidenceDao;
@@ -9,6 +8,7 @@ import org.mskcc.cbio.oncokb.model.clinicalTrialsMathcing.Tumor;
 import org.mskcc.cbio.oncokb.util.CacheUtils;
 import org.mskcc.cbio.oncokb.model.TumorType;
 import org.mskcc.cbio.oncokb.util.EvidenceUtils;
+import org.mskcc.cbio.oncokb.util.TumorTypeIdSet;
 import org.mskcc.cbio.oncokb.util.TumorTypeUtils;
 
 import java.util.*;
@@ -21,25 +21,17 @@ public class EvidenceBoImpl extends GenericBoImpl<Evidence, EvidenceDao> impleme
 
     @Override
     public List<Evidence> findEvidencesByAlteration(Collection<Alteration> alterations) {
-        Set<Evidence> set = new LinkedHashSet<Evidence>();
-        Set<Alteration> alterationSet = new HashSet<>(alterations);
-        List<Evidence> evidences = EvidenceUtils.getAllEvidencesByAlterationsGenes(alterations);
-        for (int i = 0; i < evidences.size(); i++) {
-            Evidence evidence = evidences.get(i);
-            if (!Collections.disjoint(evidence.getAlterations(), alterationSet)) {
-                set.add(evidence);
-            }
-        }
+        Set<Evidence> set = new LinkedHashSet<Evidence>(EvidenceUtils.getAllEvidencesByAlterations(alterations));
         return new ArrayList<>(set);
     }
 
     @Override
     public List<Evidence> findEvidencesByAlteration(Collection<Alteration> alterations, Collection<EvidenceType> evidenceTypes) {
         Set<Evidence> set = new LinkedHashSet<>();
-        List<Evidence> evidences = EvidenceUtils.getAllEvidencesByAlterationsGenes(alterations);
+        List<Evidence> evidences = EvidenceUtils.getAllEvidencesByAlterations(alterations);
         for (int i = 0; i < evidences.size(); i++) {
             Evidence evidence = evidences.get(i);
-            if (evidenceTypes.contains(evidence.getEvidenceType()) && !Collections.disjoint(evidence.getAlterations(), alterations)) {
+            if (evidenceTypes.contains(evidence.getEvidenceType())) {
                 set.add(evidence);
             }
         }
@@ -52,11 +44,10 @@ public class EvidenceBoImpl extends GenericBoImpl<Evidence, EvidenceDao> impleme
             return findEvidencesByAlteration(alterations, evidenceTypes);
         }
         Set<Evidence> set = new LinkedHashSet<>();
-        List<Evidence> evidences = EvidenceUtils.getAllEvidencesByAlterationsGenes(alterations);
+        List<Evidence> evidences = EvidenceUtils.getAllEvidencesByAlterations(alterations);
         for (int i = 0; i < evidences.size(); i++) {
             Evidence evidence = evidences.get(i);
-            if (Sets.intersection(evidence.getAlterations(), new HashSet(alterations)).size() > 0
-                && evidenceTypes.contains(evidence.getEvidenceType())
+            if (evidenceTypes.contains(evidence.getEvidenceType())
                 && levelOfEvidences.contains(evidence.getLevelOfEvidence())) {
                 set.add(evidence);
             }
@@ -75,8 +66,9 @@ public class EvidenceBoImpl extends GenericBoImpl<Evidence, EvidenceDao> impleme
 
         Set<Evidence> alterationEvidences = new HashSet<>(findEvidencesByAlteration(alterations, evidenceTypes));
         List<Evidence> evidences = new ArrayList<>();
+        TumorTypeIdSet queryTumorTypes = TumorTypeIdSet.of(matchedTumorType == null ? tumorTypes : Collections.singleton(matchedTumorType));
         for (Evidence evidence : alterationEvidences) {
-            boolean hasJointOnSubtype = !Collections.disjoint(TumorTypeUtils.findEvidenceRelevantCancerTypes(evidence), matchedTumorType == null ? tumorTypes : Collections.singleton(matchedTumorType));
+            boolean hasJointOnSubtype = TumorTypeUtils.isEvidenceRelevantToAny(evidence, queryTumorTypes);
             if (hasJointOnSubtype) {
                 evidences.add(evidence);
             }
@@ -151,24 +143,16 @@ public class EvidenceBoImpl extends GenericBoImpl<Evidence, EvidenceDao> impleme
     @Override
     public List<Evidence> findEvidencesByGene(Collection<Gene> genes, Collection<EvidenceType> evidenceTypes, Collection<TumorType> tumorTypes) {
         Set<Evidence> set = new LinkedHashSet<Evidence>();
+        TumorTypeIdSet queryTumorTypes = TumorTypeIdSet.of(tumorTypes);
         for (Gene gene : genes) {
-            set.addAll(CacheUtils.getEvidences(gene).stream().filter(evidence -> evidenceTypes.contains(evidence.getEvidenceType()) && !Collections.disjoint(TumorTypeUtils.findEvidenceRelevantCancerTypes(evidence), tumorTypes)).collect(Collectors.toList()));
+            set.addAll(CacheUtils.getEvidences(gene).stream().filter(evidence -> evidenceTypes.contains(evidence.getEvidenceType()) && TumorTypeUtils.isEvidenceRelevantToAny(evidence, queryTumorTypes)).collect(Collectors.toList()));
         }
         return new ArrayList<>(set);
     }
 
     @Override
     public List<Evidence> findEvidencesByIds(List<Integer> ids) {
-        List<Evidence> evidences = new ArrayList<>();
-        for (Evidence evidence : CacheUtils.getAllEvidences()) {
-            if (ids.contains(evidence.getId())) {
-                evidences.add(evidence);
-            }
-            if (evidences.size() == ids.size()) {
-                break;
-            }
-        }
-        return evidences;
+        return new ArrayList<>(CacheUtils.getEvidencesByIds(new HashSet<>(ids)));
     }
 
     @Override
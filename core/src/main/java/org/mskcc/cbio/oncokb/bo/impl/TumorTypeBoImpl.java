@@ -44,7 +44,7 @@ public class TumorTypeBoImpl extends GenericBoImpl<TumorType, TumorTypeDao> impl
     @Override
     public TumorType getBySpecialTumor(SpecialTumorType specialTumorType) {
         if (specialTumorType == null) return null;
-        return getAllSpecialTumorOncoTreeTypes().stream().filter(cancerType -> cancerType.getMainType().equals(specialTumorType.getTumorType())).findAny().orElse(null);
+        return CacheUtils.getSpecialCancerType(specialTumorType);
     }
 
     @Override
@@ -57,7 +57,7 @@ public class TumorTypeBoImpl extends GenericBoImpl<TumorType, TumorTypeDao> impl
     @Override
     public List<TumorType> getAllSubtypesByMainType(String mainType) {
         if (StringUtils.isEmpty(mainType)) return new ArrayList<>();
-        return getAllSubtypes().stream().filter(cancerType -> mainType.equals(cancerType.getMainType())).collect(Collectors.toList());
+        return CacheUtils.getAllSubtypesByMainType(mainType);
     }
 
     @Override
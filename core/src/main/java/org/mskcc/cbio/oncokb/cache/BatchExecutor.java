@@ -0,0 +1,98 @@
+package org.mskcc.cbio.oncokb.cache;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+/**
+ * Processes the items of a batch in parallel on a shared bounded pool, the results keep the order of the items.
+ * <p>
+ * A batch never uses more than maxConcurrencyPerBatch threads including the caller, so one large batch cannot take
+ * the whole pool. The caller always works on its own batch, and it runs the work itself when the pool queue is full,
+ * which slows the callers down instead of queueing more work.
+ */
+public class BatchExecutor {
+    private final ThreadPoolExecutor executor;
+    private final int maxConcurrencyPerBatch;
+
+    public BatchExecutor(int poolSize, int maxConcurrencyPerBatch) {
+        this("oncokb-batch", poolSize, maxConcurrencyPerBatch);
+    }
+
+    public BatchExecutor(String threadNamePrefix, int poolSize, int maxConcurrencyPerBatch) {
+        int threads = Math.max(1, poolSize);
+        this.maxConcurrencyPerBatch = Math.max(1, maxConcurrencyPerBatch);
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(
+            threads,
+            threads,
+            60L,
+            TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(threads * 4),
+            runnable -> {
+                Thread thread = new Thread(runnable, threadNamePrefix + "-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            },
+            new ThreadPoolExecutor.CallerRunsPolicy()
+        );
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    public <T, R> List<R> map(List<T> items, Function<T, R> function) {
+        int workers = Math.min(maxConcurrencyPerBatch, items.size());
+        if (workers <= 1) {
+            List<R> result = new ArrayList<>();
+            for (T item : items) {
+                result.add(function.apply(item));
+            }
+            return result;
+        }
+
+        Object[] results = new Object[items.size()];
+        AtomicInteger nextIndex = new AtomicInteger();
+        AtomicReference<RuntimeException> failure = new AtomicReference<>();
+        Runnable worker = () -> {
+            int index;
+            while (failure.get() == null && (index = nextIndex.getAndIncrement()) < items.size()) {
+                try {
+                    results[index] = function.apply(items.get(index));
+                } catch (RuntimeException e) {
+                    failure.compareAndSet(null, e);
+                }
+            }
+        };
+
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 1; i < workers; i++) {
+            futures.add(executor.submit(worker));
+        }
+        worker.run();
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (InterruptedException e) {
+                futures.forEach(f -> f.cancel(true));
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while processing the batch", e);
+            } catch (ExecutionException e) {
+                failure.compareAndSet(null, new IllegalStateException(e.getCause()));
+            }
+        }
+        if (failure.get() != null) {
+            throw failure.get();
+        }
+
+        @SuppressWarnings("unchecked")
+        List<R> result = (List<R>) Arrays.asList(results);
+        return result;
+    }
+
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
@@ -6,7 +6,6 @@ import org.mskcc.cbio.oncokb.util.PropertiesUtils;
 import org.mskcc.oncokb.meta.enumeration.RedisType;
 import org.redisson.Redisson;
 import org.redisson.api.RedissonClient;
-import org.redisson.codec.SnappyCodecV2;
 import org.redisson.config.BaseConfig;
 import org.redisson.config.BaseMasterSlaveServersConfig;
 import org.redisson.config.ClusterServersConfig;
@@ -20,12 +19,23 @@ import org.springframework.cache.interceptor.CacheResolver;
 import org.springframework.cache.interceptor.KeyGenerator;
 import org.springframework.context.annotation.*;
 
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
 @Configuration
 @EnableCaching
 @Conditional(EnableCacheCondition.class)
 public class CacheConfiguration {
     
     private final int DEFAULT_TTL = 60;
+    // in seconds
+    private final long DEFAULT_NEAR_CACHE_TTL = 300;
+    // The static data which is requested the most, the callers do not modify the values
+    private final Set<String> DEFAULT_NEAR_CACHE_METHODS = new HashSet<>(Arrays.asList(
+        "getOncoKBInfo", "getCancerGenes", "getCancerGenesTxt", "getCuratedGenes", "getCuratedGenesTxt"
+    ));
 
     @Bean
     public RedissonClient redissonClient()
@@ -46,10 +56,14 @@ public class CacheConfiguration {
                 .setAddress(redisAddress)
                 .setConnectionMinimumIdleSize(1)
                 .setConnectionPoolSize(2)
-                .setSubscriptionConnectionMinimumIdleSize(0)
-                .setSubscriptionConnectionPoolSize(0)
                 .setDnsMonitoringInterval(-1)
                 .setPassword(redisPassword);
+            // The load lock waits on a redis subscription, keep the default subscription pool when it is enabled
+            if (!useSubscription()) {
+                singleServerConfig
+                    .setSubscriptionConnectionMinimumIdleSize(0)
+                    .setSubscriptionConnectionPoolSize(0);
+            }
             setRedisClientName(singleServerConfig);
         } else if (redisType.equals(RedisType.SENTINEL.getType())) {
             SentinelServersConfig sentinelConfig = config
@@ -77,15 +91,17 @@ public class CacheConfiguration {
             );
         }
 
-        // Instead of using GZip to compress data manually, we can configure Redisson to use
-        // snappy codec. Redisson will serialize and compress our cache values.
-        config.setCodec(new SnappyCodecV2());
+        // Instead of using GZip to compress data manually, we configure Redisson with a codec
+        // which serializes and compresses our cache values. The cache stores the values as they are.
+        config.setCodec(CacheValueCodec.getByName(PropertiesUtils.getProperties("redis.codec")).createCodec());
         return Redisson.create(config);
     }
 
     private void setRedisConnectionPoolSize(BaseMasterSlaveServersConfig baseMasterSlaveServersConfig, String redisSlaveConnectionMinimumIdleSize, String redisSlaveConnectionPoolSize, String redisMasterConnectionMinimumIdleSize, String redisMasterConnectionPoolSize) {
-        baseMasterSlaveServersConfig.setSubscriptionConnectionMinimumIdleSize(0);
-        baseMasterSlaveServersConfig.setSubscriptionConnectionPoolSize(0);
+        if (!useSubscription()) {
+            baseMasterSlaveServersConfig.setSubscriptionConnectionMinimumIdleSize(0);
+            baseMasterSlaveServersConfig.setSubscriptionConnectionPoolSize(0);
+        }
 
         if (StringUtils.isNotEmpty(redisSlaveConnectionMinimumIdleSize)) {
             baseMasterSlaveServersConfig.setSlaveConnectionMinimumIdleSize(Integer.parseInt(redisSlaveConnectionMinimumIdleSize));
@@ -101,6 +117,32 @@ public class CacheConfiguration {
         }
     }
 
+    private long getLoadLockTimeoutMillis() {
+        String redisLoadLockTimeout = PropertiesUtils.getProperties("redis.loadLockTimeout");
+        if (StringUtils.isNotEmpty(redisLoadLockTimeout)) {
+            return Long.parseLong(redisLoadLockTimeout);
+        }
+        return CustomRedisCache.NO_LOAD_LOCK;
+    }
+
+    private int getNearCacheMaxSize() {
+        String nearCacheMaxSize = PropertiesUtils.getProperties("redis.nearCache.maxSize");
+        if (StringUtils.isNotEmpty(nearCacheMaxSize)) {
+            return Integer.parseInt(nearCacheMaxSize);
+        }
+        return 0;
+    }
+
+    // The near caches of the instances behind sentinel or cluster are invalidated through redis pub/sub
+    private boolean publishNearCacheInvalidation() {
+        String redisType = PropertiesUtils.getProperties("redis.type");
+        return getNearCacheMaxSize() > 0 && !RedisType.SINGLE.getType().equals(redisType);
+    }
+
+    private boolean useSubscription() {
+        return getLoadLockTimeoutMillis() > CustomRedisCache.NO_LOAD_LOCK || publishNearCacheInvalidation();
+    }
+
     private void setRedisClientName(BaseConfig baseConfig) {
         String appName = PropertiesUtils.getProperties("app.name");
         if (StringUtils.isNotEmpty(appName)) {
@@ -122,7 +164,18 @@ public class CacheConfiguration {
         CacheErrorHandler cacheErrorHandler
     ) {
         Integer redisExpiration = Integer.parseInt(PropertiesUtils.getProperties("redis.expiration"));
-        CustomRedisCacheManager cm = new CustomRedisCacheManager(redissonClient, redisExpiration == null ? DEFAULT_TTL : redisExpiration, cacheNameResolver, cacheErrorHandler);
+        CustomRedisCacheManager cm = new CustomRedisCacheManager(redissonClient, redisExpiration == null ? DEFAULT_TTL : redisExpiration, getLoadLockTimeoutMillis(), cacheNameResolver, cacheErrorHandler);
+        if (getNearCacheMaxSize() > 0) {
+            String nearCacheTtl = PropertiesUtils.getProperties("redis.nearCache.ttl");
+            String nearCacheMethods = PropertiesUtils.getProperties("redis.nearCache.methods");
+            Set<String> methods = StringUtils.isEmpty(nearCacheMethods) ? DEFAULT_NEAR_CACHE_METHODS : new HashSet<>(Arrays.asList(StringUtils.split(nearCacheMethods, ", ")));
+            cm.enableNearCache(
+                methods,
+                getNearCacheMaxSize(),
+                TimeUnit.SECONDS.toMillis(StringUtils.isEmpty(nearCacheTtl) ? DEFAULT_NEAR_CACHE_TTL : Long.parseLong(nearCacheTtl)),
+                publishNearCacheInvalidation()
+            );
+        }
         cm.clearAll();
         return cm;
     }
@@ -7,6 +7,7 @@ import org.cbioportal.genome_nexus.util.exception.TypeNotSupportedException;
 import org.genome_nexus.client.GenomicLocation;
 import org.mskcc.cbio.oncokb.apiModels.CuratedGene;
 import org.mskcc.cbio.oncokb.bo.OncokbTranscriptService;
+import org.mskcc.cbio.oncokb.cache.keygenerator.ConcatGenerator;
 import org.mskcc.cbio.oncokb.genomenexus.GNVariantAnnotationType;
 import org.mskcc.cbio.oncokb.model.*;
 import org.mskcc.cbio.oncokb.model.genomeNexusPreAnnotations.GenomeNexusAnnotatedVariantInfo;
@@ -18,14 +19,15 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.cache.Cache;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.interceptor.KeyGenerator;
 import org.springframework.stereotype.Component;
 
 import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 import static org.mskcc.cbio.oncokb.Constants.DEFAULT_REFERENCE_GENOME;
-import static org.mskcc.cbio.oncokb.util.MainUtils.rangesIntersect;
 import static org.mskcc.cbio.oncokb.cache.Constants.REDIS_KEY_SEPARATOR;
 
 @Component
@@ -34,24 +36,30 @@ public class CacheFetcher {
         put(ReferenceGenome.GRCh37, new HashMap<>());
         put(ReferenceGenome.GRCh38, new HashMap<>());
     }};
+    private static Map<ReferenceGenome, ChromosomeIntervalIndex> canonicalEnsemblGeneIndexByReferenceGenome = new ConcurrentHashMap<>();
+
+    // add some buffer on determine which genomic change should be annotated. We use the gene range from oncokb-transcript but that does not include gene regulatory sequence. Before having proper range, we use a buffer range instead.
+    private static final int GENE_RANGE_BUFFER = 10000;
 
     OncokbTranscriptService oncokbTranscriptService = new OncokbTranscriptService();
     NotationConverter notationConverter = new NotationConverter();
+    KeyGenerator concatKeyGenerator = new ConcatGenerator();
+    BatchExecutor batchExecutor = createBatchExecutor();
 
     @Autowired(required = false)
     CacheManager cacheManager;
 
-    @Cacheable(cacheResolver = "generalCacheResolver", key = "'all'")
+    @Cacheable(cacheResolver = "generalCacheResolver", key = "'all'", sync = true)
     public OncoKBInfo getOncoKBInfo() {
         return new OncoKBInfo();
     }
 
-    @Cacheable(cacheResolver = "generalCacheResolver", key = "'all'")
+    @Cacheable(cacheResolver = "generalCacheResolver", key = "'all'", sync = true)
     public List<CancerGene> getCancerGenes() throws ApiException, IOException {
         return getCancerGeneList();
     }
 
-    @Cacheable(cacheResolver = "generalCacheResolver", key = "'all'")
+    @Cacheable(cacheResolver = "generalCacheResolver", key = "'all'", sync = true)
     public String getCancerGenesTxt() throws ApiException, IOException {
 
         String separator = "\t";
@@ -103,7 +111,7 @@ public class CacheFetcher {
         return sb.toString();
     }
 
-    @Cacheable(cacheResolver = "generalCacheResolver", key = "'all'")
+    @Cacheable(cacheResolver = "generalCacheResolver", key = "'all'", sync = true)
     public Set<org.oncokb.oncokb_transcript.client.Gene> getAllTranscriptGenes() throws ApiException {
         return oncokbTranscriptService.findTranscriptGenesBySymbols(CacheUtils.getAllGenes().stream().filter(gene -> gene.getEntrezGeneId() > 0).map(gene -> gene.getEntrezGeneId().toString()).collect(Collectors.toList()));
     }
@@ -115,6 +123,7 @@ public class CacheFetcher {
             return chromosomeEnsemblGenesMap;
         }
         // Reach out to transcript service
+        chromosomeEnsemblGenesMap = new HashMap<>();
         Set<org.oncokb.oncokb_transcript.client.Gene> allTranscriptGenes = getAllTranscriptGenes();
         for (org.oncokb.oncokb_transcript.client.Gene gene : allTranscriptGenes) {
             for (EnsemblGene ensemblGene : gene.getEnsemblGenes()) {
@@ -126,10 +135,23 @@ public class CacheFetcher {
                 chromosomeEnsemblGenesMap.get(chromosome).add(ensemblGene);
             }
         }
+        // Build the index before publishing the genes, so the index is available whenever the genes are
+        canonicalEnsemblGeneIndexByReferenceGenome.put(referenceGenome, ChromosomeIntervalIndex.build(chromosomeEnsemblGenesMap, GENE_RANGE_BUFFER));
         canonicalEnsemblGenesByChromosomeByReferenceGenome.put(referenceGenome, chromosomeEnsemblGenesMap);
         return chromosomeEnsemblGenesMap;
     }
 
+    /**
+     * @return null when the transcript info is not available
+     */
+    private ChromosomeIntervalIndex getCanonicalEnsemblGeneIndex(ReferenceGenome referenceGenome) throws ApiException {
+        Map<String, Set<EnsemblGene>> chromosomeCanonicalEnsemblGeneMap = getCanonicalEnsemblGenesByChromosome(referenceGenome);
+        if (chromosomeCanonicalEnsemblGeneMap == null || chromosomeCanonicalEnsemblGeneMap.isEmpty()) {
+            return null;
+        }
+        return canonicalEnsemblGeneIndexByReferenceGenome.get(referenceGenome);
+    }
+
     private List<CancerGene> getCancerGeneList() throws ApiException, IOException {
         List<CancerGene> cancerGenes = CancerGeneUtils.getCancerGeneList();
         List<String> hugos = cancerGenes.stream().map(CancerGene::getHugoSymbol).collect(Collectors.toList());
@@ -151,7 +173,7 @@ public class CacheFetcher {
         return cancerGenes;
     }
 
-    @Cacheable(cacheResolver = "generalCacheResolver")
+    @Cacheable(cacheResolver = "generalCacheResolver", sync = true)
     public List<CuratedGene> getCuratedGenes(boolean includeEvidence) {
         List<CuratedGene> genes = new ArrayList<>();
         for (Gene gene : CacheUtils.getAllGenes()) {
@@ -188,7 +210,7 @@ public class CacheFetcher {
         return genes;
     }
 
-    @Cacheable(cacheResolver = "generalCacheResolver")
+    @Cacheable(cacheResolver = "generalCacheResolver", sync = true)
     public String getCuratedGenesTxt(boolean includeEvidence) {
         String separator = "\t";
         String newLine = "\n";
@@ -238,14 +260,15 @@ public class CacheFetcher {
         return val ? "Yes" : "No";
     }
 
-    @Cacheable(cacheResolver = "generalCacheResolver")
+    @Cacheable(cacheResolver = "generalCacheResolver", sync = true)
     public Gene findGeneBySymbol(String symbol) throws ApiException {
         return this.oncokbTranscriptService.findGeneBySymbol(symbol);
     }
 
     @Cacheable(
         cacheResolver = "generalCacheResolver",
-        keyGenerator = "concatKeyGenerator"
+        keyGenerator = "concatKeyGenerator",
+        sync = true
     )
     public IndicatorQueryResp processQuery(ReferenceGenome referenceGenome,
                                            Integer entrezGeneId,
@@ -272,6 +295,62 @@ public class CacheFetcher {
         );
     }
 
+    /**
+     * Annotate a batch of queries. The cached annotations are looked up in one round trip, only the misses are
+     * processed and they are written back in one pipeline. The responses may be the instances kept in the near cache,
+     * and duplicated queries get the same instance, copy a response before modifying it.
+     */
+    public List<IndicatorQueryResp> processQueries(List<ProcessQueryParameters> queries) {
+        Cache cache = cacheManager == null ? null : cacheManager.getCache(CacheCategory.GENERAL.getKey() + REDIS_KEY_SEPARATOR + "processQuery");
+        List<Object> keys = new ArrayList<>();
+        for (ProcessQueryParameters query : queries) {
+            keys.add(concatKeyGenerator.generate(this, null, query.toArguments()));
+        }
+
+        Map<Object, Object> cached = cache instanceof CustomRedisCache ? ((CustomRedisCache) cache).getAll(keys) : new HashMap<>();
+
+        // Each distinct query missing in the cache is processed once, in parallel
+        Map<Object, ProcessQueryParameters> missingQueries = new LinkedHashMap<>();
+        for (int i = 0; i < queries.size(); i++) {
+            if (!cached.containsKey(keys.get(i))) {
+                missingQueries.putIfAbsent(keys.get(i), queries.get(i));
+            }
+        }
+        List<IndicatorQueryResp> processedResps = batchExecutor.map(new ArrayList<>(missingQueries.values()), query -> processQuery(
+            query.getReferenceGenome(), query.getEntrezGeneId(), query.getHugoSymbol(), query.getAlteration(),
+            query.getAlterationType(), query.getTumorType(), query.getConsequence(), query.getProteinStart(),
+            query.getProteinEnd(), query.getSvType(), query.getHgvs(), query.getLevels(),
+            query.getHighestLevelOnly(), query.getEvidenceTypes(), query.getGeneQueryOnly()
+        ));
+        Map<Object, Object> processed = new HashMap<>();
+        int index = 0;
+        for (Object key : missingQueries.keySet()) {
+            processed.put(key, processedResps.get(index++));
+        }
+
+        List<IndicatorQueryResp> result = new ArrayList<>();
+        for (Object key : keys) {
+            result.add((IndicatorQueryResp) (cached.containsKey(key) ? cached.get(key) : processed.get(key)));
+        }
+
+        if (cache instanceof CustomRedisCache) {
+            ((CustomRedisCache) cache).putAll(processed);
+        } else if (cache != null) {
+            processed.forEach(cache::put);
+        }
+        return result;
+    }
+
+    private static BatchExecutor createBatchExecutor() {
+        String threads = PropertiesUtils.getProperties("annotation.batch.threads");
+        String maxConcurrency = PropertiesUtils.getProperties("annotation.batch.maxConcurrencyPerRequest");
+        int poolSize = StringUtils.isEmpty(threads) ? Runtime.getRuntime().availableProcessors() : Integer.parseInt(threads);
+        return new BatchExecutor(
+            poolSize,
+            StringUtils.isEmpty(maxConcurrency) ? Math.max(1, poolSize / 2) : Integer.parseInt(maxConcurrency)
+        );
+    }
+
     public void cacheAlterationFromGenomeNexus(GenomeNexusAnnotatedVariantInfo gnAnnotatedVariantInfo) throws IllegalStateException {
         if (cacheManager == null) {
             throw new IllegalStateException("Cannot cache pre-annotated GN variants. Change property redis.enable to True.");
@@ -315,7 +394,8 @@ public class CacheFetcher {
     }
 
     @Cacheable(cacheResolver = "generalCacheResolver",
-        keyGenerator = "concatKeyGenerator")
+        keyGenerator = "concatKeyGenerator",
+        sync = true)
     public List<TranscriptDTO> getAllGeneEnsemblTranscript(ReferenceGenome referenceGenome) throws ApiException {
         List<String> ids = CacheUtils.getAllGenes().stream().map(gene -> Optional.ofNullable(referenceGenome.equals(ReferenceGenome.GRCh37.name()) ? gene.getGrch37Isoform() : gene.getGrch38Isoform()).orElse("")).filter(id -> StringUtils.isNotEmpty(id)).collect(Collectors.toList());
         return oncokbTranscriptService.findEnsemblTranscriptsByIds(ids, referenceGenome);
@@ -325,15 +405,12 @@ public class CacheFetcher {
         if (genomicLocation == null) {
             return false;
         }
-        Map<String, Set<EnsemblGene>> chromosomeCanonicalEnsemblGeneMap = getCanonicalEnsemblGenesByChromosome(referenceGenome);
+        ChromosomeIntervalIndex canonicalEnsemblGeneIndex = getCanonicalEnsemblGeneIndex(referenceGenome);
         // when the transcript info is not available, we should always annotate the genomic location
-        if (chromosomeCanonicalEnsemblGeneMap == null || chromosomeCanonicalEnsemblGeneMap.isEmpty()) {
+        if (canonicalEnsemblGeneIndex == null) {
             return true;
         }
-        if (chromosomeCanonicalEnsemblGeneMap.containsKey(genomicLocation.getChromosome())){
-            return chromosomeCanonicalEnsemblGeneMap.get(genomicLocation.getChromosome()).stream().anyMatch(ensemblGene -> withinBuffer(ensemblGene, genomicLocation));
-        }
-        return false;
+        return canonicalEnsemblGeneIndex.intersects(genomicLocation.getChromosome(), genomicLocation.getStart(), genomicLocation.getEnd());
     }
 
     public boolean hgvsgShouldBeAnnotated(String hgvsg, ReferenceGenome referenceGenome) throws ApiException {
@@ -347,16 +424,16 @@ public class CacheFetcher {
         if (!AlterationUtils.isValidHgvsg(hgvsg)) {
             return false;
         }
-        Map<String, Set<EnsemblGene>> chromosomeCanonicalEnsemblGeneMap = getCanonicalEnsemblGenesByChromosome(referenceGenome);
+        ChromosomeIntervalIndex canonicalEnsemblGeneIndex = getCanonicalEnsemblGeneIndex(referenceGenome);
         // when the transcript info is not available, we should always annotate the genomic location
-        if (chromosomeCanonicalEnsemblGeneMap == null || chromosomeCanonicalEnsemblGeneMap.isEmpty()) {
+        if (canonicalEnsemblGeneIndex == null) {
             return true;
         }
         GenomicLocation gl = null;
         try {
             hgvsg = notationConverter.hgvsNormalizer(hgvsg);
             // We are only doing a partial HGVSg -> Genomic Location conversion.
-            // The withinBuffer method only requires the chromosome and range, so we do
+            // The gene index only requires the chromosome and range, so we do
             // not need to parse the ref/var residues. This is slightly more performanant than using regex.
             gl = MainUtils.parseChromosomeAndRangeFromHGVSg(hgvsg);
             if (gl == null) {
@@ -370,17 +447,6 @@ public class CacheFetcher {
                 return false;
             }
         }
-        GenomicLocation finalGl = gl;
-
-        if (chromosomeCanonicalEnsemblGeneMap.containsKey(finalGl.getChromosome())) {
-            return chromosomeCanonicalEnsemblGeneMap.get(finalGl.getChromosome()).stream().anyMatch(ensemblGene -> withinBuffer(ensemblGene, finalGl));
-        }
-
-        return false;
-    }
-
-    private Boolean withinBuffer(EnsemblGene ensemblGene, GenomicLocation genomicLocation) {
-        int bpBuffer = 10000; // add some buffer on determine which genomic change should be annotated. We use the gene range from oncokb-transcript but that does not include gene regulatory sequence. Before having proper range, we use a buffer range instead.
-        return rangesIntersect(ensemblGene.getStart() > bpBuffer ? (ensemblGene.getStart() - bpBuffer) : 0, ensemblGene.getEnd() + bpBuffer, genomicLocation.getStart(), genomicLocation.getEnd());
+        return canonicalEnsemblGeneIndex.intersects(gl.getChromosome(), gl.getStart(), gl.getEnd());
     }
 }
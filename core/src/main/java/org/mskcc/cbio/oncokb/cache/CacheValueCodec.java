@@ -0,0 +1,58 @@
+package org.mskcc.cbio.oncokb.cache;
+
+import org.apache.commons.lang3.StringUtils;
+import org.redisson.client.codec.Codec;
+import org.redisson.codec.Kryo5Codec;
+import org.redisson.codec.SerializationCodec;
+import org.redisson.codec.SnappyCodecV2;
+
+/**
+ * The codecs which can be used to encode the cache values in Redis, configured through the property redis.codec.
+ * The values are encoded by the codec only, the cache itself stores the value as it is.
+ */
+public enum CacheValueCodec {
+    // Redisson default inner codec compressed by snappy, which is what we have been using
+    SNAPPY("snappy"),
+    // Java serialization compressed by snappy
+    JAVA_SNAPPY("java-snappy"),
+    // Kryo binary encoding compressed by snappy
+    KRYO_SNAPPY("kryo-snappy"),
+    // Kryo binary encoding without compression
+    KRYO("kryo");
+
+    private final String name;
+
+    CacheValueCodec(String name) {
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Codec createCodec() {
+        switch (this) {
+            case JAVA_SNAPPY:
+                return new SnappyCodecV2(new SerializationCodec());
+            case KRYO_SNAPPY:
+                return new SnappyCodecV2(new Kryo5Codec());
+            case KRYO:
+                return new Kryo5Codec();
+            case SNAPPY:
+            default:
+                return new SnappyCodecV2();
+        }
+    }
+
+    public static CacheValueCodec getByName(String name) {
+        if (StringUtils.isEmpty(name)) {
+            return SNAPPY;
+        }
+        for (CacheValueCodec codec : CacheValueCodec.values()) {
+            if (codec.name.equalsIgnoreCase(name.trim())) {
+                return codec;
+            }
+        }
+        throw new IllegalArgumentException("The redis codec " + name + " is not supported.");
+    }
+}
@@ -0,0 +1,92 @@
+package org.mskcc.cbio.oncokb.cache;
+
+import org.oncokb.oncokb_transcript.client.EnsemblGene;
+
+import java.util.*;
+
+/**
+ * Answers whether a genomic range falls within the buffered range of any gene on the chromosome.
+ * <p>
+ * The buffered gene ranges of each chromosome are merged into sorted disjoint intervals, so a lookup is a binary search
+ * for the last interval starting before the end of the range.
+ */
+final class ChromosomeIntervalIndex {
+    private final Map<String, Intervals> intervalsByChromosome;
+
+    private ChromosomeIntervalIndex(Map<String, Intervals> intervalsByChromosome) {
+        this.intervalsByChromosome = intervalsByChromosome;
+    }
+
+    static ChromosomeIntervalIndex build(Map<String, Set<EnsemblGene>> genesByChromosome, int bpBuffer) {
+        Map<String, Intervals> intervalsByChromosome = new HashMap<>();
+        for (Map.Entry<String, Set<EnsemblGene>> entry : genesByChromosome.entrySet()) {
+            List<long[]> ranges = new ArrayList<>();
+            for (EnsemblGene gene : entry.getValue()) {
+                long start = gene.getStart() == null ? Integer.MIN_VALUE : Math.max(0, (long) gene.getStart() - bpBuffer);
+                long end = gene.getEnd() == null ? Integer.MAX_VALUE : (long) gene.getEnd() + bpBuffer;
+                ranges.add(new long[]{start, end});
+            }
+            intervalsByChromosome.put(entry.getKey(), Intervals.merge(ranges));
+        }
+        return new ChromosomeIntervalIndex(intervalsByChromosome);
+    }
+
+    /**
+     * A null start or end is open ended, the same as {@link org.mskcc.cbio.oncokb.util.MainUtils#rangesIntersect}
+     */
+    boolean intersects(String chromosome, Integer start, Integer end) {
+        Intervals intervals = intervalsByChromosome.get(chromosome);
+        if (intervals == null) {
+            return false;
+        }
+        return intervals.intersects(start == null ? Integer.MIN_VALUE : start, end == null ? Integer.MAX_VALUE : end);
+    }
+
+    private static final class Intervals {
+        private final long[] starts;
+        private final long[] ends;
+
+        private Intervals(long[] starts, long[] ends) {
+            this.starts = starts;
+            this.ends = ends;
+        }
+
+        static Intervals merge(List<long[]> ranges) {
+            ranges.sort(Comparator.comparingLong(range -> range[0]));
+            List<long[]> merged = new ArrayList<>();
+            for (long[] range : ranges) {
+                long[] last = merged.isEmpty() ? null : merged.get(merged.size() - 1);
+                if (last != null && range[0] <= last[1]) {
+                    last[1] = Math.max(last[1], range[1]);
+                } else {
+                    merged.add(new long[]{range[0], range[1]});
+                }
+            }
+            long[] starts = new long[merged.size()];
+            long[] ends = new long[merged.size()];
+            for (int i = 0; i < merged.size(); i++) {
+                starts[i] = merged.get(i)[0];
+                ends[i] = merged.get(i)[1];
+            }
+            return new Intervals(starts, ends);
+        }
+
+        boolean intersects(long start, long end) {
+            // the last interval starting at or before the end of the range
+            int low = 0;
+            int high = starts.length - 1;
+            int candidate = -1;
+            while (low <= high) {
+                int middle = (low + high) >>> 1;
+                if (starts[middle] <= end) {
+                    candidate = middle;
+                    low = middle + 1;
+                } else {
+                    high = middle - 1;
+                }
+            }
+            // the intervals are disjoint and sorted, the earlier ones end before the candidate starts
+            return candidate >= 0 && ends[candidate] >= start;
+        }
+    }
+}
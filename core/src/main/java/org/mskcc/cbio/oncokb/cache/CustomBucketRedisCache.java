@@ -7,4 +7,12 @@ public class CustomBucketRedisCache extends CustomRedisCache {
     public CustomBucketRedisCache(String name, RedissonClient client, long ttlMinutes, CacheErrorHandler cacheErrorHandler) {
         super(name, client, ttlMinutes, cacheErrorHandler);
     }
+
+    public CustomBucketRedisCache(String name, RedissonClient client, long ttlMinutes, long loadLockTimeoutMillis, CacheErrorHandler cacheErrorHandler) {
+        super(name, client, ttlMinutes, loadLockTimeoutMillis, cacheErrorHandler);
+    }
+
+    public CustomBucketRedisCache(String name, RedissonClient client, long ttlMinutes, long loadLockTimeoutMillis, NearCache nearCache, CacheErrorHandler cacheErrorHandler) {
+        super(name, client, ttlMinutes, loadLockTimeoutMillis, nearCache, cacheErrorHandler);
+    }
 }
@@ -1,5 +1,10 @@
 package org.mskcc.cbio.oncokb.cache;
 
+import org.redisson.api.BatchOptions;
+import org.redisson.api.RBatch;
+import org.redisson.api.RBucket;
+import org.redisson.api.RBucketAsync;
+import org.redisson.api.RLock;
 import org.redisson.api.RedissonClient;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -8,11 +13,18 @@ import org.springframework.cache.interceptor.CacheErrorHandler;
 import org.springframework.cache.support.AbstractValueAdaptingCache;
 import org.springframework.cache.support.SimpleValueWrapper;
 
-import java.io.*;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
-import java.util.zip.GZIPInputStream;
-import java.util.zip.GZIPOutputStream;
 
 import static org.mskcc.cbio.oncokb.cache.Constants.REDIS_KEY_SEPARATOR;
 
@@ -22,22 +34,41 @@ import static org.mskcc.cbio.oncokb.cache.Constants.REDIS_KEY_SEPARATOR;
 public abstract class CustomRedisCache extends AbstractValueAdaptingCache {
     private static final Logger LOG = LoggerFactory.getLogger(CustomRedisCache.class);
     public static final int INFINITE_TTL = -1;
+    public static final int NO_LOAD_LOCK = 0;
+    private static final String LOAD_LOCK_PREFIX = "lock";
 
     protected final String name;
     protected final long ttlMinutes;
     protected final RedissonClient store;
-    
+    // How long a caller waits for another instance to load the same key, disabled when it is not positive.
+    protected final long loadLockTimeoutMillis;
+    // The in-process cache in front of Redis, null when it is disabled for this cache.
+    protected final NearCache nearCache;
+
     protected CacheErrorHandler cacheErrorHandler;
 
+    // Values which are being loaded by this instance. Concurrent callers of the same key wait for the first one.
+    private final ConcurrentMap<Object, CompletableFuture<Object>> inFlightLoads = new ConcurrentHashMap<>();
+
     /**
      * Create a new ConcurrentMapCache with the specified name.
      * @param name the name of the cache
      */
     public CustomRedisCache(String name, RedissonClient client, long ttlMinutes, CacheErrorHandler cacheErrorHandler) {
+        this(name, client, ttlMinutes, NO_LOAD_LOCK, cacheErrorHandler);
+    }
+
+    public CustomRedisCache(String name, RedissonClient client, long ttlMinutes, long loadLockTimeoutMillis, CacheErrorHandler cacheErrorHandler) {
+        this(name, client, ttlMinutes, loadLockTimeoutMillis, null, cacheErrorHandler);
+    }
+
+    public CustomRedisCache(String name, RedissonClient client, long ttlMinutes, long loadLockTimeoutMillis, NearCache nearCache, CacheErrorHandler cacheErrorHandler) {
         super(true);
+        this.nearCache = nearCache;
         this.name = name;
         this.store = client;
         this.ttlMinutes = ttlMinutes;
+        this.loadLockTimeoutMillis = loadLockTimeoutMillis;
         this.cacheErrorHandler = cacheErrorHandler;
     }
 
@@ -62,6 +93,94 @@ public abstract class CustomRedisCache extends AbstractValueAdaptingCache {
         }
     }
 
+    /**
+     * Check the near cache before going to Redis. Values read from Redis are kept in the near cache.
+     */
+    @Override
+    public ValueWrapper get(Object key) {
+        if (nearCache != null) {
+            Object value = nearCache.get(key);
+            if (value != null) {
+                return toValueWrapper(value);
+            }
+        }
+        ValueWrapper storeValue = super.get(key);
+        if (nearCache != null && storeValue != null) {
+            nearCache.put(key, storeValue.get());
+        }
+        return storeValue;
+    }
+
+    /**
+     * Look up the values of all keys in one round trip. The keys which are not cached are left out of the result.
+     */
+    public Map<Object, Object> getAll(Collection<?> keys) {
+        Map<Object, Object> result = new HashMap<>();
+        Set<Object> keysToLookup = new LinkedHashSet<>();
+        for (Object key : keys) {
+            Object value = nearCache == null ? null : nearCache.get(key);
+            if (value != null) {
+                result.put(key, value);
+            } else {
+                keysToLookup.add(key);
+            }
+        }
+        if (keysToLookup.isEmpty()) {
+            return result;
+        }
+        try {
+            lookupAll(keysToLookup).forEach((key, value) -> {
+                if (value != null) {
+                    result.put(key, value);
+                    putNearCache(key, value);
+                }
+            });
+        } catch (RuntimeException e) {
+            this.cacheErrorHandler.handleCacheGetError(e, this, keysToLookup);
+        }
+        return result;
+    }
+
+    protected Map<Object, Object> lookupAll(Collection<Object> keys) {
+        Map<String, Object> keysByBucketName = new LinkedHashMap<>();
+        for (Object key : keys) {
+            keysByBucketName.put(name + REDIS_KEY_SEPARATOR + key, key);
+        }
+        Map<String, Object> values = this.store.getBuckets().get(keysByBucketName.keySet().toArray(new String[0]));
+        Map<Object, Object> result = new HashMap<>();
+        values.forEach((bucketName, value) -> result.put(keysByBucketName.get(bucketName), value));
+        return result;
+    }
+
+    /**
+     * Write all values in one pipeline. Waits for Redis to acknowledge the writes, so the callers are free
+     * to modify the values afterwards.
+     */
+    public void putAll(Map<?, ?> values) {
+        if (values.isEmpty()) {
+            return;
+        }
+        try {
+            writeAll(values);
+        } catch (RuntimeException e) {
+            this.cacheErrorHandler.handleCachePutError(e, this, values.keySet(), values.values());
+        }
+        values.forEach(this::putNearCache);
+    }
+
+    protected void writeAll(Map<?, ?> values) {
+        RBatch batch = this.store.createBatch(BatchOptions.defaults());
+        values.forEach((key, value) -> {
+            RBucketAsync<Object> bucket = batch.getBucket(name + REDIS_KEY_SEPARATOR + key);
+            if (ttlMinutes == INFINITE_TTL) {
+                bucket.setAsync(value);
+            } else {
+                bucket.setAsync(value, ttlMinutes, TimeUnit.MINUTES);
+            }
+        });
+        batch.execute();
+    }
+
     private void asyncRefresh(Object key) {
         if (ttlMinutes != INFINITE_TTL) {
             this.store.getBucket(name + REDIS_KEY_SEPARATOR + key).expireAsync(ttlMinutes, TimeUnit.MINUTES);
@@ -70,16 +189,63 @@ public abstract class CustomRedisCache extends AbstractValueAdaptingCache {
 
     @Override
     public void put(Object key, Object value) {
-        try{
-            if (ttlMinutes == INFINITE_TTL) {
-                this.store.getBucket(name + REDIS_KEY_SEPARATOR + key).setAsync(value);
-            } else {
-                this.store.getBucket(name + REDIS_KEY_SEPARATOR + key).setAsync(value, ttlMinutes, TimeUnit.MINUTES);
-            }
+        try {
+            write(key, value, false);
         } catch (RuntimeException e) {
             this.cacheErrorHandler.handleCachePutError(e, this, key, value);
         }
+        putNearCache(key, value);
+    }
 
+    private void putNearCache(Object key, Object value) {
+        if (nearCache != null) {
+            nearCache.put(key, value);
+        }
+    }
+
+    /**
+     * Drop the values kept in this instance only. The values in Redis are not touched.
+     */
+    public void clearNearCache() {
+        if (nearCache != null) {
+            nearCache.clear();
+        }
+    }
+
+    /**
+     * Write the value to Redis.
+     * @param sync whether to wait for Redis to acknowledge the write
+     */
+    protected void write(Object key, Object value, boolean sync) {
+        RBucket<Object> bucket = this.store.getBucket(name + REDIS_KEY_SEPARATOR + key);
+        if (ttlMinutes == INFINITE_TTL) {
+            if (sync) {
+                bucket.set(value);
+            } else {
+                bucket.setAsync(value);
+            }
+        } else {
+            if (sync) {
+                bucket.set(value, ttlMinutes, TimeUnit.MINUTES);
+            } else {
+                bucket.setAsync(value, ttlMinutes, TimeUnit.MINUTES);
+            }
+        }
+    }
+
+    /**
+     * Write the value to Redis unless the key is already set.
+     * @return the value kept in Redis for the key
+     */
+    protected Object writeIfAbsent(Object key, Object value) {
+        RBucket<Object> bucket = this.store.getBucket(name + REDIS_KEY_SEPARATOR + key);
+        boolean written = ttlMinutes == INFINITE_TTL ? bucket.trySet(value) : bucket.trySet(value, ttlMinutes, TimeUnit.MINUTES);
+        if (written) {
+            return value;
+        }
+        Object existing = bucket.get();
+        // The existing value may have expired in between
+        return existing != null ? existing : value;
     }
 
     @Override
@@ -95,11 +261,15 @@ public abstract class CustomRedisCache extends AbstractValueAdaptingCache {
 
     @Override
     public void evict(Object key) {
-        // no op: Redis handles evictions
+        // Redis handles evictions, only the near cache of this instance needs to forget the key
+        if (nearCache != null) {
+            nearCache.evict(key);
+        }
     }
 
     @Override
     public void clear() {
+        clearNearCache();
         try {
             this.store.getKeys().deleteByPattern(name + REDIS_KEY_SEPARATOR + "*");
         } catch (RuntimeException e) {
@@ -108,86 +278,118 @@ public abstract class CustomRedisCache extends AbstractValueAdaptingCache {
     }
 
     @Override
-    protected Object toStoreValue(Object userValue) {
-        if (userValue == null) {
-            LOG.warn("Storing null value in cache. That's probably not great.");
-            return null;
-        }
-
-        ByteArrayOutputStream byteOut = new ByteArrayOutputStream();
-        ObjectOutputStream objectOut;
-        try {
-            // serialize to byte array
-            objectOut = new ObjectOutputStream(byteOut);
-            objectOut.writeObject(userValue);
-            objectOut.flush();
-            byte[] uncompressedByteArray = byteOut.toByteArray();
-
-            // compress byte array
-            byteOut = new ByteArrayOutputStream(uncompressedByteArray.length);
-            GZIPOutputStream g = new GZIPOutputStream(byteOut);
-            g.write(uncompressedByteArray);
-            g.close();
-            return byteOut.toByteArray();
-        } catch (IOException e) {
-            LOG.warn("Error compressing object for cache: ", e);
-            return null;
-        }
+    protected Cache.ValueWrapper toValueWrapper(Object storeValue) {
+        return (storeValue != null ? new SimpleValueWrapper(storeValue) : null);
     }
 
+    /**
+     * Used by @Cacheable(sync = true). When the key is missing, only one caller loads the value and
+     * the concurrent callers of the same key wait for its result instead of loading it again.
+     * When the load lock is enabled, the instances sharing the Redis also take turns through a Redisson lock.
+     */
     @Override
-    protected Object fromStoreValue(Object storeValue) {
-        if (storeValue == null) {
-            return null;
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        ValueWrapper storeValue = get(key);
+        if (storeValue != null) {
+            return (T) storeValue.get();
+        }
+
+        CompletableFuture<Object> loading = new CompletableFuture<>();
+        CompletableFuture<Object> inFlight = inFlightLoads.putIfAbsent(key, loading);
+        if (inFlight != null) {
+            return (T) waitForLoad(key, valueLoader, inFlight);
         }
 
-        byte[] bytes = (byte[]) storeValue;
-        ByteArrayInputStream byteIn = new ByteArrayInputStream(bytes);
-        ByteArrayOutputStream byteOut = new ByteArrayOutputStream();
-        GZIPInputStream gzipIn;
         try {
-            // inflate to byte array
-            gzipIn = new GZIPInputStream(byteIn);
-            byte[] buffer = new byte[1024];
-            int len;
-            while ((len = gzipIn.read(buffer)) != -1) {
-                byteOut.write(buffer, 0, len);
-            }
-            byte[] unzippedBytes = byteOut.toByteArray();
-
-            // deserialize byte array to object
-            byteIn = new ByteArrayInputStream(unzippedBytes);
-            ObjectInputStream oi = new ObjectInputStream(byteIn);
-            return oi.readObject();
-        } catch (IOException | ClassNotFoundException e) {
-            LOG.warn("Error inflating object from cache: ", e);
-            return null;
+            // A load of the same key may have finished between the lookup above and taking the slot
+            storeValue = get(key);
+            Object value = storeValue != null ? storeValue.get() : load(key, valueLoader);
+            loading.complete(value);
+            return (T) value;
+        } catch (RuntimeException e) {
+            loading.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlightLoads.remove(key, loading);
         }
     }
 
-    @Override
-    protected Cache.ValueWrapper toValueWrapper(Object storeValue) {
-        return (storeValue != null ? new SimpleValueWrapper(storeValue) : null);
+    private Object waitForLoad(Object key, Callable<?> valueLoader, CompletableFuture<Object> inFlight) {
+        try {
+            return inFlight.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ValueRetrievalException(key, valueLoader, e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof ValueRetrievalException) {
+                throw (ValueRetrievalException) e.getCause();
+            }
+            throw new ValueRetrievalException(key, valueLoader, e.getCause());
+        }
     }
 
-    @Override
-    @SuppressWarnings("unchecked")
-    public <T> T get(Object key, Callable<T> valueLoader) {
-        // see https://docs.spring.io/spring-framework/docs/4.3.9.RELEASE/spring-framework-reference/html/cache.html#cache-annotations-cacheable-synchronized
-        LOG.warn("Sync method was enabled for cacheable. We do not currently support synchronized caching, so this is most likely a mistake.");
+    private Object load(Object key, Callable<?> valueLoader) {
+        RLock lock = null;
+        if (loadLockTimeoutMillis > NO_LOAD_LOCK) {
+            try {
+                RLock loadLock = this.store.getLock(name + REDIS_KEY_SEPARATOR + LOAD_LOCK_PREFIX + REDIS_KEY_SEPARATOR + key);
+                // The lease time makes sure a crashed instance does not hold the lock forever
+                if (loadLock.tryLock(loadLockTimeoutMillis, loadLockTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                    lock = loadLock;
+                    // Another instance may have loaded the value while we were waiting for the lock
+                    ValueWrapper storeValue = get(key);
+                    if (storeValue != null) {
+                        unlock(lock, key);
+                        return storeValue.get();
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ValueRetrievalException(key, valueLoader, e);
+            } catch (RuntimeException e) {
+                // Fall back to load the value without the lock
+                this.cacheErrorHandler.handleCacheGetError(e, this, key);
+            }
+        }
 
-		ValueWrapper storeValue = get(key);
-		if (storeValue != null) {
-			return (T) storeValue.get();
-		}
+        try {
+            Object value;
+            try {
+                value = valueLoader.call();
+            } catch (Throwable ex) {
+                throw new ValueRetrievalException(key, valueLoader, ex);
+            }
+            if (value == null) {
+                // Nothing to cache, e.g. the loader did not find the gene. Redis does not keep null values.
+                return null;
+            }
+            try {
+                if (lock != null) {
+                    // Waiting instances check the cache once they get the lock, so the value has to be written before unlocking
+                    write(key, value, true);
+                } else {
+                    // Other instances may be loading the same key, the first value written is the one every caller gets
+                    value = writeIfAbsent(key, value);
+                }
+            } catch (RuntimeException e) {
+                this.cacheErrorHandler.handleCachePutError(e, this, key, value);
+            }
+            putNearCache(key, value);
+            return value;
+        } finally {
+            if (lock != null) {
+                unlock(lock, key);
+            }
+        }
+    }
 
-		T value;
+    private void unlock(RLock lock, Object key) {
         try {
-            value = valueLoader.call();
-        } catch (Throwable ex) {
-            throw new ValueRetrievalException(key, valueLoader, ex);
+            lock.unlock();
+        } catch (RuntimeException e) {
+            // The lease may have expired already, Redis releases the lock in that case
+            LOG.warn("Failed to release the load lock of key " + key, e);
         }
-        put(key, value);
-        return value;
     }
 }
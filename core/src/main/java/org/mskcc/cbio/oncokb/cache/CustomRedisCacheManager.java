@@ -1,24 +1,49 @@
 package org.mskcc.cbio.oncokb.cache;
 
+import org.mskcc.cbio.oncokb.util.CacheUtils;
+import org.redisson.api.RTopic;
 import org.redisson.api.RedissonClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.cache.Cache;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.interceptor.CacheErrorHandler;
 
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.function.Consumer;
+
+import static org.mskcc.cbio.oncokb.cache.Constants.REDIS_KEY_SEPARATOR;
 
 public class CustomRedisCacheManager implements CacheManager {
+    private static final Logger LOG = LoggerFactory.getLogger(CustomRedisCacheManager.class);
+    private static final String NEAR_CACHE_INVALIDATION_TOPIC = "nearCacheInvalidation";
+
     private final ConcurrentMap<String, CustomRedisCache> caches = new ConcurrentHashMap<>();
     private final RedissonClient client;
     private final long ttlInMins;
+    private final long loadLockTimeoutMillis;
     private CacheNameResolver cacheNameResolver;
     private CacheErrorHandler cacheErrorHandler;
 
+    // The near cache is kept for the caches of these methods only, see NearCache
+    private Set<String> nearCacheMethods = Collections.emptySet();
+    private int nearCacheMaxSize;
+    private long nearCacheTtlMillis;
+    private RTopic nearCacheInvalidationTopic;
+
     public CustomRedisCacheManager(RedissonClient client, long ttlInMins, CacheNameResolver cacheNameResolver, CacheErrorHandler cacheErrorHandler) {
+        this(client, ttlInMins, CustomRedisCache.NO_LOAD_LOCK, cacheNameResolver, cacheErrorHandler);
+    }
+
+    public CustomRedisCacheManager(RedissonClient client, long ttlInMins, long loadLockTimeoutMillis, CacheNameResolver cacheNameResolver, CacheErrorHandler cacheErrorHandler) {
         this.client = client;
         this.ttlInMins = ttlInMins;
+        this.loadLockTimeoutMillis = loadLockTimeoutMillis;
         this.cacheNameResolver = cacheNameResolver;
         this.cacheErrorHandler = cacheErrorHandler;
     }
@@ -42,6 +67,53 @@ public class CustomRedisCacheManager implements CacheManager {
         return getCache(name, !name.toLowerCase().contains("static"));
     }
 
+    /**
+     * Keep the values of the given methods in memory as well. The near caches are dropped whenever the gene cache
+     * is updated or reset, once the new data is published, which is also how the other services are notified
+     * through CacheUtils.notifyOtherServices.
+     *
+     * @param methods the names of the cached methods, e.g. getCuratedGenes
+     * @param maxSize the max number of values kept for each method
+     * @param ttlMillis how long a value is kept in memory
+     * @param publishInvalidation whether to also invalidate the near caches of the other instances through Redis pub/sub
+     */
+    public void enableNearCache(Set<String> methods, int maxSize, long ttlMillis, boolean publishInvalidation) {
+        enableNearCache(methods, maxSize, ttlMillis, publishInvalidation, CacheUtils::addUpdateListener);
+    }
+
+    /**
+     * @param addUpdateListener registers the invalidation. It has to run after the gene cache is rebuilt, otherwise a
+     *                          request in between puts the values of the old data back into the near cache.
+     */
+    void enableNearCache(Set<String> methods, int maxSize, long ttlMillis, boolean publishInvalidation, Consumer<Runnable> addUpdateListener) {
+        this.nearCacheMethods = Collections.unmodifiableSet(new HashSet<>(methods));
+        this.nearCacheMaxSize = maxSize;
+        this.nearCacheTtlMillis = ttlMillis;
+        if (publishInvalidation) {
+            this.nearCacheInvalidationTopic = client.getTopic(this.cacheNameResolver.getCacheName(NEAR_CACHE_INVALIDATION_TOPIC));
+            this.nearCacheInvalidationTopic.addListener(String.class, (channel, message) -> clearNearCaches());
+        }
+        addUpdateListener.accept(this::invalidateNearCaches);
+    }
+
+    /**
+     * Drop the near caches of this instance, and of the other instances when the invalidation is published through Redis.
+     */
+    public void invalidateNearCaches() {
+        clearNearCaches();
+        if (nearCacheInvalidationTopic != null) {
+            try {
+                nearCacheInvalidationTopic.publishAsync(this.cacheNameResolver.getCacheName(NEAR_CACHE_INVALIDATION_TOPIC));
+            } catch (RuntimeException e) {
+                LOG.warn("Failed to publish the near cache invalidation", e);
+            }
+        }
+    }
+
+    private void clearNearCaches() {
+        caches.values().forEach(CustomRedisCache::clearNearCache);
+    }
+
     public void clearAll() {
         // remove all cache within the application
         this.getCache("*").clear();
@@ -51,10 +123,19 @@ public class CustomRedisCacheManager implements CacheManager {
         long clientTTLInMinutes = expires ? ttlInMins : CustomRedisCache.INFINITE_TTL;
         String cacheName = this.cacheNameResolver.getCacheName(name);
         return caches.computeIfAbsent(cacheName, k -> {
-            return new CustomBucketRedisCache(cacheName, client, clientTTLInMinutes, cacheErrorHandler);
+            return new CustomBucketRedisCache(cacheName, client, clientTTLInMinutes, loadLockTimeoutMillis, createNearCache(name), cacheErrorHandler);
         });
     }
 
+    private NearCache createNearCache(String name) {
+        if (nearCacheMaxSize <= 0) {
+            return null;
+        }
+        int separatorIndex = name.lastIndexOf(REDIS_KEY_SEPARATOR);
+        String method = separatorIndex < 0 ? name : name.substring(separatorIndex + REDIS_KEY_SEPARATOR.length());
+        return nearCacheMethods.contains(method) ? new NearCache(nearCacheMaxSize, nearCacheTtlMillis) : null;
+    }
+
     /**
      * Get a collection of the cache names known by this manager.
      *
@@ -0,0 +1,218 @@
+package org.mskcc.cbio.oncokb.cache;
+
+import org.mskcc.cbio.oncokb.util.NoPropertyException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+
+/**
+ * Cache of the files of the released data versions. Released files never change, so they are fetched once and kept
+ * in memory, the least recently used file is dropped when the memory limit is reached. Files larger than the memory
+ * limit are only kept on disk.
+ * <p>
+ * With a spill directory, every fetched file is also written to disk, content addressed by its SHA-256, and the
+ * checksum is verified when the file is read back. The least recently used files are removed when the disk limit is
+ * reached. Disk failures are logged and the file is fetched again.
+ * <p>
+ * The same array is handed out on every hit, the callers must not modify it.
+ */
+public class DataDownloadCache {
+    private static final Logger LOG = LoggerFactory.getLogger(DataDownloadCache.class);
+
+    private static final String BLOB_DIRECTORY = "blobs";
+    private static final String KEY_DIRECTORY = "keys";
+    private static final String TEMP_EXTENSION = ".tmp";
+    private static final int FETCH_LOCK_STRIPES = 64;
+
+    public interface Fetcher {
+        byte[] fetch(String version, String fileName) throws IOException, NoPropertyException;
+    }
+
+    private final Fetcher fetcher;
+    private final long maxMemoryBytes;
+    private final Path directory;
+    private final long maxDiskBytes;
+
+    private final LinkedHashMap<String, byte[]> memory = new LinkedHashMap<>(16, 0.75f, true);
+    private long memoryBytes = 0;
+    // Concurrent misses of the same file wait for one fetch. The locks are striped by key so they never grow.
+    private final Object[] fetchLocks = new Object[FETCH_LOCK_STRIPES];
+    private final Object diskLock = new Object();
+
+    /**
+     * @param directory the spill directory, or null to only cache in memory
+     */
+    public DataDownloadCache(Fetcher fetcher, long maxMemoryBytes, Path directory, long maxDiskBytes) {
+        this.fetcher = fetcher;
+        this.maxMemoryBytes = Math.max(0, maxMemoryBytes);
+        this.directory = directory;
+        this.maxDiskBytes = Math.max(0, maxDiskBytes);
+        for (int i = 0; i < fetchLocks.length; i++) {
+            fetchLocks[i] = new Object();
+        }
+    }
+
+    public byte[] get(String version, String fileName) throws IOException, NoPropertyException {
+        String key = version + "/" + fileName;
+        byte[] content = getFromMemory(key);
+        if (content != null) {
+            return content;
+        }
+        synchronized (getFetchLock(key)) {
+            content = getFromMemory(key);
+            if (content != null) {
+                return content;
+            }
+            content = readFromDisk(key);
+            if (content == null) {
+                content = fetcher.fetch(version, fileName);
+                writeToDisk(key, content);
+            }
+            putInMemory(key, content);
+            return content;
+        }
+    }
+
+    private Object getFetchLock(String key) {
+        return fetchLocks[Math.floorMod(key.hashCode(), fetchLocks.length)];
+    }
+
+    private synchronized byte[] getFromMemory(String key) {
+        return memory.get(key);
+    }
+
+    private synchronized void putInMemory(String key, byte[] content) {
+        if (content.length > maxMemoryBytes) {
+            return;
+        }
+        byte[] previous = memory.put(key, content);
+        if (previous != null) {
+            memoryBytes -= previous.length;
+        }
+        memoryBytes += content.length;
+        Iterator<byte[]> iterator = memory.values().iterator();
+        while (memoryBytes > maxMemoryBytes && iterator.hasNext()) {
+            memoryBytes -= iterator.next().length;
+            iterator.remove();
+        }
+    }
+
+    synchronized long getMemoryBytes() {
+        return memoryBytes;
+    }
+
+    private byte[] readFromDisk(String key) {
+        if (directory == null) {
+            return null;
+        }
+        Path keyFile = getKeyFile(key);
+        try {
+            if (!Files.exists(keyFile)) {
+                return null;
+            }
+            String checksum = new String(Files.readAllBytes(keyFile), StandardCharsets.UTF_8).trim();
+            Path blob = directory.resolve(BLOB_DIRECTORY).resolve(checksum);
+            if (!Files.exists(blob)) {
+                return null;
+            }
+            byte[] content = Files.readAllBytes(blob);
+            if (!checksum.equals(sha256(content))) {
+                LOG.warn("The cached data file {} does not match its checksum, fetching it again", key);
+                Files.deleteIfExists(blob);
+                return null;
+            }
+            // The modified time orders the blobs by their last use
+            Files.setLastModifiedTime(blob, FileTime.fromMillis(System.currentTimeMillis()));
+            return content;
+        } catch (IOException e) {
+            LOG.warn("Failed to read the cached data file " + key, e);
+            return null;
+        }
+    }
+
+    private void writeToDisk(String key, byte[] content) {
+        if (directory == null || content.length > maxDiskBytes) {
+            return;
+        }
+        try {
+            String checksum = sha256(content);
+            Path blob = directory.resolve(BLOB_DIRECTORY).resolve(checksum);
+            if (!Files.exists(blob)) {
+                write(blob, content);
+            }
+            write(getKeyFile(key), checksum.getBytes(StandardCharsets.UTF_8));
+            removeLeastRecentlyUsedBlobs();
+        } catch (IOException e) {
+            LOG.warn("Failed to cache the data file " + key, e);
+        }
+    }
+
+    private static void write(Path file, byte[] content) throws IOException {
+        Files.createDirectories(file.getParent());
+        Path tempFile = file.resolveSibling(file.getFileName() + TEMP_EXTENSION);
+        Files.write(tempFile, content);
+        try {
+            Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * The keys of the removed blobs are left behind, they are treated as misses.
+     */
+    private void removeLeastRecentlyUsedBlobs() throws IOException {
+        synchronized (diskLock) {
+            removeLeastRecentlyUsedBlobs(directory.resolve(BLOB_DIRECTORY));
+        }
+    }
+
+    private void removeLeastRecentlyUsedBlobs(Path blobDirectory) throws IOException {
+        List<Path> blobs = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(blobDirectory)) {
+            stream.forEach(blobs::add);
+        }
+        Map<Path, Long> sizes = new HashMap<>();
+        Map<Path, Long> lastUsed = new HashMap<>();
+        long totalBytes = 0;
+        for (Path blob : blobs) {
+            sizes.put(blob, Files.size(blob));
+            lastUsed.put(blob, Files.getLastModifiedTime(blob).toMillis());
+            totalBytes += sizes.get(blob);
+        }
+        blobs.sort(Comparator.comparing(lastUsed::get));
+        for (Path blob : blobs) {
+            if (totalBytes <= maxDiskBytes) {
+                break;
+            }
+            Files.deleteIfExists(blob);
+            totalBytes -= sizes.get(blob);
+        }
+    }
+
+    private Path getKeyFile(String key) {
+        // The key comes from the request, it is hashed so it cannot point outside of the directory
+        return directory.resolve(KEY_DIRECTORY).resolve(sha256(key.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    static String sha256(byte[] content) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        StringBuilder sb = new StringBuilder();
+        for (byte b : digest.digest(content)) {
+            sb.append(String.format("%02x", b));
+        }
+        return sb.toString();
+    }
+}
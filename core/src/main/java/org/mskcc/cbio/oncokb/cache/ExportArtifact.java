@@ -0,0 +1,63 @@
+package org.mskcc.cbio.oncokb.cache;
+
+import org.mskcc.cbio.oncokb.util.DataExportUtils;
+import org.mskcc.cbio.oncokb.util.LevelUtils;
+import org.mskcc.cbio.oncokb.util.NumberUtils;
+import org.oncokb.oncokb_transcript.ApiException;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * The bulk exports rendered by the {@link ExportArtifactStore}. Each one is rendered exactly the way its endpoint
+ * renders it without an artifact.
+ */
+public enum ExportArtifact {
+    ALL_ANNOTATED_VARIANTS_JSON("allAnnotatedVariants.json", (cacheFetcher, outputStream) -> DataExportUtils.annotatedVariantsJson().writeTo(outputStream)),
+    ALL_ANNOTATED_VARIANTS_TXT("allAnnotatedVariants.txt", (cacheFetcher, outputStream) -> DataExportUtils.annotatedVariantsTxt().writeTo(outputStream)),
+    ALL_ACTIONABLE_VARIANTS_JSON("allActionableVariants.json", (cacheFetcher, outputStream) -> DataExportUtils.actionableVariantsJson().writeTo(outputStream)),
+    ALL_ACTIONABLE_VARIANTS_TXT("allActionableVariants.txt", (cacheFetcher, outputStream) -> DataExportUtils.actionableVariantsTxt().writeTo(outputStream)),
+    ALL_CURATED_GENES_JSON("allCuratedGenes.json", (cacheFetcher, outputStream) -> DataExportUtils.writeJson(cacheFetcher.getCuratedGenes(true), outputStream)),
+    ALL_CURATED_GENES_TXT("allCuratedGenes.txt", (cacheFetcher, outputStream) -> DataExportUtils.writeText(cacheFetcher.getCuratedGenesTxt(true), outputStream)),
+    ALL_CURATED_GENES_WITHOUT_EVIDENCE_JSON("allCuratedGenesWithoutEvidence.json", (cacheFetcher, outputStream) -> DataExportUtils.writeJson(cacheFetcher.getCuratedGenes(false), outputStream)),
+    ALL_CURATED_GENES_WITHOUT_EVIDENCE_TXT("allCuratedGenesWithoutEvidence.txt", (cacheFetcher, outputStream) -> DataExportUtils.writeText(cacheFetcher.getCuratedGenesTxt(false), outputStream)),
+    CANCER_GENE_LIST_JSON("cancerGeneList.json", (cacheFetcher, outputStream) -> DataExportUtils.writeJson(cacheFetcher.getCancerGenes(), outputStream)),
+    CANCER_GENE_LIST_TXT("cancerGeneList.txt", (cacheFetcher, outputStream) -> DataExportUtils.writeText(cacheFetcher.getCancerGenesTxt(), outputStream)),
+    GENE_NUMBERS_JSON("geneNumbers.json", (cacheFetcher, outputStream) -> DataExportUtils.writeJson(NumberUtils.getAllGeneNumberListByLevels(LevelUtils.getPublicLevels()), outputStream)),
+    LEVEL_NUMBERS_JSON("levelNumbers.json", (cacheFetcher, outputStream) -> DataExportUtils.writeJson(NumberUtils.getLevelNumberListByLevels(LevelUtils.getPublicLevels()), outputStream)),
+    MAIN_NUMBERS_JSON("mainNumbers.json", (cacheFetcher, outputStream) -> DataExportUtils.writeJson(NumberUtils.getMainNumber(LevelUtils.getPublicLevels()), outputStream));
+
+    public interface Renderer {
+        void render(CacheFetcher cacheFetcher, OutputStream outputStream) throws IOException, ApiException;
+    }
+
+    private static final String JSON_CONTENT_TYPE = "application/json;charset=UTF-8";
+    private static final String TEXT_CONTENT_TYPE = "text/plain; charset=UTF-8";
+
+    private final String fileName;
+    private final Renderer renderer;
+
+    ExportArtifact(String fileName, Renderer renderer) {
+        this.fileName = fileName;
+        this.renderer = renderer;
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+
+    public Renderer getRenderer() {
+        return renderer;
+    }
+
+    public String getContentType() {
+        return fileName.endsWith(".json") ? JSON_CONTENT_TYPE : TEXT_CONTENT_TYPE;
+    }
+
+    public static ExportArtifact getCuratedGenes(boolean json, boolean includeEvidence) {
+        if (includeEvidence) {
+            return json ? ALL_CURATED_GENES_JSON : ALL_CURATED_GENES_TXT;
+        }
+        return json ? ALL_CURATED_GENES_WITHOUT_EVIDENCE_JSON : ALL_CURATED_GENES_WITHOUT_EVIDENCE_TXT;
+    }
+}
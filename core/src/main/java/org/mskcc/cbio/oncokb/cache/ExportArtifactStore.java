@@ -0,0 +1,254 @@
+package org.mskcc.cbio.oncokb.cache;
+
+import org.apache.commons.lang3.StringUtils;
+import org.mskcc.cbio.oncokb.util.CacheUtils;
+import org.mskcc.cbio.oncokb.util.MainUtils;
+import org.mskcc.cbio.oncokb.util.PropertiesUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.*;
+import java.nio.file.*;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Renders the {@link ExportArtifact}s to the local disk, in a directory per data version, so the endpoints can serve
+ * them as static files instead of generating them on every request.
+ * <p>
+ * The artifacts are rendered in the background after the data is loaded, and again after every gene update. Updates
+ * arriving within the render delay are rendered together. An artifact is only served when it was rendered from the
+ * current data, the endpoints generate the response themselves in the meantime.
+ * <p>
+ * The files are named after the hash of their content and never rewritten, a new rendering is written to new files
+ * and published by swapping the artifact map. The files of the previous rendering are kept until the next one, so a
+ * request which picked them up before the swap can still read them.
+ * <p>
+ * The store is enabled by the property export_artifacts.path
+ */
+@Component
+public class ExportArtifactStore {
+    private static final Logger LOG = LoggerFactory.getLogger(ExportArtifactStore.class);
+
+    private static final String PATH_PROPERTY = "export_artifacts.path";
+    private static final long RENDER_DELAY_SECONDS = 10;
+    static final String GZIP_EXTENSION = ".gz";
+    private static final String TEMP_EXTENSION = ".tmp";
+
+    public static class ArtifactFile {
+        private final Path file;
+        private final Path gzipFile;
+
+        ArtifactFile(Path file, Path gzipFile) {
+            this.file = file;
+            this.gzipFile = gzipFile;
+        }
+
+        public Path getFile() {
+            return file;
+        }
+
+        public Path getGzipFile() {
+            return gzipFile;
+        }
+    }
+
+    @Autowired
+    CacheFetcher cacheFetcher;
+
+    private Path rootDirectory;
+    private ScheduledExecutorService executor;
+    private final AtomicBoolean renderScheduled = new AtomicBoolean();
+    // Incremented by every update, the artifacts are current when they were rendered from the latest revision
+    private final AtomicLong revision = new AtomicLong();
+    private volatile long renderedRevision = -1;
+    private volatile Map<ExportArtifact, ArtifactFile> artifacts = Collections.emptyMap();
+    private Map<ExportArtifact, ArtifactFile> previousArtifacts = Collections.emptyMap();
+
+    @PostConstruct
+    public void init() {
+        String path = PropertiesUtils.getProperties(PATH_PROPERTY);
+        if (StringUtils.isEmpty(path)) {
+            return;
+        }
+        rootDirectory = Paths.get(path);
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "oncokb-export-artifacts");
+            thread.setDaemon(true);
+            return thread;
+        });
+        CacheUtils.addUpdateListener(() -> {
+            revision.incrementAndGet();
+            scheduleRender(RENDER_DELAY_SECONDS);
+        });
+        scheduleRender(0);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    public boolean isEnabled() {
+        return rootDirectory != null;
+    }
+
+    /**
+     * @return the rendered artifact, or null when the store is disabled or the artifacts are not rendered from the current data yet
+     */
+    public ArtifactFile getArtifact(ExportArtifact artifact) {
+        if (renderedRevision != revision.get()) {
+            return null;
+        }
+        return artifacts.get(artifact);
+    }
+
+    private void scheduleRender(long delaySeconds) {
+        if (renderScheduled.compareAndSet(false, true)) {
+            executor.schedule(this::render, delaySeconds, TimeUnit.SECONDS);
+        }
+    }
+
+    private void render() {
+        // Updates arriving from now on schedule another render
+        renderScheduled.set(false);
+        long renderingRevision = revision.get();
+        Long current = MainUtils.getCurrentTimestamp();
+        try {
+            Path directory = rootDirectory.resolve(getDirectoryName(MainUtils.getDataVersion()));
+            Files.createDirectories(directory);
+            Map<ExportArtifact, ArtifactFile> rendered = new EnumMap<>(ExportArtifact.class);
+            for (ExportArtifact artifact : ExportArtifact.values()) {
+                rendered.put(artifact, write(directory, artifact.getFileName(), outputStream -> {
+                    try {
+                        artifact.getRenderer().render(cacheFetcher, outputStream);
+                    } catch (org.oncokb.oncokb_transcript.ApiException e) {
+                        throw new IOException("Failed to render " + artifact.getFileName(), e);
+                    }
+                }));
+            }
+            previousArtifacts = artifacts;
+            artifacts = rendered;
+            renderedRevision = renderingRevision;
+            removeUnusedFiles(directory, rendered, previousArtifacts);
+            LOG.info("Rendered the export artifacts in {}: {}", directory, MainUtils.getTimestampDiff(current));
+        } catch (Exception e) {
+            LOG.error("Failed to render the export artifacts", e);
+        }
+    }
+
+    interface Content {
+        void writeTo(OutputStream outputStream) throws IOException;
+    }
+
+    /**
+     * Write the file and its gzip copy next to it, named after the hash of the content. Both are written to temporary
+     * files first and moved into place, so a file being served is never partially written. A rendering with the same
+     * content reuses the existing files.
+     */
+    static ArtifactFile write(Path directory, String fileName, Content content) throws IOException {
+        Path tempFile = directory.resolve(fileName + TEMP_EXTENSION);
+        Path tempGzipFile = directory.resolve(fileName + GZIP_EXTENSION + TEMP_EXTENSION);
+
+        MessageDigest digest = getSha256();
+        try (OutputStream outputStream = new DigestOutputStream(new BufferedOutputStream(Files.newOutputStream(tempFile)), digest)) {
+            content.writeTo(outputStream);
+        }
+        StringBuilder hash = new StringBuilder();
+        for (byte b : digest.digest()) {
+            hash.append(String.format("%02x", b));
+        }
+        Path file = directory.resolve(getRenderedFileName(fileName, hash.toString()));
+        Path gzipFile = directory.resolve(getRenderedFileName(fileName, hash.toString()) + GZIP_EXTENSION);
+
+        if (Files.exists(file) && Files.exists(gzipFile)) {
+            Files.delete(tempFile);
+        } else {
+            try (OutputStream outputStream = new GZIPOutputStream(new BufferedOutputStream(Files.newOutputStream(tempGzipFile)))) {
+                Files.copy(tempFile, outputStream);
+            }
+            move(tempGzipFile, gzipFile);
+            move(tempFile, file);
+        }
+        return new ArtifactFile(file, gzipFile);
+    }
+
+    static String getRenderedFileName(String fileName, String hash) {
+        return fileName + "." + hash;
+    }
+
+    private static void move(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static MessageDigest getSha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    static String getDirectoryName(String dataVersion) {
+        return StringUtils.isEmpty(dataVersion) ? "unversioned" : dataVersion.replaceAll("[^A-Za-z0-9._-]", "_");
+    }
+
+    /**
+     * Remove the artifact files which are neither in the current nor in the previous rendering. Only the artifact files
+     * are removed, anything else placed in the root directory is kept.
+     */
+    private void removeUnusedFiles(Path currentDirectory, Map<ExportArtifact, ArtifactFile> current, Map<ExportArtifact, ArtifactFile> previous) throws IOException {
+        Set<Path> used = new HashSet<>();
+        for (Map<ExportArtifact, ArtifactFile> rendered : Arrays.asList(current, previous)) {
+            for (ArtifactFile artifactFile : rendered.values()) {
+                used.add(artifactFile.getFile());
+                used.add(artifactFile.getGzipFile());
+            }
+        }
+        try (DirectoryStream<Path> directories = Files.newDirectoryStream(rootDirectory, Files::isDirectory)) {
+            for (Path directory : directories) {
+                try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, file -> isArtifactFile(file) && !used.contains(file))) {
+                    for (Path file : files) {
+                        Files.deleteIfExists(file);
+                    }
+                }
+                if (!directory.equals(currentDirectory)) {
+                    try (DirectoryStream<Path> remaining = Files.newDirectoryStream(directory)) {
+                        if (!remaining.iterator().hasNext()) {
+                            Files.delete(directory);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    static boolean isArtifactFile(Path file) {
+        String name = file.getFileName().toString();
+        for (ExportArtifact artifact : ExportArtifact.values()) {
+            // the files named without the hash were written by the earlier versions
+            if (name.equals(artifact.getFileName()) || name.startsWith(artifact.getFileName() + ".")) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,75 @@
+package org.mskcc.cbio.oncokb.cache;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * A bounded in-process cache in front of Redis. The least recently used entry is dropped when the cache is full,
+ * and entries expire after the TTL so an instance which missed an invalidation does not serve stale data forever.
+ * Only use it for values which are not modified by the callers, the same instance is handed out on every hit.
+ */
+public class NearCache {
+    private final int maxSize;
+    private final long ttlMillis;
+    private final LongSupplier clock;
+    private final LinkedHashMap<Object, Entry> entries;
+
+    public NearCache(int maxSize, long ttlMillis) {
+        this(maxSize, ttlMillis, System::currentTimeMillis);
+    }
+
+    NearCache(int maxSize, long ttlMillis, LongSupplier clock) {
+        this.maxSize = maxSize;
+        this.ttlMillis = ttlMillis;
+        this.clock = clock;
+        this.entries = new LinkedHashMap<Object, Entry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Object, Entry> eldest) {
+                return size() > NearCache.this.maxSize;
+            }
+        };
+    }
+
+    public synchronized Object get(Object key) {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expiresAt <= clock.getAsLong()) {
+            entries.remove(key);
+            return null;
+        }
+        return entry.value;
+    }
+
+    public synchronized void put(Object key, Object value) {
+        if (value == null) {
+            entries.remove(key);
+        } else {
+            entries.put(key, new Entry(value, clock.getAsLong() + ttlMillis));
+        }
+    }
+
+    public synchronized void evict(Object key) {
+        entries.remove(key);
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private static class Entry {
+        private final Object value;
+        private final long expiresAt;
+
+        private Entry(Object value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
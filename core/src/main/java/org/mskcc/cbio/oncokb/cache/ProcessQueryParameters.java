@@ -0,0 +1,129 @@
+package org.mskcc.cbio.oncokb.cache;
+
+import org.mskcc.cbio.oncokb.model.EvidenceType;
+import org.mskcc.cbio.oncokb.model.LevelOfEvidence;
+import org.mskcc.cbio.oncokb.model.ReferenceGenome;
+import org.mskcc.cbio.oncokb.model.StructuralVariantType;
+
+import java.util.Set;
+
+/**
+ * The arguments of one CacheFetcher.processQuery call, used to annotate a batch of queries at once.
+ */
+public class ProcessQueryParameters {
+    private final ReferenceGenome referenceGenome;
+    private final Integer entrezGeneId;
+    private final String hugoSymbol;
+    private final String alteration;
+    private final String alterationType;
+    private final String tumorType;
+    private final String consequence;
+    private final Integer proteinStart;
+    private final Integer proteinEnd;
+    private final StructuralVariantType svType;
+    private final String hgvs;
+    private final Set<LevelOfEvidence> levels;
+    private final Boolean highestLevelOnly;
+    private final Set<EvidenceType> evidenceTypes;
+    private final Boolean geneQueryOnly;
+
+    public ProcessQueryParameters(ReferenceGenome referenceGenome,
+                                  Integer entrezGeneId,
+                                  String hugoSymbol,
+                                  String alteration,
+                                  String alterationType,
+                                  String tumorType,
+                                  String consequence,
+                                  Integer proteinStart,
+                                  Integer proteinEnd,
+                                  StructuralVariantType svType,
+                                  String hgvs,
+                                  Set<LevelOfEvidence> levels,
+                                  Boolean highestLevelOnly,
+                                  Set<EvidenceType> evidenceTypes,
+                                  Boolean geneQueryOnly) {
+        this.referenceGenome = referenceGenome;
+        this.entrezGeneId = entrezGeneId;
+        this.hugoSymbol = hugoSymbol;
+        this.alteration = alteration;
+        this.alterationType = alterationType;
+        this.tumorType = tumorType;
+        this.consequence = consequence;
+        this.proteinStart = proteinStart;
+        this.proteinEnd = proteinEnd;
+        this.svType = svType;
+        this.hgvs = hgvs;
+        this.levels = levels;
+        this.highestLevelOnly = highestLevelOnly;
+        this.evidenceTypes = evidenceTypes;
+        this.geneQueryOnly = geneQueryOnly;
+    }
+
+    public ReferenceGenome getReferenceGenome() {
+        return referenceGenome;
+    }
+
+    public Integer getEntrezGeneId() {
+        return entrezGeneId;
+    }
+
+    public String getHugoSymbol() {
+        return hugoSymbol;
+    }
+
+    public String getAlteration() {
+        return alteration;
+    }
+
+    public String getAlterationType() {
+        return alterationType;
+    }
+
+    public String getTumorType() {
+        return tumorType;
+    }
+
+    public String getConsequence() {
+        return consequence;
+    }
+
+    public Integer getProteinStart() {
+        return proteinStart;
+    }
+
+    public Integer getProteinEnd() {
+        return proteinEnd;
+    }
+
+    public StructuralVariantType getSvType() {
+        return svType;
+    }
+
+    public String getHgvs() {
+        return hgvs;
+    }
+
+    public Set<LevelOfEvidence> getLevels() {
+        return levels;
+    }
+
+    public Boolean getHighestLevelOnly() {
+        return highestLevelOnly;
+    }
+
+    public Set<EvidenceType> getEvidenceTypes() {
+        return evidenceTypes;
+    }
+
+    public Boolean getGeneQueryOnly() {
+        return geneQueryOnly;
+    }
+
+    // Same order as the arguments of processQuery, the cache key is generated from them
+    Object[] toArguments() {
+        return new Object[]{
+            referenceGenome, entrezGeneId, hugoSymbol, alteration, alterationType, tumorType, consequence,
+            proteinStart, proteinEnd, svType, hgvs, levels, highestLevelOnly, evidenceTypes, geneQueryOnly
+        };
+    }
+}
@@ -0,0 +1,121 @@
+package org.mskcc.cbio.oncokb.genomenexus;
+
+import org.genome_nexus.ApiException;
+import org.mskcc.cbio.oncokb.cache.BatchExecutor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Sends a large Genome Nexus request as smaller chunks in parallel, on a bounded pool shared by all requests, and merges
+ * the responses back in the order of the queries. The pool size caps the chunks in flight across all requests, and the
+ * concurrency per request caps the chunks in flight of a single request, so one large request cannot take the pool. A chunk failing with a transient error, i.e. connection problems, timeouts, 429 or 5xx,
+ * is retried with an exponential backoff.
+ */
+public class ChunkedRequestExecutor {
+    public interface ChunkRequest<T, R> {
+        List<R> fetch(List<T> chunk) throws ApiException;
+    }
+
+    private static final long MAX_BACKOFF_MILLIS = 30000;
+
+    private final BatchExecutor batchExecutor;
+    private final int chunkSize;
+    private final int maxAttempts;
+    private final long initialBackoffMillis;
+
+    public ChunkedRequestExecutor(int chunkSize, int poolSize, int concurrencyPerRequest, int maxAttempts, long initialBackoffMillis) {
+        this.batchExecutor = new BatchExecutor("oncokb-genome-nexus", poolSize, concurrencyPerRequest);
+        this.chunkSize = Math.max(1, chunkSize);
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.initialBackoffMillis = Math.max(0, initialBackoffMillis);
+    }
+
+    public <T, R> List<R> execute(List<T> queries, ChunkRequest<T, R> request) throws ApiException {
+        if (queries.size() <= chunkSize) {
+            return fetchWithRetry(queries, request);
+        }
+
+        List<List<T>> chunks = new ArrayList<>();
+        for (int i = 0; i < queries.size(); i += chunkSize) {
+            chunks.add(queries.subList(i, Math.min(i + chunkSize, queries.size())));
+        }
+
+        List<List<R>> responses;
+        try {
+            responses = batchExecutor.map(chunks, chunk -> {
+                try {
+                    List<R> response = fetchWithRetry(chunk, request);
+                    // The responses are merged by position, so every chunk has to be fully annotated
+                    if (response == null || response.size() != chunk.size()) {
+                        throw new ApiException("Genome Nexus returned " + (response == null ? 0 : response.size()) + " annotations for " + chunk.size() + " queries");
+                    }
+                    return response;
+                } catch (ApiException e) {
+                    throw new ChunkFailure(e);
+                }
+            });
+        } catch (ChunkFailure e) {
+            throw e.getApiException();
+        }
+
+        List<R> result = new ArrayList<>(queries.size());
+        for (List<R> response : responses) {
+            result.addAll(response);
+        }
+        return result;
+    }
+
+    private <T, R> List<R> fetchWithRetry(List<T> chunk, ChunkRequest<T, R> request) throws ApiException {
+        int attempt = 1;
+        List<R> response;
+        while (true) {
+            try {
+                response = request.fetch(chunk);
+                break;
+            } catch (ApiException e) {
+                if (attempt >= maxAttempts || !isTransient(e)) {
+                    throw e;
+                }
+                sleep(getBackoffMillis(attempt));
+                attempt++;
+            }
+        }
+        return response;
+    }
+
+    /**
+     * The client reports connection problems and timeouts with the code 0.
+     */
+    static boolean isTransient(ApiException e) {
+        int code = e.getCode();
+        return code == 0 || code == 429 || code >= 500;
+    }
+
+    long getBackoffMillis(int attempt) {
+        return Math.min(MAX_BACKOFF_MILLIS, initialBackoffMillis << Math.min(attempt - 1, 20));
+    }
+
+    private static void sleep(long millis) throws ApiException {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ApiException(e);
+        }
+    }
+
+    public void shutdown() {
+        batchExecutor.shutdown();
+    }
+
+    private static class ChunkFailure extends RuntimeException {
+        ChunkFailure(ApiException cause) {
+            super(cause);
+        }
+
+        ApiException getApiException() {
+            return (ApiException) getCause();
+        }
+    }
+}
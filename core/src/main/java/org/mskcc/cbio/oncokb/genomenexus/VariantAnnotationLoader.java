@@ -0,0 +1,122 @@
+package org.mskcc.cbio.oncokb.genomenexus;
+
+import org.genome_nexus.ApiException;
+import org.genome_nexus.client.VariantAnnotation;
+import org.mskcc.cbio.oncokb.model.ReferenceGenome;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Annotates the queries through Genome Nexus. The annotations kept in the {@link VariantAnnotationStore} are used
+ * first, only the missing queries are sent.
+ * <p>
+ * The callers match the annotations to the queries by position, so the result always has one annotation per query in
+ * the order of the queries. A query Genome Nexus does not return an annotation for, even after sending it again, gets
+ * an annotation which is not successfully annotated.
+ */
+public class VariantAnnotationLoader {
+    private static final Logger LOG = LoggerFactory.getLogger(VariantAnnotationLoader.class);
+    private static final int MAX_ATTEMPTS = 2;
+
+    private final VariantAnnotationStore store;
+    private final ChunkedRequestExecutor executor;
+
+    /**
+     * @param store null when the annotations are not kept locally
+     */
+    public VariantAnnotationLoader(VariantAnnotationStore store, ChunkedRequestExecutor executor) {
+        this.store = store;
+        this.executor = executor;
+    }
+
+    public <T> List<VariantAnnotation> load(GNVariantAnnotationType type, ReferenceGenome referenceGenome, List<T> queries, Function<T, String> queryToString, ChunkedRequestExecutor.ChunkRequest<T, VariantAnnotation> request) throws ApiException {
+        VariantAnnotation[] result = new VariantAnnotation[queries.size()];
+        String[] keys = new String[queries.size()];
+        List<Integer> missingIndexes = new ArrayList<>();
+        for (int i = 0; i < queries.size(); i++) {
+            String query = queryToString.apply(queries.get(i));
+            VariantAnnotation annotation = null;
+            if (store != null) {
+                keys[i] = VariantAnnotationStore.getKey(type, referenceGenome, query);
+                annotation = store.get(keys[i]);
+            }
+            if (annotation == null) {
+                missingIndexes.add(i);
+            } else {
+                annotation.setOriginalVariantQuery(query);
+                result[i] = annotation;
+            }
+        }
+
+        for (int attempt = 1; attempt <= MAX_ATTEMPTS && !missingIndexes.isEmpty(); attempt++) {
+            List<T> missingQueries = new ArrayList<>(missingIndexes.size());
+            for (Integer index : missingIndexes) {
+                missingQueries.add(queries.get(index));
+            }
+            List<VariantAnnotation> annotations = executor.execute(missingQueries, request);
+            missingIndexes = assignAnnotations(queries, queryToString, missingIndexes, annotations, keys, result);
+        }
+
+        if (!missingIndexes.isEmpty()) {
+            LOG.warn("Genome Nexus did not annotate {} of {} queries, e.g. {}", missingIndexes.size(), queries.size(), queryToString.apply(queries.get(missingIndexes.get(0))));
+            for (Integer index : missingIndexes) {
+                result[index] = createFailedAnnotation(queryToString.apply(queries.get(index)));
+            }
+        }
+        return new ArrayList<>(Arrays.asList(result));
+    }
+
+    /**
+     * @return the indexes of the queries which are still not annotated
+     */
+    private <T> List<Integer> assignAnnotations(List<T> queries, Function<T, String> queryToString, List<Integer> indexes, List<VariantAnnotation> annotations, String[] keys, VariantAnnotation[] result) {
+        List<Integer> unmatchedIndexes = new ArrayList<>();
+        if (annotations != null && annotations.size() == indexes.size()) {
+            // Genome Nexus returns the annotations in the order of the queries
+            for (int i = 0; i < indexes.size(); i++) {
+                if (!assignAnnotation(indexes.get(i), annotations.get(i), keys, result)) {
+                    unmatchedIndexes.add(indexes.get(i));
+                }
+            }
+            return unmatchedIndexes;
+        }
+
+        LOG.warn("Genome Nexus returned {} annotations for {} queries, matching them by query", annotations == null ? 0 : annotations.size(), indexes.size());
+        Map<String, VariantAnnotation> annotationsByQuery = new HashMap<>();
+        if (annotations != null) {
+            for (VariantAnnotation annotation : annotations) {
+                if (annotation != null && annotation.getOriginalVariantQuery() != null) {
+                    annotationsByQuery.putIfAbsent(annotation.getOriginalVariantQuery(), annotation);
+                }
+            }
+        }
+        for (Integer index : indexes) {
+            if (!assignAnnotation(index, annotationsByQuery.get(queryToString.apply(queries.get(index))), keys, result)) {
+                unmatchedIndexes.add(index);
+            }
+        }
+        return unmatchedIndexes;
+    }
+
+    private boolean assignAnnotation(int index, VariantAnnotation annotation, String[] keys, VariantAnnotation[] result) {
+        if (annotation == null) {
+            return false;
+        }
+        // Only keep the successful annotations, the failed ones could be temporary
+        if (store != null && Boolean.TRUE.equals(annotation.isSuccessfullyAnnotated())) {
+            store.put(keys[index], annotation);
+        }
+        result[index] = annotation;
+        return true;
+    }
+
+    private static VariantAnnotation createFailedAnnotation(String query) {
+        VariantAnnotation annotation = new VariantAnnotation();
+        annotation.setOriginalVariantQuery(query);
+        annotation.setSuccessfullyAnnotated(false);
+        return annotation;
+    }
+}
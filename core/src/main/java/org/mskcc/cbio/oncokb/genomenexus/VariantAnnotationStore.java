@@ -0,0 +1,177 @@
+package org.mskcc.cbio.oncokb.genomenexus;
+
+import com.google.gson.Gson;
+import org.apache.commons.lang3.StringUtils;
+import org.genome_nexus.client.VariantAnnotation;
+import org.h2.mvstore.MVMap;
+import org.h2.mvstore.MVStore;
+import org.mskcc.cbio.oncokb.model.ReferenceGenome;
+
+import java.io.*;
+import java.util.Map;
+
+/**
+ * Disk backed store of the Genome Nexus variant annotations, keyed by the reference genome and the normalized query.
+ * The annotations are kept as JSON so the store does not depend on the serialization of the Genome Nexus client models.
+ * <p>
+ * The export format is one annotation per line, the key and the JSON separated by a tab.
+ */
+public class VariantAnnotationStore implements Closeable {
+    private static final String MAP_NAME = "variantAnnotations";
+    private static final String KEY_SEPARATOR = ":";
+    private static final String EXPORT_SEPARATOR = "\t";
+    private static final String NUCLEOTIDES = "ACGTN";
+    // delins has to be matched before del
+    private static final String[] EDIT_TYPES = {"delins", "del", "ins", "dup", "inv"};
+
+    private final Gson gson = new Gson();
+    private final MVStore store;
+    private final MVMap<String, String> annotations;
+
+    public VariantAnnotationStore(String fileName) {
+        this.store = new MVStore.Builder().fileName(fileName).compress().open();
+        this.annotations = store.openMap(MAP_NAME);
+    }
+
+    /**
+     * @return the store key, or null when the query is empty
+     */
+    public static String getKey(GNVariantAnnotationType type, ReferenceGenome referenceGenome, String query) {
+        if (type == null || referenceGenome == null || StringUtils.isBlank(query)) {
+            return null;
+        }
+        return String.join(KEY_SEPARATOR, type.name(), referenceGenome.name(), normalizeQuery(query));
+    }
+
+    /**
+     * Remove the white spaces and the chr prefix, and use the upper case for the chromosome and the nucleotides so
+     * 7:g.140453136a>t and chr7:g.140453136A>T share the same key. The coordinate type, i.e. g., and the edit types,
+     * i.e. del and ins, are case sensitive in HGVS and kept as they are.
+     */
+    static String normalizeQuery(String query) {
+        String normalized = StringUtils.deleteWhitespace(query);
+        if (StringUtils.startsWithIgnoreCase(normalized, "chr")) {
+            normalized = normalized.substring(3);
+        }
+        int separator = normalized.indexOf(':');
+        if (separator < 0) {
+            // The genomic locations only have the chromosome, the positions and the alleles
+            return normalized.toUpperCase();
+        }
+        StringBuilder sb = new StringBuilder(normalized.length());
+        sb.append(normalized.substring(0, separator).toUpperCase()).append(':');
+        int i = separator + 1;
+        int coordinateType = normalized.indexOf('.', i);
+        if (coordinateType > 0) {
+            sb.append(normalized, i, coordinateType + 1);
+            i = coordinateType + 1;
+        }
+        while (i < normalized.length()) {
+            String editType = getEditType(normalized, i);
+            if (editType != null) {
+                sb.append(normalized, i, i + editType.length());
+                i += editType.length();
+            } else {
+                char c = normalized.charAt(i);
+                sb.append(NUCLEOTIDES.indexOf(Character.toUpperCase(c)) >= 0 ? Character.toUpperCase(c) : c);
+                i++;
+            }
+        }
+        return sb.toString();
+    }
+
+    private static String getEditType(String query, int offset) {
+        for (String editType : EDIT_TYPES) {
+            if (query.regionMatches(true, offset, editType, 0, editType.length())) {
+                return editType;
+            }
+        }
+        return null;
+    }
+
+    public VariantAnnotation get(String key) {
+        if (key == null) {
+            return null;
+        }
+        String json = annotations.get(key);
+        return json == null ? null : gson.fromJson(json, VariantAnnotation.class);
+    }
+
+    public void put(String key, VariantAnnotation annotation) {
+        if (key == null || annotation == null) {
+            return;
+        }
+        annotations.put(key, gson.toJson(annotation));
+    }
+
+    public int size() {
+        return annotations.size();
+    }
+
+    public void clear() {
+        annotations.clear();
+        store.commit();
+    }
+
+    public int exportTo(Writer writer) throws IOException {
+        BufferedWriter bufferedWriter = new BufferedWriter(writer);
+        int count = 0;
+        for (Map.Entry<String, String> entry : annotations.entrySet()) {
+            bufferedWriter.write(entry.getKey());
+            bufferedWriter.write(EXPORT_SEPARATOR);
+            bufferedWriter.write(entry.getValue());
+            bufferedWriter.newLine();
+            count++;
+        }
+        bufferedWriter.flush();
+        return count;
+    }
+
+    /**
+     * Import the annotations exported by {@link #exportTo(Writer)}, existing keys are overwritten.
+     */
+    public int importFrom(Reader reader) throws IOException {
+        BufferedReader bufferedReader = new BufferedReader(reader);
+        int count = 0;
+        String line;
+        while ((line = bufferedReader.readLine()) != null) {
+            int separator = line.indexOf(EXPORT_SEPARATOR);
+            if (separator <= 0) {
+                continue;
+            }
+            String json = line.substring(separator + 1);
+            // Validate the annotation before saving it
+            gson.fromJson(json, VariantAnnotation.class);
+            annotations.put(line.substring(0, separator), json);
+            count++;
+        }
+        store.commit();
+        return count;
+    }
+
+    @Override
+    public void close() {
+        store.close();
+    }
+
+    /**
+     * Usage: VariantAnnotationStore [store file] [export|import] [annotations file]
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 3 || !(args[1].equals("export") || args[1].equals("import"))) {
+            System.out.println("Usage: VariantAnnotationStore [store file] [export|import] [annotations file]");
+            return;
+        }
+        try (VariantAnnotationStore store = new VariantAnnotationStore(args[0])) {
+            if (args[1].equals("export")) {
+                try (Writer writer = new OutputStreamWriter(new FileOutputStream(args[2]), "UTF-8")) {
+                    System.out.println("Exported " + store.exportTo(writer) + " annotations");
+                }
+            } else {
+                try (Reader reader = new InputStreamReader(new FileInputStream(args[2]), "UTF-8")) {
+                    System.out.println("Imported " + store.importFrom(reader) + " annotations");
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package org.mskcc.cbio.oncokb.util;
+
+import org.mskcc.cbio.oncokb.model.Alteration;
+import org.mskcc.cbio.oncokb.model.AlterationPositionBoundary;
+import org.mskcc.cbio.oncokb.model.Gene;
+import org.mskcc.cbio.oncokb.model.ReferenceGenome;
+import org.mskcc.cbio.oncokb.model.VariantConsequence;
+
+import java.util.*;
+
+import static org.mskcc.cbio.oncokb.Constants.SPLICE_SITE_VARIANTS;
+
+/**
+ * Protein position index of one gene alteration list, answers the same question as
+ * {@link AlterationUtils#findOverlapAlteration} without going through the whole list.
+ *
+ * The alterations are grouped by consequence (splice site variants share one group, see
+ * {@link AlterationUtils#consequenceRelated}). In each group they are sorted by protein start, and an implicit
+ * binary tree over the sorted alterations keeps the max protein end of every subtree, so only the subtrees which
+ * can contain a match are visited.
+ */
+final class AlterationOverlapIndex {
+    private static final Object SPLICE_SITE_GROUP = new Object();
+
+    private final List<Alteration> source;
+    private final Map<Object, Intervals> intervalsByConsequence;
+
+    private AlterationOverlapIndex(List<Alteration> source, Map<Object, Intervals> intervalsByConsequence) {
+        this.source = source;
+        this.intervalsByConsequence = intervalsByConsequence;
+    }
+
+    /**
+     * @return the index of the alterations, or null when some alterations do not have a protein range
+     */
+    static AlterationOverlapIndex build(List<Alteration> alterations) {
+        Map<Object, List<Alteration>> alterationsByConsequence = new HashMap<>();
+        for (Alteration alteration : alterations) {
+            if (alteration.getConsequence() == null) {
+                // never overlaps
+                continue;
+            }
+            if (alteration.getProteinStart() == null || alteration.getProteinEnd() == null) {
+                return null;
+            }
+            alterationsByConsequence.computeIfAbsent(getConsequenceGroup(alteration.getConsequence()), key -> new ArrayList<>()).add(alteration);
+        }
+        Map<Object, Intervals> intervalsByConsequence = new HashMap<>();
+        alterationsByConsequence.forEach((group, groupAlterations) -> intervalsByConsequence.put(group, new Intervals(groupAlterations)));
+        return new AlterationOverlapIndex(alterations, intervalsByConsequence);
+    }
+
+    boolean isBuiltFrom(List<Alteration> alterations) {
+        return source == alterations;
+    }
+
+    Set<Alteration> findOverlapAlteration(Gene gene, ReferenceGenome referenceGenome, VariantConsequence consequence, int start, int end) {
+        Set<Alteration> overlaps = new HashSet<>();
+        Intervals intervals = consequence == null ? null : intervalsByConsequence.get(getConsequenceGroup(consequence));
+        if (intervals == null) {
+            return overlaps;
+        }
+        List<Alteration> candidates = new ArrayList<>();
+        //For alteration without specific position, do not do intersection
+        if (start <= AlterationPositionBoundary.START.getValue() || end >= AlterationPositionBoundary.END.getValue()) {
+            intervals.find(start, end, candidates);
+        } else {
+            //For variant, as long as they are overlapped to each, return the alteration
+            intervals.find(end, start, candidates);
+        }
+        for (Alteration alteration : candidates) {
+            if (alteration.getGene().equals(gene) && (referenceGenome == null || alteration.getReferenceGenomes().contains(referenceGenome))) {
+                overlaps.add(alteration);
+            }
+        }
+        return overlaps;
+    }
+
+    private static Object getConsequenceGroup(VariantConsequence consequence) {
+        return SPLICE_SITE_VARIANTS.contains(consequence) ? SPLICE_SITE_GROUP : consequence;
+    }
+
+    private static final class Intervals {
+        private final int[] starts;
+        private final int[] ends;
+        private final Alteration[] alterations;
+        // maxEnds[node] is the max end of the alterations covered by the node, the root covers the whole array
+        private final int[] maxEnds;
+
+        private Intervals(List<Alteration> groupAlterations) {
+            List<Alteration> sorted = new ArrayList<>(groupAlterations);
+            sorted.sort(Comparator.comparingInt(Alteration::getProteinStart));
+            int size = sorted.size();
+            starts = new int[size];
+            ends = new int[size];
+            alterations = new Alteration[size];
+            for (int i = 0; i < size; i++) {
+                alterations[i] = sorted.get(i);
+                starts[i] = alterations[i].getProteinStart();
+                ends[i] = alterations[i].getProteinEnd();
+            }
+            maxEnds = new int[Math.max(1, 4 * size)];
+            if (size > 0) {
+                buildMaxEnds(1, 0, size - 1);
+            }
+        }
+
+        private int buildMaxEnds(int node, int low, int high) {
+            if (low == high) {
+                maxEnds[node] = ends[low];
+            } else {
+                int mid = (low + high) >>> 1;
+                maxEnds[node] = Math.max(buildMaxEnds(2 * node, low, mid), buildMaxEnds(2 * node + 1, mid + 1, high));
+            }
+            return maxEnds[node];
+        }
+
+        /**
+         * Find the alterations which start at or before maxStart and end at or after minEnd
+         */
+        private void find(int maxStart, int minEnd, List<Alteration> result) {
+            // the last alteration which starts at or before maxStart
+            int low = 0;
+            int high = starts.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (starts[mid] <= maxStart) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            int last = low - 1;
+            if (last >= 0) {
+                find(1, 0, starts.length - 1, last, minEnd, result);
+            }
+        }
+
+        private void find(int node, int low, int high, int last, int minEnd, List<Alteration> result) {
+            if (low > last || maxEnds[node] < minEnd) {
+                return;
+            }
+            if (low == high) {
+                result.add(alterations[low]);
+                return;
+            }
+            int mid = (low + high) >>> 1;
+            find(2 * node, low, mid, last, minEnd, result);
+            find(2 * node + 1, mid + 1, high, last, minEnd, result);
+        }
+    }
+}
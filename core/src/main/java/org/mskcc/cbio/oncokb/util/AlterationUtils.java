@@ -39,6 +39,12 @@ public final class AlterationUtils {
     public static Pattern HGVSG_FORMAT = Pattern.compile("((grch37|grch38):)?((chr)?[\\dxy]+:g\\.\\d+.*)", Pattern.CASE_INSENSITIVE);
     public static Pattern HGVSC_FORMAT = Pattern.compile("((grch37|grch38):)?(ENST\\d+(\\.\\d+)?:c\\.\\d+.*)", Pattern.CASE_INSENSITIVE);
     public static Pattern GENOMIC_CHANGE_FORMAT = Pattern.compile("((grch37|grch38):)?([\\dxy]+,\\d+,\\d+,.*)", Pattern.CASE_INSENSITIVE);
+    private static final Pattern RANGE_INFRAME_FORMAT = Pattern.compile("([0-9]+)_([0-9]+)(ins|del)(.*)");
+    private static final Pattern EXCLUSION_CRITERIA_FORMAT = Pattern.compile("(.*)[\\{\\(]\\s*(exclude|excluding)(.*)[\\}\\)](.*)?", Pattern.CASE_INSENSITIVE);
+    private static final Pattern MULTIPLE_VARIANT_RESIDUES_FORMAT = Pattern.compile("([A-Z][0-9]+)([^0-9/]+/.+)", Pattern.CASE_INSENSITIVE);
+    private static final Pattern REFERENCE_GENOME_PREFIX_FORMAT = Pattern.compile("(((grch37)|(grch38)):\\s*).*", Pattern.CASE_INSENSITIVE);
+    private static final Pattern FRAMESHIFT_FORMAT = Pattern.compile("([A-Z\\*]+)?([0-9]+)([A-Z])?fs(\\*([0-9]+|\\?)?)?", Pattern.CASE_INSENSITIVE);
+    private static final Pattern DELINS_VARIANT_RESIDUES_FORMAT = Pattern.compile(".*delins([\\w]+)");
 
     private static String EXCLUSION_SEPERATOR_REGEX = "\\s*;\\s*";
 
@@ -92,8 +98,7 @@ public final class AlterationUtils {
             return false;
         }
 
-        Pattern p = Pattern.compile("([0-9]+)_([0-9]+)(ins|del)(.*)");
-        Matcher m = p.matcher(alteration.getAlteration());
+        Matcher m = RANGE_INFRAME_FORMAT.matcher(alteration.getAlteration());
         return m.matches();
     }
 
@@ -105,6 +110,11 @@ public final class AlterationUtils {
     }
 
     public static Set<Alteration> findOverlapAlteration(List<Alteration> alterations, Gene gene, ReferenceGenome referenceGenome, VariantConsequence consequence, int start, int end, String proteinChange) {
+        // The cached gene alteration lists are indexed by position, other lists are scanned
+        AlterationOverlapIndex overlapIndex = gene == null ? null : CacheUtils.getAlterationOverlapIndex(gene.getEntrezGeneId(), alterations);
+        if (overlapIndex != null) {
+            return overlapIndex.findOverlapAlteration(gene, referenceGenome, consequence, start, end);
+        }
         Set<Alteration> overlaps = new HashSet<>();
         VariantConsequence inframeDeletionConsequence = VariantConsequenceUtils.findVariantConsequenceByTerm(IN_FRAME_DELETION);
         for (int i = 0; i < alterations.size(); i++) {
@@ -130,9 +140,7 @@ public final class AlterationUtils {
         if (proteinChange == null) {
             proteinChange = "";
         }
-        Pattern exclusionPatter = Pattern.compile("(.*)[\\{\\(]\\s*(exclude|excluding)(.*)[\\}\\)](.*)?", Pattern.CASE_INSENSITIVE);
-        Matcher exclusionMatch = exclusionPatter.matcher(proteinChange);
-        return exclusionMatch;
+        return EXCLUSION_CRITERIA_FORMAT.matcher(proteinChange);
     }
 
     public static String removeExclusionCriteria(String proteinChange) {
@@ -172,13 +180,11 @@ public final class AlterationUtils {
 
         String[] parts = mutationStr.split(mutationSeparator);
 
-        Pattern p = Pattern.compile("([A-Z][0-9]+)([^0-9/]+/.+)", Pattern.CASE_INSENSITIVE);
-        Pattern rgp = Pattern.compile("(((grch37)|(grch38)):\\s*).*", Pattern.CASE_INSENSITIVE);
         for (String part : parts) {
             String proteinChange, displayName;
             part = part.trim();
 
-            Matcher rgm = rgp.matcher(part);
+            Matcher rgm = REFERENCE_GENOME_PREFIX_FORMAT.matcher(part);
             Set<ReferenceGenome> referenceGenomes = new HashSet<>();
             if (rgm.find()) {
                 String referenceGenome = rgm.group(2);
@@ -215,7 +221,7 @@ public final class AlterationUtils {
             proteinChange = trimComment(proteinChange);
             proteinChange = proteinChange.replaceAll(EXCLUSION_SEPERATOR_REGEX, "; ");
 
-            Matcher m = p.matcher(proteinChange);
+            Matcher m = MULTIPLE_VARIANT_RESIDUES_FORMAT.matcher(proteinChange);
             if (m.find()) {
                 String ref = m.group(1);
                 for (String var : m.group(2).split("/")) {
@@ -243,8 +249,7 @@ public final class AlterationUtils {
         if (StringUtils.isEmpty(proteinChange)) {
             return null;
         }
-        Pattern p = Pattern.compile("([A-Z\\*]+)?([0-9]+)([A-Z])?fs(\\*([0-9]+|\\?)?)?", Pattern.CASE_INSENSITIVE);
-        Matcher m = p.matcher(proteinChange);
+        Matcher m = FRAMESHIFT_FORMAT.matcher(proteinChange);
         if (m.matches()) {
             FrameshiftVariant variant = new FrameshiftVariant();
             variant.setRefResidues(m.group(1) == null ? "" : m.group(1).toUpperCase());
@@ -285,12 +290,6 @@ public final class AlterationUtils {
     }
 
     public static void annotateAlteration(Alteration alteration, String proteinChange) {
-        String consequence = "NA";
-        String ref = null;
-        String var = null;
-        Integer start = AlterationPositionBoundary.START.getValue();
-        Integer end = AlterationPositionBoundary.END.getValue();
-
         if (alteration == null) {
             return;
         }
@@ -317,212 +316,12 @@ public final class AlterationUtils {
 
         proteinChange = proteinChange.trim();
 
-        Pattern p = Pattern.compile("([A-Z]?)([0-9]+)(_[A-Z]?([0-9]+))?(delins|ins|del)([A-Z0-9\\*]*)", Pattern.CASE_INSENSITIVE);
-        Matcher m = p.matcher(proteinChange);
-            if (m.matches()) {
-                if (m.group(1) != null && m.group(3) == null) {
-                    // we only want to specify reference when it's one position ins/del
-                    ref = m.group(1).toUpperCase();
-                }
-                start = Integer.valueOf(m.group(2));
-                if (m.group(4) != null) {
-                    end = Integer.valueOf(m.group(4));
-                } else {
-                    end = start;
-                }
-                String type = m.group(5);
-                if (type.equals("ins")) {
-                    consequence = IN_FRAME_INSERTION;
-                } else if (type.equals("del")) {
-                    consequence = IN_FRAME_DELETION;
-                } else {
-                    // this will be delins, it requires AA after delins to be specified, otherwise, you won't be able to know its consequence
-                    Integer deletion = end - start + 1;
-                    String groupSix = m.group(6);
-                    String groupSixWithoutDigits = MainUtils.removeDigits(groupSix);
-
-                    if (groupSixWithoutDigits.contains("*")) {
-                        consequence = "stop_gained";
-                    } 
-                    else if (groupSixWithoutDigits.length() != groupSix.length() && groupSixWithoutDigits.length() > 0) {
-                        if (groupSixWithoutDigits.length() > deletion) {
-                            consequence = IN_FRAME_INSERTION;
-                        } else {
-                            consequence = "NA";
-                        }
-                    } else {
-                        Integer insertion = groupSix.length();
-                        if (groupSixWithoutDigits.length() == 0 && insertion > 0) {
-                            insertion = Integer.parseInt(groupSix);
-                        }
-                        if (insertion == 0) {
-                            consequence = "NA";
-                        } else if (insertion - deletion > 0) {
-                            consequence = IN_FRAME_INSERTION;
-                        } else if (insertion - deletion == 0) {
-                            consequence = MISSENSE_VARIANT;
-                        } else {
-                            consequence = IN_FRAME_DELETION;
-                        }
-                    }
-                }
-            } else {
-                p = Pattern.compile("[A-Z]?([0-9]+)(_[A-Z]?([0-9]+))?(_)?splice", Pattern.CASE_INSENSITIVE);
-                m = p.matcher(proteinChange);
-                if (m.matches()) {
-                    start = Integer.valueOf(m.group(1));
-                    if (m.group(3) != null) {
-                        end = Integer.valueOf(m.group(3));
-                    } else {
-                        end = start;
-                    }
-                    consequence = "splice_region_variant";
-                } else {
-                    p = Pattern.compile("[A-Z]?([0-9]+)_[A-Z]?([0-9]+)(.+)", Pattern.CASE_INSENSITIVE);
-                    m = p.matcher(proteinChange);
-                    if (m.matches()) {
-                        start = Integer.valueOf(m.group(1));
-                        end = Integer.valueOf(m.group(2));
-                        String v = m.group(3).toLowerCase();
-                        switch (v) {
-                            case "mis":
-                                consequence = MISSENSE_VARIANT;
-                                break;
-                            case "ins":
-                                consequence = IN_FRAME_INSERTION;
-                                break;
-                            case "del":
-                                consequence = IN_FRAME_DELETION;
-                                break;
-                            case "fs":
-                                consequence = FRAMESHIFT_VARIANT;
-                                break;
-                            case "trunc":
-                                consequence = "feature_truncation";
-                                break;
-                            case "dup":
-                                consequence = IN_FRAME_INSERTION;
-                                break;
-                            case "mut":
-                                consequence = "any";
-                        }
-                    } else {
-                        FrameshiftVariant frameshiftVariant = parseFrameshiftVariant(proteinChange);
-                        if (frameshiftVariant != null) {
-                            ref = frameshiftVariant.getRefResidues();
-                            start = frameshiftVariant.getProteinStart();
-                            end = start;
-                            consequence = FRAMESHIFT_VARIANT;
-                        } else {
-                            p = Pattern.compile("([A-Z]+)?([0-9]+)((ins)|(del)|(dup)|(mut))", Pattern.CASE_INSENSITIVE);
-                            m = p.matcher(proteinChange);
-                            if (m.matches()) {
-                                ref = m.group(1) == null ? null : m.group(1).toUpperCase();
-                                start = Integer.valueOf(m.group(2));
-                                end = start;
-                                String v = m.group(3).toLowerCase();
-                                switch (v) {
-                                    case "ins":
-                                        consequence = IN_FRAME_INSERTION;
-                                        break;
-                                    case "dup":
-                                        consequence = IN_FRAME_INSERTION;
-                                        break;
-                                    case "del":
-                                        consequence = IN_FRAME_DELETION;
-                                        break;
-                                    case "mut":
-                                        consequence = "any";
-                                        break;
-                                }
-                            } else {
-                                p = Pattern.compile("M?1ext(-[0-9]+)?", Pattern.CASE_INSENSITIVE);
-                                m = p.matcher(proteinChange);
-                                if (m.matches()) {
-                                    start = 1;
-                                    end = start;
-                                    consequence = IN_FRAME_INSERTION;
-                                } else {
-                                    /**
-                                     * support extension variant (https://varnomen.hgvs.org/recommendations/protein/variant/extension/)
-                                     * the following examples are supported
-                                     * *959Qext*14
-                                     * *110Gext*17
-                                     * *315TextALGT*
-                                     * *327Aext*?
-                                     */
-                                    p = Pattern.compile("(\\*)?([0-9]+)[A-Z]?ext([A-Z]+)?\\*([0-9]+)?(\\?)?", Pattern.CASE_INSENSITIVE);
-                                    m = p.matcher(proteinChange);
-                                    if (m.matches()) {
-                                        ref = m.group(1) == null ? "" : m.group(1).toUpperCase();
-                                        start = Integer.valueOf(m.group(2));
-                                        end = start;
-                                        consequence = "stop_lost";
-                                    } else {
-                                        p = Pattern.compile("([A-Z\\*])?([0-9]+)=", Pattern.CASE_INSENSITIVE);
-                                        m = p.matcher(proteinChange);
-                                        if (m.matches()) {
-                                            var = ref = m.group(1) == null ? "" : m.group(1).toUpperCase();
-                                            start = Integer.valueOf(m.group(2));
-                                            end = start;
-                                            if (ref != null && ref.equals("*")) {
-                                                consequence = "stop_retained_variant";
-                                            } else {
-                                                consequence = "synonymous_variant";
-                                            }
-                                        } else {
-                                            p = Pattern.compile("^([A-Z\\*]+)?([0-9]+)([A-Z\\*\\?]*)$", Pattern.CASE_INSENSITIVE);
-                                            m = p.matcher(proteinChange);
-                                            if (m.matches()) {
-                                                ref = m.group(1) == null ? "" : m.group(1).toUpperCase();
-                                                start = Integer.valueOf(m.group(2));
-                                                end = start;
-                                                var = m.group(3).toUpperCase();
-
-                                                Integer refL = ref.length();
-                                                Integer varL = var.length();
-
-                                                if (ref.equals("*")) {
-                                                    consequence = "stop_lost";
-                                                } else if (var.equals("*")) {
-                                                    consequence = "stop_gained";
-                                                } else if (ref.equalsIgnoreCase(var)) {
-                                                    consequence = "synonymous_variant";
-                                                } else if (start == 1) {
-                                                    consequence = "start_lost";
-                                                } else if (var.equals("?")) {
-                                                    consequence = "any";
-                                                } else {
-                                                    end = start + refL - 1;
-                                                    if (refL > 1 || varL > 1) {
-                                                        // Handle in-frame insertion/deletion event. Exp: IK744K
-                                                        if (refL > varL) {
-                                                            consequence = IN_FRAME_DELETION;
-                                                        } else if (refL < varL) {
-                                                            consequence = IN_FRAME_INSERTION;
-                                                        } else {
-                                                            consequence = MISSENSE_VARIANT;
-                                                        }
-                                                    } else if (refL == 1 && varL == 1) {
-                                                        consequence = MISSENSE_VARIANT;
-                                                    } else {
-                                                        consequence = "NA";
-                                                    }
-                                                }
-                                            }
-                                        }
-                                    }
-                                }
-                            }
-                        }
-                    }
-                }
-            }
-
-        // truncating
-        if (proteinChange.toLowerCase().matches("truncating mutations?")) {
-            consequence = "feature_truncation";
-        }
+        ProteinChangeParser.ProteinChange parsedProteinChange = ProteinChangeParser.parse(proteinChange);
+        String consequence = parsedProteinChange.getConsequence();
+        String ref = parsedProteinChange.getRefResidues();
+        String var = parsedProteinChange.getVariantResidues();
+        Integer start = parsedProteinChange.getProteinStart();
+        Integer end = parsedProteinChange.getProteinEnd();
 
         VariantConsequence variantConsequence = VariantConsequenceUtils.findVariantConsequenceByTerm(consequence);
 
@@ -1218,8 +1017,7 @@ public final class AlterationUtils {
     }
 
     private static String getMissenseVariantAllele(Alteration alteration, int position) {
-        Pattern pattern = Pattern.compile(".*delins([\\w]+)");
-        Matcher matcher = pattern.matcher(alteration.getAlteration());
+        Matcher matcher = DELINS_VARIANT_RESIDUES_FORMAT.matcher(alteration.getAlteration());
         if (matcher.find()) {
             String variantAlleles = matcher.group(1);
             int index = position - alteration.getProteinStart();
@@ -1234,6 +1032,33 @@ public final class AlterationUtils {
         return null;
     }
 
+    /**
+     * The same as {@link #lookupVariant(String, Boolean, Boolean, List)} over all alterations, through the alteration
+     * search index of every gene instead of going through all alterations
+     */
+    public static List<Alteration> lookupVariant(String query, Boolean exactMatch, Boolean omitExclusion) {
+        List<Alteration> alterationList = new ArrayList<>();
+        query = query.toLowerCase().trim();
+        if (com.mysql.jdbc.StringUtils.isNullOrEmpty(query))
+            return alterationList;
+        for (TextSearchIndex<Alteration> searchIndex : CacheUtils.getAlterationSearchIndexes()) {
+            alterationList.addAll(searchIndex.search(query));
+        }
+
+        // if the query is part of the abbreviation list, the corresponding full name should be indexed.
+        if (NamingUtils.hasAbbreviation(query)) {
+            String fullName = NamingUtils.getFullName(query);
+            if (fullName != null) {
+                for (Alteration alteration : getAllAlterations()) {
+                    if (isMatch(exactMatch, fullName, alteration.getName())) {
+                        alterationList.add(alteration);
+                    }
+                }
+            }
+        }
+        return alterationList;
+    }
+
     public static List<Alteration> lookupVariant(String query, Boolean exactMatch, Boolean omitExclusion, List<Alteration> alterations) {
         List<Alteration> alterationList = new ArrayList<>();
         // Only support columns(alteration/name) blur search.
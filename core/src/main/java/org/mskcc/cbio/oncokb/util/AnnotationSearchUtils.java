@@ -22,6 +22,16 @@ import org.mskcc.cbio.oncokb.model.*;
 public class AnnotationSearchUtils {
 
     public static Set<TypeaheadSearchResp> searchNonHgvsAnnotation(String query){
+        return searchNonHgvsAnnotation(query, null);
+    }
+
+    /**
+     * The variants are ranked by their annotation summary from the {@link AnnotationSummaryTable}, only the variants
+     * returned get their annotation.
+     *
+     * @param limit the number of results to return, all of them when it is null
+     */
+    public static Set<TypeaheadSearchResp> searchNonHgvsAnnotation(String query, Integer limit){
         LinkedHashSet<TypeaheadSearchResp> result = new LinkedHashSet<>();
         // genomic queries will not have space in the query
         String trimmedQuery = query.trim().replaceAll(" ", "");
@@ -33,7 +43,7 @@ public class AnnotationSearchUtils {
             result.addAll(convertGene(GeneUtils.searchGene(keywords.get(0), false), keywords.get(0)));
 
             // Blur search variant
-            result.addAll(convertVariant(AlterationUtils.lookupVariant(keywords.get(0), false, false, AlterationUtils.getAllAlterations()), keywords.get(0)));
+            result.addAll(convertVariant(AlterationUtils.lookupVariant(keywords.get(0), false, false), keywords.get(0)));
 
             // Blur search drug
             result.addAll(findEvidencesWithDrugAssociated(keywords.get(0), false));
@@ -43,7 +53,7 @@ public class AnnotationSearchUtils {
 
             // If the keyword contains dash and result is empty, then we should return both fusion genes
             if (keywords.get(0).contains("-") && result.isEmpty()) {
-                for (String subKeyword : keywords.get(0).split("-")) {
+                for (String subKeyword : GeneUtils.getFusionPartners(keywords.get(0))) {
                     result.addAll(convertGene(GeneUtils.searchGene(subKeyword, false), subKeyword));
                 }
             }
@@ -53,7 +63,7 @@ public class AnnotationSearchUtils {
             for (String keyword : keywords) {
                 if (keyword.contains("-")) {
                     Set<Gene> subGenes = new HashSet<>();
-                    for (String subKeyword : keyword.split("-")) {
+                    for (String subKeyword : GeneUtils.getFusionPartners(keyword)) {
                         subGenes.addAll(GeneUtils.searchGene(subKeyword, false));
                     }
                     map.put(keyword, subGenes);
@@ -66,7 +76,7 @@ public class AnnotationSearchUtils {
 
             // If there is no match, the key words could referring to a variant, try to do a blur variant search
             String fullKeywords = StringUtils.join(keywords, " ");
-            result.addAll(convertVariant(AlterationUtils.lookupVariant(fullKeywords, false, false, AlterationUtils.getAllAlterations()), fullKeywords));
+            result.addAll(convertVariant(AlterationUtils.lookupVariant(fullKeywords, false, false), fullKeywords));
 
             // Blur search for cancer type
             result.addAll(findMatchingCancerTypes(fullKeywords, false));
@@ -82,6 +92,7 @@ public class AnnotationSearchUtils {
                                     Alteration alteration =
                                             AlterationUtils.getAlteration(gene.getHugoSymbol(), keyword, null, null, null, null, null);
                                     TypeaheadSearchResp typeaheadSearchResp = newTypeaheadVariant(alteration);
+                                    annotateTypeaheadVariant(typeaheadSearchResp);
                                     typeaheadSearchResp.setVariantExist(false);
                                     result.add(typeaheadSearchResp);
                                     if (typeaheadSearchResp.getOncogenicity() == null
@@ -99,11 +110,33 @@ public class AnnotationSearchUtils {
                 }
             }
         }
-        return result;
+
+        LinkedHashSet<TypeaheadSearchResp> returned = new LinkedHashSet<>();
+        for (TypeaheadSearchResp typeaheadSearchResp : result) {
+            if (limit != null && returned.size() >= limit) {
+                break;
+            }
+            if (TypeaheadQueryType.VARIANT.equals(typeaheadSearchResp.getQueryType()) && typeaheadSearchResp.getAnnotation() == null) {
+                annotateTypeaheadVariant(typeaheadSearchResp);
+            }
+            returned.add(typeaheadSearchResp);
+        }
+        return returned;
     }
 
-    public static TreeSet<AnnotationSearchResult> annotationSearch(String query){
-        TreeSet<AnnotationSearchResult> result = new TreeSet<>(new AnnotationSearchResultComp(query));
+    public static LinkedHashSet<AnnotationSearchResult> annotationSearch(String query){
+        return annotationSearch(query, null);
+    }
+
+    /**
+     * The search is done in two phases: the candidates are ranked by their annotation summary from the
+     * {@link AnnotationSummaryTable} first, then only the candidates returned are annotated.
+     *
+     * @param limit the number of results to return, all of them when it is null
+     */
+    public static LinkedHashSet<AnnotationSearchResult> annotationSearch(String query, Integer limit){
+        Comparator<AnnotationSearchResult> comparator = new AnnotationSearchResultComp(query);
+        TreeSet<AnnotationSearchCandidate> result = new TreeSet<>((c1, c2) -> comparator.compare(c1.getSummary(), c2.getSummary()));
         List<String> keywords = Arrays.asList(query.trim().split("\\s+"));
 
         if (keywords.size() == 1) {
@@ -118,7 +151,7 @@ public class AnnotationSearchUtils {
 
             // If the keyword contains dash and result is empty, then we should return both fusion genes
             if (keywords.get(0).contains("-") && result.isEmpty()) {
-                for (String subKeyword : keywords.get(0).split("-")) {
+                for (String subKeyword : GeneUtils.getFusionPartners(keywords.get(0))) {
                     result.addAll(findActionableGenesByGeneSearch(subKeyword));
                 }
             }
@@ -128,7 +161,7 @@ public class AnnotationSearchUtils {
             Set<Gene> geneMatches = new HashSet<>();
             if (keywords.get(0).contains("-")) {
                 Set<Gene> subGenes = new HashSet<>();
-                for (String subKeyword : keywords.get(0).split("-")) {
+                for (String subKeyword : GeneUtils.getFusionPartners(keywords.get(0))) {
                     subGenes.addAll(GeneUtils.searchGene(subKeyword, false));
                 }
                 geneMatches.addAll(subGenes);
@@ -137,7 +170,7 @@ public class AnnotationSearchUtils {
             }
 
             String alterationKeywords = StringUtils.join(keywords.subList(1, keywords.size()), " ");
-            List<Alteration> altMatches = AlterationUtils.lookupVariant(alterationKeywords, false, true, AlterationUtils.getAllAlterations())
+            List<Alteration> altMatches = AlterationUtils.lookupVariant(alterationKeywords, false, true)
                     .stream()
                     .filter(alt -> geneMatches.contains(alt.getGene()))
                     .collect(Collectors.toList());
@@ -151,11 +184,9 @@ public class AnnotationSearchUtils {
                     } else {
                         indicatorQuery.setAlteration((alteration.getAlteration()));
                     }
-                    AnnotationSearchResult annotationSearchResult = new AnnotationSearchResult();
-                    annotationSearchResult.setQueryType(AnnotationSearchQueryType.VARIANT);
-                    annotationSearchResult.setIndicatorQueryResp(IndicatorUtils.processQuery(indicatorQuery, null, null, null, false));
-                    if (annotationSearchResult.getIndicatorQueryResp().getVariantExist()) {
-                        result.add(annotationSearchResult);
+                    AnnotationSearchCandidate candidate = new AnnotationSearchCandidate(AnnotationSearchQueryType.VARIANT, indicatorQuery, false);
+                    if (candidate.getSummary().getIndicatorQueryResp().getVariantExist()) {
+                        result.add(candidate);
                     }
                 }
             }
@@ -168,27 +199,31 @@ public class AnnotationSearchUtils {
             result.addAll(findActionableGenesByCancerType(fullKeywords));
         }
 
-        return result;
+        LinkedHashSet<AnnotationSearchResult> annotated = new LinkedHashSet<>();
+        for (AnnotationSearchCandidate candidate : result) {
+            if (limit != null && annotated.size() >= limit) {
+                break;
+            }
+            annotated.add(candidate.annotate());
+        }
+        return annotated;
     }
 
-    private static LinkedHashSet<AnnotationSearchResult> findActionableGenesByGeneSearch(String keyword) {
-        LinkedHashSet<AnnotationSearchResult> result = new LinkedHashSet<>();
+    private static LinkedHashSet<AnnotationSearchCandidate> findActionableGenesByGeneSearch(String keyword) {
+        LinkedHashSet<AnnotationSearchCandidate> result = new LinkedHashSet<>();
         Set<Gene> geneMatches = GeneUtils.searchGene(keyword, false);
         for (Gene gene: geneMatches) {
             Query query = new Query();
             query.setEntrezGeneId(gene.getEntrezGeneId());
             query.setHugoSymbol(gene.getHugoSymbol());
-            AnnotationSearchResult annotationSearchResult = new AnnotationSearchResult();
-            annotationSearchResult.setQueryType(AnnotationSearchQueryType.GENE);
-            annotationSearchResult.setIndicatorQueryResp(IndicatorUtils.processQuery(query, null, null, null, true));
-            result.add(annotationSearchResult);
+            result.add(new AnnotationSearchCandidate(AnnotationSearchQueryType.GENE, query, true));
         }
         return result;
     }
 
-    private static LinkedHashSet<AnnotationSearchResult> findActionableGenesByAlterationSearch(String keyword) {
-        LinkedHashSet<AnnotationSearchResult> result = new LinkedHashSet<>();
-        List<Alteration> altMatches = AlterationUtils.lookupVariant(keyword, false, true, AlterationUtils.getAllAlterations());
+    private static LinkedHashSet<AnnotationSearchCandidate> findActionableGenesByAlterationSearch(String keyword) {
+        LinkedHashSet<AnnotationSearchCandidate> result = new LinkedHashSet<>();
+        List<Alteration> altMatches = AlterationUtils.lookupVariant(keyword, false, true);
         for (Alteration alteration: altMatches) {
             Query indicatorQuery = new Query();
             if (alteration.getName().toLowerCase().contains(keyword.toLowerCase())) {
@@ -198,15 +233,12 @@ public class AnnotationSearchUtils {
             }
             indicatorQuery.setEntrezGeneId(alteration.getGene().getEntrezGeneId());
             indicatorQuery.setHugoSymbol(alteration.getGene().getHugoSymbol());
-            AnnotationSearchResult annotationSearchResult = new AnnotationSearchResult();
-            annotationSearchResult.setQueryType(AnnotationSearchQueryType.VARIANT);
-            annotationSearchResult.setIndicatorQueryResp(IndicatorUtils.processQuery(indicatorQuery, null, null, null, false));
-            result.add(annotationSearchResult);
+            result.add(new AnnotationSearchCandidate(AnnotationSearchQueryType.VARIANT, indicatorQuery, false));
         }
         return result;
     }
 
-    private static LinkedHashSet<AnnotationSearchResult> findActionableGenesByCancerType(String query) {
+    private static LinkedHashSet<AnnotationSearchCandidate> findActionableGenesByCancerType(String query) {
 
         Set<Evidence> allImplicationEvidences = EvidenceUtils.getEvidenceByEvidenceTypesAndLevels(EvidenceTypeUtils.getImplicationEvidenceTypes(), LevelUtils.getPublicLevels());
 
@@ -214,34 +246,22 @@ public class AnnotationSearchUtils {
 
         Set<TumorType> tumorTypeMatches = new HashSet<>();
 
-        for (Map.Entry<String, TumorType> currSubtype : CacheUtils.getCodedTumorTypeMap().entrySet()) {
-            String code = query.toUpperCase();
-            if (currSubtype.getKey().equals(code)) {
-                tumorTypeMatches.add(currSubtype.getValue());
-            }
-        }
-
-        for(Map.Entry<String, TumorType> subtype: CacheUtils.getLowercaseSubtypeTumorTypeMap().entrySet()) {
-            if(subtype.getKey().contains(query)) {
-                tumorTypeMatches.add(subtype.getValue());
-            }
-        }
-
-        for(Map.Entry<String, TumorType> mainType: CacheUtils.getMainTypeTumorTypeMap().entrySet()) {
-            if (mainType.getKey().toLowerCase().contains(query)) {
-                tumorTypeMatches.add(mainType.getValue());
-            }
+        TumorType codeMatch = CacheUtils.getCodedTumorTypeMap().get(query.toUpperCase());
+        if (codeMatch != null) {
+            tumorTypeMatches.add(codeMatch);
         }
+        tumorTypeMatches.addAll(CacheUtils.getSubtypeSearchIndex().search(query));
+        tumorTypeMatches.addAll(CacheUtils.getMainTypeSearchIndex().search(query));
 
         if (tumorTypeMatches.isEmpty()) {
             return new LinkedHashSet<>();
         }
 
-        LinkedHashSet<AnnotationSearchResult> result = new LinkedHashSet<>();
+        LinkedHashSet<AnnotationSearchCandidate> result = new LinkedHashSet<>();
         Set<SearchObject> searchObjects = new HashSet<>();
         for (TumorType tumorType : tumorTypeMatches) {
             for (Evidence evidence : allImplicationEvidences) {
-                if (TumorTypeUtils.findEvidenceRelevantCancerTypes(evidence).contains(tumorType)) {
+                if (TumorTypeUtils.findEvidenceRelevantCancerTypeIds(evidence).contains(tumorType)) {
                     for (Alteration alteration: evidence.getAlterations()) {
                         SearchObject searchObject = new SearchObject();
                         searchObject.setGene(evidence.getGene());
@@ -263,10 +283,7 @@ public class AnnotationSearchUtils {
             } else {
                 indicatorQuery.setTumorType(searchObject.getTumorType().getMainType());
             }
-            AnnotationSearchResult annotationSearchResult = new AnnotationSearchResult();
-            annotationSearchResult.setQueryType(AnnotationSearchQueryType.CANCER_TYPE);
-            annotationSearchResult.setIndicatorQueryResp(IndicatorUtils.processQuery(indicatorQuery, null, null, null, true));
-            result.add(annotationSearchResult);
+            result.add(new AnnotationSearchCandidate(AnnotationSearchQueryType.CANCER_TYPE, indicatorQuery, true));
         }
 
         return result;
@@ -284,24 +301,12 @@ public class AnnotationSearchUtils {
         if (exactMatch) {
             matchedTumorTypes.add(ApplicationContextSingleton.getTumorTypeBo().getByName(query));
         } else {
-            for (Map.Entry<String, TumorType> currSubtype : CacheUtils.getCodedTumorTypeMap().entrySet()) {
-                String code = query.toUpperCase();
-                if (currSubtype.getKey().equals(code)) {
-                    matchedTumorTypes.add(currSubtype.getValue());
-                }
-            }
-
-            for (Map.Entry<String, TumorType> currSubtype : CacheUtils.getLowercaseSubtypeTumorTypeMap().entrySet()) {
-                if (currSubtype.getKey().startsWith(query) || currSubtype.getKey().contains(query)) {
-                    matchedTumorTypes.add(currSubtype.getValue());
-                }
-            }
-
-            for (Map.Entry<String, TumorType> currMainType : CacheUtils.getMainTypeTumorTypeMap().entrySet()) {
-                if (currMainType.getKey().toLowerCase().startsWith(query) || currMainType.getKey().toLowerCase().contains(query)) {
-                    matchedTumorTypes.add(currMainType.getValue());
-                }
+            TumorType codeMatch = CacheUtils.getCodedTumorTypeMap().get(query.toUpperCase());
+            if (codeMatch != null) {
+                matchedTumorTypes.add(codeMatch);
             }
+            matchedTumorTypes.addAll(CacheUtils.getSubtypeSearchIndex().search(query));
+            matchedTumorTypes.addAll(CacheUtils.getMainTypeSearchIndex().search(query));
         }
 
         // cancer type not found, return an empty list
@@ -315,7 +320,7 @@ public class AnnotationSearchUtils {
 
             for (Evidence evidence : evidences) {
                 // exact match found
-                if (TumorTypeUtils.findEvidenceRelevantCancerTypes(evidence).contains(currMatchedCancer)) {
+                if (TumorTypeUtils.findEvidenceRelevantCancerTypeIds(evidence).contains(currMatchedCancer)) {
                     updateCancerMap(
                             result, matchKey, evidence.getAlterations(),
                             currMatchedCancer, evidence.getLevelOfEvidence(),
@@ -579,6 +584,12 @@ public class AnnotationSearchUtils {
 
         query = query.toLowerCase();
 
+        // Only the drugs with a name, code or synonym containing the query can match below. Drugs missing from the
+        // cache are still checked one by one.
+        TextSearchIndex<Drug> drugSearchIndex = CacheUtils.getDrugSearchIndex();
+        Set<Drug> indexedDrugs = CacheUtils.getAllDrugs();
+        Set<Drug> drugMatches = new HashSet<>(drugSearchIndex.search(query));
+
         for (Evidence evidence : evidences) {
             boolean isMatch = false;
             for (Treatment treatment : evidence.getTreatments()) {
@@ -586,10 +597,13 @@ public class AnnotationSearchUtils {
                     break;
                 }
                 for (Drug drug : treatment.getDrugs()) {
-                    String matchKey = getDrugMatchKey(evidence.getGene(), drug, evidence.getLevelOfEvidence());
                     if (isMatch) {
                         break;
                     }
+                    if (!drugMatches.contains(drug) && indexedDrugs.contains(drug)) {
+                        continue;
+                    }
+                    String matchKey = getDrugMatchKey(evidence.getGene(), drug, evidence.getLevelOfEvidence());
                     if (drug.getDrugName().toLowerCase().equals(query)) {
                         updateMap(result, matchKey, evidence.getGene(), evidence.getAlterations(), drug, evidence.getLevelOfEvidence(), evidence.getCancerTypes(), 4.0);
                         isMatch = true;
@@ -649,15 +663,10 @@ public class AnnotationSearchUtils {
 
         ReferenceGenome referenceGenome = alteration.getReferenceGenomes().stream().findAny().orElse(DEFAULT_REFERENCE_GENOME);
 
-        Query query = new Query();
-        query.setEntrezGeneId(alteration.getGene().getEntrezGeneId());
-        query.setAlteration(alteration.getAlteration());
-        query.setReferenceGenome(alteration.getReferenceGenomes().iterator().next());
-
-        IndicatorQueryResp resp = IndicatorUtils.processQuery(query, null, false, null, false);
+        // The annotation is added by annotateTypeaheadVariant once the variant is known to be returned
+        IndicatorQueryResp resp = CacheUtils.getAnnotationSummaryTable().getSummary(getTypeaheadVariantQuery(alteration), false, false);
         typeaheadSearchResp.setOncogenicity(resp.getOncogenic());
         typeaheadSearchResp.setVUS(resp.getVUS());
-        typeaheadSearchResp.setAnnotation(resp.getVariantSummary() + " Click here to see more annotation details.");
 
         if (resp.getHighestSensitiveLevel() != null) {
             typeaheadSearchResp.setHighestSensitiveLevel(resp.getHighestSensitiveLevel().getLevel());
@@ -680,6 +689,20 @@ public class AnnotationSearchUtils {
         return typeaheadSearchResp;
     }
 
+    private static Query getTypeaheadVariantQuery(Alteration alteration) {
+        Query query = new Query();
+        query.setEntrezGeneId(alteration.getGene().getEntrezGeneId());
+        query.setAlteration(alteration.getAlteration());
+        query.setReferenceGenome(alteration.getReferenceGenomes().iterator().next());
+        return query;
+    }
+
+    private static void annotateTypeaheadVariant(TypeaheadSearchResp typeaheadSearchResp) {
+        Alteration alteration = typeaheadSearchResp.getVariants().iterator().next();
+        IndicatorQueryResp resp = IndicatorUtils.processQuery(getTypeaheadVariantQuery(alteration), null, false, null, false);
+        typeaheadSearchResp.setAnnotation(resp.getVariantSummary() + " Click here to see more annotation details.");
+    }
+
     public static TypeaheadSearchResp newTypeaheadAnnotation(String query, GNVariantAnnotationType type, ReferenceGenome referenceGenome, Alteration alteration, IndicatorQueryResp queryResp) {
         TypeaheadSearchResp typeaheadSearchResp = new TypeaheadSearchResp();
         typeaheadSearchResp.setGene(alteration.getGene());
@@ -708,6 +731,32 @@ public class AnnotationSearchUtils {
         typeaheadSearchResp.setLink(link);
         return typeaheadSearchResp;
     }
+
+    // A result of the annotation search, ranked by its annotation summary and annotated when it is returned
+    private static final class AnnotationSearchCandidate {
+        private final AnnotationSearchResult summary;
+        private final Query query;
+        private final Boolean geneQueryOnly;
+
+        private AnnotationSearchCandidate(AnnotationSearchQueryType queryType, Query query, Boolean geneQueryOnly) {
+            this.query = query;
+            this.geneQueryOnly = geneQueryOnly;
+            summary = new AnnotationSearchResult();
+            summary.setQueryType(queryType);
+            summary.setIndicatorQueryResp(CacheUtils.getAnnotationSummaryTable().getSummary(query, null, geneQueryOnly));
+        }
+
+        private AnnotationSearchResult getSummary() {
+            return summary;
+        }
+
+        private AnnotationSearchResult annotate() {
+            AnnotationSearchResult annotationSearchResult = new AnnotationSearchResult();
+            annotationSearchResult.setQueryType(summary.getQueryType());
+            annotationSearchResult.setIndicatorQueryResp(IndicatorUtils.processQuery(query, null, null, null, geneQueryOnly));
+            return annotationSearchResult;
+        }
+    }
 }
 
 
@@ -0,0 +1,110 @@
+package org.mskcc.cbio.oncokb.util;
+
+import org.mskcc.cbio.oncokb.model.IndicatorQueryResp;
+import org.mskcc.cbio.oncokb.model.LevelOfEvidence;
+import org.mskcc.cbio.oncokb.model.Query;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Side table of the annotation summary of a query: the oncogenicity and the highest levels, which is what the search
+ * results are ranked by. A summary is computed on the first lookup of its query and kept as long as the
+ * {@link CacheSnapshot} it was computed from is current, so ranking the candidates of a search does not annotate
+ * them again and again.
+ * <p>
+ * The queries come from what the users type, e.g. a gene with any alteration keyword, so the table only keeps the
+ * summaries used most recently.
+ */
+final class AnnotationSummaryTable {
+    static final int MAX_SIZE = 20000;
+
+    private final CacheSnapshot snapshot;
+    // In access order, the least recently used summary is removed first
+    private final Map<List<Object>, Summary> summaries = Collections.synchronizedMap(new LinkedHashMap<List<Object>, Summary>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<List<Object>, Summary> eldest) {
+            return size() > MAX_SIZE;
+        }
+    });
+
+    AnnotationSummaryTable(CacheSnapshot snapshot) {
+        this.snapshot = snapshot;
+    }
+
+    boolean isBuiltFrom(CacheSnapshot snapshot) {
+        return this.snapshot == snapshot;
+    }
+
+    int size() {
+        return summaries.size();
+    }
+
+    /**
+     * The summary of the annotation of {@link IndicatorUtils#processQuery} with the same arguments
+     *
+     * @return a response with the annotated query and the summary fields only
+     */
+    IndicatorQueryResp getSummary(Query query, Boolean highestLevelOnly, Boolean geneQueryOnly) {
+        List<Object> key = Arrays.asList(
+            query.getEntrezGeneId(),
+            query.getHugoSymbol(),
+            query.getAlteration(),
+            query.getTumorType(),
+            query.getReferenceGenome(),
+            highestLevelOnly,
+            geneQueryOnly
+        );
+        Summary summary = summaries.get(key);
+        if (summary == null) {
+            // Computed outside of the map lock, the annotation may look up other cached data
+            summary = new Summary(IndicatorUtils.processQuery(query.copy(), null, highestLevelOnly, null, geneQueryOnly));
+            summaries.putIfAbsent(key, summary);
+        }
+        return summary.toResp();
+    }
+
+    private static final class Summary {
+        private final Query query;
+        private final Boolean geneExist;
+        private final Boolean variantExist;
+        private final String oncogenic;
+        private final Boolean vus;
+        private final LevelOfEvidence highestSensitiveLevel;
+        private final LevelOfEvidence highestResistanceLevel;
+        private final LevelOfEvidence highestDiagnosticImplicationLevel;
+        private final LevelOfEvidence highestPrognosticImplicationLevel;
+        private final LevelOfEvidence highestFdaLevel;
+
+        private Summary(IndicatorQueryResp resp) {
+            query = resp.getQuery();
+            geneExist = resp.getGeneExist();
+            variantExist = resp.getVariantExist();
+            oncogenic = resp.getOncogenic();
+            vus = resp.getVUS();
+            highestSensitiveLevel = resp.getHighestSensitiveLevel();
+            highestResistanceLevel = resp.getHighestResistanceLevel();
+            highestDiagnosticImplicationLevel = resp.getHighestDiagnosticImplicationLevel();
+            highestPrognosticImplicationLevel = resp.getHighestPrognosticImplicationLevel();
+            highestFdaLevel = resp.getHighestFdaLevel();
+        }
+
+        private IndicatorQueryResp toResp() {
+            IndicatorQueryResp resp = new IndicatorQueryResp();
+            resp.setQuery(query == null ? null : query.copy());
+            resp.setGeneExist(geneExist);
+            resp.setVariantExist(variantExist);
+            resp.setOncogenic(oncogenic);
+            resp.setVUS(vus);
+            resp.setHighestSensitiveLevel(highestSensitiveLevel);
+            resp.setHighestResistanceLevel(highestResistanceLevel);
+            resp.setHighestDiagnosticImplicationLevel(highestDiagnosticImplicationLevel);
+            resp.setHighestPrognosticImplicationLevel(highestPrognosticImplicationLevel);
+            resp.setHighestFdaLevel(highestFdaLevel);
+            return resp;
+        }
+    }
+}
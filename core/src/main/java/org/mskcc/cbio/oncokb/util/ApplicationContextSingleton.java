@@ -12,8 +12,13 @@ import org.springframework.context.support.ClassPathXmlApplicationContext;
  * @author jgao
  */
 public final class ApplicationContextSingleton {
+    /**
+     * System property to load a different bean configuration from the classpath, i.e. the fixture backed DAOs used by the benchmark module.
+     */
+    public static final String SPRING_CONFIG_PROPERTY = "oncokb.spring.config";
+
     private final static ApplicationContext appContext =
-        new ClassPathXmlApplicationContext("spring/config/BeanLocations.xml");
+        new ClassPathXmlApplicationContext(System.getProperty(SPRING_CONFIG_PROPERTY, "spring/config/BeanLocations.xml"));
 
     public static void main(String[] args) {
         System.out.println(getGeneBo().findGeneByHugoSymbol("BRAF").getHugoSymbol());
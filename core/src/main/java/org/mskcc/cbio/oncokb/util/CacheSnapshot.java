@@ -0,0 +1,363 @@
+package org.mskcc.cbio.oncokb.util;
+
+import org.mskcc.cbio.oncokb.model.*;
+
+import java.util.*;
+
+/**
+ * Immutable view of the gene based data cached in {@link CacheUtils}.
+ *
+ * A snapshot is never modified after it is built. Cache updates go through a {@link Builder} which starts from the
+ * current snapshot, rebuilds the data of the affected genes and produces a new snapshot. CacheUtils then publishes the
+ * new snapshot as a whole, so readers always see the gene data either before or after an update, never in between.
+ */
+final class CacheSnapshot {
+    static final CacheSnapshot EMPTY = new Builder(null).build();
+
+    private final Set<Gene> genes;
+    private final Map<Integer, Gene> genesByEntrezId;
+    private final Map<String, Integer> hugoSymbolToEntrez;
+    private final GeneSearchIndex geneSearchIndex;
+    private final GeneNameIndex geneNameIndex;
+
+    private final Map<Integer, List<Alteration>> alterations; //Gene based alterations
+    private final Map<Integer, Map<ReferenceGenome, List<Alteration>>> alterationsByReferenceGenome; //Gene based alterations
+    private final Map<Integer, List<AlterationOverlapIndex>> alterationOverlapIndexes; //Gene based, one index for each alteration list of the gene
+    private final Map<Integer, TextSearchIndex<Alteration>> alterationSearchIndexes; //Gene based, by alteration and name
+
+    private final Map<Integer, List<Evidence>> evidences; //Gene based evidences
+    private final Map<Integer, Map<Integer, TumorTypeIdSet>> evidenceRelevantCancerTypes;
+    private final Map<Integer, EvidenceAlterationIndex> evidenceIndexesByAlteration; //Gene based, see EvidenceAlterationIndex
+    private final Map<Integer, Evidence> evidencesById;
+    private final Map<String, Set<Evidence>> evidencesByUUID;
+    private final Map<Integer, Set<Alteration>> VUS; //Gene based VUSs
+
+    private CacheSnapshot(Builder builder) {
+        // Containers which were not copied by the builder still belong to the base snapshot and are already unmodifiable.
+        this.genes = builder.genesCopied ? Collections.unmodifiableSet(builder.genes) : builder.genes;
+        this.genesByEntrezId = builder.genesCopied ? Collections.unmodifiableMap(builder.genesByEntrezId) : builder.genesByEntrezId;
+        this.hugoSymbolToEntrez = builder.genesCopied ? Collections.unmodifiableMap(builder.hugoSymbolToEntrez) : builder.hugoSymbolToEntrez;
+        this.geneSearchIndex = builder.genesCopied ? GeneSearchIndex.build(this.genes) : builder.geneSearchIndex;
+        // Built from the genes by entrez id like the hugo symbol map, a single gene may be updated without the gene set
+        this.geneNameIndex = builder.genesCopied ? GeneNameIndex.build(this.genesByEntrezId.values()) : builder.geneNameIndex;
+        this.alterations = builder.alterationsCopied ? Collections.unmodifiableMap(builder.alterations) : builder.alterations;
+        this.alterationsByReferenceGenome = builder.alterationsCopied ? Collections.unmodifiableMap(builder.alterationsByReferenceGenome) : builder.alterationsByReferenceGenome;
+        this.alterationOverlapIndexes = builder.alterationsCopied ? Collections.unmodifiableMap(builder.alterationOverlapIndexes) : builder.alterationOverlapIndexes;
+        this.alterationSearchIndexes = builder.alterationsCopied ? Collections.unmodifiableMap(builder.alterationSearchIndexes) : builder.alterationSearchIndexes;
+        this.evidences = builder.evidencesCopied ? Collections.unmodifiableMap(builder.evidences) : builder.evidences;
+        this.evidenceRelevantCancerTypes = builder.evidencesCopied ? Collections.unmodifiableMap(builder.evidenceRelevantCancerTypes) : builder.evidenceRelevantCancerTypes;
+        this.evidenceIndexesByAlteration = builder.evidencesCopied ? Collections.unmodifiableMap(builder.evidenceIndexesByAlteration) : builder.evidenceIndexesByAlteration;
+        this.evidencesById = builder.evidencesCopied ? Collections.unmodifiableMap(builder.evidencesById) : builder.evidencesById;
+        this.evidencesByUUID = builder.evidencesCopied ? Collections.unmodifiableMap(builder.evidencesByUUID) : builder.evidencesByUUID;
+        this.VUS = builder.evidencesCopied ? Collections.unmodifiableMap(builder.VUS) : builder.VUS;
+    }
+
+    Set<Gene> getGenes() {
+        return genes;
+    }
+
+    Map<Integer, Gene> getGenesByEntrezId() {
+        return genesByEntrezId;
+    }
+
+    Map<String, Integer> getHugoSymbolToEntrez() {
+        return hugoSymbolToEntrez;
+    }
+
+    GeneSearchIndex getGeneSearchIndex() {
+        return geneSearchIndex;
+    }
+
+    GeneNameIndex getGeneNameIndex() {
+        return geneNameIndex;
+    }
+
+    Map<Integer, List<Alteration>> getAlterations() {
+        return alterations;
+    }
+
+    Map<Integer, Map<ReferenceGenome, List<Alteration>>> getAlterationsByReferenceGenome() {
+        return alterationsByReferenceGenome;
+    }
+
+    Map<Integer, List<AlterationOverlapIndex>> getAlterationOverlapIndexes() {
+        return alterationOverlapIndexes;
+    }
+
+    Map<Integer, TextSearchIndex<Alteration>> getAlterationSearchIndexes() {
+        return alterationSearchIndexes;
+    }
+
+    Map<Integer, List<Evidence>> getEvidences() {
+        return evidences;
+    }
+
+    Map<Integer, Map<Integer, TumorTypeIdSet>> getEvidenceRelevantCancerTypes() {
+        return evidenceRelevantCancerTypes;
+    }
+
+    Map<Integer, EvidenceAlterationIndex> getEvidenceIndexesByAlteration() {
+        return evidenceIndexesByAlteration;
+    }
+
+    Map<Integer, Evidence> getEvidencesById() {
+        return evidencesById;
+    }
+
+    Map<String, Set<Evidence>> getEvidencesByUUID() {
+        return evidencesByUUID;
+    }
+
+    Map<Integer, Set<Alteration>> getVUS() {
+        return VUS;
+    }
+
+    /**
+     * Collects the changes for the next snapshot. The containers of the base snapshot are only copied the first time
+     * they are changed, and the nested values are always replaced instead of modified, so the base snapshot stays intact.
+     */
+    static final class Builder {
+        private Set<Gene> genes;
+        private Map<Integer, Gene> genesByEntrezId;
+        private Map<String, Integer> hugoSymbolToEntrez;
+        private GeneSearchIndex geneSearchIndex;
+        private GeneNameIndex geneNameIndex;
+        private Map<Integer, List<Alteration>> alterations;
+        private Map<Integer, Map<ReferenceGenome, List<Alteration>>> alterationsByReferenceGenome;
+        private Map<Integer, List<AlterationOverlapIndex>> alterationOverlapIndexes;
+        private Map<Integer, TextSearchIndex<Alteration>> alterationSearchIndexes;
+        private Map<Integer, List<Evidence>> evidences;
+        private Map<Integer, Map<Integer, TumorTypeIdSet>> evidenceRelevantCancerTypes;
+        private Map<Integer, EvidenceAlterationIndex> evidenceIndexesByAlteration;
+        private Map<Integer, Evidence> evidencesById;
+        private Map<String, Set<Evidence>> evidencesByUUID;
+        private Map<Integer, Set<Alteration>> VUS;
+
+        private boolean genesCopied = false;
+        private boolean alterationsCopied = false;
+        private boolean evidencesCopied = false;
+
+        Builder(CacheSnapshot base) {
+            if (base == null) {
+                genes = new HashSet<>();
+                genesByEntrezId = new HashMap<>();
+                hugoSymbolToEntrez = new HashMap<>();
+                alterations = new HashMap<>();
+                alterationsByReferenceGenome = new HashMap<>();
+                alterationOverlapIndexes = new HashMap<>();
+                alterationSearchIndexes = new HashMap<>();
+                evidences = new HashMap<>();
+                evidenceRelevantCancerTypes = new HashMap<>();
+                evidenceIndexesByAlteration = new HashMap<>();
+                evidencesById = new HashMap<>();
+                evidencesByUUID = new HashMap<>();
+                VUS = new HashMap<>();
+                genesCopied = true;
+                alterationsCopied = true;
+                evidencesCopied = true;
+            } else {
+                genes = base.genes;
+                genesByEntrezId = base.genesByEntrezId;
+                hugoSymbolToEntrez = base.hugoSymbolToEntrez;
+                geneSearchIndex = base.geneSearchIndex;
+                geneNameIndex = base.geneNameIndex;
+                alterations = base.alterations;
+                alterationsByReferenceGenome = base.alterationsByReferenceGenome;
+                alterationOverlapIndexes = base.alterationOverlapIndexes;
+                alterationSearchIndexes = base.alterationSearchIndexes;
+                evidences = base.evidences;
+                evidenceRelevantCancerTypes = base.evidenceRelevantCancerTypes;
+                evidenceIndexesByAlteration = base.evidenceIndexesByAlteration;
+                evidencesById = base.evidencesById;
+                evidencesByUUID = base.evidencesByUUID;
+                VUS = base.VUS;
+            }
+        }
+
+        Builder setGenes(Collection<Gene> allGenes) {
+            genes = new HashSet<>(allGenes);
+            genesByEntrezId = new HashMap<>();
+            hugoSymbolToEntrez = new HashMap<>();
+            genesCopied = true;
+            for (Gene gene : genes) {
+                genesByEntrezId.put(gene.getEntrezGeneId(), gene);
+                hugoSymbolToEntrez.put(gene.getHugoSymbol(), gene.getEntrezGeneId());
+            }
+            return this;
+        }
+
+        Builder setGeneByEntrezId(Gene gene) {
+            copyGenes();
+            genesByEntrezId.put(gene.getEntrezGeneId(), gene);
+            hugoSymbolToEntrez.put(gene.getHugoSymbol(), gene.getEntrezGeneId());
+            return this;
+        }
+
+        Builder setGeneAlterations(Integer entrezGeneId, List<Alteration> geneAlterations) {
+            copyAlterations();
+            Map<ReferenceGenome, List<Alteration>> geneAlterationsByReferenceGenome = new HashMap<>();
+            for (Alteration alteration : geneAlterations) {
+                internStrings(alteration);
+                for (ReferenceGenome refGenome : alteration.getReferenceGenomes()) {
+                    geneAlterationsByReferenceGenome.computeIfAbsent(refGenome, key -> new ArrayList<>()).add(alteration);
+                }
+            }
+            geneAlterationsByReferenceGenome.replaceAll((refGenome, refGenomeAlterations) -> Collections.unmodifiableList(refGenomeAlterations));
+            List<Alteration> allGeneAlterations = Collections.unmodifiableList(new ArrayList<>(geneAlterations));
+            alterations.put(entrezGeneId, allGeneAlterations);
+            alterationsByReferenceGenome.put(entrezGeneId, Collections.unmodifiableMap(geneAlterationsByReferenceGenome));
+
+            // The indexes are bound to the list instances above, they are rebuilt together with the lists
+            List<AlterationOverlapIndex> overlapIndexes = new ArrayList<>();
+            List<List<Alteration>> geneAlterationLists = new ArrayList<>(geneAlterationsByReferenceGenome.values());
+            geneAlterationLists.add(allGeneAlterations);
+            for (List<Alteration> geneAlterationList : geneAlterationLists) {
+                AlterationOverlapIndex overlapIndex = AlterationOverlapIndex.build(geneAlterationList);
+                if (overlapIndex != null) {
+                    overlapIndexes.add(overlapIndex);
+                }
+            }
+            alterationOverlapIndexes.put(entrezGeneId, Collections.unmodifiableList(overlapIndexes));
+            // The exclusion criteria are not searched, see AlterationUtils.lookupVariant
+            alterationSearchIndexes.put(entrezGeneId, TextSearchIndex.build(allGeneAlterations, alteration -> Arrays.asList(
+                alteration.getAlteration() == null ? null : AlterationUtils.removeExclusionCriteria(alteration.getAlteration()),
+                alteration.getName() == null ? null : AlterationUtils.removeExclusionCriteria(alteration.getName())
+            )));
+            return this;
+        }
+
+        Builder removeGeneAlterations(Integer entrezGeneId) {
+            copyAlterations();
+            alterations.remove(entrezGeneId);
+            alterationsByReferenceGenome.remove(entrezGeneId);
+            alterationOverlapIndexes.remove(entrezGeneId);
+            alterationSearchIndexes.remove(entrezGeneId);
+            return this;
+        }
+
+        Builder clearAlterations() {
+            alterations = new HashMap<>();
+            alterationsByReferenceGenome = new HashMap<>();
+            alterationOverlapIndexes = new HashMap<>();
+            alterationSearchIndexes = new HashMap<>();
+            alterationsCopied = true;
+            return this;
+        }
+
+        Builder setGeneEvidences(Integer entrezGeneId, List<Evidence> geneEvidences) {
+            removeGeneEvidences(entrezGeneId);
+
+            Map<Integer, TumorTypeIdSet> relevantCancerTypes = new HashMap<>();
+            for (Evidence evidence : geneEvidences) {
+                if (evidence.getId() != null) {
+                    relevantCancerTypes.put(evidence.getId(), TumorTypeIdSet.of(TumorTypeUtils.resolveEvidenceRelevantCancerTypes(evidence)));
+                    evidencesById.put(evidence.getId(), evidence);
+                }
+                if (evidence.getUuid() != null) {
+                    Set<Evidence> uuidEvidences = new HashSet<>();
+                    if (evidencesByUUID.containsKey(evidence.getUuid())) {
+                        uuidEvidences.addAll(evidencesByUUID.get(evidence.getUuid()));
+                    }
+                    uuidEvidences.add(evidence);
+                    evidencesByUUID.put(evidence.getUuid(), Collections.unmodifiableSet(uuidEvidences));
+                }
+            }
+
+            evidences.put(entrezGeneId, Collections.unmodifiableList(new ArrayList<>(geneEvidences)));
+            evidenceRelevantCancerTypes.put(entrezGeneId, Collections.unmodifiableMap(relevantCancerTypes));
+            EvidenceAlterationIndex index = EvidenceAlterationIndex.build(geneEvidences);
+            if (index != null) {
+                evidenceIndexesByAlteration.put(entrezGeneId, index);
+            }
+            VUS.put(entrezGeneId, Collections.unmodifiableSet(AlterationUtils.findVUSFromEvidences(new HashSet<>(geneEvidences))));
+            return this;
+        }
+
+        Builder removeGeneEvidences(Integer entrezGeneId) {
+            copyEvidences();
+            List<Evidence> geneEvidences = evidences.remove(entrezGeneId);
+            evidenceRelevantCancerTypes.remove(entrezGeneId);
+            evidenceIndexesByAlteration.remove(entrezGeneId);
+            VUS.remove(entrezGeneId);
+            if (geneEvidences != null) {
+                for (Evidence evidence : geneEvidences) {
+                    if (evidence.getId() != null && evidencesById.get(evidence.getId()) == evidence) {
+                        evidencesById.remove(evidence.getId());
+                    }
+                    Set<Evidence> uuidEvidences = evidence.getUuid() == null ? null : evidencesByUUID.get(evidence.getUuid());
+                    if (uuidEvidences != null) {
+                        Set<Evidence> remaining = new HashSet<>(uuidEvidences);
+                        remaining.remove(evidence);
+                        if (remaining.isEmpty()) {
+                            evidencesByUUID.remove(evidence.getUuid());
+                        } else {
+                            evidencesByUUID.put(evidence.getUuid(), Collections.unmodifiableSet(remaining));
+                        }
+                    }
+                }
+            }
+            return this;
+        }
+
+        Builder clearEvidences() {
+            evidences = new HashMap<>();
+            evidenceRelevantCancerTypes = new HashMap<>();
+            evidenceIndexesByAlteration = new HashMap<>();
+            evidencesById = new HashMap<>();
+            evidencesByUUID = new HashMap<>();
+            VUS = new HashMap<>();
+            evidencesCopied = true;
+            return this;
+        }
+
+        CacheSnapshot build() {
+            return new CacheSnapshot(this);
+        }
+
+        /**
+         * Most alteration names repeat across genes, e.g. Oncogenic Mutations, and within an alteration, e.g. V600E is
+         * both the alteration and the name. Each is loaded as its own string, share them while the alteration is cached.
+         */
+        private static void internStrings(Alteration alteration) {
+            alteration.setAlteration(intern(alteration.getAlteration()));
+            alteration.setName(intern(alteration.getName()));
+            alteration.setRefResidues(intern(alteration.getRefResidues()));
+            alteration.setVariantResidues(intern(alteration.getVariantResidues()));
+        }
+
+        private static String intern(String value) {
+            return value == null ? null : value.intern();
+        }
+
+        private void copyGenes() {
+            if (!genesCopied) {
+                genes = new HashSet<>(genes);
+                genesByEntrezId = new HashMap<>(genesByEntrezId);
+                hugoSymbolToEntrez = new HashMap<>(hugoSymbolToEntrez);
+                genesCopied = true;
+            }
+        }
+
+        private void copyAlterations() {
+            if (!alterationsCopied) {
+                alterations = new HashMap<>(alterations);
+                alterationsByReferenceGenome = new HashMap<>(alterationsByReferenceGenome);
+                alterationOverlapIndexes = new HashMap<>(alterationOverlapIndexes);
+                alterationSearchIndexes = new HashMap<>(alterationSearchIndexes);
+                alterationsCopied = true;
+            }
+        }
+
+        private void copyEvidences() {
+            if (!evidencesCopied) {
+                evidences = new HashMap<>(evidences);
+                evidenceRelevantCancerTypes = new HashMap<>(evidenceRelevantCancerTypes);
+                evidenceIndexesByAlteration = new HashMap<>(evidenceIndexesByAlteration);
+                evidencesById = new HashMap<>(evidencesById);
+                evidencesByUUID = new HashMap<>(evidencesByUUID);
+                VUS = new HashMap<>(VUS);
+                evidencesCopied = true;
+            }
+        }
+    }
+}
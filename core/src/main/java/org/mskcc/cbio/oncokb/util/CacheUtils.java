@@ -1,12 +1,14 @@
 package org.mskcc.cbio.oncokb.util;
 
 import com.mysql.jdbc.StringUtils;
-import org.apache.commons.collections.map.HashedMap;
 import org.mskcc.cbio.oncokb.apiModels.download.DownloadAvailability;
 import org.mskcc.cbio.oncokb.model.*;
 
 import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 
@@ -26,24 +28,25 @@ import java.util.stream.Collectors;
 
 
 public class CacheUtils {
-    private static Map<Integer, Gene> genesByEntrezId = new HashMap<>();
-    private static Map<String, Integer> hugoSymbolToEntrez = new HashMap<>();
+    // All gene based data is kept in an immutable snapshot. Updates build a new snapshot under the lock
+    // and publish it through the volatile reference, readers take the reference once and never lock.
+    private static final Object SNAPSHOT_LOCK = new Object();
+    private static volatile CacheSnapshot snapshot = CacheSnapshot.EMPTY;
+    // Whether the gene data was updated or reset after it was loaded, it may not match the data version anymore
+    private static volatile boolean geneDataUpdated = false;
+    private static volatile AnnotationSummaryTable annotationSummaryTable;
 
-    private static List<CancerGene> cancerGeneList = null;
-    private static Map<String, Object> numbers = new HashMap<>();
+    private static volatile List<CancerGene> cancerGeneList = null;
+    private static Map<String, Object> numbers = new ConcurrentHashMap<>();
 
     private static List<DownloadAvailability> downloadAvailabilities = new ArrayList<>();
 
 
     // Cache data from database
-    private static Set<Gene> genes = new HashSet<>();
-    private static Set<Drug> drugs = new HashSet<>();
-    private static Map<Integer, List<Evidence>> evidences = new HashMap<>(); //Gene based evidences
-    private static Map<Integer, Map<Integer, Set<TumorType>>> evidenceRelevantCancerTypes = new HashedMap();
-    private static Map<Integer, List<Alteration>> alterations = new HashMap<>(); //Gene based alterations
-    private static Map<Integer, Map<ReferenceGenome, List<Alteration>>> alterationsByReferenceGenome = new HashMap<>(); //Gene based alterations
-    private static Map<Integer, Set<Alteration>> VUS = new HashMap<>(); //Gene based VUSs
+    private static volatile Set<Drug> drugs = new HashSet<>();
+    private static volatile TextSearchIndex<Drug> drugSearchIndex;
 
+    // Tumor types are only loaded once when the class is initialized
     private static List<TumorType> cancerTypes = new ArrayList<>();
     private static Map<String, TumorType> cancerTypesByCode = new HashMap<>();
     private static Map<String, TumorType> cancerTypesByMainType = new HashMap<>();
@@ -51,15 +54,22 @@ public class CacheUtils {
     private static List<TumorType> subtypes = new ArrayList<>();
     private static List<TumorType> mainTypes = new ArrayList<>();
     private static List<TumorType> specialCancerTypes = new ArrayList<>();
+    private static TumorTypeGraph tumorTypeGraph = TumorTypeGraph.build(Collections.<TumorType>emptyList(), Collections.<TumorType>emptyList(), Collections.<TumorType>emptyList());
+    private static TextSearchIndex<TumorType> subtypeSearchIndex = TextSearchIndex.build(Collections.<TumorType>emptyList(), tumorType -> null);
+    private static TextSearchIndex<TumorType> mainTypeSearchIndex = TextSearchIndex.build(Collections.<TumorType>emptyList(), tumorType -> null);
 
     // Other services which will be defined in the property cache.update separated by comma
     // Every time the observer is triggered, all other services will be triggered as well
     private static List<String> otherServices = new ArrayList<>();
 
-    private static Map<String, Long> recordTime = new HashedMap();
+    private static volatile Map<String, Long> recordTime = new ConcurrentHashMap<>();
 
     private static Info oncokbInfo;
 
+    // Notified after the gene based data is rebuilt. The GeneObservable notifies the observers added after the cache
+    // observers first, so they would still see the old data.
+    private static final List<Runnable> updateListeners = new CopyOnWriteArrayList<>();
+
     private static Observer numbersObserver = new Observer() {
         @Override
         public void update(Observable o, Object arg) {
@@ -67,39 +77,36 @@ public class CacheUtils {
         }
     };
 
-    private static Observer VUSObserver = new Observer() {
+    // Genes, alterations, evidences and VUSs are rebuilt together so they are always published consistently.
+    private static Observer geneCacheObserver = new Observer() {
         @Override
         public void update(Observable o, Object arg) {
             Map<String, String> operation = (Map<String, String>) arg;
             if (operation.get("cmd") == "update") {
                 Integer entrezGeneId = Integer.parseInt(operation.get("val"));
-                VUS.remove(entrezGeneId);
-            } else if (operation.get("cmd") == "reset") {
-                VUS.clear();
-            }
-        }
-    };
-
-    private static Observer alterationsObserver = new Observer() {
-        @Override
-        public void update(Observable o, Object arg) {
-            Map<String, String> operation = (Map<String, String>) arg;
-            if (operation.get("cmd") == "update") {
-                Integer entrezGeneId = Integer.parseInt(operation.get("val"));
-                alterations.remove(entrezGeneId);
-                alterationsByReferenceGenome.remove(entrezGeneId);
+                updateSnapshot(builder -> {
+                    builder.setGenes(ApplicationContextSingleton.getGeneBo().findAll());
+                    builder.removeGeneAlterations(entrezGeneId);
+                    builder.removeGeneEvidences(entrezGeneId);
+                    Gene gene = ApplicationContextSingleton.getGeneBo().findGeneByEntrezGeneId(entrezGeneId);
+                    if (gene != null) {
+                        builder.setGeneAlterations(entrezGeneId, ApplicationContextSingleton.getAlterationBo().findAlterationsByGene(Collections.singleton(gene)));
+                        builder.setGeneEvidences(entrezGeneId, ApplicationContextSingleton.getEvidenceBo().findEvidencesByGeneFromDB(Collections.singleton(gene)));
+                    }
+                });
+                cancerGeneList = null;
             } else if (operation.get("cmd") == "reset") {
-                alterations.clear();
-                alterationsByReferenceGenome.clear();
+                Set<Gene> allGenes = new HashSet<>(ApplicationContextSingleton.getGeneBo().findAll());
+                updateSnapshot(builder -> {
+                    builder.setGenes(allGenes);
+                    loadAllAlterations(builder, allGenes);
+                    loadAllEvidences(builder, allGenes);
+                });
+                cancerGeneList = null;
             }
-        }
-    };
-
-    // Always update genes since everything is relying on this.
-    private static Observer genesObserver = new Observer() {
-        @Override
-        public void update(Observable o, Object arg) {
-            cacheAllGenes();
+            // Set after publishing, so the flag is never ahead of the data it describes
+            geneDataUpdated = true;
+            updateListeners.forEach(Runnable::run);
         }
     };
 
@@ -110,26 +117,6 @@ public class CacheUtils {
         }
     };
 
-    private static Observer evidencesObserver = new Observer() {
-        @Override
-        public void update(Observable o, Object arg) {
-            Map<String, String> operation = (Map<String, String>) arg;
-            if (operation.get("cmd") == "update") {
-                Integer entrezGeneId = Integer.parseInt(operation.get("val"));
-                evidences.remove(entrezGeneId);
-                evidenceRelevantCancerTypes.remove(entrezGeneId);
-                Gene gene = ApplicationContextSingleton.getGeneBo().findGeneByEntrezGeneId(entrezGeneId);
-                if (gene != null) {
-                    setEvidences(gene);
-                }
-            } else if (operation.get("cmd") == "reset") {
-                evidences.clear();
-                evidenceRelevantCancerTypes.clear();
-                cacheAllEvidencesByGenes();
-            }
-        }
-    };
-
     private static void notifyOtherServices(String cmd, Set<Integer> entrezGeneIds) throws IOException {
         System.out.println("Notify other services..." + " at " + MainUtils.getCurrentTime());
         if (cmd == null) {
@@ -158,10 +145,7 @@ public class CacheUtils {
     static {
         try {
             Long current = MainUtils.getCurrentTimestamp();
-            GeneObservable.getInstance().addObserver(alterationsObserver);
-            GeneObservable.getInstance().addObserver(genesObserver);
-            GeneObservable.getInstance().addObserver(evidencesObserver);
-            GeneObservable.getInstance().addObserver(VUSObserver);
+            GeneObservable.getInstance().addObserver(geneCacheObserver);
             GeneObservable.getInstance().addObserver(numbersObserver);
             GeneObservable.getInstance().addObserver(drugsObserver);
 
@@ -176,35 +160,42 @@ public class CacheUtils {
             System.out.println("Cached all drugs: " + MainUtils.getTimestampDiff(current) + " at " + MainUtils.getCurrentTime());
             current = MainUtils.getCurrentTimestamp();
 
-            cancerTypes = ApplicationContextSingleton.getTumorTypeBo().findAll();
-            cancerTypes.stream().forEach(ct -> {
+            List<TumorType> allCancerTypes = ApplicationContextSingleton.getTumorTypeBo().findAll();
+            Map<String, TumorType> allCancerTypesByCode = new HashMap<>();
+            Map<String, TumorType> allCancerTypesByMainType = new HashMap<>();
+            Map<String, TumorType> allCancerTypesByLowercaseSubtype = new HashMap<>();
+            allCancerTypes.stream().forEach(ct -> {
                 if (!StringUtils.isNullOrEmpty(ct.getCode())) {
-                    cancerTypesByCode.put(ct.getCode(), ct);
+                    allCancerTypesByCode.put(ct.getCode(), ct);
                 }
                 if (StringUtils.isNullOrEmpty(ct.getCode()) && !StringUtils.isNullOrEmpty(ct.getMainType())) {
-                    cancerTypesByMainType.put(ct.getMainType().toLowerCase(), ct);
+                    allCancerTypesByMainType.put(ct.getMainType().toLowerCase(), ct);
                 }
                 if (!StringUtils.isNullOrEmpty(ct.getSubtype())) {
-                    cancerTypesByLowercaseSubtype.put(ct.getSubtype().toLowerCase(), ct);
+                    allCancerTypesByLowercaseSubtype.put(ct.getSubtype().toLowerCase(), ct);
                 }
             });
-            subtypes = cancerTypes.stream().filter(tumorType -> org.apache.commons.lang3.StringUtils.isNotEmpty(tumorType.getCode()) && tumorType.getLevel() > 0).collect(Collectors.toList());
-            mainTypes = cancerTypes.stream().filter(tumorType -> org.apache.commons.lang3.StringUtils.isEmpty(tumorType.getCode()) || tumorType.getLevel() > 0).collect(Collectors.toList());
+            cancerTypes = Collections.unmodifiableList(allCancerTypes);
+            cancerTypesByCode = Collections.unmodifiableMap(allCancerTypesByCode);
+            cancerTypesByMainType = Collections.unmodifiableMap(allCancerTypesByMainType);
+            cancerTypesByLowercaseSubtype = Collections.unmodifiableMap(allCancerTypesByLowercaseSubtype);
+            subtypeSearchIndex = TextSearchIndex.build(cancerTypesByLowercaseSubtype.values(), tumorType -> Collections.singleton(tumorType.getSubtype()));
+            mainTypeSearchIndex = TextSearchIndex.build(cancerTypesByMainType.values(), tumorType -> Collections.singleton(tumorType.getMainType()));
+            subtypes = Collections.unmodifiableList(cancerTypes.stream().filter(tumorType -> org.apache.commons.lang3.StringUtils.isNotEmpty(tumorType.getCode()) && tumorType.getLevel() > 0).collect(Collectors.toList()));
+            mainTypes = Collections.unmodifiableList(cancerTypes.stream().filter(tumorType -> org.apache.commons.lang3.StringUtils.isEmpty(tumorType.getCode()) || tumorType.getLevel() > 0).collect(Collectors.toList()));
             System.out.println("Cached all tumor types: " + MainUtils.getTimestampDiff(current) + " at " + MainUtils.getCurrentTime());
             current = MainUtils.getCurrentTimestamp();
 
-            specialCancerTypes = Arrays.stream(SpecialTumorType.values()).map(specialTumorType -> cancerTypes.stream().filter(cancerType -> !StringUtils.isNullOrEmpty(cancerType.getMainType()) && cancerType.getMainType().equals(specialTumorType.getTumorType())).findAny().orElse(null)).filter(cancerType -> cancerType != null).collect(Collectors.toList());
+            specialCancerTypes = Collections.unmodifiableList(Arrays.stream(SpecialTumorType.values()).map(specialTumorType -> cancerTypes.stream().filter(cancerType -> !StringUtils.isNullOrEmpty(cancerType.getMainType()) && cancerType.getMainType().equals(specialTumorType.getTumorType())).findAny().orElse(null)).filter(cancerType -> cancerType != null).collect(Collectors.toList()));
             System.out.println("Cached all special tumor types: " + MainUtils.getTimestampDiff(current) + " at " + MainUtils.getCurrentTime());
+            current = MainUtils.getCurrentTimestamp();
+
+            tumorTypeGraph = TumorTypeGraph.build(cancerTypes, subtypes, specialCancerTypes);
+            System.out.println("Compiled the tumor type graph: " + MainUtils.getTimestampDiff(current) + " at " + MainUtils.getCurrentTime());
 
             current = MainUtils.getCurrentTimestamp();
             synEvidences();
-            System.out.println("Cached all evidences: " + MainUtils.getTimestampDiff(current) + " at " + MainUtils.getCurrentTime());
-            current = MainUtils.getCurrentTimestamp();
-
-            for (Map.Entry<Integer, List<Evidence>> entry : evidences.entrySet()) {
-                setVUS(entry.getKey(), new HashSet<>(entry.getValue()));
-            }
-            System.out.println("Cached all VUSs: " + MainUtils.getTimestampDiff(current) + " at " + MainUtils.getCurrentTime());
+            System.out.println("Cached all evidences and VUSs: " + MainUtils.getTimestampDiff(current) + " at " + MainUtils.getCurrentTime());
             current = MainUtils.getCurrentTimestamp();
 
             NamingUtils.cacheAllAbbreviations();
@@ -226,6 +217,25 @@ public class CacheUtils {
         }
     }
 
+    /**
+     * Build a new snapshot from the current one and publish it. Updates are serialized by the snapshot lock.
+     */
+    private static void updateSnapshot(Consumer<CacheSnapshot.Builder> update) {
+        synchronized (SNAPSHOT_LOCK) {
+            CacheSnapshot.Builder builder = new CacheSnapshot.Builder(snapshot);
+            update.accept(builder);
+            snapshot = builder.build();
+        }
+    }
+
+    /**
+     * Whether a gene was updated or the genes were reset through the GeneObservable since the data was loaded. The
+     * data version does not identify the gene data of this instance anymore then.
+     */
+    public static boolean isGeneDataUpdated() {
+        return geneDataUpdated;
+    }
+
     private static void registerOtherServices() throws IOException {
         String services = PropertiesUtils.getProperties("cache.update");
         if (services != null) {
@@ -233,12 +243,15 @@ public class CacheUtils {
         }
     }
 
+    /**
+     * The listener runs after the gene based data is updated or reset, once the new data is published.
+     */
+    public static void addUpdateListener(Runnable listener) {
+        updateListeners.add(listener);
+    }
+
     public static Gene getGeneByEntrezId(Integer entrezId) {
-        if (genesByEntrezId.containsKey(entrezId)) {
-            return genesByEntrezId.get(entrezId);
-        } else {
-            return null;
-        }
+        return snapshot.getGenesByEntrezId().get(entrezId);
     }
 
     public static Info getInfo() {
@@ -246,103 +259,118 @@ public class CacheUtils {
     }
 
     public static Boolean containGeneByEntrezId(Integer entrezId) {
-        return genesByEntrezId.containsKey(entrezId) ? true : false;
+        return snapshot.getGenesByEntrezId().containsKey(entrezId) ? true : false;
     }
 
     public static void setGeneByEntrezId(Gene gene) {
         if (gene != null) {
-            genesByEntrezId.put(gene.getEntrezGeneId(), gene);
-            hugoSymbolToEntrez.put(gene.getHugoSymbol(), gene.getEntrezGeneId());
+            updateSnapshot(builder -> builder.setGeneByEntrezId(gene));
         }
     }
 
     private static void cacheAllGenes() {
         Long current = MainUtils.getCurrentTimestamp();
 
-        genes = new HashSet<>(ApplicationContextSingleton.getGeneBo().findAll());
-        genesByEntrezId = new HashedMap();
-        hugoSymbolToEntrez = new HashedMap();
-        for (Gene gene : genes) {
-            genesByEntrezId.put(gene.getEntrezGeneId(), gene);
-            hugoSymbolToEntrez.put(gene.getHugoSymbol(), gene.getEntrezGeneId());
-        }
+        List<Gene> allGenes = ApplicationContextSingleton.getGeneBo().findAll();
+        updateSnapshot(builder -> builder.setGenes(allGenes));
         cancerGeneList = null;
         System.out.println("Cached all genes: " + MainUtils.getTimestampDiff(current) + " at " + MainUtils.getCurrentTime());
     }
 
     public static List<CancerGene> getCancerGeneList() throws IOException {
-        if(cancerGeneList == null) {
-            updateCancerGeneList();
+        List<CancerGene> cachedCancerGeneList = cancerGeneList;
+        if (cachedCancerGeneList == null) {
+            cachedCancerGeneList = CancerGeneUtils.populateCancerGeneList();
+            cancerGeneList = cachedCancerGeneList;
         }
-        return cancerGeneList;
-    }
-
-    private static void updateCancerGeneList() throws IOException {
-        cancerGeneList = CancerGeneUtils.populateCancerGeneList();
+        return cachedCancerGeneList;
     }
 
     public static Gene getGeneByHugoSymbol(String hugoSymbol) {
-        Integer entrezGeneId = hugoSymbolToEntrez.get(hugoSymbol);
+        CacheSnapshot current = snapshot;
+        Integer entrezGeneId = current.getHugoSymbolToEntrez().get(hugoSymbol);
         if (entrezGeneId == null)
             return null;
 
-        return genesByEntrezId.get(entrezGeneId);
+        return current.getGenesByEntrezId().get(entrezGeneId);
     }
 
     public static Boolean containGeneByHugoSymbol(String hugoSymbol) {
-        Integer entrezGeneId = hugoSymbolToEntrez.get(hugoSymbol);
-        if (entrezGeneId == null)
-            return false;
-
-        if (genesByEntrezId.get(entrezGeneId) == null) {
-            return false;
-        } else {
-            return true;
-        }
-    }
-
-    private static void setVUS(Integer entrezGeneId, Set<Evidence> evidences) {
-        VUS.put(entrezGeneId, AlterationUtils.findVUSFromEvidences(evidences));
+        return getGeneByHugoSymbol(hugoSymbol) != null;
     }
 
     public static Set<Alteration> getVUS(Integer entrezGeneId) {
         if (entrezGeneId == null) {
             return new HashSet<>();
         }
-        if (VUS.containsKey(entrezGeneId)) {
-            return VUS.get(entrezGeneId) == null ? new HashSet<Alteration>() : Collections.unmodifiableSet(VUS.get(entrezGeneId));
-        } else {
-            Gene gene = GeneUtils.getGeneByEntrezId(entrezGeneId);
-            if (gene != null) {
-                synEvidences();
-                setVUS(entrezGeneId, new HashSet<>(getEvidences(gene)));
-            }
-            return VUS.get(entrezGeneId) == null ? new HashSet<Alteration>() : Collections.unmodifiableSet(VUS.get(entrezGeneId));
+        CacheSnapshot current = snapshot;
+        if (!current.getVUS().containsKey(entrezGeneId) && GeneUtils.getGeneByEntrezId(entrezGeneId) != null) {
+            current = synEvidences();
         }
+        Set<Alteration> geneVUS = current.getVUS().get(entrezGeneId);
+        return geneVUS == null ? new HashSet<Alteration>() : geneVUS;
     }
 
     public static void setNumbers(String type, Object number) {
-        numbers.put(type, number);
+        if (number == null) {
+            numbers.remove(type);
+        } else {
+            numbers.put(type, number);
+        }
     }
 
     public static Object getNumbers(String type) {
         return numbers.get(type);
     }
 
+    static GeneSearchIndex getGeneSearchIndex() {
+        getAllGenes();
+        return snapshot.getGeneSearchIndex();
+    }
+
+    static GeneNameIndex getGeneNameIndex() {
+        getAllGenes();
+        return snapshot.getGeneNameIndex();
+    }
+
+    /**
+     * @return the alteration search index of every gene
+     */
+    static Collection<TextSearchIndex<Alteration>> getAlterationSearchIndexes() {
+        return synAlterations().getAlterationSearchIndexes().values();
+    }
+
     public static List<Alteration> getAlterations(Integer entrezGeneId, ReferenceGenome referenceGenome) {
-        synAlterations();
-        List<Alteration> result = referenceGenome == null ? alterations.get(entrezGeneId) : (alterationsByReferenceGenome.get(entrezGeneId) == null ? null : alterationsByReferenceGenome.get(entrezGeneId).get(referenceGenome));
-        if (result == null) {
-            return new ArrayList<>();
-        }else {
-            return Collections.unmodifiableList(result);
+        CacheSnapshot current = synAlterations();
+        List<Alteration> result;
+        if (referenceGenome == null) {
+            result = current.getAlterations().get(entrezGeneId);
+        } else {
+            Map<ReferenceGenome, List<Alteration>> geneAlterations = current.getAlterationsByReferenceGenome().get(entrezGeneId);
+            result = geneAlterations == null ? null : geneAlterations.get(referenceGenome);
         }
+        return result == null ? new ArrayList<>() : result;
     }
 
     public static Set<Alteration> findRelevantOverlapAlterations(Gene gene, ReferenceGenome referenceGenome, VariantConsequence consequence, int start, int end, String proteinChange) {
         return AlterationUtils.findOverlapAlteration(getAlterations(gene.getEntrezGeneId(), referenceGenome), gene, referenceGenome, consequence, start, end, proteinChange);
     }
 
+    /**
+     * @return the overlap index of the cached alteration list, or null when the list is not cached
+     */
+    static AlterationOverlapIndex getAlterationOverlapIndex(Integer entrezGeneId, List<Alteration> alterations) {
+        List<AlterationOverlapIndex> overlapIndexes = snapshot.getAlterationOverlapIndexes().get(entrezGeneId);
+        if (overlapIndexes != null) {
+            for (AlterationOverlapIndex overlapIndex : overlapIndexes) {
+                if (overlapIndex.isBuiltFrom(alterations)) {
+                    return overlapIndex;
+                }
+            }
+        }
+        return null;
+    }
+
     public static Set<Alteration> findMutationsByConsequenceAndPositionOnSamePosition(Gene gene, ReferenceGenome referenceGenome, VariantConsequence consequence, int start, int end, String referenceResidue) {
         Set<Alteration> alterations = new HashSet<>();
         for (Alteration alteration : getAlterations(gene.getEntrezGeneId(), referenceGenome)) {
@@ -360,57 +388,45 @@ public class CacheUtils {
     }
 
     public static Boolean containAlterations(Integer entrezGeneId) {
-        synAlterations();
-        return alterations.containsKey(entrezGeneId) ? true : false;
+        return synAlterations().getAlterations().containsKey(entrezGeneId) ? true : false;
     }
 
     public static void setAlterations(Gene gene) {
-        if (gene != null && genes.contains(gene)) {
+        if (gene != null && snapshot.getGenes().contains(gene)) {
             List<Alteration> geneAlterations = ApplicationContextSingleton.getAlterationBo().findAlterationsByGene(Collections.singleton(gene));
-            if (!alterationsByReferenceGenome.containsKey(gene.getEntrezGeneId())) {
-                alterationsByReferenceGenome.put(gene.getEntrezGeneId(), new HashMap<>());
-            }
-            alterations.put(gene.getEntrezGeneId(), geneAlterations);
-            for (Alteration alteration : geneAlterations) {
-                for (ReferenceGenome refGenome : alteration.getReferenceGenomes()) {
-                    if (!alterationsByReferenceGenome.get(gene.getEntrezGeneId()).containsKey(refGenome)) {
-                        alterationsByReferenceGenome.get(gene.getEntrezGeneId()).put(refGenome, new ArrayList<>());
-                    }
-                    alterationsByReferenceGenome.get(gene.getEntrezGeneId()).get(refGenome).add(alteration);
-                }
-            }
+            updateSnapshot(builder -> builder.setGeneAlterations(gene.getEntrezGeneId(), geneAlterations));
         }
     }
 
     public static Set<Gene> getAllGenes() {
-        if (genes.size() == 0) {
-            genes = new HashSet<>(ApplicationContextSingleton.getGeneBo().findAll());
+        if (snapshot.getGenes().size() == 0) {
+            synchronized (SNAPSHOT_LOCK) {
+                if (snapshot.getGenes().size() == 0) {
+                    cacheAllGenes();
+                }
+            }
         }
-        return genes;
+        return snapshot.getGenes();
     }
 
     private static void setAllAlterations() {
         Long current = MainUtils.getCurrentTimestamp();
-        List<Alteration> allAlterations = ApplicationContextSingleton.getAlterationBo().findAll();
-
-        for (Alteration alteration : allAlterations) {
-            Gene gene = alteration.getGene();
-            if (!alterations.containsKey(gene.getEntrezGeneId())) {
-                alterations.put(gene.getEntrezGeneId(), new ArrayList<>());
-            }
-            if (!alterationsByReferenceGenome.containsKey(gene.getEntrezGeneId())) {
-                alterationsByReferenceGenome.put(gene.getEntrezGeneId(), new HashMap<>());
-            }
-            alterations.get(gene.getEntrezGeneId()).add(alteration);
+        updateSnapshot(builder -> loadAllAlterations(builder, snapshot.getGenes()));
+        System.out.println("Cached all alterations: " + MainUtils.getTimestampDiff(current) + " at " + MainUtils.getCurrentTime());
+    }
 
-            for (ReferenceGenome refGenome : alteration.getReferenceGenomes()) {
-                if (!alterationsByReferenceGenome.get(gene.getEntrezGeneId()).containsKey(refGenome)) {
-                    alterationsByReferenceGenome.get(gene.getEntrezGeneId()).put(refGenome, new ArrayList<>());
-                }
-                alterationsByReferenceGenome.get(gene.getEntrezGeneId()).get(refGenome).add(alteration);
-            }
+    private static void loadAllAlterations(CacheSnapshot.Builder builder, Set<Gene> genes) {
+        Map<Integer, List<Alteration>> alterationsByGene = new HashMap<>();
+        for (Gene gene : genes) {
+            alterationsByGene.put(gene.getEntrezGeneId(), new ArrayList<>());
+        }
+        for (Alteration alteration : ApplicationContextSingleton.getAlterationBo().findAll()) {
+            alterationsByGene.computeIfAbsent(alteration.getGene().getEntrezGeneId(), entrezGeneId -> new ArrayList<>()).add(alteration);
+        }
+        builder.clearAlterations();
+        for (Map.Entry<Integer, List<Alteration>> entry : alterationsByGene.entrySet()) {
+            builder.setGeneAlterations(entry.getKey(), entry.getValue());
         }
-        System.out.println("Cached all alterations: " + MainUtils.getTimestampDiff(current) + " at " + MainUtils.getCurrentTime());
     }
 
     public static Set<Drug> getAllDrugs() {
@@ -420,6 +436,38 @@ public class CacheUtils {
         return drugs;
     }
 
+    /**
+     * The annotation summaries computed from the current snapshot. The table starts over whenever a new snapshot is
+     * published.
+     */
+    static AnnotationSummaryTable getAnnotationSummaryTable() {
+        CacheSnapshot current = snapshot;
+        AnnotationSummaryTable table = annotationSummaryTable;
+        if (table == null || !table.isBuiltFrom(current)) {
+            table = new AnnotationSummaryTable(current);
+            annotationSummaryTable = table;
+        }
+        return table;
+    }
+
+    /**
+     * Search index of the cached drugs, by name, NCIt code and synonym. It is rebuilt when the drugs are updated.
+     */
+    static TextSearchIndex<Drug> getDrugSearchIndex() {
+        Set<Drug> current = getAllDrugs();
+        TextSearchIndex<Drug> index = drugSearchIndex;
+        if (index == null || !index.isBuiltFrom(current)) {
+            index = TextSearchIndex.build(current, drug -> {
+                List<String> keys = drug.getSynonyms() == null ? new ArrayList<>() : new ArrayList<>(drug.getSynonyms());
+                keys.add(drug.getDrugName());
+                keys.add(drug.getNcitCode());
+                return keys;
+            });
+            drugSearchIndex = index;
+        }
+        return index;
+    }
+
     public static Drug getPersistentDrug(Drug drug) {
         if (drug == null)
             return null;
@@ -433,13 +481,17 @@ public class CacheUtils {
 
     public static void addDrug(Drug drug) {
         if (drug != null) {
-            drugs.add(drug);
+            synchronized (SNAPSHOT_LOCK) {
+                Set<Drug> updatedDrugs = new HashSet<>(drugs);
+                updatedDrugs.add(drug);
+                drugs = updatedDrugs;
+            }
         }
     }
 
     public static Set<Evidence> getAllEvidences() {
         Set<Evidence> evis = new HashSet<>();
-        for (Map.Entry<Integer, List<Evidence>> map : evidences.entrySet()) {
+        for (Map.Entry<Integer, List<Evidence>> map : synEvidences().getEvidences().entrySet()) {
             evis.addAll(map.getValue());
         }
         return evis;
@@ -450,25 +502,48 @@ public class CacheUtils {
             return new ArrayList<>();
         }
 
-        synEvidences();
+        List<Evidence> geneEvidences = synEvidences().getEvidences().get(gene.getEntrezGeneId());
+        return geneEvidences == null ? new ArrayList<>() : geneEvidences;
+    }
 
-        if (evidences.containsKey(gene.getEntrezGeneId())) {
-            return evidences.get(gene.getEntrezGeneId()) == null ? new ArrayList<>() : Collections.unmodifiableList(evidences.get(gene.getEntrezGeneId()));
-        } else {
+    /**
+     * Get the gene evidences which are associated with at least one of the alterations.
+     * The evidences are returned in the same order as {@link #getEvidences(Gene)}.
+     * When any alteration is not persisted, the lookup falls back to scanning all gene evidences.
+     */
+    public static List<Evidence> getEvidencesByAlterations(Gene gene, Collection<Alteration> alterations) {
+        if (gene == null || alterations == null || alterations.isEmpty()) {
             return new ArrayList<>();
         }
+        CacheSnapshot current = synEvidences();
+        List<Evidence> geneEvidences = current.getEvidences().get(gene.getEntrezGeneId());
+        if (geneEvidences == null || geneEvidences.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        EvidenceAlterationIndex index = current.getEvidenceIndexesByAlteration().get(gene.getEntrezGeneId());
+        if (index == null || alterations.stream().anyMatch(alteration -> alteration.getId() == null)) {
+            Set<Alteration> alterationSet = new HashSet<>(alterations);
+            return geneEvidences.stream().filter(evidence -> !Collections.disjoint(evidence.getAlterations(), alterationSet)).collect(Collectors.toList());
+        }
+
+        BitSet positions = index.getEvidencePositions(alterations);
+        List<Evidence> mappedEvis = new ArrayList<>(positions.cardinality());
+        for (int position = positions.nextSetBit(0); position >= 0; position = positions.nextSetBit(position + 1)) {
+            mappedEvis.add(geneEvidences.get(position));
+        }
+        return mappedEvis;
     }
 
     public static Set<Evidence> getEvidencesByIds(Set<Integer> ids) {
-        synEvidences();
+        CacheSnapshot current = synEvidences();
 
         Set<Evidence> mappedEvis = new HashSet<>();
         if (ids != null) {
-            for (Map.Entry<Integer, List<Evidence>> map : evidences.entrySet()) {
-                for (Evidence evidence : map.getValue()) {
-                    if (ids.contains(evidence.getId())) {
-                        mappedEvis.add(evidence);
-                    }
+            for (Integer id : ids) {
+                Evidence evidence = current.getEvidencesById().get(id);
+                if (evidence != null) {
+                    mappedEvis.add(evidence);
                 }
             }
         }
@@ -494,63 +569,65 @@ public class CacheUtils {
     }
 
     public static Set<Evidence> getEvidencesByUUID(String uuid) {
-        synEvidences();
+        CacheSnapshot current = synEvidences();
 
         Set<Evidence> mappedEvis = new HashSet<>();
-        if (uuid != null) {
-            for (Map.Entry<Integer, List<Evidence>> map : evidences.entrySet()) {
-                for (Evidence evidence : map.getValue()) {
-                    if (uuid.equals(evidence.getUuid())) {
-                        mappedEvis.add(evidence);
-                    }
-                }
-            }
+        if (uuid != null && current.getEvidencesByUUID().containsKey(uuid)) {
+            mappedEvis.addAll(current.getEvidencesByUUID().get(uuid));
         }
         return mappedEvis;
     }
 
     public static Set<Evidence> getEvidencesByUUIDs(Set<String> uuids) {
-        synEvidences();
+        CacheSnapshot current = synEvidences();
 
         Set<Evidence> mappedEvis = new HashSet<>();
         if (uuids != null) {
-            for (Map.Entry<Integer, List<Evidence>> map : evidences.entrySet()) {
-                for (Evidence evidence : map.getValue()) {
-                    if (evidence != null && uuids.contains(evidence.getUuid())) {
-                        mappedEvis.add(evidence);
-                    }
+            for (String uuid : uuids) {
+                if (uuid != null && current.getEvidencesByUUID().containsKey(uuid)) {
+                    mappedEvis.addAll(current.getEvidencesByUUID().get(uuid));
                 }
             }
         }
         return mappedEvis;
     }
 
-    private static void setEvidences(Gene gene) {
-        List<Evidence> geneEvidences = ApplicationContextSingleton.getEvidenceBo().findEvidencesByGeneFromDB(Collections.singleton(gene));
-        evidences.put(gene.getEntrezGeneId(), geneEvidences);
-        updateEvidenceRelevantCancerTypes(gene.getEntrezGeneId(), geneEvidences);
-    }
-
-    private static void synEvidences() {
-        Long current = MainUtils.getCurrentTimestamp();
-        if (evidences == null || evidences.size() == 0) {
-            cacheAllEvidencesByGenes();
+    private static CacheSnapshot synEvidences() {
+        if (snapshot.getEvidences().size() == 0) {
+            synchronized (SNAPSHOT_LOCK) {
+                if (snapshot.getEvidences().size() == 0) {
+                    cacheAllEvidencesByGenes();
+                }
+            }
         }
+        return snapshot;
     }
 
-    private static void synAlterations() {
-        Long current = MainUtils.getCurrentTimestamp();
-        if (alterations == null || alterations.size() == 0) {
-            setAllAlterations();
-        }
-
-        if (alterations.keySet().size() != genes.size()) {
-            for (Gene gene : genes) {
-                if (!alterations.containsKey(gene.getEntrezGeneId())) {
-                    setAlterations(gene);
+    private static CacheSnapshot synAlterations() {
+        CacheSnapshot current = snapshot;
+        if (current.getAlterations().size() == 0 || hasGenesWithoutAlterations(current)) {
+            synchronized (SNAPSHOT_LOCK) {
+                if (snapshot.getAlterations().size() == 0) {
+                    setAllAlterations();
+                }
+                CacheSnapshot loaded = snapshot;
+                Set<Gene> genesWithoutAlterations = loaded.getGenes().stream().filter(gene -> !loaded.getAlterations().containsKey(gene.getEntrezGeneId())).collect(Collectors.toSet());
+                if (genesWithoutAlterations.size() > 0) {
+                    updateSnapshot(builder -> {
+                        for (Gene gene : genesWithoutAlterations) {
+                            builder.setGeneAlterations(gene.getEntrezGeneId(), ApplicationContextSingleton.getAlterationBo().findAlterationsByGene(Collections.singleton(gene)));
+                        }
+                    });
                 }
             }
+            current = snapshot;
         }
+        return current;
+    }
+
+    private static boolean hasGenesWithoutAlterations(CacheSnapshot current) {
+        return current.getAlterations().keySet().size() != current.getGenes().size()
+            && current.getGenes().stream().anyMatch(gene -> !current.getAlterations().containsKey(gene.getEntrezGeneId()));
     }
 
     public static TumorType findTumorTypeByCode(String code) {
@@ -579,13 +656,32 @@ public class CacheUtils {
         return cancerTypesByMainType;
     }
 
+    static TextSearchIndex<TumorType> getSubtypeSearchIndex() {
+        return subtypeSearchIndex;
+    }
+
+    static TextSearchIndex<TumorType> getMainTypeSearchIndex() {
+        return mainTypeSearchIndex;
+    }
+
     public static List<TumorType> getAllSpecialCancerTypes() {
         return specialCancerTypes;
     }
 
+    public static TumorType getSpecialCancerType(SpecialTumorType specialTumorType) {
+        return tumorTypeGraph.getBySpecialTumor(specialTumorType);
+    }
+
+    public static List<TumorType> getAllSubtypesByMainType(String mainType) {
+        return tumorTypeGraph.getSubtypesByMainType(mainType);
+    }
+
+    static TumorTypeGraph getTumorTypeGraph() {
+        return tumorTypeGraph;
+    }
+
     public static void forceUpdateGeneAlterations(Integer entrezGeneId) {
-        alterations.remove(entrezGeneId);
-        alterationsByReferenceGenome.remove(entrezGeneId);
+        updateSnapshot(builder -> builder.removeGeneAlterations(entrezGeneId));
     }
 
     public static void updateGene(Set<Integer> entrezGeneIds, Boolean propagate) throws IOException {
@@ -625,38 +721,26 @@ public class CacheUtils {
 
     private static void cacheAllEvidencesByGenes() {
         Long current = MainUtils.getCurrentTimestamp();
+        updateSnapshot(builder -> loadAllEvidences(builder, snapshot.getGenes()));
+        System.out.println("Cached all evidences by gene: " + MainUtils.getTimestampDiff(current) + " at " + MainUtils.getCurrentTime());
+    }
 
+    private static void loadAllEvidences(CacheSnapshot.Builder builder, Set<Gene> genes) {
         Map<Gene, List<Evidence>> mappedEvidence =
             EvidenceUtils.separateEvidencesByGene(genes, new HashSet<>(
                 ApplicationContextSingleton.getEvidenceBo().findAll()));
-        Iterator it = mappedEvidence.entrySet().iterator();
-        while (it.hasNext()) {
-            Map.Entry<Gene, List<Evidence>> pair = (Map.Entry) it.next();
-            int entrezGeneId = pair.getKey().getEntrezGeneId();
-            evidences.put(entrezGeneId, pair.getValue());
-            updateEvidenceRelevantCancerTypes(entrezGeneId, pair.getValue());
+        builder.clearEvidences();
+        for (Map.Entry<Gene, List<Evidence>> pair : mappedEvidence.entrySet()) {
+            builder.setGeneEvidences(pair.getKey().getEntrezGeneId(), pair.getValue());
         }
-        System.out.println("Cached all evidences by gene: " + MainUtils.getTimestampDiff(current) + " at " + MainUtils.getCurrentTime());
     }
 
-    public static void updateEvidenceRelevantCancerTypes(Integer entrezGeneId, List<Evidence> geneEvidences) {
-        evidenceRelevantCancerTypes.put(entrezGeneId, new HashMap<>());
-        for (Evidence evidence : geneEvidences) {
-            if (evidence.getId() != null) {
-                evidenceRelevantCancerTypes.get(entrezGeneId).put(evidence.getId(), TumorTypeUtils.findEvidenceRelevantCancerTypes(evidence));
-            }
-        }
-    }
-
-    public static Set<TumorType> getEvidenceRelevantCancerTypes(Integer entrezGeneId, Integer evidenceId) {
+    public static TumorTypeIdSet getEvidenceRelevantCancerTypes(Integer entrezGeneId, Integer evidenceId) {
         if (entrezGeneId == null || evidenceId == null) {
             return null;
         }
-        if (evidenceRelevantCancerTypes.containsKey(entrezGeneId) && evidenceRelevantCancerTypes.get(entrezGeneId).containsKey(evidenceId)) {
-            return evidenceRelevantCancerTypes.get(entrezGeneId).get(evidenceId);
-        } else {
-            return null;
-        }
+        Map<Integer, TumorTypeIdSet> geneRelevantCancerTypes = snapshot.getEvidenceRelevantCancerTypes().get(entrezGeneId);
+        return geneRelevantCancerTypes == null ? null : geneRelevantCancerTypes.get(evidenceId);
     }
 
     public static Map<String, Long> getRecordTime() {
@@ -664,13 +748,11 @@ public class CacheUtils {
     }
 
     public static void emptyRecordTime() {
-        recordTime = new HashedMap();
+        recordTime = new ConcurrentHashMap<>();
     }
 
     public static void addRecordTime(String key, Long time) {
-        if (!recordTime.containsKey(key))
-            recordTime.put(key, (long) 0);
-        recordTime.put(key, recordTime.get(key) + time);
+        recordTime.merge(key, time, Long::sum);
     }
 
     public static List<DownloadAvailability> getDownloadAvailabilities() {
@@ -0,0 +1,292 @@
+package org.mskcc.cbio.oncokb.util;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.commons.lang3.StringUtils;
+import org.mskcc.cbio.oncokb.apiModels.ActionableGene;
+import org.mskcc.cbio.oncokb.apiModels.AnnotatedVariant;
+import org.mskcc.cbio.oncokb.model.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Writers of the bulk exports, i.e. all annotated variants and all actionable variants, as JSON or TSV.
+ * <p>
+ * The annotated variants are sorted by gene first, so they are generated and written one gene at a time and the whole
+ * export is never held in memory. The actionable variants are sorted by level first, the rows of all genes are collected
+ * before writing, but the serialized export is still written incrementally.
+ */
+public final class DataExportUtils {
+    private DataExportUtils() {
+        throw new AssertionError();
+    }
+
+    private static final String SEPARATOR = "\t";
+    private static final String NEW_LINE = "\n";
+
+    private static final List<String> ANNOTATED_VARIANTS_HEADER = Collections.unmodifiableList(Arrays.asList(
+        "GRCh37 Isoform", "GRCh37 RefSeq", "GRCh38 Isoform", "GRCh38 RefSeq", "Entrez Gene ID", "Hugo Symbol",
+        "Reference Genome", "Alteration", "Protein Change", "Oncogenicity", "Mutation Effect", "PMIDs", "Abstracts",
+        "Description"
+    ));
+
+    private static final List<String> ACTIONABLE_VARIANTS_HEADER = Collections.unmodifiableList(Arrays.asList(
+        "GRCh37 Isoform", "GRCh37 RefSeq", "GRCh38 Isoform", "GRCh38 RefSeq", "Entrez Gene ID", "Hugo Symbol",
+        "Reference Genome", "Alteration", "Protein Change", "Cancer Type", "Level", "Drugs(s)", "PMIDs", "Abstracts",
+        "Description"
+    ));
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    /**
+     * The entity tag of an export. It only depends on the data version and the application version, so every instance
+     * serving the same data gives the same tag, whether the export is served from a rendered artifact or generated.
+     *
+     * @param resource the file name of the export, e.g. allCuratedGenesWithoutEvidence.txt
+     * @return null once the gene data is updated in place, the data version does not identify the export anymore
+     */
+    public static String getETag(String resource) {
+        if (CacheUtils.isGeneDataUpdated()) {
+            return null;
+        }
+        List<String> parts = new ArrayList<>();
+        parts.add(MainUtils.getDataVersion());
+        parts.add(MainUtils.getDataVersionDate());
+        String appVersion = DataExportUtils.class.getPackage().getImplementationVersion();
+        if (StringUtils.isNotEmpty(appVersion)) {
+            parts.add(appVersion);
+        }
+        parts.add(resource);
+        return "\"" + MainUtils.listToString(parts, "_").replace("\"", "") + "\"";
+    }
+
+    public static StreamingResponseBody annotatedVariantsJson() {
+        return outputStream -> {
+            JsonGenerator generator = createJsonGenerator(outputStream);
+            generator.writeStartArray();
+            for (Gene gene : getSortedGenes()) {
+                for (AnnotatedVariant annotatedVariant : getAnnotatedVariants(gene)) {
+                    generator.writeObject(annotatedVariant);
+                }
+                generator.flush();
+            }
+            generator.writeEndArray();
+            generator.flush();
+        };
+    }
+
+    public static StreamingResponseBody annotatedVariantsTxt() {
+        return outputStream -> {
+            Writer writer = createWriter(outputStream);
+            writeRow(writer, ANNOTATED_VARIANTS_HEADER);
+            for (Gene gene : getSortedGenes()) {
+                for (AnnotatedVariant annotatedVariant : getAnnotatedVariants(gene)) {
+                    writeRow(writer, toRow(annotatedVariant));
+                }
+                writer.flush();
+            }
+            writer.flush();
+        };
+    }
+
+    public static StreamingResponseBody actionableVariantsJson() {
+        return outputStream -> {
+            JsonGenerator generator = createJsonGenerator(outputStream);
+            generator.writeStartArray();
+            for (ActionableGene actionableGene : getAllActionableVariants()) {
+                generator.writeObject(actionableGene);
+            }
+            generator.writeEndArray();
+            generator.flush();
+        };
+    }
+
+    public static StreamingResponseBody actionableVariantsTxt() {
+        return outputStream -> {
+            Writer writer = createWriter(outputStream);
+            writeRow(writer, ACTIONABLE_VARIANTS_HEADER);
+            for (ActionableGene actionableGene : getAllActionableVariants()) {
+                writeRow(writer, toRow(actionableGene));
+            }
+            writer.flush();
+        };
+    }
+
+    public static void writeJson(Object value, OutputStream outputStream) throws IOException {
+        JsonGenerator generator = createJsonGenerator(outputStream);
+        generator.writeObject(value);
+        generator.flush();
+    }
+
+    public static void writeText(String text, OutputStream outputStream) throws IOException {
+        Writer writer = createWriter(outputStream);
+        writer.write(text);
+        writer.flush();
+    }
+
+    private static JsonGenerator createJsonGenerator(OutputStream outputStream) throws IOException {
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream, JsonEncoding.UTF8);
+        // The caller owns the stream
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        return generator;
+    }
+
+    private static Writer createWriter(OutputStream outputStream) {
+        return new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+    }
+
+    private static void writeRow(Writer writer, List<String> row) throws IOException {
+        writer.write(MainUtils.listToString(row, SEPARATOR));
+        writer.write(NEW_LINE);
+    }
+
+    /**
+     * The genes in the order of the exports, which compare the hugo symbols first
+     */
+    private static List<Gene> getSortedGenes() {
+        List<Gene> genes = new ArrayList<>(CacheUtils.getAllGenes());
+        genes.sort(Comparator.comparing(Gene::getHugoSymbol));
+        return genes;
+    }
+
+    public static List<AnnotatedVariant> getAnnotatedVariants(Gene gene) {
+        List<AnnotatedVariant> annotatedVariants = new ArrayList<>();
+        for (BiologicalVariant biologicalVariant : MainUtils.getBiologicalVariants(gene)) {
+            annotatedVariants.add(new AnnotatedVariant(
+                gene.getGrch37Isoform(),
+                gene.getGrch37RefSeq(),
+                gene.getGrch38Isoform(),
+                gene.getGrch38RefSeq(),
+                gene.getEntrezGeneId(),
+                gene.getHugoSymbol(),
+                getReferenceGenomes(biologicalVariant.getVariant()),
+                biologicalVariant.getVariant().getName(),
+                biologicalVariant.getVariant().getAlteration(),
+                biologicalVariant.getOncogenic(),
+                biologicalVariant.getMutationEffect(),
+                MainUtils.listToString(new ArrayList<>(biologicalVariant.getMutationEffectPmids()), ", ", true),
+                MainUtils.listToString(getAbstracts(biologicalVariant.getMutationEffectAbstracts()), "; ", true),
+                CplUtils.annotate(
+                    biologicalVariant.getMutationEffectDescription(),
+                    gene.getHugoSymbol(),
+                    biologicalVariant.getVariant().getName(),
+                    null,
+                    null,
+                    gene,
+                    null
+                )
+            ));
+        }
+        MainUtils.sortAnnotatedVariants(annotatedVariants);
+        return annotatedVariants;
+    }
+
+    public static List<ActionableGene> getAllActionableVariants() {
+        List<ActionableGene> actionableGenes = new ArrayList<>();
+        for (Gene gene : getSortedGenes()) {
+            actionableGenes.addAll(getActionableVariants(gene));
+        }
+        MainUtils.sortActionableVariants(actionableGenes);
+        return actionableGenes;
+    }
+
+    public static List<ActionableGene> getActionableVariants(Gene gene) {
+        List<ActionableGene> actionableGenes = new ArrayList<>();
+        for (ClinicalVariant clinicalVariant : MainUtils.getClinicalVariants(gene)) {
+            List<String> abstracts = getAbstracts(clinicalVariant.getDrugAbstracts());
+
+            if (clinicalVariant.getExcludedCancerTypes().size() > 0) {
+                String cancerTypeName = TumorTypeUtils.getTumorTypesNameWithExclusion(clinicalVariant.getCancerTypes(), clinicalVariant.getExcludedCancerTypes());
+                // for any clinical variant that has cancer type excluded, we no longer list the cancer types separately
+                actionableGenes.add(getActionableGene(gene, clinicalVariant, cancerTypeName, null, abstracts));
+            } else {
+                for (TumorType tumorType : clinicalVariant.getCancerTypes()) {
+                    actionableGenes.add(getActionableGene(gene, clinicalVariant, TumorTypeUtils.getTumorTypeName(tumorType), tumorType, abstracts));
+                }
+            }
+        }
+        return actionableGenes;
+    }
+
+    private static ActionableGene getActionableGene(Gene gene, ClinicalVariant clinicalVariant, String cancerTypeName, TumorType tumorType, List<String> abstracts) {
+        return new ActionableGene(
+            gene.getGrch37Isoform(), gene.getGrch37RefSeq(),
+            gene.getGrch38Isoform(), gene.getGrch38RefSeq(),
+            gene.getEntrezGeneId(),
+            gene.getHugoSymbol(),
+            getReferenceGenomes(clinicalVariant.getVariant()),
+            clinicalVariant.getVariant().getName(),
+            clinicalVariant.getVariant().getAlteration(),
+            cancerTypeName,
+            clinicalVariant.getLevel(),
+            MainUtils.listToString(new ArrayList<>(clinicalVariant.getDrug()), ", ", true),
+            MainUtils.listToString(new ArrayList<>(clinicalVariant.getDrugPmids()), ", ", true),
+            MainUtils.listToString(new ArrayList<>(abstracts), "; ", true),
+            CplUtils.annotate(
+                clinicalVariant.getDrugDescription(),
+                gene.getHugoSymbol(),
+                clinicalVariant.getVariant().getName(),
+                cancerTypeName,
+                null,
+                gene,
+                tumorType
+            )
+        );
+    }
+
+    private static String getReferenceGenomes(Alteration alteration) {
+        return alteration.getReferenceGenomes().stream().map(referenceGenome -> referenceGenome.name()).collect(Collectors.joining(", "));
+    }
+
+    private static List<String> getAbstracts(Set<ArticleAbstract> articleAbstracts) {
+        List<String> abstracts = new ArrayList<>();
+        for (ArticleAbstract articleAbstract : articleAbstracts) {
+            abstracts.add(articleAbstract.getAbstractContent() + " " + articleAbstract.getLink());
+        }
+        return abstracts;
+    }
+
+    private static List<String> toRow(AnnotatedVariant annotatedVariant) {
+        List<String> row = new ArrayList<>();
+        row.add(annotatedVariant.getGrch37Isoform());
+        row.add(annotatedVariant.getGrch37RefSeq());
+        row.add(annotatedVariant.getGrch38Isoform());
+        row.add(annotatedVariant.getGrch38RefSeq());
+        row.add(String.valueOf(annotatedVariant.getEntrezGeneId()));
+        row.add(annotatedVariant.getGene());
+        row.add(annotatedVariant.getReferenceGenome());
+        row.add(annotatedVariant.getVariant());
+        row.add(annotatedVariant.getProteinChange());
+        row.add(annotatedVariant.getOncogenicity());
+        row.add(annotatedVariant.getMutationEffect());
+        row.add(annotatedVariant.getMutationEffectPmids());
+        row.add(annotatedVariant.getMutationEffectAbstracts());
+        row.add(annotatedVariant.getDescription());
+        return row;
+    }
+
+    private static List<String> toRow(ActionableGene actionableGene) {
+        List<String> row = new ArrayList<>();
+        row.add(actionableGene.getGrch37Isoform());
+        row.add(actionableGene.getGrch37RefSeq());
+        row.add(actionableGene.getGrch38Isoform());
+        row.add(actionableGene.getGrch38RefSeq());
+        row.add(String.valueOf(actionableGene.getEntrezGeneId()));
+        row.add(actionableGene.getGene());
+        row.add(actionableGene.getReferenceGenome());
+        row.add(actionableGene.getVariant());
+        row.add(actionableGene.getProteinChange());
+        row.add(actionableGene.getCancerType());
+        row.add(actionableGene.getLevel());
+        row.add(actionableGene.getDrugs());
+        row.add(actionableGene.getPmids());
+        row.add(actionableGene.getAbstracts());
+        row.add(actionableGene.getDescription());
+        return row;
+    }
+}
@@ -0,0 +1,88 @@
+package org.mskcc.cbio.oncokb.util;
+
+import org.mskcc.cbio.oncokb.model.Alteration;
+import org.mskcc.cbio.oncokb.model.Evidence;
+
+import java.util.*;
+
+/**
+ * The positions of the evidences of a gene, in the cached gene evidence list, by the id of the alterations they are
+ * curated for. The index is kept in three int arrays instead of a map of boxed lists: the sorted alteration ids, the
+ * offset of the positions of each id, and the positions.
+ */
+final class EvidenceAlterationIndex {
+    private final int[] alterationIds;
+    private final int[] offsets;
+    private final int[] positions;
+
+    private EvidenceAlterationIndex(int[] alterationIds, int[] offsets, int[] positions) {
+        this.alterationIds = alterationIds;
+        this.offsets = offsets;
+        this.positions = positions;
+    }
+
+    /**
+     * @return null when an alteration has no id, it can only be matched by value
+     */
+    static EvidenceAlterationIndex build(List<Evidence> geneEvidences) {
+        int size = 0;
+        for (Evidence evidence : geneEvidences) {
+            size += evidence.getAlterations().size();
+        }
+
+        // the alteration id in the high bits and the position in the low bits, so sorting groups the positions by id
+        long[] entries = new long[size];
+        int entry = 0;
+        for (int position = 0; position < geneEvidences.size(); position++) {
+            for (Alteration alteration : geneEvidences.get(position).getAlterations()) {
+                if (alteration.getId() == null) {
+                    return null;
+                }
+                entries[entry++] = ((long) alteration.getId() << 32) | position;
+            }
+        }
+        Arrays.sort(entries);
+
+        int idCount = 0;
+        for (int i = 0; i < size; i++) {
+            if (i == 0 || alterationId(entries[i]) != alterationId(entries[i - 1])) {
+                idCount++;
+            }
+        }
+        int[] alterationIds = new int[idCount];
+        int[] offsets = new int[idCount + 1];
+        int[] positions = new int[size];
+        int id = -1;
+        for (int i = 0; i < size; i++) {
+            if (i == 0 || alterationId(entries[i]) != alterationId(entries[i - 1])) {
+                id++;
+                alterationIds[id] = alterationId(entries[i]);
+                offsets[id] = i;
+            }
+            positions[i] = (int) entries[i];
+        }
+        offsets[idCount] = size;
+        return new EvidenceAlterationIndex(alterationIds, offsets, positions);
+    }
+
+    private static int alterationId(long entry) {
+        return (int) (entry >> 32);
+    }
+
+    /**
+     * @param alterations alterations with an id
+     * @return the positions of the evidences curated for any of the alterations
+     */
+    BitSet getEvidencePositions(Collection<Alteration> alterations) {
+        BitSet matched = new BitSet();
+        for (Alteration alteration : alterations) {
+            int id = Arrays.binarySearch(alterationIds, alteration.getId());
+            if (id >= 0) {
+                for (int i = offsets[id]; i < offsets[id + 1]; i++) {
+                    matched.set(positions[i]);
+                }
+            }
+        }
+        return matched;
+    }
+}
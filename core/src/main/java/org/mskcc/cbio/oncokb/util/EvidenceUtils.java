@@ -198,13 +198,14 @@ public class EvidenceUtils {
                 evidenceToReturn = evidenceToReturn.stream().filter(evidence -> levelOfEvidences.contains(evidence.getLevelOfEvidence())).collect(toSet());
             }
             if (StringUtils.isNotEmpty(query.getQuery().getTumorType())) {
+                TumorTypeIdSet upwardTumorTypeIds = TumorTypeIdSet.of(upwardTumorTypes);
+                TumorTypeIdSet downwardTumorTypeIds = TumorTypeIdSet.of(downwardTumorTypes);
                 evidenceToReturn = evidenceToReturn.stream().filter(evidence -> {
                     if (evidence.getEvidenceType() != null) {
-                        Set<TumorType> relevantCancerTypes = TumorTypeUtils.findEvidenceRelevantCancerTypes(evidence);
                         if (evidence.getEvidenceType().equals(EvidenceType.DIAGNOSTIC_IMPLICATION) && evidence.getLevelOfEvidence() != null && evidence.getLevelOfEvidence().equals(LevelOfEvidence.LEVEL_Dx1)) {
-                            return !Collections.disjoint(downwardTumorTypes, relevantCancerTypes);
+                            return TumorTypeUtils.isEvidenceRelevantToAny(evidence, downwardTumorTypeIds);
                         } else if (EvidenceTypeUtils.getTumorTypeEvidenceTypes().contains(evidence.getEvidenceType())) {
-                            return !Collections.disjoint(upwardTumorTypes, relevantCancerTypes);
+                            return TumorTypeUtils.isEvidenceRelevantToAny(evidence, upwardTumorTypeIds);
                         } else {
                             return true;
                         }
@@ -261,17 +262,7 @@ public class EvidenceUtils {
     }
 
     public static List<Evidence> getAlterationEvidences(List<Alteration> alterations) {
-        List<Evidence> evidences = new ArrayList<>();
-
-        List<Evidence> geneEvidences = getAllEvidencesByAlterationsGenes(alterations);
-        Set<Alteration> altSet = new HashSet<>(alterations);
-        for (int i = 0; i < geneEvidences.size(); i++) {
-            Evidence evidence = geneEvidences.get(i);
-            if (!Collections.disjoint(evidence.getAlterations(), altSet)) {
-                evidences.add(evidence);
-            }
-        }
-        return evidences;
+        return getAllEvidencesByAlterations(alterations);
     }
 
     public static Map<Gene, Set<Evidence>> getEvidenceByGenes(Set<Gene> genes) {
@@ -359,6 +350,7 @@ public class EvidenceUtils {
 //        }
 
         if (evidenceQuery.getGene() != null) {
+            TumorTypeIdSet queryTumorTypes = null;
             for (Evidence evidence : evidences) {
 
                 if (evidence.getGene().equals(evidenceQuery.getGene())) {
@@ -385,7 +377,10 @@ public class EvidenceUtils {
                                 TumorForm tumorForm = TumorTypeUtils.checkTumorForm(new HashSet<>(evidenceQuery.getOncoTreeTypes()));
 
                                 // for evidence has relevant cancer types, we should only look at the exact matched cancer type of the evidence query
-                                hasjointed = !Collections.disjoint(TumorTypeUtils.findEvidenceRelevantCancerTypes(evidence), evidenceQuery.getExactMatchedTumorType() == null ? evidenceQuery.getOncoTreeTypes() : Collections.singleton(evidenceQuery.getExactMatchedTumorType()));
+                                if (queryTumorTypes == null) {
+                                    queryTumorTypes = TumorTypeIdSet.of(evidenceQuery.getExactMatchedTumorType() == null ? evidenceQuery.getOncoTreeTypes() : Collections.singleton(evidenceQuery.getExactMatchedTumorType()));
+                                }
+                                hasjointed = TumorTypeUtils.isEvidenceRelevantToAny(evidence, queryTumorTypes);
 
                                 if (hasjointed || com.mysql.jdbc.StringUtils.isNullOrEmpty(evidenceQuery.getQuery().getTumorType())) {
                                     filtered.add(evidence);
@@ -926,9 +921,10 @@ public class EvidenceUtils {
                 final List<LevelOfEvidence> allowedLevels = query.getLevelOfEvidences();
                 final List<TumorType> upwardTumorTypes = query.getOncoTreeTypes();
                 TumorForm tumorForm = TumorTypeUtils.checkTumorForm(new HashSet<>(upwardTumorTypes));
+                TumorTypeIdSet queryTumorTypes = TumorTypeIdSet.of(query.getExactMatchedTumorType() == null ? upwardTumorTypes : Collections.singleton(query.getExactMatchedTumorType()));
                 for (Evidence evidence : query.getEvidences()) {
                     if (evidence.getLevelOfEvidence() != null && EvidenceTypeUtils.getTreatmentEvidenceTypes().contains(evidence.getEvidenceType()) && tumorForm != null) {
-                        boolean disjoint = Collections.disjoint(TumorTypeUtils.findEvidenceRelevantCancerTypes(evidence), query.getExactMatchedTumorType() == null ? upwardTumorTypes : Collections.singleton(query.getExactMatchedTumorType()));
+                        boolean disjoint = !TumorTypeUtils.isEvidenceRelevantToAny(evidence, queryTumorTypes);
                         if (disjoint) {
                             Evidence propagatedLevel = getPropagateEvidence(allowedLevels, evidence, tumorForm);
                             if (propagatedLevel != null) {
@@ -1119,6 +1115,22 @@ public class EvidenceUtils {
         return evidences;
     }
 
+    /**
+     * Get all evidences associated with the alterations, looked up through the alteration index in the cache.
+     * The order is the same as filtering {@link #getAllEvidencesByAlterationsGenes(Collection)}.
+     */
+    public static List<Evidence> getAllEvidencesByAlterations(Collection<Alteration> alterations) {
+        Set<Gene> genes = new HashSet<>();
+        List<Evidence> evidences = new ArrayList<>();
+        for (Alteration alteration : alterations) {
+            genes.add(alteration.getGene());
+        }
+        for (Gene gene : genes) {
+            evidences.addAll(CacheUtils.getEvidencesByAlterations(gene, alterations));
+        }
+        return evidences;
+    }
+
     public static List<Evidence> getAllEvidencesByAlterationsGenes(Collection<Alteration> alterations) {
         Set<Gene> genes = new HashSet<>();
         List<Evidence> evidences = new ArrayList<>();
@@ -0,0 +1,106 @@
+package org.mskcc.cbio.oncokb.util;
+
+import org.mskcc.cbio.oncokb.model.Gene;
+
+import java.util.*;
+
+/**
+ * Lookup of the cached genes by hugo symbol and alias, ignoring case. It is rebuilt with the gene list of the
+ * {@link CacheSnapshot}.
+ *
+ * A name is ambiguous when it is shared by more than one gene, e.g. an alias listed under two genes, or two symbols
+ * only differing in case. Ambiguous names are never resolved to any of their genes.
+ */
+final class GeneNameIndex {
+    private static final String FUSION_PARTNER_SEPARATOR = "-";
+
+    private final Map<String, Gene> genesByUppercaseSymbol;
+    private final Map<String, Set<Gene>> genesByUppercaseAlias;
+
+    private GeneNameIndex(Map<String, Gene> genesByUppercaseSymbol, Map<String, Set<Gene>> genesByUppercaseAlias) {
+        this.genesByUppercaseSymbol = genesByUppercaseSymbol;
+        this.genesByUppercaseAlias = genesByUppercaseAlias;
+    }
+
+    static GeneNameIndex build(Collection<Gene> genes) {
+        Map<String, Gene> genesByUppercaseSymbol = new HashMap<>();
+        Set<String> ambiguousSymbols = new HashSet<>();
+        Map<String, Set<Gene>> genesByUppercaseAlias = new HashMap<>();
+        for (Gene gene : genes) {
+            if (gene.getHugoSymbol() != null) {
+                String symbol = gene.getHugoSymbol().toUpperCase();
+                Gene other = genesByUppercaseSymbol.put(symbol, gene);
+                if (other != null && !other.equals(gene)) {
+                    ambiguousSymbols.add(symbol);
+                }
+            }
+            if (gene.getGeneAliases() != null) {
+                for (String alias : gene.getGeneAliases()) {
+                    if (alias != null) {
+                        genesByUppercaseAlias.computeIfAbsent(alias.toUpperCase(), key -> new LinkedHashSet<>()).add(gene);
+                    }
+                }
+            }
+        }
+        genesByUppercaseSymbol.keySet().removeAll(ambiguousSymbols);
+        genesByUppercaseAlias.replaceAll((alias, aliasGenes) -> Collections.unmodifiableSet(aliasGenes));
+        return new GeneNameIndex(genesByUppercaseSymbol, genesByUppercaseAlias);
+    }
+
+    /**
+     * @return the gene with the hugo symbol, or null when there is none or the symbol is ambiguous
+     */
+    Gene getByHugoSymbol(String hugoSymbol) {
+        return hugoSymbol == null ? null : genesByUppercaseSymbol.get(hugoSymbol.toUpperCase());
+    }
+
+    /**
+     * @return all genes with the alias
+     */
+    Set<Gene> getByAlias(String alias) {
+        Set<Gene> genes = alias == null ? null : genesByUppercaseAlias.get(alias.toUpperCase());
+        return genes == null ? Collections.emptySet() : genes;
+    }
+
+    /**
+     * @return the only gene with the alias, or null when there is none or the alias is ambiguous
+     */
+    Gene getByUniqueAlias(String alias) {
+        Set<Gene> genes = getByAlias(alias);
+        return genes.size() == 1 ? genes.iterator().next() : null;
+    }
+
+    boolean containsName(String name) {
+        return getByHugoSymbol(name) != null || !getByAlias(name).isEmpty();
+    }
+
+    /**
+     * Split a dash separated fusion, e.g. BCR-ABL1, into its partners. The separator is also part of some gene names,
+     * e.g. NKX2-1, so the longest run of tokens forming a gene name is kept together.
+     *
+     * @return the partners, empty tokens are skipped
+     */
+    List<String> splitFusionPartners(String fusion) {
+        List<String> partners = new ArrayList<>();
+        if (fusion == null) {
+            return partners;
+        }
+        String[] tokens = fusion.split(FUSION_PARTNER_SEPARATOR, -1);
+        int start = 0;
+        while (start < tokens.length) {
+            int end = start + 1;
+            for (int candidateEnd = tokens.length; candidateEnd > start + 1; candidateEnd--) {
+                if (containsName(String.join(FUSION_PARTNER_SEPARATOR, Arrays.asList(tokens).subList(start, candidateEnd)))) {
+                    end = candidateEnd;
+                    break;
+                }
+            }
+            String partner = String.join(FUSION_PARTNER_SEPARATOR, Arrays.asList(tokens).subList(start, end));
+            if (!partner.isEmpty()) {
+                partners.add(partner);
+            }
+            start = end;
+        }
+        return partners;
+    }
+}
@@ -0,0 +1,42 @@
+package org.mskcc.cbio.oncokb.util;
+
+import org.mskcc.cbio.oncokb.model.Gene;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+
+/**
+ * Search index of the cached genes, by hugo symbol, alias and entrez gene id. It is rebuilt with the gene list of the
+ * {@link CacheSnapshot}.
+ */
+final class GeneSearchIndex {
+    private final TextSearchIndex<Gene> hugoSymbols;
+    private final TextSearchIndex<Gene> aliases;
+    private final TextSearchIndex<Gene> entrezGeneIds;
+
+    private GeneSearchIndex(Collection<Gene> genes) {
+        hugoSymbols = TextSearchIndex.build(genes, gene -> Collections.singleton(gene.getHugoSymbol()));
+        aliases = TextSearchIndex.build(genes, Gene::getGeneAliases);
+        entrezGeneIds = TextSearchIndex.build(genes, gene -> Collections.singleton(gene.getEntrezGeneId() == null ? null : gene.getEntrezGeneId().toString()));
+    }
+
+    static GeneSearchIndex build(Collection<Gene> genes) {
+        return new GeneSearchIndex(genes);
+    }
+
+    /**
+     * Numeric keywords are matched to the entrez gene ids. Other keywords are matched to the hugo symbols first, then
+     * to the aliases.
+     */
+    LinkedHashSet<Gene> search(String keyword, boolean exactSearch) {
+        LinkedHashSet<Gene> genes = new LinkedHashSet<>();
+        if (org.apache.commons.lang3.math.NumberUtils.isNumber(keyword)) {
+            genes.addAll(exactSearch ? entrezGeneIds.searchExact(keyword) : entrezGeneIds.search(keyword));
+        } else {
+            genes.addAll(exactSearch ? hugoSymbols.searchExact(keyword) : hugoSymbols.search(keyword));
+            genes.addAll(exactSearch ? aliases.searchExact(keyword) : aliases.search(keyword));
+        }
+        return genes;
+    }
+}
@@ -31,9 +31,13 @@ public class GeneUtils {
         }
     }
 
+    // The exact hugo symbol has the priority, then the symbol and the alias in any case
     public static Gene getGeneByHugoSymbol(String hugoSymbol) {
         if (hugoSymbol != null) {
             Gene gene = CacheUtils.getGeneByHugoSymbol(hugoSymbol);
+            if (gene == null) {
+                gene = CacheUtils.getGeneNameIndex().getByHugoSymbol(hugoSymbol);
+            }
             if (gene == null) {
                 gene = getGeneByAlias(hugoSymbol);
             }
@@ -50,82 +54,38 @@ public class GeneUtils {
         return null;
     }
 
+    /**
+     * @return the gene with the alias, or null when the alias is shared by more than one gene
+     */
     public static Gene getGeneByAlias(String geneAlias) {
         if (geneAlias != null) {
-            Set<Gene> genes = CacheUtils.getAllGenes();
-            Set<Gene> matches = new HashSet<>();
-            for (Gene gene : genes) {
-                if (gene.getGeneAliases().contains(geneAlias)) {
-                    matches.add(gene);
-                }
-                if (matches.size() > 0) {
-                    break;
-                }
-            }
-            if (matches.isEmpty() || matches.size() > 1) {
-                return null;
-            } else {
-                return matches.iterator().next();
-            }
+            return CacheUtils.getGeneNameIndex().getByUniqueAlias(geneAlias);
         }
         return null;
     }
 
+    /**
+     * Split a dash separated fusion into its partner genes, e.g. BCR-ABL1 into BCR and ABL1. Gene names with a dash,
+     * e.g. NKX2-1, are kept together.
+     */
+    public static List<String> getFusionPartners(String fusion) {
+        return CacheUtils.getGeneNameIndex().splitFusionPartners(fusion);
+    }
+
     public static LinkedHashSet<Gene> searchGene(String keyword, Boolean exactSearch) {
         LinkedHashSet<Gene> genes = new LinkedHashSet<>();
         if (exactSearch == null)
             exactSearch = false;
-        if (keyword != null && keyword != "") {
-            Set<Gene> allGenes = CacheUtils.getAllGenes();
-            if (org.apache.commons.lang3.math.NumberUtils.isNumber(keyword)) {
-                for (Gene gene : allGenes) {
-                    String entrezId = Integer.toString(gene.getEntrezGeneId());
-                    if (exactSearch) {
-                        if (entrezId.equals(keyword)) {
-                            genes.add(gene);
-                        }
-                    } else {
-                        if (entrezId.contains(keyword)) {
-                            genes.add(gene);
-                        }
-                    }
-                }
-            } else {
-                keyword = keyword.toLowerCase();
-                for (Gene gene : allGenes) {
-                    String hugoSymbol = gene.getHugoSymbol();
-                    if (exactSearch) {
-                        if (hugoSymbol.equalsIgnoreCase(keyword)) {
-                            genes.add(gene);
-                        }
-                    } else {
-                        if (StringUtils.containsIgnoreCase(hugoSymbol, keyword)) {
-                            genes.add(gene);
-                        }
-                    }
-                }
-                for (Gene gene : allGenes) {
-                    if (exactSearch) {
-                        for (String alias : gene.getGeneAliases()) {
-                            if (alias.toLowerCase().equals(keyword)) {
-                                genes.add(gene);
-                                break;
-                            }
-                        }
-                    } else {
-                        for (String alias : gene.getGeneAliases()) {
-                            if (StringUtils.containsIgnoreCase(alias, keyword)) {
-                                genes.add(gene);
-                                break;
-                            }
-                        }
-                    }
-                }
-
+        if (StringUtils.isNotEmpty(keyword)) {
+            genes.addAll(CacheUtils.getGeneSearchIndex().search(keyword, exactSearch));
+            if (!org.apache.commons.lang3.math.NumberUtils.isNumber(keyword)) {
                 // If the keyword contains dash and exact search is false, then we should return both fusion genes
                 if (keyword.contains("-") && exactSearch == false) {
-                    for (String subKeyword : keyword.split("-")) {
-                        genes.addAll(searchGene(subKeyword, false));
+                    for (String partner : getFusionPartners(keyword)) {
+                        // A gene name with a dash has been searched already
+                        if (!partner.equals(keyword)) {
+                            genes.addAll(searchGene(partner, false));
+                        }
                     }
                 }
             }
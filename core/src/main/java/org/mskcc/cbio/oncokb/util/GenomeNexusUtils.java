@@ -10,7 +10,10 @@ import org.json.JSONObject;
 import org.mskcc.cbio.oncokb.apiModels.TranscriptMatchResult;
 import org.mskcc.cbio.oncokb.apiModels.TranscriptPair;
 import org.mskcc.cbio.oncokb.apiModels.ensembl.Sequence;
+import org.mskcc.cbio.oncokb.genomenexus.ChunkedRequestExecutor;
 import org.mskcc.cbio.oncokb.genomenexus.GNVariantAnnotationType;
+import org.mskcc.cbio.oncokb.genomenexus.VariantAnnotationLoader;
+import org.mskcc.cbio.oncokb.genomenexus.VariantAnnotationStore;
 import org.mskcc.cbio.oncokb.model.Gene;
 import org.mskcc.cbio.oncokb.model.ReferenceGenome;
 import org.mskcc.cbio.oncokb.model.VariantConsequence;
@@ -19,6 +22,7 @@ import org.springframework.http.*;
 import org.springframework.web.client.RestTemplate;
 
 import java.util.*;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import static org.mskcc.cbio.oncokb.util.VariantConsequenceUtils.consequenceResolver;
@@ -37,6 +41,16 @@ public class GenomeNexusUtils {
     private static final String GN_38_URL = "https://grch38.genomenexus.org";
     private static final int GN_READ_TIMEOUT_OVERRIDE = 30000;
 
+    private static final int DEFAULT_GN_CHUNK_SIZE = 200;
+    private static final int DEFAULT_GN_POOL_SIZE = 8;
+    private static final int DEFAULT_GN_CONCURRENCY = 4;
+    private static final int DEFAULT_GN_MAX_ATTEMPTS = 3;
+    private static final long DEFAULT_GN_RETRY_BACKOFF = 500;
+
+    private static VariantAnnotationStore variantAnnotationStore;
+    private static boolean variantAnnotationStoreInitialized = false;
+    private static ChunkedRequestExecutor chunkedRequestExecutor;
+
     public static String getEnsemblSequencePOSTUrl(ReferenceGenome referenceGenome) {
         return getEnsemblAPIUrl(referenceGenome) + "/sequence/id";
     }
@@ -288,7 +302,8 @@ public class GenomeNexusUtils {
         if (queries != null) {
             List<String> gnFields = new ArrayList<>();
             gnFields.add("annotation_summary");
-            variantsAnnotation = getAnnotationControllerApi(referenceGenome).fetchVariantAnnotationPOST(queries, MSK_ISOFORM_OVERRIDE, null, gnFields);
+            variantsAnnotation = getVariantsAnnotation(GNVariantAnnotationType.HGVS_G, queries, query -> query, referenceGenome,
+                gnQueries -> getAnnotationControllerApi(referenceGenome).fetchVariantAnnotationPOST(gnQueries, MSK_ISOFORM_OVERRIDE, null, gnFields));
         }
         return variantsAnnotation;
     }
@@ -298,11 +313,63 @@ public class GenomeNexusUtils {
         if (queries != null) {
             List<String> gnFields = new ArrayList<>();
             gnFields.add("annotation_summary");
-            variantsAnnotation = getAnnotationControllerApi(referenceGenome).fetchVariantAnnotationByGenomicLocationPOST(queries, MSK_ISOFORM_OVERRIDE, null, gnFields);
+            variantsAnnotation = getVariantsAnnotation(GNVariantAnnotationType.GENOMIC_LOCATION, queries, GenomeNexusUtils::convertGenomicLocation, referenceGenome,
+                gnQueries -> getAnnotationControllerApi(referenceGenome).fetchVariantAnnotationByGenomicLocationPOST(gnQueries, MSK_ISOFORM_OVERRIDE, null, gnFields));
         }
         return variantsAnnotation;
     }
 
+    /**
+     * Look up the queries in the local variant annotation store first, only the missing ones are sent to Genome Nexus.
+     * The result has one annotation per query, in the same order as the queries.
+     */
+    private static <T> List<VariantAnnotation> getVariantsAnnotation(GNVariantAnnotationType type, List<T> queries, Function<T, String> queryToString, ReferenceGenome referenceGenome, ChunkedRequestExecutor.ChunkRequest<T, VariantAnnotation> request) throws ApiException {
+        return new VariantAnnotationLoader(getVariantAnnotationStore(), getChunkedRequestExecutor()).load(type, referenceGenome, queries, queryToString, request);
+    }
+
+    /**
+     * Configured by the properties genome_nexus.chunk_size, genome_nexus.pool_size, genome_nexus.concurrency, genome_nexus.max_attempts and genome_nexus.retry_backoff
+     */
+    private static synchronized ChunkedRequestExecutor getChunkedRequestExecutor() {
+        if (chunkedRequestExecutor == null) {
+            chunkedRequestExecutor = new ChunkedRequestExecutor(
+                getIntegerProperty("genome_nexus.chunk_size", DEFAULT_GN_CHUNK_SIZE),
+                getIntegerProperty("genome_nexus.pool_size", DEFAULT_GN_POOL_SIZE),
+                getIntegerProperty("genome_nexus.concurrency", DEFAULT_GN_CONCURRENCY),
+                getIntegerProperty("genome_nexus.max_attempts", DEFAULT_GN_MAX_ATTEMPTS),
+                getIntegerProperty("genome_nexus.retry_backoff", (int) DEFAULT_GN_RETRY_BACKOFF)
+            );
+        }
+        return chunkedRequestExecutor;
+    }
+
+    private static int getIntegerProperty(String name, int defaultValue) {
+        String value = PropertiesUtils.getProperties(name);
+        return StringUtils.isEmpty(value) ? defaultValue : Integer.parseInt(value.trim());
+    }
+
+    /**
+     * The store is enabled by the property genome_nexus.annotation_store.path
+     */
+    private static synchronized VariantAnnotationStore getVariantAnnotationStore() {
+        if (!variantAnnotationStoreInitialized) {
+            variantAnnotationStoreInitialized = true;
+            String path = PropertiesUtils.getProperties("genome_nexus.annotation_store.path");
+            if (StringUtils.isNotEmpty(path)) {
+                try {
+                    variantAnnotationStore = new VariantAnnotationStore(path);
+                    // Flush the pending writes and release the file lock when the JVM exits
+                    final VariantAnnotationStore store = variantAnnotationStore;
+                    Runtime.getRuntime().addShutdownHook(new Thread(store::close, "oncokb-genome-nexus-store-close"));
+                    System.out.println("Opened the Genome Nexus annotation store " + path + " with " + variantAnnotationStore.size() + " annotations at " + MainUtils.getCurrentTime());
+                } catch (Exception e) {
+                    System.out.println("Failed to open the Genome Nexus annotation store " + path + ", " + e.getMessage());
+                }
+            }
+        }
+        return variantAnnotationStore;
+    }
+
     private static TranscriptConsequenceSummary getConsequence(VariantAnnotation variantAnnotation, ReferenceGenome referenceGenome) {
         List<TranscriptConsequenceSummary> summaries = new ArrayList<>();
 
@@ -0,0 +1,159 @@
+package org.mskcc.cbio.oncokb.util;
+
+import java.util.*;
+
+/**
+ * The hotspots of a gene, compiled by the kind of mutation they apply to: single residue hotspots by position,
+ * in-frame indel and splice hotspots as intervals sorted by start. Checking a mutation does not allocate.
+ *
+ * The 3d hotspots are left out, a hotspot of several types is compiled into each of them.
+ */
+final class HotspotIndex {
+    private static final String THREE_D_TYPE = "3d";
+    private static final String SINGLE_RESIDUE_TYPE = "single residue";
+    private static final String IN_FRAME_TYPE = "in-frame";
+    private static final String SPLICE_TYPE = "splice";
+
+    private final Map<Integer, ResidueHotspot[]> residueHotspotsByPosition;
+    private final Intervals inframeHotspots;
+    private final Intervals spliceHotspots;
+
+    private HotspotIndex(Map<Integer, ResidueHotspot[]> residueHotspotsByPosition, Intervals inframeHotspots, Intervals spliceHotspots) {
+        this.residueHotspotsByPosition = residueHotspotsByPosition;
+        this.inframeHotspots = inframeHotspots;
+        this.spliceHotspots = spliceHotspots;
+    }
+
+    static HotspotIndex build(Collection<EnrichedHotspot> hotspots) {
+        Map<Integer, List<ResidueHotspot>> residueHotspots = new HashMap<>();
+        List<EnrichedHotspot> inframeHotspots = new ArrayList<>();
+        List<EnrichedHotspot> spliceHotspots = new ArrayList<>();
+        for (EnrichedHotspot hotspot : hotspots) {
+            String type = hotspot.getType();
+            if (type.equals(THREE_D_TYPE)) {
+                continue;
+            }
+            if (type.contains(THREE_D_TYPE) || type.contains(SINGLE_RESIDUE_TYPE)) {
+                ResidueHotspot residueHotspot = ResidueHotspot.of(hotspot);
+                if (residueHotspot != null) {
+                    residueHotspots.computeIfAbsent(residueHotspot.position, key -> new ArrayList<>()).add(residueHotspot);
+                }
+            }
+            if (type.contains(IN_FRAME_TYPE)) {
+                inframeHotspots.add(hotspot);
+            }
+            if (type.contains(SPLICE_TYPE)) {
+                spliceHotspots.add(hotspot);
+            }
+        }
+
+        Map<Integer, ResidueHotspot[]> residueHotspotsByPosition = new HashMap<>();
+        for (Map.Entry<Integer, List<ResidueHotspot>> entry : residueHotspots.entrySet()) {
+            residueHotspotsByPosition.put(entry.getKey(), entry.getValue().toArray(new ResidueHotspot[0]));
+        }
+        return new HotspotIndex(residueHotspotsByPosition, Intervals.of(inframeHotspots), Intervals.of(spliceHotspots));
+    }
+
+    /**
+     * A missense or positional mutation is a hotspot when a single residue hotspot is named after its reference
+     * residues and start, e.g. V600, and overlaps it.
+     */
+    boolean hasResidueHotspot(String refResidues, int start, int end) {
+        ResidueHotspot[] candidates = residueHotspotsByPosition.get(start);
+        if (candidates == null) {
+            return false;
+        }
+        String ref = String.valueOf(refResidues);
+        for (ResidueHotspot candidate : candidates) {
+            if (candidate.refResidues.equalsIgnoreCase(ref) && start <= candidate.end && end >= candidate.start) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    boolean hasInframeHotspotOverlapping(int start, int end) {
+        return inframeHotspots.overlaps(start, end);
+    }
+
+    boolean hasInframeHotspotContaining(int start, int end) {
+        return inframeHotspots.contains(start, end);
+    }
+
+    boolean hasSpliceHotspotOverlapping(int start, int end) {
+        return spliceHotspots.overlaps(start, end);
+    }
+
+    private static final class ResidueHotspot {
+        private final String refResidues;
+        private final int position;
+        private final int start;
+        private final int end;
+
+        private ResidueHotspot(String refResidues, int position, int start, int end) {
+            this.refResidues = refResidues;
+            this.position = position;
+            this.start = start;
+            this.end = end;
+        }
+
+        /**
+         * Split the residue, e.g. V600, into the reference residues and the position it ends with
+         *
+         * @return null when the residue does not end with a position
+         */
+        private static ResidueHotspot of(EnrichedHotspot hotspot) {
+            String residue = hotspot.getResidue();
+            int positionStart = residue.length();
+            while (positionStart > 0 && residue.charAt(positionStart - 1) >= '0' && residue.charAt(positionStart - 1) <= '9') {
+                positionStart--;
+            }
+            String position = residue.substring(positionStart);
+            // a leading zero never matches the position of a mutation
+            if (position.isEmpty() || position.charAt(0) == '0' || position.length() > 9) {
+                return null;
+            }
+            return new ResidueHotspot(residue.substring(0, positionStart), Integer.parseInt(position), hotspot.getStart(), hotspot.getEnd());
+        }
+    }
+
+    private static final class Intervals {
+        private final int[] starts;
+        private final int[] ends;
+
+        private Intervals(int[] starts, int[] ends) {
+            this.starts = starts;
+            this.ends = ends;
+        }
+
+        private static Intervals of(List<EnrichedHotspot> hotspots) {
+            List<EnrichedHotspot> sorted = new ArrayList<>(hotspots);
+            sorted.sort(Comparator.comparing(EnrichedHotspot::getStart));
+            int[] starts = new int[sorted.size()];
+            int[] ends = new int[sorted.size()];
+            for (int i = 0; i < sorted.size(); i++) {
+                starts[i] = sorted.get(i).getStart();
+                ends[i] = sorted.get(i).getEnd();
+            }
+            return new Intervals(starts, ends);
+        }
+
+        private boolean overlaps(int start, int end) {
+            for (int i = 0; i < starts.length && starts[i] <= end; i++) {
+                if (ends[i] >= start) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private boolean contains(int start, int end) {
+            for (int i = 0; i < starts.length && starts[i] <= start; i++) {
+                if (ends[i] >= end) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
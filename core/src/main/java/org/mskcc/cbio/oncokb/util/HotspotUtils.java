@@ -4,7 +4,6 @@ import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import org.genome_nexus.client.Hotspot;
 import org.genome_nexus.client.IntegerRange;
-import org.genome_nexus.client.ProteinLocation;
 import org.mskcc.cbio.oncokb.model.Alteration;
 import org.mskcc.cbio.oncokb.model.AlterationPositionBoundary;
 import org.mskcc.cbio.oncokb.model.Gene;
@@ -64,9 +63,9 @@ class EnrichedHotspot extends Hotspot {
 
 public class HotspotUtils {
     private static final String HOTSPOT_FILE_PATH = "/data/cancer-hotspots-gn.json";
-    private static Map<Gene, List<EnrichedHotspot>> hotspotMutations = new HashMap<>();
-    private static final String POSITIONAL_MUTATION_TYPE="positional";
-    private static final String RANGE_INFRAME_MUTATION_TYPE="rangeInframe";
+    private static Map<Gene, HotspotIndex> hotspotIndexes = new HashMap<>();
+    private static final Set<String> NOT_MAPPED_TO_GRCH38_HUGOS = Collections.unmodifiableSet(new HashSet<>(Arrays.asList("MYD88", "TET3", "RYBP", "WT1")));
+    private static final Pattern POSITIVE_INTEGER = Pattern.compile("\\d+");
 
     static {
         System.out.println("Cache all hotspots at " + MainUtils.getCurrentTime());
@@ -86,6 +85,7 @@ public class HotspotUtils {
 
     private static void parseData(List<EnrichedHotspot> hotspots) {
         if (hotspots != null) {
+            Map<Gene, List<EnrichedHotspot>> hotspotMutations = new HashMap<>();
             for (EnrichedHotspot hotspotMutation : hotspots) {
                 Gene gene = GeneUtils.getGeneByHugoSymbol(hotspotMutation.getHugoSymbol());
                 if (gene != null) {
@@ -95,6 +95,9 @@ public class HotspotUtils {
                     hotspotMutations.get(gene).add(hotspotMutation);
                 }
             }
+            for (Map.Entry<Gene, List<EnrichedHotspot>> entry : hotspotMutations.entrySet()) {
+                hotspotIndexes.put(entry.getKey(), HotspotIndex.build(entry.getValue()));
+            }
         }
     }
 
@@ -104,30 +107,14 @@ public class HotspotUtils {
         }
 
         // There are few genes we cannot map to GRCh38 yet
-        Set<String> notMappedHugos = new HashSet<>();
-        notMappedHugos.add("MYD88");
-        notMappedHugos.add("TET3");
-        notMappedHugos.add("RYBP");
-        notMappedHugos.add("WT1");
-        if (notMappedHugos.contains(alteration.getGene().getHugoSymbol()) && !alteration.getReferenceGenomes().contains(ReferenceGenome.GRCh37)) {
+        if (NOT_MAPPED_TO_GRCH38_HUGOS.contains(alteration.getGene().getHugoSymbol()) && !alteration.getReferenceGenomes().contains(ReferenceGenome.GRCh37)) {
             return false;
         }
 
         AlterationUtils.annotateAlteration(alteration, alteration.getAlteration());
 
-        ProteinLocation proteinLocation = new ProteinLocation();
-        proteinLocation.setStart(alteration.getProteinStart());
-        proteinLocation.setEnd(alteration.getProteinEnd());
-        String mutationType = toGNMutationType(alteration.getConsequence());
-        if (AlterationUtils.isPositionedAlteration(alteration)) {
-            mutationType = POSITIONAL_MUTATION_TYPE;
-        } else if (AlterationUtils.isRangeInframeAlteration(alteration)) {
-            mutationType = RANGE_INFRAME_MUTATION_TYPE;
-        }
-        proteinLocation.setMutationType(mutationType);
-        List<EnrichedHotspot> hotspots = new ArrayList<>();
-
-        if (hotspotMutations.get(alteration.getGene()) == null) {
+        HotspotIndex hotspotIndex = hotspotIndexes.get(alteration.getGene());
+        if (hotspotIndex == null) {
             return false;
         }
 
@@ -136,55 +123,26 @@ public class HotspotUtils {
             return false;
         }
 
-        for (EnrichedHotspot hotspot : hotspotMutations.get(alteration.getGene())) {
-            if (!hotspot.getType().equals("3d")) {
-                hotspots.add(hotspot);
-            }
+        // Logic from GN
+        int start = alteration.getProteinStart();
+        int end = alteration.getProteinEnd();
+        if (AlterationUtils.isPositionedAlteration(alteration)) {
+            return hotspotIndex.hasResidueHotspot(alteration.getRefResidues(), start, end);
+        } else if (AlterationUtils.isRangeInframeAlteration(alteration)) {
+            return hotspotIndex.hasInframeHotspotContaining(start, end);
         }
-        return proteinLocationHotspotsFilter(hotspots, proteinLocation, alteration.getRefResidues()).size() > 0;
-    }
-
-    // Logic from GN
-    private static List<Hotspot> proteinLocationHotspotsFilter(List<EnrichedHotspot> hotspots, ProteinLocation proteinLocation, String referenceResidues) {
-        int start = proteinLocation.getStart();
-        int end = proteinLocation.getEnd();
-        String type = proteinLocation.getMutationType();
-        List<Hotspot> result = new ArrayList<>();
-
-        for (EnrichedHotspot hotspot : hotspots) {
-            boolean validPosition = true;
-
-            // Protein location
-            int hotspotStart = hotspot.getStart();
-            int hotspotStop = hotspot.getEnd();
-            if (type.equals(RANGE_INFRAME_MUTATION_TYPE)) {
-                validPosition = (start >= hotspotStart && end <= hotspotStop);
-            } else {
-                validPosition = (start <= hotspotStop && end >= hotspotStart);
-            }
-
-            // Mutation type
-            boolean validPositional = type.equals(POSITIONAL_MUTATION_TYPE) && (hotspot.getType().contains("3d") || hotspot.getType().contains("single residue"));
-            boolean validMissense = type.equals("Missense_Mutation") && (hotspot.getType().contains("3d") || hotspot.getType().contains("single residue"));
-            boolean validInFrameRange = type.equals(RANGE_INFRAME_MUTATION_TYPE) && (hotspot.getType().contains("in-frame"));
-            boolean validInFrameInsertion = type.equals("In_Frame_Ins") && (hotspot.getType().contains("in-frame"));
-            boolean validInFrameDeletion = type.equals("In_Frame_Del") && (hotspot.getType().contains("in-frame"));
-            boolean validSplice = (type.equals("Splice_Site") || type.equals("Splice_Region")) && (hotspot.getType().contains("splice"));
-
-            // Add hotspot
-            if (validPosition && (validPositional || validMissense || validInFrameRange || validInFrameInsertion || validInFrameDeletion || validSplice)) {
-                if(validPositional || validMissense) {
-                    boolean validReferenceResidues = (referenceResidues + proteinLocation.getStart()).equalsIgnoreCase(hotspot.getResidue());
-                    if (validReferenceResidues) {
-                        result.add(hotspot);
-                    }
-                } else {
-                    result.add(hotspot);
-                }
-            }
+        switch (toGNMutationType(alteration.getConsequence())) {
+            case "Missense_Mutation":
+                return hotspotIndex.hasResidueHotspot(alteration.getRefResidues(), start, end);
+            case "In_Frame_Ins":
+            case "In_Frame_Del":
+                return hotspotIndex.hasInframeHotspotOverlapping(start, end);
+            case "Splice_Site":
+            case "Splice_Region":
+                return hotspotIndex.hasSpliceHotspotOverlapping(start, end);
+            default:
+                return false;
         }
-
-        return result;
     }
 
     public static IntegerRange extractProteinPos(String proteinChange) {
@@ -219,8 +177,7 @@ public class HotspotUtils {
         }
 
         List<Integer> list = new ArrayList<>();
-        Pattern p = Pattern.compile("\\d+");
-        Matcher m = p.matcher(input);
+        Matcher m = POSITIVE_INTEGER.matcher(input);
 
         while (m.find()) {
             list.add(Integer.parseInt(m.group()));
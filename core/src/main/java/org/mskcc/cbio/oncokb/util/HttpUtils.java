@@ -1,7 +1,9 @@
 package org.mskcc.cbio.oncokb.util;
 
+import org.apache.commons.lang3.StringUtils;
 import org.mskcc.cbio.oncokb.apiModels.download.FileExtension;
 import org.mskcc.cbio.oncokb.apiModels.download.FileName;
+import org.mskcc.cbio.oncokb.cache.DataDownloadCache;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
@@ -13,11 +15,16 @@ import java.io.IOException;
 import java.net.HttpURLConnection;
 import java.net.URL;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
 
 /**
  * Created by Hongxin on 11/03/16.
  */
 public class HttpUtils {
+    private static final long DEFAULT_DATA_DOWNLOAD_MEMORY_CACHE_MB = 128;
+    private static final long DEFAULT_DATA_DOWNLOAD_DISK_CACHE_MB = 2048;
+
+    private static DataDownloadCache dataDownloadCache;
 
     public static String postRequest(String url, String postBody) throws IOException {
         if (url != null) {
@@ -111,17 +118,21 @@ public class HttpUtils {
 
     public static <T> ResponseEntity<T> getDataDownloadResponseEntity(String version, String fileName, FileExtension fileExtension) {
         try {
+            byte[] content = getDataDownloadCache().get(version, fileName);
             if (fileExtension.equals(FileExtension.JSON)) {
-                return new ResponseEntity<>((T) JsonUtils.jsonToArray(GitHubUtils.getOncoKBData(version, fileName)), HttpStatus.OK);
+                // The released file is already JSON, it does not need to be parsed and serialized again
+                return (ResponseEntity<T>) ResponseEntity.ok()
+                    .contentType(MediaType.APPLICATION_JSON_UTF8)
+                    .body(content);
             } else if (fileExtension.equals(FileExtension.GZ)) {
                 HttpHeaders headers = new HttpHeaders();
                 headers.add("Content-Disposition", "attachment; filename=" + fileName);
                 return (ResponseEntity<T>) ResponseEntity.ok()
                     .headers(headers)
                     .contentType(new MediaType("application", "gz"))
-                    .body(GitHubUtils.getOncoKBDataInBytes(version, fileName));
+                    .body(content);
             } else {
-                return new ResponseEntity<>((T) GitHubUtils.getOncoKBData(version, fileName), HttpStatus.OK);
+                return new ResponseEntity<>((T) new String(content, StandardCharsets.UTF_8), HttpStatus.OK);
             }
         } catch (HttpClientErrorException exception) {
             return new ResponseEntity<>(null, exception.getStatusCode());
@@ -131,4 +142,25 @@ public class HttpUtils {
             return new ResponseEntity<>(HttpStatus.SERVICE_UNAVAILABLE);
         }
     }
+
+    /**
+     * The released data files are cached in memory, and on disk when oncokb_data.cache.path is set.
+     */
+    private static synchronized DataDownloadCache getDataDownloadCache() {
+        if (dataDownloadCache == null) {
+            String path = PropertiesUtils.getProperties("oncokb_data.cache.path");
+            dataDownloadCache = new DataDownloadCache(
+                GitHubUtils::getOncoKBDataInBytes,
+                getMegabytesProperty("oncokb_data.cache.memory_size", DEFAULT_DATA_DOWNLOAD_MEMORY_CACHE_MB),
+                StringUtils.isEmpty(path) ? null : Paths.get(path),
+                getMegabytesProperty("oncokb_data.cache.disk_size", DEFAULT_DATA_DOWNLOAD_DISK_CACHE_MB)
+            );
+        }
+        return dataDownloadCache;
+    }
+
+    private static long getMegabytesProperty(String name, long defaultValue) {
+        String value = PropertiesUtils.getProperties(name);
+        return (StringUtils.isEmpty(value) ? defaultValue : Long.parseLong(value.trim())) * 1024 * 1024;
+    }
 }
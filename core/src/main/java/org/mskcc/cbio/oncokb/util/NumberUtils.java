@@ -185,4 +185,31 @@ public class NumberUtils {
         }
         return drugs.size();
     }
+
+    public static MainNumber getMainNumber(Set<LevelOfEvidence> levels) {
+        MainNumber mainNumber = new MainNumber();
+        Set<Gene> allGenes = CacheUtils.getAllGenes();
+        Integer numRealGenes = 0;
+        for (Gene gene : allGenes) {
+            if (gene.getEntrezGeneId() > 0)
+                numRealGenes++;
+        }
+        mainNumber.setGene(numRealGenes);
+
+        List<Alteration> alterations = new ArrayList<>(AlterationUtils.getAllAlterations());
+        alterations = AlterationUtils.excludeVUS(alterations);
+        alterations = AlterationUtils.excludeInferredAlterations(alterations);
+
+        mainNumber.setAlteration(alterations.size());
+        Set<Evidence> evidences = CacheUtils.getAllEvidences();
+        Set<TumorType> treatmentTumorTypes = new HashSet<>();
+        for (Evidence evidence : evidences) {
+            if (evidence.getLevelOfEvidence() != null && !evidence.getCancerTypes().isEmpty()) {
+                treatmentTumorTypes.addAll(evidence.getCancerTypes());
+            }
+        }
+        mainNumber.setTumorType(treatmentTumorTypes.size());
+        mainNumber.setDrug(getDrugsCountByLevels(levels));
+        return mainNumber;
+    }
 }
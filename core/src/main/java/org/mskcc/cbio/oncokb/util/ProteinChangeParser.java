@@ -0,0 +1,551 @@
+package org.mskcc.cbio.oncokb.util;
+
+import org.mskcc.cbio.oncokb.model.AlterationPositionBoundary;
+
+import static org.mskcc.cbio.oncokb.Constants.*;
+
+/**
+ * Classifies a protein change into its reference residues, positions, variant residues and consequence. The formats
+ * are tried in this order, the first one matching the whole protein change wins:
+ * <ol>
+ * <li>in-frame indel: V600delinsYM, D842_I843delinsIM, V561_I562insER, E102_I103del</li>
+ * <li>splice: X405_splice, 405splice, X405_A500_splice</li>
+ * <li>range: 449_514mut, D286_L292trunc</li>
+ * <li>frameshift: N457Mfs*22, *1069Ffs*5, I327Rfs*</li>
+ * <li>single position indel: P191del, Y1003mut</li>
+ * <li>start extension: M1ext-5</li>
+ * <li>stop extension: *959Qext*14, *327Aext*?</li>
+ * <li>synonymous: L838=, *1136=</li>
+ * <li>substitution: V600E, IK744KI, R2109*, M1?, V600</li>
+ * </ol>
+ * Each format is checked by scanning the protein change, residue letters and keywords are matched in any case.
+ */
+final class ProteinChangeParser {
+    static final String UNKNOWN_CONSEQUENCE = "NA";
+
+    private ProteinChangeParser() {
+    }
+
+    static final class ProteinChange {
+        private final String refResidues;
+        private final String variantResidues;
+        private final Integer proteinStart;
+        private final Integer proteinEnd;
+        private final String consequence;
+
+        private ProteinChange(String refResidues, String variantResidues, Integer proteinStart, Integer proteinEnd, String consequence) {
+            this.refResidues = refResidues;
+            this.variantResidues = variantResidues;
+            this.proteinStart = proteinStart;
+            this.proteinEnd = proteinEnd;
+            this.consequence = consequence;
+        }
+
+        /**
+         * @return the reference residues, null or empty when not specified
+         */
+        String getRefResidues() {
+            return refResidues;
+        }
+
+        /**
+         * @return the variant residues, null or empty when not specified
+         */
+        String getVariantResidues() {
+            return variantResidues;
+        }
+
+        /**
+         * @return the start position, {@link AlterationPositionBoundary#START} when unknown
+         */
+        Integer getProteinStart() {
+            return proteinStart;
+        }
+
+        /**
+         * @return the end position, {@link AlterationPositionBoundary#END} when unknown
+         */
+        Integer getProteinEnd() {
+            return proteinEnd;
+        }
+
+        /**
+         * @return the variant consequence term, {@link #UNKNOWN_CONSEQUENCE} when unknown
+         */
+        String getConsequence() {
+            return consequence;
+        }
+
+        private ProteinChange withConsequence(String consequence) {
+            return new ProteinChange(refResidues, variantResidues, proteinStart, proteinEnd, consequence);
+        }
+    }
+
+    /**
+     * @param proteinChange without the p. prefix, the display name and the exclusion criteria
+     */
+    static ProteinChange parse(String proteinChange) {
+        ProteinChange result = parseIndel(proteinChange);
+        if (result == null) {
+            result = parseSplice(proteinChange);
+        }
+        if (result == null) {
+            result = parseRange(proteinChange);
+        }
+        if (result == null) {
+            result = parseFrameshift(proteinChange);
+        }
+        if (result == null) {
+            result = parseSinglePositionIndel(proteinChange);
+        }
+        if (result == null) {
+            result = parseStartExtension(proteinChange);
+        }
+        if (result == null) {
+            result = parseStopExtension(proteinChange);
+        }
+        if (result == null) {
+            result = parseSynonymous(proteinChange);
+        }
+        if (result == null) {
+            result = parseSubstitution(proteinChange);
+        }
+        if (result == null) {
+            result = new ProteinChange(null, null, AlterationPositionBoundary.START.getValue(), AlterationPositionBoundary.END.getValue(), UNKNOWN_CONSEQUENCE);
+        }
+
+        String lowercaseProteinChange = proteinChange.toLowerCase();
+        if (lowercaseProteinChange.equals("truncating mutation") || lowercaseProteinChange.equals("truncating mutations")) {
+            result = result.withConsequence("feature_truncation");
+        }
+        return result;
+    }
+
+    // [ref]start[_[ref]end](delins|ins|del)[residues or insertion length]
+    private static ProteinChange parseIndel(String proteinChange) {
+        int length = proteinChange.length();
+        int index = isLetter(proteinChange, 0) ? 1 : 0;
+        String refLetter = proteinChange.substring(0, index);
+        int startEnd = skipDigits(proteinChange, index);
+        if (startEnd == index) {
+            return null;
+        }
+        String startDigits = proteinChange.substring(index, startEnd);
+        index = startEnd;
+
+        String endDigits = null;
+        if (index < length && proteinChange.charAt(index) == '_') {
+            int endStart = isLetter(proteinChange, index + 1) ? index + 2 : index + 1;
+            int endEnd = skipDigits(proteinChange, endStart);
+            if (endEnd == endStart) {
+                return null;
+            }
+            endDigits = proteinChange.substring(endStart, endEnd);
+            index = endEnd;
+        }
+
+        int typeLength;
+        if (matchesKeyword(proteinChange, index, "delins")) {
+            typeLength = 6;
+        } else if (matchesKeyword(proteinChange, index, "ins") || matchesKeyword(proteinChange, index, "del")) {
+            typeLength = 3;
+        } else {
+            return null;
+        }
+        String type = proteinChange.substring(index, index + typeLength);
+        String residues = proteinChange.substring(index + typeLength);
+        for (int i = 0; i < residues.length(); i++) {
+            char c = residues.charAt(i);
+            if (!isLetter(c) && !isDigit(c) && c != '*') {
+                return null;
+            }
+        }
+
+        // we only want to specify reference when it's one position ins/del
+        String ref = endDigits == null ? refLetter.toUpperCase() : null;
+        Integer start = Integer.valueOf(startDigits);
+        Integer end = endDigits == null ? start : Integer.valueOf(endDigits);
+        String consequence;
+        if (type.equals("ins")) {
+            consequence = IN_FRAME_INSERTION;
+        } else if (type.equals("del")) {
+            consequence = IN_FRAME_DELETION;
+        } else {
+            // this will be delins, it requires AA after delins to be specified, otherwise, you won't be able to know its consequence
+            Integer deletion = end - start + 1;
+            String residuesWithoutDigits = removeDigits(residues);
+
+            if (residuesWithoutDigits.contains("*")) {
+                consequence = "stop_gained";
+            } else if (residuesWithoutDigits.length() != residues.length() && residuesWithoutDigits.length() > 0) {
+                if (residuesWithoutDigits.length() > deletion) {
+                    consequence = IN_FRAME_INSERTION;
+                } else {
+                    consequence = UNKNOWN_CONSEQUENCE;
+                }
+            } else {
+                Integer insertion = residues.length();
+                if (residuesWithoutDigits.length() == 0 && insertion > 0) {
+                    insertion = Integer.parseInt(residues);
+                }
+                if (insertion == 0) {
+                    consequence = UNKNOWN_CONSEQUENCE;
+                } else if (insertion - deletion > 0) {
+                    consequence = IN_FRAME_INSERTION;
+                } else if (insertion - deletion == 0) {
+                    consequence = MISSENSE_VARIANT;
+                } else {
+                    consequence = IN_FRAME_DELETION;
+                }
+            }
+        }
+        return new ProteinChange(ref, null, start, end, consequence);
+    }
+
+    // [ref]start[_[ref]end][_]splice
+    private static ProteinChange parseSplice(String proteinChange) {
+        int length = proteinChange.length();
+        int index = isLetter(proteinChange, 0) ? 1 : 0;
+        int startEnd = skipDigits(proteinChange, index);
+        if (startEnd == index) {
+            return null;
+        }
+        String startDigits = proteinChange.substring(index, startEnd);
+        index = startEnd;
+
+        String endDigits = null;
+        if (index < length && proteinChange.charAt(index) == '_') {
+            int endStart = isLetter(proteinChange, index + 1) ? index + 2 : index + 1;
+            int endEnd = skipDigits(proteinChange, endStart);
+            if (endEnd > endStart) {
+                endDigits = proteinChange.substring(endStart, endEnd);
+                index = endEnd;
+            }
+        }
+        if (index < length && proteinChange.charAt(index) == '_') {
+            index++;
+        }
+        if (!matchesKeyword(proteinChange, index, "splice") || index + 6 != length) {
+            return null;
+        }
+
+        Integer start = Integer.valueOf(startDigits);
+        Integer end = endDigits == null ? start : Integer.valueOf(endDigits);
+        return new ProteinChange(null, null, start, end, "splice_region_variant");
+    }
+
+    // [ref]start_[ref]end(mis|ins|del|fs|trunc|dup|mut), other suffixes keep the positions only
+    private static ProteinChange parseRange(String proteinChange) {
+        int length = proteinChange.length();
+        int index = isLetter(proteinChange, 0) ? 1 : 0;
+        int startEnd = skipDigits(proteinChange, index);
+        if (startEnd == index || startEnd >= length || proteinChange.charAt(startEnd) != '_') {
+            return null;
+        }
+        String startDigits = proteinChange.substring(index, startEnd);
+
+        int endStart = isLetter(proteinChange, startEnd + 1) ? startEnd + 2 : startEnd + 1;
+        int endEnd = skipDigits(proteinChange, endStart);
+        if (endEnd == endStart) {
+            return null;
+        }
+        if (endEnd == length) {
+            // the suffix is not optional, it takes the last digit
+            if (endEnd - endStart < 2) {
+                return null;
+            }
+            endEnd--;
+        }
+        String endDigits = proteinChange.substring(endStart, endEnd);
+        String suffix = proteinChange.substring(endEnd);
+        for (int i = 0; i < suffix.length(); i++) {
+            if (isLineTerminator(suffix.charAt(i))) {
+                return null;
+            }
+        }
+
+        Integer start = Integer.valueOf(startDigits);
+        Integer end = Integer.valueOf(endDigits);
+        String consequence = UNKNOWN_CONSEQUENCE;
+        switch (suffix.toLowerCase()) {
+            case "mis":
+                consequence = MISSENSE_VARIANT;
+                break;
+            case "ins":
+                consequence = IN_FRAME_INSERTION;
+                break;
+            case "del":
+                consequence = IN_FRAME_DELETION;
+                break;
+            case "fs":
+                consequence = FRAMESHIFT_VARIANT;
+                break;
+            case "trunc":
+                consequence = "feature_truncation";
+                break;
+            case "dup":
+                consequence = IN_FRAME_INSERTION;
+                break;
+            case "mut":
+                consequence = "any";
+        }
+        return new ProteinChange(null, null, start, end, consequence);
+    }
+
+    // [ref residues]start[variant residue]fs[*[extension length or ?]]
+    private static ProteinChange parseFrameshift(String proteinChange) {
+        int refEnd = skipLettersOrStops(proteinChange, 0);
+        int startEnd = skipDigits(proteinChange, refEnd);
+        if (startEnd == refEnd) {
+            return null;
+        }
+        boolean matches = isLetter(proteinChange, startEnd) && matchesKeyword(proteinChange, startEnd + 1, "fs") && isFrameshiftExtension(proteinChange, startEnd + 3);
+        if (!matches) {
+            matches = matchesKeyword(proteinChange, startEnd, "fs") && isFrameshiftExtension(proteinChange, startEnd + 2);
+        }
+        if (!matches) {
+            return null;
+        }
+
+        Integer start = Integer.valueOf(proteinChange.substring(refEnd, startEnd));
+        return new ProteinChange(proteinChange.substring(0, refEnd).toUpperCase(), null, start, start, FRAMESHIFT_VARIANT);
+    }
+
+    private static boolean isFrameshiftExtension(String proteinChange, int index) {
+        int length = proteinChange.length();
+        if (index == length) {
+            return true;
+        }
+        if (proteinChange.charAt(index) != '*') {
+            return false;
+        }
+        index++;
+        if (index < length && proteinChange.charAt(index) == '?') {
+            return index + 1 == length;
+        }
+        return skipDigits(proteinChange, index) == length;
+    }
+
+    // [ref residues]start(ins|del|dup|mut)
+    private static ProteinChange parseSinglePositionIndel(String proteinChange) {
+        int refEnd = skipLetters(proteinChange, 0);
+        int startEnd = skipDigits(proteinChange, refEnd);
+        if (startEnd == refEnd || startEnd + 3 != proteinChange.length()) {
+            return null;
+        }
+        if (!matchesKeyword(proteinChange, startEnd, "ins") && !matchesKeyword(proteinChange, startEnd, "del")
+            && !matchesKeyword(proteinChange, startEnd, "dup") && !matchesKeyword(proteinChange, startEnd, "mut")) {
+            return null;
+        }
+
+        String ref = refEnd == 0 ? null : proteinChange.substring(0, refEnd).toUpperCase();
+        Integer start = Integer.valueOf(proteinChange.substring(refEnd, startEnd));
+        String consequence = UNKNOWN_CONSEQUENCE;
+        switch (proteinChange.substring(startEnd).toLowerCase()) {
+            case "ins":
+                consequence = IN_FRAME_INSERTION;
+                break;
+            case "dup":
+                consequence = IN_FRAME_INSERTION;
+                break;
+            case "del":
+                consequence = IN_FRAME_DELETION;
+                break;
+            case "mut":
+                consequence = "any";
+                break;
+        }
+        return new ProteinChange(ref, null, start, start, consequence);
+    }
+
+    // [M]1ext[-length]
+    private static ProteinChange parseStartExtension(String proteinChange) {
+        int length = proteinChange.length();
+        int index = length > 0 && (proteinChange.charAt(0) == 'M' || proteinChange.charAt(0) == 'm') ? 1 : 0;
+        if (index >= length || proteinChange.charAt(index) != '1' || !matchesKeyword(proteinChange, index + 1, "ext")) {
+            return null;
+        }
+        index += 4;
+        if (index < length) {
+            if (proteinChange.charAt(index) != '-' || index + 1 == length || skipDigits(proteinChange, index + 1) != length) {
+                return null;
+            }
+        }
+        return new ProteinChange(null, null, 1, 1, IN_FRAME_INSERTION);
+    }
+
+    /**
+     * support extension variant (https://varnomen.hgvs.org/recommendations/protein/variant/extension/)
+     * the following examples are supported
+     * *959Qext*14
+     * *110Gext*17
+     * *315TextALGT*
+     * *327Aext*?
+     */
+    private static ProteinChange parseStopExtension(String proteinChange) {
+        int index = proteinChange.startsWith("*") ? 1 : 0;
+        int startEnd = skipDigits(proteinChange, index);
+        if (startEnd == index) {
+            return null;
+        }
+        boolean matches = isLetter(proteinChange, startEnd) && matchesKeyword(proteinChange, startEnd + 1, "ext") && isStopExtension(proteinChange, startEnd + 4);
+        if (!matches) {
+            matches = matchesKeyword(proteinChange, startEnd, "ext") && isStopExtension(proteinChange, startEnd + 3);
+        }
+        if (!matches) {
+            return null;
+        }
+
+        Integer start = Integer.valueOf(proteinChange.substring(index, startEnd));
+        return new ProteinChange(index == 1 ? "*" : "", null, start, start, "stop_lost");
+    }
+
+    // [residues]*[length][?]
+    private static boolean isStopExtension(String proteinChange, int index) {
+        int length = proteinChange.length();
+        index = skipLetters(proteinChange, index);
+        if (index >= length || proteinChange.charAt(index) != '*') {
+            return false;
+        }
+        index = skipDigits(proteinChange, index + 1);
+        if (index < length && proteinChange.charAt(index) == '?') {
+            index++;
+        }
+        return index == length;
+    }
+
+    // [ref]start=
+    private static ProteinChange parseSynonymous(String proteinChange) {
+        int index = isLetter(proteinChange, 0) || proteinChange.startsWith("*") ? 1 : 0;
+        int startEnd = skipDigits(proteinChange, index);
+        if (startEnd == index || startEnd + 1 != proteinChange.length() || proteinChange.charAt(startEnd) != '=') {
+            return null;
+        }
+
+        String ref = proteinChange.substring(0, index).toUpperCase();
+        Integer start = Integer.valueOf(proteinChange.substring(index, startEnd));
+        return new ProteinChange(ref, ref, start, start, ref.equals("*") ? "stop_retained_variant" : "synonymous_variant");
+    }
+
+    // [ref residues]start[variant residues]
+    private static ProteinChange parseSubstitution(String proteinChange) {
+        int length = proteinChange.length();
+        int refEnd = skipLettersOrStops(proteinChange, 0);
+        int startEnd = skipDigits(proteinChange, refEnd);
+        if (startEnd == refEnd) {
+            return null;
+        }
+        for (int i = startEnd; i < length; i++) {
+            char c = proteinChange.charAt(i);
+            if (!isLetter(c) && c != '*' && c != '?') {
+                return null;
+            }
+        }
+
+        String ref = proteinChange.substring(0, refEnd).toUpperCase();
+        Integer start = Integer.valueOf(proteinChange.substring(refEnd, startEnd));
+        Integer end = start;
+        String var = proteinChange.substring(startEnd).toUpperCase();
+
+        Integer refL = ref.length();
+        Integer varL = var.length();
+
+        String consequence;
+        if (ref.equals("*")) {
+            consequence = "stop_lost";
+        } else if (var.equals("*")) {
+            consequence = "stop_gained";
+        } else if (ref.equalsIgnoreCase(var)) {
+            consequence = "synonymous_variant";
+        } else if (start == 1) {
+            consequence = "start_lost";
+        } else if (var.equals("?")) {
+            consequence = "any";
+        } else {
+            end = start + refL - 1;
+            if (refL > 1 || varL > 1) {
+                // Handle in-frame insertion/deletion event. Exp: IK744K
+                if (refL > varL) {
+                    consequence = IN_FRAME_DELETION;
+                } else if (refL < varL) {
+                    consequence = IN_FRAME_INSERTION;
+                } else {
+                    consequence = MISSENSE_VARIANT;
+                }
+            } else if (refL == 1 && varL == 1) {
+                consequence = MISSENSE_VARIANT;
+            } else {
+                consequence = UNKNOWN_CONSEQUENCE;
+            }
+        }
+        return new ProteinChange(ref, var, start, end, consequence);
+    }
+
+    // Only ASCII letters and digits, like the character classes of the case insensitive expressions
+    private static boolean isLetter(char c) {
+        return (c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z');
+    }
+
+    private static boolean isLetter(String s, int index) {
+        return index < s.length() && isLetter(s.charAt(index));
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    // The characters not matched by the . of an expression
+    private static boolean isLineTerminator(char c) {
+        return c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029';
+    }
+
+    private static int skipDigits(String s, int index) {
+        while (index < s.length() && isDigit(s.charAt(index))) {
+            index++;
+        }
+        return index;
+    }
+
+    private static int skipLetters(String s, int index) {
+        while (index < s.length() && isLetter(s.charAt(index))) {
+            index++;
+        }
+        return index;
+    }
+
+    private static int skipLettersOrStops(String s, int index) {
+        while (index < s.length() && (isLetter(s.charAt(index)) || s.charAt(index) == '*')) {
+            index++;
+        }
+        return index;
+    }
+
+    /**
+     * @param keyword in lowercase
+     */
+    private static boolean matchesKeyword(String s, int index, String keyword) {
+        if (index < 0 || index + keyword.length() > s.length()) {
+            return false;
+        }
+        for (int i = 0; i < keyword.length(); i++) {
+            char c = s.charAt(index + i);
+            if (c >= 'A' && c <= 'Z') {
+                c = (char) (c + ('a' - 'A'));
+            }
+            if (c != keyword.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String removeDigits(String s) {
+        StringBuilder sb = new StringBuilder(s.length());
+        for (int i = 0; i < s.length(); i++) {
+            if (!isDigit(s.charAt(i))) {
+                sb.append(s.charAt(i));
+            }
+        }
+        return sb.toString();
+    }
+}
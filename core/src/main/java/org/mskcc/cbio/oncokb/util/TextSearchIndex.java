@@ -0,0 +1,205 @@
+package org.mskcc.cbio.oncokb.util;
+
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Case insensitive substring index over the search keys of some values, e.g. the hugo symbols of the genes, answers
+ * the same question as a {@link org.apache.commons.lang3.StringUtils#containsIgnoreCase} scan over all keys.
+ *
+ * The keys are sorted, so the keys starting with the query are one binary search away. Every key is also listed under
+ * each of its 1, 2 and 3 character grams. Queries up to 3 characters are answered by their own gram, longer queries
+ * only check the keys listed under their rarest trigram.
+ *
+ * The matches are ranked: exact matches first, then the keys starting with the query, then the other keys containing
+ * it. Within a rank the shorter keys come first.
+ */
+final class TextSearchIndex<T> {
+    private static final int MAX_GRAM = 3;
+
+    private final Collection<T> source;
+    private final List<T> values;
+    private final String[] keys; // lowercase
+    private final int[] keyValues; // the position of the value of each key
+    private final int[] sortedKeys; // the keys in lexical order
+    private final Map<String, int[]> keysByGram;
+
+    private TextSearchIndex(Collection<T> source, List<T> values, String[] keys, int[] keyValues, Map<String, int[]> keysByGram) {
+        this.source = source;
+        this.values = values;
+        this.keys = keys;
+        this.keyValues = keyValues;
+        this.keysByGram = keysByGram;
+        this.sortedKeys = new int[keys.length];
+        Integer[] order = new Integer[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.comparing(i -> this.keys[i]));
+        for (int i = 0; i < order.length; i++) {
+            sortedKeys[i] = order[i];
+        }
+    }
+
+    /**
+     * @param getKeys the search keys of a value, null keys are skipped
+     */
+    static <T> TextSearchIndex<T> build(Collection<T> source, Function<T, Collection<String>> getKeys) {
+        List<T> values = new ArrayList<>(source);
+        List<String> keys = new ArrayList<>();
+        List<Integer> keyValues = new ArrayList<>();
+        Map<String, List<Integer>> keysByGram = new HashMap<>();
+        for (int i = 0; i < values.size(); i++) {
+            Set<String> valueKeys = new LinkedHashSet<>();
+            Collection<String> valueKeyCandidates = getKeys.apply(values.get(i));
+            for (String key : valueKeyCandidates == null ? Collections.<String>emptyList() : valueKeyCandidates) {
+                if (key != null) {
+                    valueKeys.add(key.toLowerCase());
+                }
+            }
+            for (String key : valueKeys) {
+                int keyId = keys.size();
+                keys.add(key);
+                keyValues.add(i);
+                for (String gram : getGrams(key)) {
+                    keysByGram.computeIfAbsent(gram, g -> new ArrayList<>()).add(keyId);
+                }
+            }
+        }
+        Map<String, int[]> postings = new HashMap<>();
+        keysByGram.forEach((gram, keyIds) -> postings.put(gram, keyIds.stream().mapToInt(Integer::intValue).toArray()));
+        return new TextSearchIndex<>(
+            source,
+            Collections.unmodifiableList(values),
+            keys.toArray(new String[0]),
+            keyValues.stream().mapToInt(Integer::intValue).toArray(),
+            postings
+        );
+    }
+
+    private static Set<String> getGrams(String key) {
+        Set<String> grams = new HashSet<>();
+        for (int length = 1; length <= MAX_GRAM; length++) {
+            for (int start = 0; start + length <= key.length(); start++) {
+                grams.add(key.substring(start, start + length));
+            }
+        }
+        return grams;
+    }
+
+    boolean isBuiltFrom(Collection<?> values) {
+        return source == values;
+    }
+
+    /**
+     * @return the values with a key containing the query, ranked, each value once
+     */
+    List<T> search(String query) {
+        if (query == null) {
+            return new ArrayList<>();
+        }
+        String lowercaseQuery = query.toLowerCase();
+        if (lowercaseQuery.isEmpty()) {
+            return new ArrayList<>(values);
+        }
+
+        int[] candidates;
+        if (lowercaseQuery.length() <= MAX_GRAM) {
+            candidates = keysByGram.get(lowercaseQuery);
+        } else {
+            candidates = null;
+            for (int start = 0; start + MAX_GRAM <= lowercaseQuery.length(); start++) {
+                int[] keyIds = keysByGram.get(lowercaseQuery.substring(start, start + MAX_GRAM));
+                if (keyIds == null) {
+                    return new ArrayList<>();
+                }
+                if (candidates == null || keyIds.length < candidates.length) {
+                    candidates = keyIds;
+                }
+            }
+        }
+        if (candidates == null) {
+            return new ArrayList<>();
+        }
+
+        // the best rank of each value
+        Map<Integer, int[]> ranks = new HashMap<>();
+        for (int keyId : candidates) {
+            String key = keys[keyId];
+            int position = key.indexOf(lowercaseQuery);
+            if (position < 0) {
+                continue;
+            }
+            int[] rank = new int[]{key.length() == lowercaseQuery.length() ? 0 : (position == 0 ? 1 : 2), key.length()};
+            int[] best = ranks.get(keyValues[keyId]);
+            if (best == null || compareRanks(rank, best) < 0) {
+                ranks.put(keyValues[keyId], rank);
+            }
+        }
+        List<Integer> matches = new ArrayList<>(ranks.keySet());
+        matches.sort((a, b) -> {
+            int result = compareRanks(ranks.get(a), ranks.get(b));
+            return result != 0 ? result : Integer.compare(a, b);
+        });
+        List<T> result = new ArrayList<>();
+        for (Integer match : matches) {
+            result.add(values.get(match));
+        }
+        return result;
+    }
+
+    // the match type first, then the key length
+    private static int compareRanks(int[] rank, int[] other) {
+        return rank[0] != other[0] ? Integer.compare(rank[0], other[0]) : Integer.compare(rank[1], other[1]);
+    }
+
+    /**
+     * @return the values with a key starting with the query, in the lexical order of the keys, each value once
+     */
+    List<T> searchPrefix(String query) {
+        return collect(query, false);
+    }
+
+    /**
+     * @return the values with a key equal to the query, each value once
+     */
+    List<T> searchExact(String query) {
+        return collect(query, true);
+    }
+
+    private List<T> collect(String query, boolean exact) {
+        List<T> result = new ArrayList<>();
+        if (query == null) {
+            return result;
+        }
+        String lowercaseQuery = query.toLowerCase();
+        Set<Integer> added = new HashSet<>();
+        for (int i = findFirstSortedKey(lowercaseQuery); i < sortedKeys.length && keys[sortedKeys[i]].startsWith(lowercaseQuery); i++) {
+            int keyId = sortedKeys[i];
+            if (exact && keys[keyId].length() != lowercaseQuery.length()) {
+                continue;
+            }
+            if (added.add(keyValues[keyId])) {
+                result.add(values.get(keyValues[keyId]));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return the position of the first sorted key which is not less than the query
+     */
+    private int findFirstSortedKey(String lowercaseQuery) {
+        int low = 0;
+        int high = sortedKeys.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (keys[sortedKeys[middle]].compareTo(lowercaseQuery) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+}
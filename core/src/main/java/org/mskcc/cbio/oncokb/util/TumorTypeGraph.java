@@ -0,0 +1,157 @@
+package org.mskcc.cbio.oncokb.util;
+
+import org.apache.commons.lang3.StringUtils;
+import org.mskcc.cbio.oncokb.model.SpecialTumorType;
+import org.mskcc.cbio.oncokb.model.TumorType;
+
+import java.util.*;
+
+/**
+ * The oncotree compiled once the cancer types are loaded. Every cancer type gets an integer id, its position in the
+ * cancer type list, and the ancestors and descendants of each id are resolved up front, in the same order as walking
+ * the tree, so the relevant cancer types are looked up instead of walked.
+ *
+ * Cancer types which are not part of the graph, e.g. not loaded from the same cancer type list, are not resolved and
+ * the callers walk the tree instead.
+ */
+final class TumorTypeGraph {
+    private static final TumorType[] NO_TUMOR_TYPES = new TumorType[0];
+
+    private final TumorType[] tumorTypes;
+    private final Map<TumorType, Integer> ids;
+    private final TumorType[][] ancestors;
+    private final TumorType[][] sameMainTypeAncestors;
+    private final TumorType[][] descendants;
+    private final TumorType[][] sameMainTypeDescendants;
+    private final Map<String, List<TumorType>> subtypesByMainType;
+    private final Map<SpecialTumorType, TumorType> specialTumorTypes;
+
+    private TumorTypeGraph(List<TumorType> cancerTypes, List<TumorType> subtypes, List<TumorType> specialCancerTypes) {
+        int size = cancerTypes.size();
+        tumorTypes = cancerTypes.toArray(NO_TUMOR_TYPES);
+        ids = new HashMap<>();
+        for (int id = 0; id < size; id++) {
+            ids.putIfAbsent(tumorTypes[id], id);
+        }
+
+        ancestors = new TumorType[size][];
+        sameMainTypeAncestors = new TumorType[size][];
+        descendants = new TumorType[size][];
+        sameMainTypeDescendants = new TumorType[size][];
+        for (int id = 0; id < size; id++) {
+            TumorType tumorType = tumorTypes[id];
+            ancestors[id] = walkParentTumorTypes(tumorType, false).toArray(NO_TUMOR_TYPES);
+            sameMainTypeAncestors[id] = walkParentTumorTypes(tumorType, true).toArray(NO_TUMOR_TYPES);
+            descendants[id] = walkChildTumorTypes(tumorType, false).toArray(NO_TUMOR_TYPES);
+            sameMainTypeDescendants[id] = walkChildTumorTypes(tumorType, true).toArray(NO_TUMOR_TYPES);
+        }
+
+        subtypesByMainType = new HashMap<>();
+        for (TumorType subtype : subtypes) {
+            if (subtype.getMainType() != null) {
+                subtypesByMainType.computeIfAbsent(subtype.getMainType(), key -> new ArrayList<>()).add(subtype);
+            }
+        }
+
+        specialTumorTypes = new EnumMap<>(SpecialTumorType.class);
+        for (SpecialTumorType specialTumorType : SpecialTumorType.values()) {
+            for (TumorType specialCancerType : specialCancerTypes) {
+                if (specialCancerType.getMainType().equals(specialTumorType.getTumorType())) {
+                    specialTumorTypes.put(specialTumorType, specialCancerType);
+                    break;
+                }
+            }
+        }
+    }
+
+    static TumorTypeGraph build(List<TumorType> cancerTypes, List<TumorType> subtypes, List<TumorType> specialCancerTypes) {
+        return new TumorTypeGraph(cancerTypes, subtypes, specialCancerTypes);
+    }
+
+    int size() {
+        return tumorTypes.length;
+    }
+
+    /**
+     * @return the id of the cancer type, -1 when it is not part of the graph
+     */
+    int getId(TumorType tumorType) {
+        Integer id = tumorType == null ? null : ids.get(tumorType);
+        return id == null ? -1 : id;
+    }
+
+    TumorType getTumorType(int id) {
+        return tumorTypes[id];
+    }
+
+    /**
+     * @return the cancer types of the ids, in the order of the ids
+     */
+    Set<TumorType> toTumorTypes(BitSet tumorTypeIds) {
+        Set<TumorType> result = new LinkedHashSet<>();
+        for (int id = tumorTypeIds.nextSetBit(0); id >= 0; id = tumorTypeIds.nextSetBit(id + 1)) {
+            result.add(tumorTypes[id]);
+        }
+        return result;
+    }
+
+    /**
+     * Same as {@link TumorTypeUtils#getParentTumorTypes(TumorType, boolean)}
+     *
+     * @return null when the cancer type is not part of the graph
+     */
+    LinkedHashSet<TumorType> getParentTumorTypes(TumorType tumorType, boolean onlySameMainType) {
+        int id = getId(tumorType);
+        if (id < 0) {
+            return null;
+        }
+        return new LinkedHashSet<>(Arrays.asList(onlySameMainType ? sameMainTypeAncestors[id] : ancestors[id]));
+    }
+
+    /**
+     * Same as {@link TumorTypeUtils#getChildTumorTypes(TumorType, boolean)}
+     *
+     * @return null when the cancer type is not part of the graph
+     */
+    LinkedHashSet<TumorType> getChildTumorTypes(TumorType tumorType, boolean onlySameMainType) {
+        int id = getId(tumorType);
+        if (id < 0) {
+            return null;
+        }
+        return new LinkedHashSet<>(Arrays.asList(onlySameMainType ? sameMainTypeDescendants[id] : descendants[id]));
+    }
+
+    List<TumorType> getSubtypesByMainType(String mainType) {
+        List<TumorType> subtypes = StringUtils.isEmpty(mainType) ? null : subtypesByMainType.get(mainType);
+        return subtypes == null ? new ArrayList<>() : new ArrayList<>(subtypes);
+    }
+
+    TumorType getBySpecialTumor(SpecialTumorType specialTumorType) {
+        return specialTumorType == null ? null : specialTumorTypes.get(specialTumorType);
+    }
+
+    static LinkedHashSet<TumorType> walkParentTumorTypes(TumorType tumorType, boolean onlySameMaintype) {
+        if (tumorType == null || tumorType.getParent() == null) return new LinkedHashSet<>();
+        LinkedHashSet<TumorType> parentTumorTypes = new LinkedHashSet<>();
+        // we do not want to include the tissue level which is 1
+        if (tumorType.getParent() != null && tumorType.getLevel() > 2) {
+            if (!onlySameMaintype || tumorType.getParent().getMainType().equals(tumorType.getMainType())) {
+                parentTumorTypes.add(tumorType.getParent());
+            }
+            parentTumorTypes.addAll(walkParentTumorTypes(tumorType.getParent(), onlySameMaintype));
+        }
+        return parentTumorTypes;
+    }
+
+    static LinkedHashSet<TumorType> walkChildTumorTypes(TumorType tumorType, boolean onlySameMaintype) {
+        if (tumorType == null || tumorType.getChildren() == null || tumorType.getChildren().isEmpty()) return new LinkedHashSet<>();
+        LinkedHashSet<TumorType> childTumorTypes = new LinkedHashSet<>();
+        for (TumorType child : tumorType.getChildren()) {
+            if (!onlySameMaintype || child.getMainType().equals(tumorType.getMainType())) {
+                childTumorTypes.add(child);
+            }
+        }
+        tumorType.getChildren().forEach(child -> childTumorTypes.addAll(walkChildTumorTypes(child, onlySameMaintype)));
+        return childTumorTypes;
+    }
+}
@@ -0,0 +1,64 @@
+package org.mskcc.cbio.oncokb.util;
+
+import org.mskcc.cbio.oncokb.model.TumorType;
+
+import java.util.*;
+
+/**
+ * An immutable set of cancer types, kept as the ids of the {@link TumorTypeGraph} so two sets are compared with a
+ * single bitset intersection. Cancer types which are not part of the graph are kept aside and compared as objects.
+ */
+public final class TumorTypeIdSet {
+    private final TumorTypeGraph graph;
+    private final BitSet ids;
+    private final Set<TumorType> notInGraph;
+
+    private TumorTypeIdSet(TumorTypeGraph graph, Collection<TumorType> tumorTypes) {
+        this.graph = graph;
+        this.ids = new BitSet(graph.size());
+        Set<TumorType> notInGraph = new HashSet<>();
+        for (TumorType tumorType : tumorTypes) {
+            int id = graph.getId(tumorType);
+            if (id >= 0) {
+                ids.set(id);
+            } else {
+                notInGraph.add(tumorType);
+            }
+        }
+        this.notInGraph = notInGraph.isEmpty() ? Collections.emptySet() : notInGraph;
+    }
+
+    public static TumorTypeIdSet of(Collection<TumorType> tumorTypes) {
+        return new TumorTypeIdSet(CacheUtils.getTumorTypeGraph(), tumorTypes);
+    }
+
+    static TumorTypeIdSet of(TumorTypeGraph graph, Collection<TumorType> tumorTypes) {
+        return new TumorTypeIdSet(graph, tumorTypes);
+    }
+
+    /**
+     * @return a new set of the cancer types, the ones of the graph first in id order
+     */
+    public Set<TumorType> getTumorTypes() {
+        Set<TumorType> tumorTypes = graph.toTumorTypes(ids);
+        tumorTypes.addAll(notInGraph);
+        return Collections.unmodifiableSet(tumorTypes);
+    }
+
+    public boolean isEmpty() {
+        return ids.isEmpty() && notInGraph.isEmpty();
+    }
+
+    public boolean contains(TumorType tumorType) {
+        int id = graph.getId(tumorType);
+        return id >= 0 ? ids.get(id) : notInGraph.contains(tumorType);
+    }
+
+    public boolean intersects(TumorTypeIdSet other) {
+        if (graph != other.graph) {
+            // the cancer types have been reloaded in between
+            return !Collections.disjoint(getTumorTypes(), other.getTumorTypes());
+        }
+        return ids.intersects(other.ids) || (!notInGraph.isEmpty() && !Collections.disjoint(notInGraph, other.notInGraph));
+    }
+}
@@ -96,13 +96,39 @@ public class TumorTypeUtils {
         if (evidence == null)
             return new HashSet<>();
 
-        if (evidence.getId() != null) {
-            Set<TumorType> relevantCancerTypes = CacheUtils.getEvidenceRelevantCancerTypes(evidence.getGene().getEntrezGeneId(), evidence.getId());
+        return findEvidenceRelevantCancerTypeIds(evidence).getTumorTypes();
+    }
+
+    /**
+     * The relevant cancer types of the evidence, including the exclusions. They are resolved once per evidence when
+     * the gene evidences are cached, evidences which are not cached are resolved on every call.
+     */
+    public static TumorTypeIdSet findEvidenceRelevantCancerTypeIds(Evidence evidence) {
+        if (evidence == null)
+            return TumorTypeIdSet.of(Collections.emptySet());
+
+        if (evidence.getId() != null && evidence.getGene() != null) {
+            TumorTypeIdSet relevantCancerTypes = CacheUtils.getEvidenceRelevantCancerTypes(evidence.getGene().getEntrezGeneId(), evidence.getId());
             if (relevantCancerTypes != null) {
                 return relevantCancerTypes;
             }
         }
 
+        return TumorTypeIdSet.of(resolveEvidenceRelevantCancerTypes(evidence));
+    }
+
+    public static boolean isEvidenceRelevantToAny(Evidence evidence, TumorTypeIdSet tumorTypes) {
+        if (evidence == null)
+            return false;
+
+        return findEvidenceRelevantCancerTypeIds(evidence).intersects(tumorTypes);
+    }
+
+    /**
+     * Resolve the evidence relevant cancer types without consulting the cache.
+     * This is used when building the cache so a stale value from the previous cache is never picked up.
+     */
+    static Set<TumorType> resolveEvidenceRelevantCancerTypes(Evidence evidence) {
         if (!evidence.getRelevantCancerTypes().isEmpty())
             return evidence.getRelevantCancerTypes();
 
@@ -159,28 +185,13 @@ public class TumorTypeUtils {
     }
 
     public static LinkedHashSet<TumorType> getParentTumorTypes(TumorType tumorType, boolean onlySameMaintype) {
-        if (tumorType == null || tumorType.getParent() == null) return new LinkedHashSet<>();
-        LinkedHashSet parentTumorTypes = new LinkedHashSet();
-        // we do not want to include the tissue level which is 1
-        if (tumorType.getParent() != null && tumorType.getLevel() > 2) {
-            if (!onlySameMaintype || tumorType.getParent().getMainType().equals(tumorType.getMainType())) {
-                parentTumorTypes.add(tumorType.getParent());
-            }
-            parentTumorTypes.addAll(getParentTumorTypes(tumorType.getParent(), onlySameMaintype));
-        }
-        return parentTumorTypes;
+        LinkedHashSet<TumorType> parentTumorTypes = CacheUtils.getTumorTypeGraph().getParentTumorTypes(tumorType, onlySameMaintype);
+        return parentTumorTypes == null ? TumorTypeGraph.walkParentTumorTypes(tumorType, onlySameMaintype) : parentTumorTypes;
     }
 
     public static LinkedHashSet<TumorType> getChildTumorTypes(TumorType tumorType, boolean onlySameMaintype) {
-        if (tumorType == null || tumorType.getChildren().isEmpty()) return new LinkedHashSet<>();
-        LinkedHashSet<TumorType> childTumorTypes = new LinkedHashSet();
-        if (onlySameMaintype) {
-            childTumorTypes.addAll(tumorType.getChildren().stream().filter(child -> child.getMainType().equals(tumorType.getMainType())).collect(Collectors.toList()));
-        } else {
-            childTumorTypes.addAll(tumorType.getChildren());
-        }
-        tumorType.getChildren().forEach(child -> childTumorTypes.addAll(getChildTumorTypes(child, onlySameMaintype)));
-        return childTumorTypes;
+        LinkedHashSet<TumorType> childTumorTypes = CacheUtils.getTumorTypeGraph().getChildTumorTypes(tumorType, onlySameMaintype);
+        return childTumorTypes == null ? TumorTypeGraph.walkChildTumorTypes(tumorType, onlySameMaintype) : childTumorTypes;
     }
 
     public static List<TumorType> findRelevantTumorTypesForSpecialCancerTypes(SpecialTumorType specialTumorType, RelevantTumorTypeDirection direction) {
@@ -0,0 +1,83 @@
+package org.mskcc.cbio.oncokb.cache;
+
+import junit.framework.TestCase;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class BatchExecutorTest extends TestCase {
+
+    public void testOrderIsPreserved() {
+        BatchExecutor batchExecutor = new BatchExecutor(4, 4);
+        try {
+            List<Integer> items = new ArrayList<>();
+            for (int i = 0; i < 1000; i++) {
+                items.add(i);
+            }
+            List<String> result = batchExecutor.map(items, item -> {
+                // Make the later items finish first
+                if (item % 7 == 0) {
+                    sleep(1);
+                }
+                return "item " + item;
+            });
+            assertEquals(items.size(), result.size());
+            for (int i = 0; i < items.size(); i++) {
+                assertEquals("item " + i, result.get(i));
+            }
+        } finally {
+            batchExecutor.shutdown();
+        }
+    }
+
+    public void testConcurrencyIsLimitedPerBatch() {
+        BatchExecutor batchExecutor = new BatchExecutor(8, 3);
+        try {
+            AtomicInteger running = new AtomicInteger();
+            AtomicInteger maxRunning = new AtomicInteger();
+            List<Integer> items = new ArrayList<>();
+            for (int i = 0; i < 100; i++) {
+                items.add(i);
+            }
+            batchExecutor.map(items, item -> {
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                sleep(2);
+                running.decrementAndGet();
+                return item;
+            });
+            assertTrue(maxRunning.get() <= 3);
+        } finally {
+            batchExecutor.shutdown();
+        }
+    }
+
+    public void testFailureIsPropagated() {
+        BatchExecutor batchExecutor = new BatchExecutor(4, 4);
+        try {
+            List<Integer> items = new ArrayList<>();
+            for (int i = 0; i < 100; i++) {
+                items.add(i);
+            }
+            batchExecutor.map(items, item -> {
+                if (item == 50) {
+                    throw new IllegalArgumentException("failed on " + item);
+                }
+                return item;
+            });
+            fail("The failure should be propagated");
+        } catch (IllegalArgumentException e) {
+            assertEquals("failed on 50", e.getMessage());
+        } finally {
+            batchExecutor.shutdown();
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package org.mskcc.cbio.oncokb.cache;
+
+import io.netty.buffer.ByteBuf;
+import junit.framework.TestCase;
+import org.mskcc.cbio.oncokb.model.IndicatorQueryResp;
+import org.redisson.client.codec.Codec;
+
+import java.io.IOException;
+
+public class CacheValueCodecTest extends TestCase {
+
+    public void testGetByName() {
+        assertEquals(CacheValueCodec.SNAPPY, CacheValueCodec.getByName(null));
+        assertEquals(CacheValueCodec.SNAPPY, CacheValueCodec.getByName(""));
+        assertEquals(CacheValueCodec.KRYO_SNAPPY, CacheValueCodec.getByName(" Kryo-Snappy "));
+        try {
+            CacheValueCodec.getByName("lz4");
+            fail("Unsupported codec should not be accepted");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    public void testRoundTrip() throws IOException {
+        IndicatorQueryResp resp = CacheValueFixtures.createIndicatorQueryResp();
+        for (CacheValueCodec cacheValueCodec : CacheValueCodec.values()) {
+            Codec codec = cacheValueCodec.createCodec();
+            ByteBuf buf = codec.getValueEncoder().encode(resp);
+            try {
+                IndicatorQueryResp decoded = (IndicatorQueryResp) codec.getValueDecoder().decode(buf, null);
+                String message = "Codec " + cacheValueCodec.getName();
+                assertEquals(message, resp.getQuery().getHugoSymbol(), decoded.getQuery().getHugoSymbol());
+                assertEquals(message, resp.getVariantSummary(), decoded.getVariantSummary());
+                assertEquals(message, resp.getHighestSensitiveLevel(), decoded.getHighestSensitiveLevel());
+                assertEquals(message, resp.getTreatments(), decoded.getTreatments());
+            } finally {
+                buf.release();
+            }
+        }
+    }
+}
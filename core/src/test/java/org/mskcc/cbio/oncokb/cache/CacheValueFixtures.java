@@ -0,0 +1,39 @@
+package org.mskcc.cbio.oncokb.cache;
+
+import org.mskcc.cbio.oncokb.model.*;
+
+import java.util.*;
+
+/**
+ * Cache values shared by the codec tests and the codec benchmark, so both encode the same value.
+ */
+public final class CacheValueFixtures {
+    private CacheValueFixtures() {
+    }
+
+    public static IndicatorQueryResp createIndicatorQueryResp() {
+        IndicatorQueryResp resp = new IndicatorQueryResp();
+        resp.setQuery(new Query("BRAF", "V600E", "Melanoma"));
+        resp.setGeneExist(true);
+        resp.setVariantExist(true);
+        resp.setOncogenic(Oncogenicity.YES.getOncogenic());
+        resp.setHighestSensitiveLevel(LevelOfEvidence.LEVEL_1);
+        resp.setGeneSummary("BRAF, an intracellular kinase, is frequently mutated in melanoma, thyroid and lung cancers among others.");
+        resp.setVariantSummary("The BRAF V600E mutation is known to be oncogenic.");
+        resp.setTumorTypeSummary("There are multiple FDA-approved drugs for patients with BRAF V600E mutant melanoma.");
+
+        List<IndicatorQueryTreatment> treatments = new ArrayList<>();
+        String[] drugNames = {"Vemurafenib", "Dabrafenib", "Trametinib", "Cobimetinib", "Encorafenib", "Binimetinib"};
+        for (String drugName : drugNames) {
+            IndicatorQueryTreatment treatment = new IndicatorQueryTreatment();
+            treatment.setDrugs(Collections.singletonList(new Drug(drugName)));
+            treatment.setLevel(LevelOfEvidence.LEVEL_1);
+            treatment.setAlterations(Collections.singletonList("V600E"));
+            treatment.setPmids(new HashSet<>(Arrays.asList("22663011", "22735384", "25265494")));
+            treatment.setDescription("Treatment description of " + drugName);
+            treatments.add(treatment);
+        }
+        resp.setTreatments(treatments);
+        return resp;
+    }
+}
@@ -0,0 +1,67 @@
+package org.mskcc.cbio.oncokb.cache;
+
+import junit.framework.TestCase;
+import org.oncokb.oncokb_transcript.client.EnsemblGene;
+
+import java.util.*;
+
+import static org.mskcc.cbio.oncokb.util.MainUtils.rangesIntersect;
+
+public class ChromosomeIntervalIndexTest extends TestCase {
+    private static final int BUFFER = 10000;
+
+    private static EnsemblGene createGene(String chromosome, int start, int end) {
+        EnsemblGene gene = new EnsemblGene();
+        gene.setChromosome(chromosome);
+        gene.setStart(start);
+        gene.setEnd(end);
+        return gene;
+    }
+
+    public void testIntersects() {
+        Map<String, Set<EnsemblGene>> genes = new HashMap<>();
+        genes.put("7", new HashSet<>(Arrays.asList(createGene("7", 140419127, 140624564), createGene("7", 5000, 6000))));
+        ChromosomeIntervalIndex index = ChromosomeIntervalIndex.build(genes, BUFFER);
+
+        assertTrue(index.intersects("7", 140453136, 140453136));
+        assertTrue(index.intersects("7", 140409127, 140409127));
+        assertFalse(index.intersects("7", 140409126, 140409126));
+        assertTrue(index.intersects("7", 140634564, 140634564));
+        assertFalse(index.intersects("7", 140634565, 140634565));
+        // the buffered start does not go below 0
+        assertTrue(index.intersects("7", 0, 0));
+        assertTrue(index.intersects("7", 16000, 16000));
+        assertFalse(index.intersects("7", 16001, 16001));
+        // spans the gap between the two genes
+        assertTrue(index.intersects("7", 20000, 140400000));
+        assertFalse(index.intersects("7", 20000, 30000));
+        // open ended ranges
+        assertTrue(index.intersects("7", null, 1));
+        assertTrue(index.intersects("7", 140634564, null));
+        assertFalse(index.intersects("8", 140453136, 140453136));
+        assertFalse(index.intersects(null, 140453136, 140453136));
+    }
+
+    public void testSameAsScanningAllGenes() {
+        Random random = new Random(13);
+        Map<String, Set<EnsemblGene>> genes = new HashMap<>();
+        for (String chromosome : Arrays.asList("1", "2", "X")) {
+            Set<EnsemblGene> chromosomeGenes = new HashSet<>();
+            for (int i = 0; i < 200; i++) {
+                int start = random.nextInt(5000000);
+                chromosomeGenes.add(createGene(chromosome, start, start + random.nextInt(200000)));
+            }
+            genes.put(chromosome, chromosomeGenes);
+        }
+        ChromosomeIntervalIndex index = ChromosomeIntervalIndex.build(genes, BUFFER);
+
+        for (int i = 0; i < 10000; i++) {
+            String chromosome = Arrays.asList("1", "2", "X", "Y").get(random.nextInt(4));
+            int start = random.nextInt(5300000);
+            int end = start + random.nextInt(100);
+            boolean expected = genes.containsKey(chromosome) && genes.get(chromosome).stream().anyMatch(gene ->
+                rangesIntersect(gene.getStart() > BUFFER ? (gene.getStart() - BUFFER) : 0, gene.getEnd() + BUFFER, start, end));
+            assertEquals(chromosome + ":" + start + "-" + end, expected, index.intersects(chromosome, start, end));
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package org.mskcc.cbio.oncokb.cache;
+
+import junit.framework.TestCase;
+import org.mskcc.cbio.oncokb.util.GeneObservable;
+
+import java.util.*;
+
+public class CustomRedisCacheManagerTest extends TestCase {
+
+    public void testNearCacheIsClearedAfterTheSnapshotIsRebuilt() {
+        List<Runnable> updateListeners = new ArrayList<>();
+        CustomRedisCacheManager cm = new CustomRedisCacheManager(null, 60, new CacheNameResolver(), new LoggingCacheErrorHandler());
+        cm.enableNearCache(Collections.singleton("getCuratedGenes"), 10, 60000, false, updateListeners::add);
+        NearCache nearCache = ((CustomRedisCache) cm.getCache("getCuratedGenes")).nearCache;
+        nearCache.put("key", "old value");
+
+        List<String> events = new ArrayList<>();
+        updateListeners.add(() -> events.add(nearCache.get("key") == null ? "near cache cleared" : "near cache kept"));
+        // Same as the gene cache observer of CacheUtils, the listeners run once the new snapshot is published
+        Observer geneCacheObserver = (o, arg) -> {
+            events.add(nearCache.get("key") == null ? "near cache cleared" : "snapshot rebuilt");
+            updateListeners.forEach(Runnable::run);
+        };
+        GeneObservable.getInstance().addObserver(geneCacheObserver);
+        try {
+            GeneObservable.getInstance().update("update", "673");
+        } finally {
+            GeneObservable.getInstance().deleteObserver(geneCacheObserver);
+        }
+        assertEquals(Arrays.asList("snapshot rebuilt", "near cache cleared"), events);
+    }
+}
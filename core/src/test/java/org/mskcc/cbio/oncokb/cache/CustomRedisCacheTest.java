@@ -0,0 +1,207 @@
+package org.mskcc.cbio.oncokb.cache;
+
+import junit.framework.TestCase;
+import org.springframework.cache.Cache;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class CustomRedisCacheTest extends TestCase {
+
+    public void testConcurrentLoadsOfSameKeyAreShared() throws Exception {
+        InMemoryRedisCache cache = new InMemoryRedisCache();
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        int numOfCallers = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(numOfCallers);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < numOfCallers; i++) {
+                results.add(executor.submit(() -> cache.get("key", () -> {
+                    loads.incrementAndGet();
+                    loading.countDown();
+                    release.await();
+                    return "value";
+                })));
+            }
+            assertTrue(loading.await(10, TimeUnit.SECONDS));
+            // Give the rest of the callers time to join the load in flight
+            Thread.sleep(200);
+            release.countDown();
+
+            for (Future<String> result : results) {
+                assertEquals("value", result.get(10, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(1, loads.get());
+        assertEquals(1, cache.writes.get());
+        assertEquals("value", cache.get("key", () -> "other value"));
+    }
+
+    public void testFailedLoadIsNotCached() throws Exception {
+        InMemoryRedisCache cache = new InMemoryRedisCache();
+        try {
+            cache.get("key", () -> {
+                throw new IllegalStateException("load failed");
+            });
+            fail("The load failure should be propagated");
+        } catch (org.springframework.cache.Cache.ValueRetrievalException e) {
+            assertTrue(e.getCause() instanceof IllegalStateException);
+        }
+        assertEquals(0, cache.writes.get());
+        assertEquals("value", cache.get("key", () -> "value"));
+    }
+
+    public void testNullLoadedValueIsNotWritten() {
+        InMemoryRedisCache cache = new InMemoryRedisCache(new NearCache(10, 60000));
+        assertNull(cache.get("key", () -> null));
+        assertEquals(0, cache.writes.get());
+        assertEquals(0, cache.putErrors.get());
+        assertNull(cache.get("key"));
+        assertEquals("value", cache.get("key", () -> "value"));
+    }
+
+    public void testLoadFinishedBeforeTakingTheSlotIsNotRepeated() throws Exception {
+        InMemoryRedisCache cache = new InMemoryRedisCache();
+        AtomicInteger loads = new AtomicInteger();
+        // Another caller loads the key right after the first lookup of this caller missed
+        cache.afterFirstMiss = () -> {
+            Thread other = new Thread(() -> cache.get("key", () -> {
+                loads.incrementAndGet();
+                return "value";
+            }));
+            other.start();
+            try {
+                other.join();
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        };
+        assertEquals("value", cache.get("key", () -> {
+            loads.incrementAndGet();
+            return "other value";
+        }));
+        assertEquals(1, loads.get());
+        assertEquals(1, cache.writes.get());
+    }
+
+    public void testValueWrittenByAnotherInstanceWins() {
+        InMemoryRedisCache cache = new InMemoryRedisCache(new NearCache(10, 60000));
+        assertEquals("other instance value", cache.get("key", () -> {
+            // Another instance without the load lock finishes first
+            cache.store.put("key", "other instance value");
+            return "value";
+        }));
+        assertEquals("other instance value", cache.store.get("key"));
+        assertEquals("other instance value", cache.get("key").get());
+    }
+
+    public void testNearCacheServesHits() {
+        InMemoryRedisCache cache = new InMemoryRedisCache(new NearCache(10, 60000));
+        cache.put("key", "value");
+        assertEquals("value", cache.get("key").get());
+        assertEquals(0, cache.lookups.get());
+
+        // Values read from redis are kept in memory as well
+        cache.store.put("other", "other value");
+        assertEquals("other value", cache.get("other").get());
+        assertEquals("other value", cache.get("other").get());
+        assertEquals(1, cache.lookups.get());
+
+        // Redis is consulted again once the near cache is dropped
+        cache.store.put("other", "new value");
+        cache.clearNearCache();
+        assertEquals("new value", cache.get("other").get());
+        assertEquals(2, cache.lookups.get());
+    }
+
+    public void testGetAllAndPutAll() {
+        InMemoryRedisCache cache = new InMemoryRedisCache(new NearCache(10, 60000));
+        Map<Object, Object> values = new HashMap<>();
+        values.put("a", "A");
+        values.put("b", "B");
+        cache.putAll(values);
+        assertEquals(1, cache.batches.get());
+
+        cache.store.put("c", "C");
+        Map<Object, Object> result = cache.getAll(Arrays.asList("a", "b", "c", "c", "d"));
+        assertEquals(3, result.size());
+        assertEquals("A", result.get("a"));
+        assertEquals("C", result.get("c"));
+        assertFalse(result.containsKey("d"));
+        // a and b are served by the near cache, c and d are looked up together
+        assertEquals(2, cache.batches.get());
+        assertEquals(0, cache.lookups.get());
+    }
+
+    private static class InMemoryRedisCache extends CustomRedisCache {
+        private final Map<Object, Object> store = new ConcurrentHashMap<>();
+        private final AtomicInteger writes = new AtomicInteger();
+        private final AtomicInteger lookups = new AtomicInteger();
+        private final AtomicInteger batches = new AtomicInteger();
+        private final AtomicInteger putErrors = new AtomicInteger();
+        private volatile Runnable afterFirstMiss;
+
+        InMemoryRedisCache() {
+            this(null);
+        }
+
+        InMemoryRedisCache(NearCache nearCache) {
+            super("test", null, INFINITE_TTL, NO_LOAD_LOCK, nearCache, new LoggingCacheErrorHandler());
+            cacheErrorHandler = new LoggingCacheErrorHandler() {
+                @Override
+                public void handleCachePutError(RuntimeException exception, Cache cache, Object key, Object value) {
+                    putErrors.incrementAndGet();
+                    super.handleCachePutError(exception, cache, key, value);
+                }
+            };
+        }
+
+        @Override
+        protected Object lookup(Object key) {
+            lookups.incrementAndGet();
+            Object value = store.get(key);
+            Runnable hook = afterFirstMiss;
+            if (value == null && hook != null) {
+                afterFirstMiss = null;
+                hook.run();
+            }
+            return value;
+        }
+
+        @Override
+        protected Map<Object, Object> lookupAll(Collection<Object> keys) {
+            batches.incrementAndGet();
+            assertEquals(2, keys.size());
+            Map<Object, Object> result = new HashMap<>();
+            keys.forEach(key -> result.put(key, store.get(key)));
+            return result;
+        }
+
+        @Override
+        protected void writeAll(Map<?, ?> values) {
+            batches.incrementAndGet();
+            store.putAll(values);
+        }
+
+        @Override
+        protected void write(Object key, Object value, boolean sync) {
+            writes.incrementAndGet();
+            store.put(key, value);
+        }
+
+        @Override
+        protected Object writeIfAbsent(Object key, Object value) {
+            // Redisson refuses null values as well
+            Objects.requireNonNull(value);
+            writes.incrementAndGet();
+            Object existing = store.putIfAbsent(key, value);
+            return existing != null ? existing : value;
+        }
+    }
+}
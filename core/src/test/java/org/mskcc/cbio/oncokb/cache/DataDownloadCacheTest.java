@@ -0,0 +1,209 @@
+package org.mskcc.cbio.oncokb.cache;
+
+import junit.framework.TestCase;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpClientErrorException;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+public class DataDownloadCacheTest extends TestCase {
+    private Path releases;
+    private Path cacheDirectory;
+
+    /**
+     * Serves the files of a local directory laid out as version/fileName, the same way the data is released on GitHub
+     */
+    private static class FileSystemFetcher implements DataDownloadCache.Fetcher {
+        private final Path root;
+        private int fetches = 0;
+
+        FileSystemFetcher(Path root) {
+            this.root = root;
+        }
+
+        @Override
+        public byte[] fetch(String version, String fileName) throws IOException {
+            fetches++;
+            Path file = root.resolve(version).resolve(fileName);
+            if (!Files.exists(file)) {
+                throw new HttpClientErrorException(HttpStatus.NOT_FOUND);
+            }
+            return Files.readAllBytes(file);
+        }
+    }
+
+    @Override
+    protected void setUp() throws Exception {
+        releases = Files.createTempDirectory("oncokb-releases");
+        cacheDirectory = Files.createTempDirectory("oncokb-data-cache");
+        release("v3.0", "README.md", "# v3.0");
+        release("v3.1", "README.md", "# v3.1");
+        release("v3.2", "README.md", "# v3.2");
+        release("v3.1", "cancerGeneList.txt", "Hugo Symbol\nBRAF\n");
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        delete(releases);
+        delete(cacheDirectory);
+    }
+
+    private void release(String version, String fileName, String content) throws IOException {
+        Path file = releases.resolve(version).resolve(fileName);
+        Files.createDirectories(file.getParent());
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void delete(Path directory) throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        }
+    }
+
+    private static String get(DataDownloadCache cache, String version, String fileName) throws Exception {
+        return new String(cache.get(version, fileName), StandardCharsets.UTF_8);
+    }
+
+    public void testMemory() throws Exception {
+        FileSystemFetcher fetcher = new FileSystemFetcher(releases);
+        DataDownloadCache cache = new DataDownloadCache(fetcher, 1024, null, 0);
+
+        assertEquals("# v3.0", get(cache, "v3.0", "README.md"));
+        assertEquals("# v3.0", get(cache, "v3.0", "README.md"));
+        assertEquals(1, fetcher.fetches);
+
+        // the versions are cached separately
+        assertEquals("# v3.1", get(cache, "v3.1", "README.md"));
+        assertEquals(2, fetcher.fetches);
+        assertEquals(12, cache.getMemoryBytes());
+    }
+
+    public void testConcurrentMissesFetchOnce() throws Exception {
+        FileSystemFetcher fetcher = new FileSystemFetcher(releases) {
+            @Override
+            public byte[] fetch(String version, String fileName) throws IOException {
+                try {
+                    // Give the other callers time to miss the same file
+                    Thread.sleep(100);
+                } catch (InterruptedException e) {
+                    throw new IOException(e);
+                }
+                return super.fetch(version, fileName);
+            }
+        };
+        DataDownloadCache cache = new DataDownloadCache(fetcher, 1024, null, 0);
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(executor.submit(() -> get(cache, "v3.0", "README.md")));
+            }
+            for (Future<String> result : results) {
+                assertEquals("# v3.0", result.get(10, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(1, fetcher.fetches);
+    }
+
+    public void testMemoryLimit() throws Exception {
+        FileSystemFetcher fetcher = new FileSystemFetcher(releases);
+        // room for two readme files only
+        DataDownloadCache cache = new DataDownloadCache(fetcher, 12, null, 0);
+
+        get(cache, "v3.0", "README.md");
+        get(cache, "v3.1", "README.md");
+        get(cache, "v3.0", "README.md");
+        assertEquals(2, fetcher.fetches);
+
+        // the least recently used v3.1 readme is dropped
+        get(cache, "v3.2", "README.md");
+        assertEquals(3, fetcher.fetches);
+        assertEquals(12, cache.getMemoryBytes());
+        get(cache, "v3.0", "README.md");
+        assertEquals(3, fetcher.fetches);
+        get(cache, "v3.1", "README.md");
+        assertEquals(4, fetcher.fetches);
+
+        // a file larger than the limit is not kept
+        get(cache, "v3.1", "cancerGeneList.txt");
+        get(cache, "v3.1", "cancerGeneList.txt");
+        assertEquals(6, fetcher.fetches);
+        assertEquals(12, cache.getMemoryBytes());
+    }
+
+    public void testDisk() throws Exception {
+        FileSystemFetcher fetcher = new FileSystemFetcher(releases);
+        get(new DataDownloadCache(fetcher, 1024, cacheDirectory, 1024), "v3.1", "cancerGeneList.txt");
+        assertEquals(1, fetcher.fetches);
+
+        // a new cache reads the file written by the previous one
+        DataDownloadCache cache = new DataDownloadCache(fetcher, 1024, cacheDirectory, 1024);
+        assertEquals("Hugo Symbol\nBRAF\n", get(cache, "v3.1", "cancerGeneList.txt"));
+        assertEquals(1, fetcher.fetches);
+    }
+
+    public void testDiskChecksum() throws Exception {
+        FileSystemFetcher fetcher = new FileSystemFetcher(releases);
+        get(new DataDownloadCache(fetcher, 1024, cacheDirectory, 1024), "v3.0", "README.md");
+
+        Path blob = cacheDirectory.resolve("blobs").resolve(DataDownloadCache.sha256("# v3.0".getBytes(StandardCharsets.UTF_8)));
+        assertTrue(Files.exists(blob));
+        Files.write(blob, "# corrupted".getBytes(StandardCharsets.UTF_8));
+
+        DataDownloadCache cache = new DataDownloadCache(fetcher, 1024, cacheDirectory, 1024);
+        assertEquals("# v3.0", get(cache, "v3.0", "README.md"));
+        assertEquals(2, fetcher.fetches);
+        assertEquals("# v3.0", new String(Files.readAllBytes(blob), StandardCharsets.UTF_8));
+    }
+
+    public void testDiskLimit() throws Exception {
+        FileSystemFetcher fetcher = new FileSystemFetcher(releases);
+        // room for two readme files only, nothing is kept in memory
+        DataDownloadCache cache = new DataDownloadCache(fetcher, 0, cacheDirectory, 12);
+
+        get(cache, "v3.0", "README.md");
+        get(cache, "v3.1", "README.md");
+        get(cache, "v3.0", "README.md");
+        assertEquals(2, fetcher.fetches);
+
+        // larger than the limit, it is not written
+        get(cache, "v3.1", "cancerGeneList.txt");
+        assertEquals(3, fetcher.fetches);
+        try (Stream<Path> blobs = Files.list(cacheDirectory.resolve("blobs"))) {
+            assertEquals(2, blobs.count());
+        }
+    }
+
+    public void testNotFound() throws Exception {
+        FileSystemFetcher fetcher = new FileSystemFetcher(releases);
+        DataDownloadCache cache = new DataDownloadCache(fetcher, 1024, cacheDirectory, 1024);
+
+        for (int i = 0; i < 2; i++) {
+            try {
+                cache.get("v3.0", "cancerGeneList.txt");
+                fail();
+            } catch (HttpClientErrorException e) {
+                assertEquals(HttpStatus.NOT_FOUND, e.getStatusCode());
+            }
+        }
+        // the missing file is not cached, it could be released later
+        assertEquals(2, fetcher.fetches);
+        release("v3.0", "cancerGeneList.txt", "Hugo Symbol\n");
+        assertEquals("Hugo Symbol\n", get(cache, "v3.0", "cancerGeneList.txt"));
+    }
+}
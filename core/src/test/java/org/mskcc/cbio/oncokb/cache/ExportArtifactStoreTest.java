@@ -0,0 +1,94 @@
+package org.mskcc.cbio.oncokb.cache;
+
+import junit.framework.TestCase;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+public class ExportArtifactStoreTest extends TestCase {
+    private Path directory;
+
+    @Override
+    protected void setUp() throws Exception {
+        directory = Files.createTempDirectory("export-artifacts");
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        try (Stream<Path> files = Files.list(directory)) {
+            files.forEach(file -> file.toFile().delete());
+        }
+        Files.delete(directory);
+    }
+
+    private static ExportArtifactStore.ArtifactFile write(Path directory, String content) throws IOException {
+        return ExportArtifactStore.write(directory, "allCuratedGenes.txt", outputStream -> outputStream.write(content.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static String readGzip(Path file) throws IOException {
+        try (InputStream inputStream = new GZIPInputStream(Files.newInputStream(file))) {
+            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+            byte[] buffer = new byte[1024];
+            int read;
+            while ((read = inputStream.read(buffer)) != -1) {
+                outputStream.write(buffer, 0, read);
+            }
+            return new String(outputStream.toByteArray(), StandardCharsets.UTF_8);
+        }
+    }
+
+    public void testWrite() throws IOException {
+        String content = "Hugo Symbol\tEntrez Gene ID\nBRAF\t673\n";
+        ExportArtifactStore.ArtifactFile artifactFile = write(directory, content);
+
+        assertEquals(directory.resolve("allCuratedGenes.txt.d910bc3779c425e0c4763f2a632710a744788910d14b1508bf2cf34e8d03a1eb"), artifactFile.getFile());
+        assertEquals(content, new String(Files.readAllBytes(artifactFile.getFile()), StandardCharsets.UTF_8));
+        assertEquals(content, readGzip(artifactFile.getGzipFile()));
+        // only the artifact and its gzip copy are left, the temporary files are moved into place
+        try (Stream<Path> files = Files.list(directory)) {
+            assertEquals(2, files.count());
+        }
+
+        // named after the sha-256 of the uncompressed content
+        assertEquals(directory.resolve("allCuratedGenes.txt.e3b0c44298fc1c149afbf4c8996fb92427ae41e4649b934ca495991b7852b855"), write(directory, "").getFile());
+    }
+
+    public void testRewrite() throws IOException {
+        ExportArtifactStore.ArtifactFile first = write(directory, "BRAF\n");
+        ExportArtifactStore.ArtifactFile same = write(directory, "BRAF\n");
+        ExportArtifactStore.ArtifactFile updated = write(directory, "BRAF\nKRAS\n");
+
+        assertEquals(first.getFile(), same.getFile());
+        assertEquals("BRAF\nKRAS\n", new String(Files.readAllBytes(updated.getFile()), StandardCharsets.UTF_8));
+        assertEquals("BRAF\nKRAS\n", readGzip(updated.getGzipFile()));
+
+        // a new rendering is written to new files, the files of the earlier one are left as they were
+        assertFalse(first.getFile().equals(updated.getFile()));
+        assertEquals("BRAF\n", new String(Files.readAllBytes(first.getFile()), StandardCharsets.UTF_8));
+        assertEquals("BRAF\n", readGzip(first.getGzipFile()));
+        try (Stream<Path> files = Files.list(directory)) {
+            assertEquals(4, files.count());
+        }
+    }
+
+    public void testIsArtifactFile() {
+        assertTrue(ExportArtifactStore.isArtifactFile(directory.resolve("allCuratedGenes.txt.e3b0c442")));
+        assertTrue(ExportArtifactStore.isArtifactFile(directory.resolve("allCuratedGenes.txt.e3b0c442.gz")));
+        assertTrue(ExportArtifactStore.isArtifactFile(directory.resolve("allCuratedGenes.txt")));
+        assertFalse(ExportArtifactStore.isArtifactFile(directory.resolve("allCuratedGenes.txt-notes")));
+        assertFalse(ExportArtifactStore.isArtifactFile(directory.resolve("README.md")));
+    }
+
+    public void testGetDirectoryName() {
+        assertEquals("v4.9", ExportArtifactStore.getDirectoryName("v4.9"));
+        assertEquals("v4.9_beta", ExportArtifactStore.getDirectoryName("v4.9 beta"));
+        assertEquals("_.._etc", ExportArtifactStore.getDirectoryName("/../etc"));
+        assertEquals("unversioned", ExportArtifactStore.getDirectoryName(null));
+    }
+}
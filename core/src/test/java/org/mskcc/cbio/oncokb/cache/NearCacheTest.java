@@ -0,0 +1,43 @@
+package org.mskcc.cbio.oncokb.cache;
+
+import junit.framework.TestCase;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+public class NearCacheTest extends TestCase {
+
+    public void testLeastRecentlyUsedIsDropped() {
+        NearCache nearCache = new NearCache(2, 1000);
+        nearCache.put("a", "A");
+        nearCache.put("b", "B");
+        // Use a so b becomes the least recently used
+        assertEquals("A", nearCache.get("a"));
+        nearCache.put("c", "C");
+
+        assertEquals(2, nearCache.size());
+        assertEquals("A", nearCache.get("a"));
+        assertNull(nearCache.get("b"));
+        assertEquals("C", nearCache.get("c"));
+    }
+
+    public void testEntriesExpire() {
+        AtomicLong now = new AtomicLong();
+        NearCache nearCache = new NearCache(10, 1000, now::get);
+        nearCache.put("a", "A");
+        now.set(999);
+        assertEquals("A", nearCache.get("a"));
+        now.set(1000);
+        assertNull(nearCache.get("a"));
+        assertEquals(0, nearCache.size());
+    }
+
+    public void testClearAndEvict() {
+        NearCache nearCache = new NearCache(10, 1000);
+        nearCache.put("a", "A");
+        nearCache.put("b", "B");
+        nearCache.evict("a");
+        assertNull(nearCache.get("a"));
+        nearCache.clear();
+        assertNull(nearCache.get("b"));
+    }
+}
@@ -0,0 +1,186 @@
+package org.mskcc.cbio.oncokb.genomenexus;
+
+import com.google.gson.Gson;
+import com.sun.net.httpserver.HttpServer;
+import junit.framework.TestCase;
+import org.genome_nexus.ApiClient;
+import org.genome_nexus.ApiException;
+import org.genome_nexus.client.AnnotationControllerApi;
+import org.genome_nexus.client.VariantAnnotation;
+
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ChunkedRequestExecutorTest extends TestCase {
+    private static List<String> createQueries(int size) {
+        List<String> queries = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            queries.add("7:g." + (140453136 + i) + "A>T");
+        }
+        return queries;
+    }
+
+    public void testChunksKeepTheQueryOrder() throws Exception {
+        ChunkedRequestExecutor executor = new ChunkedRequestExecutor(3, 4, 4, 1, 0);
+        List<String> queries = createQueries(20);
+        List<Integer> chunkSizes = Collections.synchronizedList(new ArrayList<>());
+
+        List<String> result = executor.execute(queries, chunk -> {
+            chunkSizes.add(chunk.size());
+            List<String> response = new ArrayList<>();
+            for (String query : chunk) {
+                response.add(query.toUpperCase());
+            }
+            return response;
+        });
+
+        assertEquals(20, result.size());
+        for (int i = 0; i < queries.size(); i++) {
+            assertEquals(queries.get(i).toUpperCase(), result.get(i));
+        }
+        assertEquals(7, chunkSizes.size());
+        assertTrue(chunkSizes.stream().allMatch(size -> size <= 3));
+        executor.shutdown();
+    }
+
+    public void testConcurrencyPerRequest() throws Exception {
+        ChunkedRequestExecutor executor = new ChunkedRequestExecutor(1, 4, 2, 1, 0);
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+
+        List<String> result = executor.execute(createQueries(12), chunk -> {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(5);
+            } catch (InterruptedException e) {
+                throw new ApiException(e);
+            } finally {
+                inFlight.decrementAndGet();
+            }
+            return chunk;
+        });
+        assertEquals(12, result.size());
+        // the pool has room for four chunks, a single request only uses two of them
+        assertTrue(maxInFlight.get() <= 2);
+        executor.shutdown();
+    }
+
+    public void testRetryTransientFailures() throws Exception {
+        ChunkedRequestExecutor executor = new ChunkedRequestExecutor(10, 2, 2, 3, 1);
+        AtomicInteger attempts = new AtomicInteger();
+
+        List<String> result = executor.execute(createQueries(5), chunk -> {
+            if (attempts.incrementAndGet() < 3) {
+                throw new ApiException(503, "Service Unavailable");
+            }
+            return chunk;
+        });
+        assertEquals(5, result.size());
+        assertEquals(3, attempts.get());
+
+        // Client errors are not retried
+        attempts.set(0);
+        try {
+            executor.execute(createQueries(5), chunk -> {
+                attempts.incrementAndGet();
+                throw new ApiException(400, "Bad Request");
+            });
+            fail("The client error should be thrown");
+        } catch (ApiException e) {
+            assertEquals(400, e.getCode());
+        }
+        assertEquals(1, attempts.get());
+
+        // Give up after the max attempts
+        attempts.set(0);
+        try {
+            executor.execute(createQueries(30), chunk -> {
+                attempts.incrementAndGet();
+                throw new ApiException(0, "Read timed out");
+            });
+            fail("The transient error should be thrown after the last attempt");
+        } catch (ApiException e) {
+            assertEquals(0, e.getCode());
+        }
+        executor.shutdown();
+    }
+
+    public void testIncompleteChunkFails() {
+        ChunkedRequestExecutor executor = new ChunkedRequestExecutor(2, 2, 2, 1, 0);
+        try {
+            executor.execute(createQueries(4), chunk -> chunk.subList(0, 1));
+            fail("The responses cannot be merged when a chunk is not fully annotated");
+        } catch (ApiException e) {
+            assertTrue(e.getMessage().contains("1 annotations for 2 queries"));
+        }
+        executor.shutdown();
+    }
+
+    public void testBackoff() {
+        ChunkedRequestExecutor executor = new ChunkedRequestExecutor(1, 1, 1, 3, 500);
+        assertEquals(500, executor.getBackoffMillis(1));
+        assertEquals(1000, executor.getBackoffMillis(2));
+        assertEquals(2000, executor.getBackoffMillis(3));
+        assertEquals(30000, executor.getBackoffMillis(30));
+        executor.shutdown();
+    }
+
+    /**
+     * Run the Genome Nexus client against a local stub which fails the first request.
+     */
+    public void testStubServer() throws Exception {
+        Gson gson = new Gson();
+        AtomicInteger requests = new AtomicInteger();
+        HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/", exchange -> {
+            byte[] body;
+            int status;
+            if (requests.incrementAndGet() == 1) {
+                status = 503;
+                body = "[]".getBytes(StandardCharsets.UTF_8);
+            } else {
+                String[] queries = gson.fromJson(new InputStreamReader(exchange.getRequestBody(), StandardCharsets.UTF_8), String[].class);
+                List<Map<String, Object>> annotations = new ArrayList<>();
+                for (String query : queries) {
+                    Map<String, Object> annotation = new HashMap<>();
+                    annotation.put("originalVariantQuery", query);
+                    annotation.put("successfullyAnnotated", true);
+                    annotations.add(annotation);
+                }
+                status = 200;
+                body = gson.toJson(annotations).getBytes(StandardCharsets.UTF_8);
+            }
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(status, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+
+        ChunkedRequestExecutor executor = new ChunkedRequestExecutor(4, 3, 3, 3, 1);
+        try {
+            ApiClient client = new ApiClient();
+            client.setBasePath("http://localhost:" + server.getAddress().getPort());
+            AnnotationControllerApi api = new AnnotationControllerApi(client);
+
+            List<String> queries = createQueries(10);
+            List<VariantAnnotation> annotations = executor.execute(queries,
+                chunk -> api.fetchVariantAnnotationPOST(chunk, "mskcc", null, Collections.singletonList("annotation_summary")));
+
+            assertEquals(10, annotations.size());
+            for (int i = 0; i < queries.size(); i++) {
+                assertEquals(queries.get(i), annotations.get(i).getOriginalVariantQuery());
+            }
+            // three chunks and one retry
+            assertEquals(4, requests.get());
+        } finally {
+            executor.shutdown();
+            server.stop(0);
+        }
+    }
+}
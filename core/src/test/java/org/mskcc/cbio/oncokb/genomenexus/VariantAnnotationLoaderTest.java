@@ -0,0 +1,96 @@
+package org.mskcc.cbio.oncokb.genomenexus;
+
+import junit.framework.TestCase;
+import org.genome_nexus.client.VariantAnnotation;
+import org.mskcc.cbio.oncokb.model.ReferenceGenome;
+
+import java.io.File;
+import java.util.*;
+
+public class VariantAnnotationLoaderTest extends TestCase {
+    private static final List<String> QUERIES = Arrays.asList("7:g.140453136A>T", "12:g.25398284C>A", "17:g.7577121G>A");
+
+    private File storeFile;
+    private ChunkedRequestExecutor executor;
+
+    @Override
+    protected void setUp() throws Exception {
+        storeFile = File.createTempFile("variant-annotations", ".mv.db");
+        storeFile.delete();
+        executor = new ChunkedRequestExecutor(200, 1, 1, 1, 0);
+    }
+
+    @Override
+    protected void tearDown() {
+        executor.shutdown();
+        storeFile.delete();
+    }
+
+    public void testMissingAnnotationGetsAFailedOne() throws Exception {
+        List<List<String>> requests = new ArrayList<>();
+        List<VariantAnnotation> result = new VariantAnnotationLoader(null, executor).load(GNVariantAnnotationType.HGVS_G, ReferenceGenome.GRCh37, QUERIES, query -> query, chunk -> {
+            requests.add(new ArrayList<>(chunk));
+            // Genome Nexus leaves out the second query
+            List<VariantAnnotation> annotations = new ArrayList<>();
+            for (String query : chunk) {
+                if (!query.equals(QUERIES.get(1))) {
+                    annotations.add(createAnnotation(query));
+                }
+            }
+            return annotations;
+        });
+
+        assertEquals(Arrays.asList(QUERIES, Collections.singletonList(QUERIES.get(1))), requests);
+        assertEquals(QUERIES.size(), result.size());
+        for (int i = 0; i < QUERIES.size(); i++) {
+            assertEquals(QUERIES.get(i), result.get(i).getOriginalVariantQuery());
+        }
+        assertEquals(Boolean.TRUE, result.get(0).isSuccessfullyAnnotated());
+        assertEquals(Boolean.FALSE, result.get(1).isSuccessfullyAnnotated());
+        assertEquals(Boolean.TRUE, result.get(2).isSuccessfullyAnnotated());
+    }
+
+    public void testOnlyMissingQueriesAreSentAgain() throws Exception {
+        List<List<String>> requests = new ArrayList<>();
+        List<VariantAnnotation> result = new VariantAnnotationLoader(null, executor).load(GNVariantAnnotationType.HGVS_G, ReferenceGenome.GRCh37, QUERIES, query -> query, chunk -> {
+            requests.add(new ArrayList<>(chunk));
+            // The first response only has the last query, in a different order than the queries
+            return requests.size() == 1 ? Collections.singletonList(createAnnotation(QUERIES.get(2))) : Arrays.asList(createAnnotation(chunk.get(0)), createAnnotation(chunk.get(1)));
+        });
+
+        assertEquals(Arrays.asList(QUERIES, QUERIES.subList(0, 2)), requests);
+        for (int i = 0; i < QUERIES.size(); i++) {
+            assertEquals(QUERIES.get(i), result.get(i).getOriginalVariantQuery());
+            assertEquals(Boolean.TRUE, result.get(i).isSuccessfullyAnnotated());
+        }
+    }
+
+    public void testStoredAnnotationsAreNotSent() throws Exception {
+        try (VariantAnnotationStore store = new VariantAnnotationStore(storeFile.getPath())) {
+            store.put(VariantAnnotationStore.getKey(GNVariantAnnotationType.HGVS_G, ReferenceGenome.GRCh37, QUERIES.get(0)), createAnnotation(QUERIES.get(0)));
+
+            List<List<String>> requests = new ArrayList<>();
+            List<VariantAnnotation> result = new VariantAnnotationLoader(store, executor).load(GNVariantAnnotationType.HGVS_G, ReferenceGenome.GRCh37, QUERIES, query -> query, chunk -> {
+                requests.add(new ArrayList<>(chunk));
+                List<VariantAnnotation> annotations = new ArrayList<>();
+                for (String query : chunk) {
+                    annotations.add(createAnnotation(query));
+                }
+                return annotations;
+            });
+
+            assertEquals(Collections.singletonList(QUERIES.subList(1, 3)), requests);
+            assertEquals(QUERIES.size(), result.size());
+            assertEquals(QUERIES.get(0), result.get(0).getOriginalVariantQuery());
+            assertEquals(3, store.size());
+        }
+    }
+
+    private static VariantAnnotation createAnnotation(String query) {
+        VariantAnnotation annotation = new VariantAnnotation();
+        annotation.setOriginalVariantQuery(query);
+        annotation.setHgvsg(query);
+        annotation.setSuccessfullyAnnotated(true);
+        return annotation;
+    }
+}
@@ -0,0 +1,80 @@
+package org.mskcc.cbio.oncokb.genomenexus;
+
+import junit.framework.TestCase;
+import org.genome_nexus.client.VariantAnnotation;
+import org.mskcc.cbio.oncokb.model.ReferenceGenome;
+
+import java.io.File;
+import java.io.StringReader;
+import java.io.StringWriter;
+
+public class VariantAnnotationStoreTest extends TestCase {
+    private File storeFile;
+
+    @Override
+    protected void setUp() throws Exception {
+        storeFile = File.createTempFile("variant-annotations", ".mv.db");
+        storeFile.delete();
+    }
+
+    @Override
+    protected void tearDown() {
+        storeFile.delete();
+    }
+
+    public void testGetKey() {
+        String key = VariantAnnotationStore.getKey(GNVariantAnnotationType.HGVS_G, ReferenceGenome.GRCh37, "7:g.140453136A>T");
+        assertEquals(key, VariantAnnotationStore.getKey(GNVariantAnnotationType.HGVS_G, ReferenceGenome.GRCh37, " chr7:g.140453136a>t"));
+        assertFalse(key.equals(VariantAnnotationStore.getKey(GNVariantAnnotationType.HGVS_G, ReferenceGenome.GRCh38, "7:g.140453136A>T")));
+        assertFalse(key.equals(VariantAnnotationStore.getKey(GNVariantAnnotationType.GENOMIC_LOCATION, ReferenceGenome.GRCh37, "7:g.140453136A>T")));
+        assertNull(VariantAnnotationStore.getKey(GNVariantAnnotationType.HGVS_G, ReferenceGenome.GRCh37, " "));
+    }
+
+    public void testNormalizeQuery() {
+        assertEquals("7:g.140453136A>T", VariantAnnotationStore.normalizeQuery("Chr7:g.140453136a>t"));
+        assertEquals("X:g.41242968_41242970delinsGAT", VariantAnnotationStore.normalizeQuery("chrx:g.41242968_41242970delinsgat"));
+        assertEquals("7:g.55242465_55242479delGGAATTAAGAGAAGC", VariantAnnotationStore.normalizeQuery("7:g.55242465_55242479delggaattaagagaagc"));
+        assertEquals("17:g.7577121dupC", VariantAnnotationStore.normalizeQuery("17:g.7577121dupc"));
+        assertEquals("7,140453136,140453136,A,T", VariantAnnotationStore.normalizeQuery("chr7,140453136,140453136,a,t"));
+        // the coordinate type is not changed
+        assertEquals("7:c.1799T>A", VariantAnnotationStore.normalizeQuery("7:c.1799t>a"));
+        assertFalse(VariantAnnotationStore.normalizeQuery("7:G.140453136A>T").equals(VariantAnnotationStore.normalizeQuery("7:g.140453136A>T")));
+    }
+
+    public void testPersistence() {
+        String key = VariantAnnotationStore.getKey(GNVariantAnnotationType.HGVS_G, ReferenceGenome.GRCh37, "7:g.140453136A>T");
+        try (VariantAnnotationStore store = new VariantAnnotationStore(storeFile.getPath())) {
+            assertNull(store.get(key));
+            store.put(key, createAnnotation("7:g.140453136A>T"));
+        }
+
+        try (VariantAnnotationStore store = new VariantAnnotationStore(storeFile.getPath())) {
+            assertEquals(1, store.size());
+            VariantAnnotation annotation = store.get(key);
+            assertEquals("7:g.140453136A>T", annotation.getHgvsg());
+            assertEquals(Boolean.TRUE, annotation.isSuccessfullyAnnotated());
+        }
+    }
+
+    public void testExportAndImport() throws Exception {
+        String key = VariantAnnotationStore.getKey(GNVariantAnnotationType.HGVS_G, ReferenceGenome.GRCh37, "7:g.140453136A>T");
+        StringWriter writer = new StringWriter();
+        try (VariantAnnotationStore store = new VariantAnnotationStore(storeFile.getPath())) {
+            store.put(key, createAnnotation("7:g.140453136A>T"));
+            assertEquals(1, store.exportTo(writer));
+            store.clear();
+            assertEquals(0, store.size());
+
+            assertEquals(1, store.importFrom(new StringReader(writer.toString())));
+            assertEquals("7:g.140453136A>T", store.get(key).getHgvsg());
+        }
+    }
+
+    private static VariantAnnotation createAnnotation(String hgvsg) {
+        VariantAnnotation annotation = new VariantAnnotation();
+        annotation.setOriginalVariantQuery(hgvsg);
+        annotation.setHgvsg(hgvsg);
+        annotation.setSuccessfullyAnnotated(true);
+        return annotation;
+    }
+}
@@ -0,0 +1,61 @@
+package org.mskcc.cbio.oncokb.util;
+
+import junit.framework.TestCase;
+import org.mskcc.cbio.oncokb.model.*;
+
+import java.util.*;
+
+import static org.mskcc.cbio.oncokb.Constants.DEFAULT_REFERENCE_GENOME;
+
+public class AlterationOverlapIndexTest extends TestCase {
+
+    public void testSameAsScanningTheList() {
+        Gene gene = new Gene();
+        gene.setEntrezGeneId(-1);
+        gene.setHugoSymbol("TEST");
+        List<VariantConsequence> consequences = Arrays.asList(
+            new VariantConsequence("missense_variant", null, false),
+            new VariantConsequence("inframe_deletion", null, false),
+            new VariantConsequence("feature_truncation", null, true),
+            new VariantConsequence("splice_acceptor_variant", null, false),
+            new VariantConsequence("splice_donor_variant", null, false)
+        );
+
+        Random random = new Random(42);
+        List<Alteration> alterations = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            Alteration alteration = new Alteration();
+            alteration.setId(i);
+            alteration.setGene(gene);
+            alteration.setAlteration("alteration" + i);
+            alteration.setConsequence(random.nextInt(10) == 0 ? null : consequences.get(random.nextInt(consequences.size())));
+            int start = random.nextInt(10) == 0 ? AlterationPositionBoundary.START.getValue() : random.nextInt(1000);
+            int end = random.nextInt(10) == 0 ? AlterationPositionBoundary.END.getValue() : start + random.nextInt(50);
+            alteration.setProteinStart(start);
+            alteration.setProteinEnd(end);
+            alteration.getReferenceGenomes().add(random.nextBoolean() ? ReferenceGenome.GRCh37 : ReferenceGenome.GRCh38);
+            alterations.add(alteration);
+        }
+
+        AlterationOverlapIndex overlapIndex = AlterationOverlapIndex.build(alterations);
+        assertNotNull(overlapIndex);
+        assertTrue(overlapIndex.isBuiltFrom(alterations));
+        assertFalse(overlapIndex.isBuiltFrom(new ArrayList<>(alterations)));
+
+        for (int i = 0; i < 2000; i++) {
+            VariantConsequence consequence = consequences.get(random.nextInt(consequences.size()));
+            ReferenceGenome referenceGenome = random.nextBoolean() ? null : DEFAULT_REFERENCE_GENOME;
+            int start = random.nextInt(20) == 0 ? AlterationPositionBoundary.START.getValue() : random.nextInt(1100);
+            int end = random.nextInt(20) == 0 ? AlterationPositionBoundary.END.getValue() : start + random.nextInt(5);
+            // The copy of the list is not cached, so it is scanned
+            Set<Alteration> expected = AlterationUtils.findOverlapAlteration(new ArrayList<>(alterations), gene, referenceGenome, consequence, start, end, null);
+            assertEquals(expected, overlapIndex.findOverlapAlteration(gene, referenceGenome, consequence, start, end));
+        }
+    }
+
+    public void testAlterationWithoutRangeIsNotIndexed() {
+        Alteration alteration = new Alteration();
+        alteration.setConsequence(new VariantConsequence("missense_variant", null, false));
+        assertNull(AlterationOverlapIndex.build(Collections.singletonList(alteration)));
+    }
+}
@@ -3,6 +3,8 @@ package org.mskcc.cbio.oncokb.util;
 import static org.mskcc.cbio.oncokb.util.AnnotationSearchUtils.annotationSearch;
 import static org.mskcc.cbio.oncokb.util.AnnotationSearchUtils.searchNonHgvsAnnotation;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Set;
 import junit.framework.TestCase;
 import org.mskcc.cbio.oncokb.model.AnnotationSearchQueryType;
@@ -105,4 +107,25 @@ public class AnnotationSearchUtilsTest extends TestCase {
         // This is a variant search, the cancer type search result should not be available
         assertTrue(respSet.stream().filter(resp -> AnnotationSearchQueryType.CANCER_TYPE.equals(resp.getQueryType())).count() == 0);
     }
+
+    public void testSearchWithLimit() {
+        // Only the top results are annotated, they should be the same as the top of the full search
+        List<AnnotationSearchResult> allResults = new ArrayList<>(annotationSearch("BRAF"));
+        List<AnnotationSearchResult> topResults = new ArrayList<>(annotationSearch("BRAF", 3));
+        assertEquals(3, topResults.size());
+        for (int i = 0; i < topResults.size(); i++) {
+            assertEquals(allResults.get(i).getQueryType(), topResults.get(i).getQueryType());
+            assertEquals(allResults.get(i).getIndicatorQueryResp().getQuery().getAlteration(), topResults.get(i).getIndicatorQueryResp().getQuery().getAlteration());
+            assertEquals(allResults.get(i).getIndicatorQueryResp().getHighestSensitiveLevel(), topResults.get(i).getIndicatorQueryResp().getHighestSensitiveLevel());
+            assertEquals(allResults.get(i).getIndicatorQueryResp().getGeneSummary(), topResults.get(i).getIndicatorQueryResp().getGeneSummary());
+        }
+
+        List<TypeaheadSearchResp> allResps = new ArrayList<>(searchNonHgvsAnnotation("V600E"));
+        List<TypeaheadSearchResp> topResps = new ArrayList<>(searchNonHgvsAnnotation("V600E", 2));
+        assertEquals(2, topResps.size());
+        assertEquals(allResps.subList(0, 2), topResps);
+        for (TypeaheadSearchResp resp : topResps) {
+            assertNotNull(resp.getAnnotation());
+        }
+    }
 }
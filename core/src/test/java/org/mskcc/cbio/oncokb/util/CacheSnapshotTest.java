@@ -0,0 +1,97 @@
+package org.mskcc.cbio.oncokb.util;
+
+import junit.framework.TestCase;
+import org.mskcc.cbio.oncokb.model.Alteration;
+import org.mskcc.cbio.oncokb.model.Gene;
+import org.mskcc.cbio.oncokb.model.ReferenceGenome;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+
+public class CacheSnapshotTest extends TestCase {
+    public void testBuilderKeepsBaseSnapshotIntact() throws Exception {
+        Gene braf = new Gene(673, "BRAF");
+        Gene egfr = new Gene(1956, "EGFR");
+
+        Alteration v600e = new Alteration();
+        v600e.setId(1);
+        v600e.setGene(braf);
+        v600e.setAlteration("V600E");
+        v600e.setReferenceGenomes(new HashSet<>(Arrays.asList(ReferenceGenome.GRCh37, ReferenceGenome.GRCh38)));
+
+        CacheSnapshot base = new CacheSnapshot.Builder(CacheSnapshot.EMPTY)
+            .setGenes(Collections.singleton(braf))
+            .setGeneAlterations(braf.getEntrezGeneId(), Collections.singletonList(v600e))
+            .build();
+
+        CacheSnapshot updated = new CacheSnapshot.Builder(base)
+            .setGenes(Arrays.asList(braf, egfr))
+            .removeGeneAlterations(braf.getEntrezGeneId())
+            .build();
+
+        assertEquals(1, base.getGenes().size());
+        assertEquals(braf, base.getGenesByEntrezId().get(673));
+        assertEquals(Integer.valueOf(673), base.getHugoSymbolToEntrez().get("BRAF"));
+        assertEquals(Collections.singletonList(v600e), base.getAlterations().get(673));
+        assertEquals(Collections.singletonList(v600e), base.getAlterationsByReferenceGenome().get(673).get(ReferenceGenome.GRCh38));
+
+        assertEquals(2, updated.getGenes().size());
+        assertEquals(egfr, updated.getGenesByEntrezId().get(1956));
+        assertEquals(egfr, updated.getGeneNameIndex().getByHugoSymbol("egfr"));
+        assertNull(base.getGeneNameIndex().getByHugoSymbol("EGFR"));
+        assertFalse(updated.getAlterations().containsKey(673));
+        assertFalse(updated.getAlterationsByReferenceGenome().containsKey(673));
+    }
+
+    public void testSnapshotIsUnmodifiable() throws Exception {
+        CacheSnapshot snapshot = new CacheSnapshot.Builder(CacheSnapshot.EMPTY)
+            .setGenes(Collections.singleton(new Gene(673, "BRAF")))
+            .setGeneAlterations(673, Collections.emptyList())
+            .build();
+
+        try {
+            snapshot.getGenes().add(new Gene(1956, "EGFR"));
+            fail("The genes of a snapshot should not be modifiable");
+        } catch (UnsupportedOperationException e) {
+        }
+
+        try {
+            snapshot.getAlterations().get(673).add(new Alteration());
+            fail("The alterations of a snapshot should not be modifiable");
+        } catch (UnsupportedOperationException e) {
+        }
+    }
+
+    public void testSearchIndexesFollowUpdates() throws Exception {
+        Gene braf = new Gene(673, "BRAF");
+        Gene egfr = new Gene(1956, "EGFR");
+        egfr.getGeneAliases().add("ERBB1");
+
+        Alteration v600e = new Alteration();
+        v600e.setId(1);
+        v600e.setGene(braf);
+        v600e.setAlteration("V600E");
+        v600e.setName("V600E");
+        v600e.setReferenceGenomes(Collections.singleton(ReferenceGenome.GRCh37));
+
+        CacheSnapshot base = new CacheSnapshot.Builder(CacheSnapshot.EMPTY)
+            .setGenes(Collections.singleton(braf))
+            .setGeneAlterations(braf.getEntrezGeneId(), Collections.singletonList(v600e))
+            .build();
+        assertEquals(Collections.singleton(braf), base.getGeneSearchIndex().search("raf", false));
+        assertEquals(Collections.singletonList(v600e), base.getAlterationSearchIndexes().get(673).search("v600"));
+
+        CacheSnapshot updated = new CacheSnapshot.Builder(base)
+            .setGenes(Arrays.asList(braf, egfr))
+            .removeGeneAlterations(braf.getEntrezGeneId())
+            .build();
+        assertEquals(Collections.singleton(egfr), updated.getGeneSearchIndex().search("erbb", false));
+        assertEquals(Collections.singleton(egfr), updated.getGeneSearchIndex().search("1956", true));
+        assertFalse(updated.getAlterationSearchIndexes().containsKey(673));
+
+        // the base snapshot keeps its own indexes
+        assertTrue(base.getGeneSearchIndex().search("erbb", false).isEmpty());
+        assertTrue(base.getAlterationSearchIndexes().containsKey(673));
+    }
+}
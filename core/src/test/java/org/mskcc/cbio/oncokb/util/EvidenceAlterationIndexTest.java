@@ -0,0 +1,55 @@
+package org.mskcc.cbio.oncokb.util;
+
+import junit.framework.TestCase;
+import org.mskcc.cbio.oncokb.model.Alteration;
+import org.mskcc.cbio.oncokb.model.Evidence;
+
+import java.util.*;
+
+public class EvidenceAlterationIndexTest extends TestCase {
+    private static Alteration newAlteration(Integer id) {
+        Alteration alteration = new Alteration();
+        alteration.setId(id);
+        return alteration;
+    }
+
+    private static Evidence newEvidence(Alteration... alterations) {
+        Evidence evidence = new Evidence();
+        evidence.setAlterations(new HashSet<>(Arrays.asList(alterations)));
+        return evidence;
+    }
+
+    private static final Alteration V600E = newAlteration(10);
+    private static final Alteration V600K = newAlteration(3);
+    private static final Alteration ONCOGENIC_MUTATIONS = newAlteration(250);
+    private static final Alteration NOT_CURATED = newAlteration(7);
+
+    private static BitSet positions(int... positions) {
+        BitSet bitSet = new BitSet();
+        for (int position : positions) {
+            bitSet.set(position);
+        }
+        return bitSet;
+    }
+
+    public void testGetEvidencePositions() {
+        EvidenceAlterationIndex index = EvidenceAlterationIndex.build(Arrays.asList(
+            newEvidence(V600E),
+            newEvidence(ONCOGENIC_MUTATIONS),
+            newEvidence(V600E, V600K),
+            newEvidence(),
+            newEvidence(V600K, ONCOGENIC_MUTATIONS)
+        ));
+        assertNotNull(index);
+        assertEquals(positions(0, 2), index.getEvidencePositions(Collections.singleton(V600E)));
+        assertEquals(positions(2, 4), index.getEvidencePositions(Collections.singleton(V600K)));
+        assertEquals(positions(0, 1, 2, 4), index.getEvidencePositions(Arrays.asList(V600E, ONCOGENIC_MUTATIONS)));
+        assertTrue(index.getEvidencePositions(Collections.singleton(NOT_CURATED)).isEmpty());
+        assertTrue(index.getEvidencePositions(Collections.<Alteration>emptyList()).isEmpty());
+    }
+
+    public void testAlterationWithoutId() {
+        assertNull(EvidenceAlterationIndex.build(Arrays.asList(newEvidence(V600E), newEvidence(newAlteration(null)))));
+        assertNotNull(EvidenceAlterationIndex.build(Collections.<Evidence>emptyList()));
+    }
+}
@@ -125,6 +125,50 @@ public class EvidenceUtilsTest extends TestCase {
     }
 
 
+    public void testGetAllEvidencesByAlterations() throws Exception {
+        Gene gene = GeneUtils.getGeneByHugoSymbol("BRAF");
+        List<Alteration> alterations = new ArrayList<>(AlterationUtils.getAllAlterations(DEFAULT_REFERENCE_GENOME, gene)).subList(0, 10);
+
+        Set<Alteration> alterationSet = new HashSet<>(alterations);
+        List<Evidence> expected = new ArrayList<>();
+        for (Evidence evidence : EvidenceUtils.getAllEvidencesByAlterationsGenes(alterations)) {
+            if (!Collections.disjoint(evidence.getAlterations(), alterationSet)) {
+                expected.add(evidence);
+            }
+        }
+        assertEquals("The indexed lookup should match the gene evidences scan", expected, EvidenceUtils.getAllEvidencesByAlterations(alterations));
+
+        Alteration alteration = AlterationUtils.findAlteration(gene, DEFAULT_REFERENCE_GENOME, "V600E");
+        List<Evidence> evidences = EvidenceUtils.getAllEvidencesByAlterations(Collections.singleton(alteration));
+        assertTrue("There should be evidences associated", evidences.size() > 0);
+        for (Evidence evidence : evidences) {
+            assertTrue(evidence.getAlterations().contains(alteration));
+        }
+
+        assertTrue(EvidenceUtils.getAllEvidencesByAlterations(new ArrayList<>()).isEmpty());
+    }
+
+    public void testGetEvidencesByIdsAndUUIDs() throws Exception {
+        List<Evidence> geneEvidences = CacheUtils.getEvidences(GeneUtils.getGeneByHugoSymbol("BRAF"));
+        assertTrue("There should be evidences associated", geneEvidences.size() > 0);
+
+        Evidence evidence = geneEvidences.get(0);
+        assertEquals(evidence, EvidenceUtils.getEvidenceByEvidenceId(evidence.getId()));
+        assertTrue(EvidenceUtils.getEvidencesByUUID(evidence.getUuid()).contains(evidence));
+
+        Set<String> uuids = new HashSet<>();
+        Set<Integer> ids = new HashSet<>();
+        for (Evidence geneEvidence : geneEvidences) {
+            uuids.add(geneEvidence.getUuid());
+            ids.add(geneEvidence.getId());
+        }
+        assertTrue(EvidenceUtils.getEvidencesByUUIDs(uuids).containsAll(geneEvidences));
+        assertEquals(new HashSet<>(geneEvidences), EvidenceUtils.getEvidenceByEvidenceIds(ids));
+
+        assertTrue(EvidenceUtils.getEvidencesByUUID("not-a-uuid").isEmpty());
+        assertTrue(EvidenceUtils.getEvidenceByEvidenceIds(Collections.singleton(-1)).isEmpty());
+    }
+
     public void testKeepHighestLevelForSameTreatments() throws Exception {
         Evidence e1 = new Evidence();
         Evidence e2 = new Evidence();
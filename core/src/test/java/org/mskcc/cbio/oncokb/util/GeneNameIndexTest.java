@@ -0,0 +1,68 @@
+package org.mskcc.cbio.oncokb.util;
+
+import junit.framework.TestCase;
+import org.mskcc.cbio.oncokb.model.Gene;
+
+import java.util.*;
+
+public class GeneNameIndexTest extends TestCase {
+    private static Gene newGene(int entrezGeneId, String hugoSymbol, String... aliases) {
+        Gene gene = new Gene(entrezGeneId, hugoSymbol);
+        gene.setGeneAliases(new HashSet<>(Arrays.asList(aliases)));
+        return gene;
+    }
+
+    private static final Gene BCR = newGene(613, "BCR", "ALL", "D22S11");
+    private static final Gene ABL1 = newGene(25, "ABL1", "ABL", "c-ABL");
+    private static final Gene NKX2_1 = newGene(7080, "NKX2-1", "TTF1", "NKX2A");
+    private static final Gene KMT2A = newGene(4297, "KMT2A", "MLL", "TRX1");
+    private static final Gene KMT2D = newGene(8085, "KMT2D", "MLL2", "TRX1");
+    private static final Gene C11ORF30 = newGene(56946, "C11orf30", "EMSY");
+
+    private static GeneNameIndex build() {
+        return GeneNameIndex.build(Arrays.asList(BCR, ABL1, NKX2_1, KMT2A, KMT2D, C11ORF30));
+    }
+
+    public void testGetByHugoSymbol() {
+        GeneNameIndex index = build();
+        assertEquals(BCR, index.getByHugoSymbol("BCR"));
+        assertEquals(BCR, index.getByHugoSymbol("bcr"));
+        assertEquals(C11ORF30, index.getByHugoSymbol("C11ORF30"));
+        assertEquals(NKX2_1, index.getByHugoSymbol("nkx2-1"));
+        assertNull(index.getByHugoSymbol("BRAF"));
+        assertNull(index.getByHugoSymbol(null));
+    }
+
+    public void testGetByAlias() {
+        GeneNameIndex index = build();
+        assertEquals(KMT2A, index.getByUniqueAlias("mll"));
+        assertEquals(ABL1, index.getByUniqueAlias("C-ABL"));
+        assertNull(index.getByUniqueAlias("MLL3"));
+
+        // TRX1 is listed under two genes
+        assertNull(index.getByUniqueAlias("TRX1"));
+        assertEquals(new HashSet<>(Arrays.asList(KMT2A, KMT2D)), index.getByAlias("trx1"));
+        assertTrue(index.getByAlias("MLL3").isEmpty());
+    }
+
+    public void testAmbiguousSymbol() {
+        Gene lowercase = newGene(1, "bcr");
+        GeneNameIndex index = GeneNameIndex.build(Arrays.asList(BCR, lowercase));
+        assertNull(index.getByHugoSymbol("BCR"));
+        assertNull(index.getByHugoSymbol("bcr"));
+    }
+
+    public void testSplitFusionPartners() {
+        GeneNameIndex index = build();
+        assertEquals(Arrays.asList("BCR", "ABL1"), index.splitFusionPartners("BCR-ABL1"));
+        assertEquals(Arrays.asList("bcr", "abl1"), index.splitFusionPartners("bcr-abl1"));
+        assertEquals(Collections.singletonList("NKX2-1"), index.splitFusionPartners("NKX2-1"));
+        assertEquals(Arrays.asList("NKX2-1", "ALK"), index.splitFusionPartners("NKX2-1-ALK"));
+        assertEquals(Arrays.asList("ALK", "NKX2-1"), index.splitFusionPartners("ALK-NKX2-1"));
+        assertEquals(Arrays.asList("c-ABL", "BCR"), index.splitFusionPartners("c-ABL-BCR"));
+        assertEquals(Collections.singletonList("BCR"), index.splitFusionPartners("BCR-"));
+        assertEquals(Collections.singletonList("ABL1"), index.splitFusionPartners("-ABL1"));
+        assertEquals(Arrays.asList("FOO", "BAR"), index.splitFusionPartners("FOO-BAR"));
+        assertTrue(index.splitFusionPartners(null).isEmpty());
+    }
+}
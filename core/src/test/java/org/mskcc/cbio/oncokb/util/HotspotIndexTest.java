@@ -0,0 +1,60 @@
+package org.mskcc.cbio.oncokb.util;
+
+import junit.framework.TestCase;
+import org.genome_nexus.client.Hotspot;
+
+import java.util.Arrays;
+
+public class HotspotIndexTest extends TestCase {
+    private static EnrichedHotspot newHotspot(String type, String residue) {
+        Hotspot hotspot = new Hotspot();
+        hotspot.setHugoSymbol("AKT1");
+        hotspot.setType(type);
+        hotspot.setResidue(residue);
+        return new EnrichedHotspot(hotspot);
+    }
+
+    private static HotspotIndex build() {
+        return HotspotIndex.build(Arrays.asList(
+            newHotspot("single residue", "E17"),
+            newHotspot("single residue", "Q79"),
+            newHotspot("3d", "L52"),
+            newHotspot("in-frame indel", "60-65"),
+            newHotspot("in-frame indel", "68-77"),
+            newHotspot("splice site", "X24_splice")
+        ));
+    }
+
+    public void testResidueHotspot() {
+        HotspotIndex index = build();
+        assertTrue(index.hasResidueHotspot("E", 17, 17));
+        assertTrue(index.hasResidueHotspot("e", 17, 17));
+        assertFalse(index.hasResidueHotspot("K", 17, 17));
+        assertFalse(index.hasResidueHotspot(null, 17, 17));
+        assertFalse(index.hasResidueHotspot("E", 18, 18));
+
+        // 3d only hotspots are left out
+        assertFalse(index.hasResidueHotspot("L", 52, 52));
+    }
+
+    public void testInframeHotspot() {
+        HotspotIndex index = build();
+        assertTrue(index.hasInframeHotspotOverlapping(55, 60));
+        assertTrue(index.hasInframeHotspotOverlapping(76, 80));
+        assertFalse(index.hasInframeHotspotOverlapping(66, 67));
+        assertFalse(index.hasInframeHotspotOverlapping(78, 80));
+
+        assertTrue(index.hasInframeHotspotContaining(68, 77));
+        assertTrue(index.hasInframeHotspotContaining(61, 62));
+        assertFalse(index.hasInframeHotspotContaining(60, 68));
+        assertFalse(index.hasInframeHotspotContaining(76, 80));
+    }
+
+    public void testSpliceHotspot() {
+        HotspotIndex index = build();
+        assertTrue(index.hasSpliceHotspotOverlapping(24, 24));
+        assertTrue(index.hasSpliceHotspotOverlapping(20, 30));
+        assertFalse(index.hasSpliceHotspotOverlapping(25, 25));
+        assertFalse(index.hasSpliceHotspotOverlapping(60, 65));
+    }
+}
@@ -0,0 +1,145 @@
+package org.mskcc.cbio.oncokb.util;
+
+import junit.framework.TestCase;
+import org.mskcc.cbio.oncokb.model.AlterationPositionBoundary;
+
+import java.util.Random;
+
+import static org.mskcc.cbio.oncokb.Constants.*;
+
+public class ProteinChangeParserTest extends TestCase {
+    private static final Integer START = AlterationPositionBoundary.START.getValue();
+    private static final Integer END = AlterationPositionBoundary.END.getValue();
+
+    private static void assertParsed(String proteinChange, String ref, String var, Integer start, Integer end, String consequence) {
+        ProteinChangeParser.ProteinChange parsed = ProteinChangeParser.parse(proteinChange);
+        assertEquals(proteinChange, ref, parsed.getRefResidues());
+        assertEquals(proteinChange, var, parsed.getVariantResidues());
+        assertEquals(proteinChange, start, parsed.getProteinStart());
+        assertEquals(proteinChange, end, parsed.getProteinEnd());
+        assertEquals(proteinChange, consequence, parsed.getConsequence());
+    }
+
+    public void testSubstitution() {
+        assertParsed("V600E", "V", "E", 600, 600, MISSENSE_VARIANT);
+        assertParsed("v600e", "V", "E", 600, 600, MISSENSE_VARIANT);
+        assertParsed("V600", "V", "", 600, 600, ProteinChangeParser.UNKNOWN_CONSEQUENCE);
+        assertParsed("IK744KI", "IK", "KI", 744, 745, MISSENSE_VARIANT);
+        assertParsed("R2109*", "R", "*", 2109, 2109, "stop_gained");
+        assertParsed("M1?", "M", "?", 1, 1, "start_lost");
+        assertParsed("L838=", "L", "L", 838, 838, "synonymous_variant");
+        assertParsed("*1136=", "*", "*", 1136, 1136, "stop_retained_variant");
+    }
+
+    public void testIndel() {
+        assertParsed("V600delinsYM", "V", null, 600, 600, IN_FRAME_INSERTION);
+        assertParsed("D842_I843delinsIM", null, null, 842, 843, MISSENSE_VARIANT);
+        assertParsed("F53_Q53delinsL", null, null, 53, 53, MISSENSE_VARIANT);
+        assertParsed("R78_G79ins23", null, null, 78, 79, IN_FRAME_INSERTION);
+        assertParsed("V561_I562insER", null, null, 561, 562, IN_FRAME_INSERTION);
+        assertParsed("G12delG", "G", null, 12, 12, IN_FRAME_DELETION);
+        assertParsed("E102_I103del", null, null, 102, 103, IN_FRAME_DELETION);
+        assertParsed("P191del", "P", null, 191, 191, IN_FRAME_DELETION);
+        assertParsed("Y1003mut", "Y", null, 1003, 1003, "any");
+    }
+
+    public void testSpliceAndRange() {
+        assertParsed("X405_splice", null, null, 405, 405, "splice_region_variant");
+        assertParsed("405splice", null, null, 405, 405, "splice_region_variant");
+        assertParsed("X405_A500_splice", null, null, 405, 500, "splice_region_variant");
+        assertParsed("449_514mut", null, null, 449, 514, "any");
+        assertParsed("D286_L292trunc", null, null, 286, 292, "feature_truncation");
+    }
+
+    public void testFrameshiftAndExtension() {
+        assertParsed("N457Mfs*22", "N", null, 457, 457, FRAMESHIFT_VARIANT);
+        assertParsed("*1069Ffs*5", "*", null, 1069, 1069, FRAMESHIFT_VARIANT);
+        assertParsed("I327Rfs*", "I", null, 327, 327, FRAMESHIFT_VARIANT);
+        assertParsed("M1ext-5", null, null, 1, 1, IN_FRAME_INSERTION);
+        assertParsed("*959Qext*14", "*", null, 959, 959, "stop_lost");
+    }
+
+    private static final long SEED = 20261018L;
+    private static final int RANDOM_INPUTS = 50000;
+
+    private static final String[] RESIDUES = {"V", "e", "K", "m", "X", "*", "?", "IK", "ki", "\u00c9", "\u03a9", "\u0434"};
+    private static final String[] POSITIONS = {"1", "12", "600", "1069", "0", "007", "2147483647", "2147483648", "99999999999", "\u0661\u0662"};
+    private static final String[] VARIANT_RESIDUES = {"", "E", "m", "*", "?", "YM", "ki", "2", "23", "A1", "2A", "1a2", "*5", "\u00e9"};
+    private static final String[] KEYWORDS = {"delins", "DELINS", "DelIns", "ins", "INS", "del", "Del", "dup", "DUP", "mut", "Mut",
+        "fs", "FS", "fs*", "fs*22", "fS*?", "ext", "Ext*14", "ext*?", "ext-5", "splice", "_splice", "SPLICE", "=", "mis", "trunc",
+        "TRUNC", ""};
+    private static final String[] NOISE = {" ", "\n", "\r\n", "\t", "\u2028", "\u00a0", "_", "-", "/", ".", "p."};
+
+    private static String pick(Random random, String[] pieces) {
+        return pieces[random.nextInt(pieces.length)];
+    }
+
+    /**
+     * A protein change put together from the pieces of the grammar, occasionally broken by noise
+     */
+    private static String randomProteinChange(Random random) {
+        if (random.nextInt(50) == 0) {
+            return random.nextBoolean() ? "Truncating Mutations" : "truncating MUTATION";
+        }
+        StringBuilder sb = new StringBuilder();
+        if (random.nextInt(4) > 0) {
+            sb.append(pick(random, RESIDUES));
+        }
+        sb.append(pick(random, POSITIONS));
+        if (random.nextInt(3) == 0) {
+            sb.append("_");
+            if (random.nextBoolean()) {
+                sb.append(pick(random, RESIDUES));
+            }
+            sb.append(pick(random, POSITIONS));
+        }
+        String keyword = random.nextInt(4) > 0 ? pick(random, KEYWORDS) : "";
+        sb.append(keyword);
+        // most keywords end the protein change, the variant residues are mainly added to substitutions and indels
+        if (keyword.isEmpty() || keyword.startsWith("delins") || random.nextInt(4) == 0) {
+            sb.append(pick(random, VARIANT_RESIDUES));
+        }
+        if (random.nextInt(5) == 0) {
+            sb.insert(random.nextInt(sb.length() + 1), pick(random, NOISE));
+        }
+        return sb.toString();
+    }
+
+    private static String describe(Object result) {
+        if (result instanceof RuntimeException) {
+            return result.getClass().getName();
+        }
+        if (result instanceof ProteinChangeParser.ProteinChange) {
+            ProteinChangeParser.ProteinChange parsed = (ProteinChangeParser.ProteinChange) result;
+            return parsed.getRefResidues() + "|" + parsed.getVariantResidues() + "|" + parsed.getProteinStart() + "|" + parsed.getProteinEnd() + "|" + parsed.getConsequence();
+        }
+        LegacyProteinChangeClassifier.Classification classified = (LegacyProteinChangeClassifier.Classification) result;
+        return classified.refResidues + "|" + classified.variantResidues + "|" + classified.proteinStart + "|" + classified.proteinEnd + "|" + classified.consequence;
+    }
+
+    public void testSameAsLegacyClassifier() {
+        Random random = new Random(SEED);
+        for (int i = 0; i < RANDOM_INPUTS; i++) {
+            String proteinChange = randomProteinChange(random);
+            Object expected;
+            try {
+                expected = LegacyProteinChangeClassifier.classify(proteinChange);
+            } catch (RuntimeException e) {
+                expected = e;
+            }
+            Object actual;
+            try {
+                actual = ProteinChangeParser.parse(proteinChange);
+            } catch (RuntimeException e) {
+                actual = e;
+            }
+            assertEquals("Input #" + i + " of seed " + SEED + ": [" + proteinChange + "]", describe(expected), describe(actual));
+        }
+    }
+
+    public void testUnknown() {
+        assertParsed("Truncating Mutations", null, null, START, END, "feature_truncation");
+        assertParsed("Oncogenic Mutations", null, null, START, END, ProteinChangeParser.UNKNOWN_CONSEQUENCE);
+        assertParsed("", null, null, START, END, ProteinChangeParser.UNKNOWN_CONSEQUENCE);
+    }
+}
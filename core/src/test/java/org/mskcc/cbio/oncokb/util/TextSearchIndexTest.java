@@ -0,0 +1,74 @@
+package org.mskcc.cbio.oncokb.util;
+
+import junit.framework.TestCase;
+import org.apache.commons.lang3.StringUtils;
+
+import java.util.*;
+
+public class TextSearchIndexTest extends TestCase {
+    private static final List<String> SYMBOLS = Arrays.asList("BRAF", "BRCA1", "BRCA2", "ARAF", "RAF1", "KRAS", "NRAS", "HRAS", "ERBB2", "ABL1", "B2M");
+
+    private static TextSearchIndex<String> build(Collection<String> values) {
+        return TextSearchIndex.build(values, Collections::singleton);
+    }
+
+    public void testSearchRanking() {
+        TextSearchIndex<String> index = build(SYMBOLS);
+
+        // exact match, then the keys starting with the query, then the other keys containing it, shorter keys first
+        assertEquals(Arrays.asList("RAF1", "BRAF", "ARAF"), index.search("raf"));
+        assertEquals(Arrays.asList("BRCA1", "BRCA2"), index.search("Brca"));
+        assertEquals(Arrays.asList("BRAF", "BRCA1", "BRCA2"), index.search("br"));
+        assertEquals(Arrays.asList("BRAF"), index.search("braf"));
+        assertTrue(index.search("brafx").isEmpty());
+        assertTrue(index.search("x").isEmpty());
+        assertEquals(SYMBOLS.size(), index.search("").size());
+    }
+
+    public void testSearchSameAsScan() {
+        TextSearchIndex<String> index = build(SYMBOLS);
+        Set<String> queries = new HashSet<>();
+        for (String symbol : SYMBOLS) {
+            for (int start = 0; start < symbol.length(); start++) {
+                for (int end = start + 1; end <= symbol.length(); end++) {
+                    queries.add(symbol.substring(start, end));
+                    queries.add(symbol.substring(start, end).toLowerCase());
+                }
+            }
+        }
+        queries.add("AS1");
+        queries.add("RAFF");
+        for (String query : queries) {
+            Set<String> expected = new HashSet<>();
+            for (String symbol : SYMBOLS) {
+                if (StringUtils.containsIgnoreCase(symbol, query)) {
+                    expected.add(symbol);
+                }
+            }
+            List<String> matches = index.search(query);
+            assertEquals(query, expected, new HashSet<>(matches));
+            assertEquals(query, expected.size(), matches.size());
+        }
+    }
+
+    public void testMultipleKeys() {
+        Map<String, List<String>> aliases = new HashMap<>();
+        aliases.put("KMT2A", Arrays.asList("MLL", "MLL1", "TRX1"));
+        aliases.put("KMT2D", Arrays.asList("MLL2", "MLL4"));
+        TextSearchIndex<String> index = TextSearchIndex.build(aliases.keySet(), aliases::get);
+
+        // each value once, ranked by its best key
+        assertEquals(Arrays.asList("KMT2A", "KMT2D"), index.search("mll"));
+        assertEquals(Arrays.asList("KMT2D"), index.search("mll2"));
+        assertEquals(Arrays.asList("KMT2A"), index.searchExact("mll"));
+        assertEquals(Arrays.asList("KMT2A", "KMT2D"), index.searchPrefix("MLL"));
+        assertTrue(index.searchExact("ml").isEmpty());
+    }
+
+    public void testIsBuiltFrom() {
+        List<String> values = new ArrayList<>(SYMBOLS);
+        TextSearchIndex<String> index = build(values);
+        assertTrue(index.isBuiltFrom(values));
+        assertFalse(index.isBuiltFrom(new ArrayList<>(SYMBOLS)));
+    }
+}
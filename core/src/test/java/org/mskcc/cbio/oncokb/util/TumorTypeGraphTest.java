@@ -0,0 +1,103 @@
+package org.mskcc.cbio.oncokb.util;
+
+import junit.framework.TestCase;
+import org.mskcc.cbio.oncokb.model.SpecialTumorType;
+import org.mskcc.cbio.oncokb.model.TumorType;
+
+import java.util.*;
+
+public class TumorTypeGraphTest extends TestCase {
+    private static final String NSCLC = "Non-Small Cell Lung Cancer";
+    private static final String SCLC = "Small Cell Lung Cancer";
+
+    private final List<TumorType> cancerTypes = new ArrayList<>();
+    private TumorType lung;
+    private TumorType nsclc;
+    private TumorType luad;
+    private TumorType lusc;
+    private TumorType sclc;
+    private TumorType luadSubtype;
+    private TumorType allTumors;
+    private TumorTypeGraph graph;
+
+    private TumorType newTumorType(int id, String code, String mainType, int level, TumorType parent) {
+        TumorType tumorType = new TumorType();
+        tumorType.setId(id);
+        tumorType.setCode(code);
+        tumorType.setSubtype(code);
+        tumorType.setMainType(mainType);
+        tumorType.setLevel(level);
+        tumorType.setParent(parent);
+        tumorType.setChildren(new LinkedHashSet<>());
+        if (parent != null) {
+            parent.getChildren().add(tumorType);
+        }
+        cancerTypes.add(tumorType);
+        return tumorType;
+    }
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        lung = newTumorType(1, "LUNG", "", 1, null);
+        nsclc = newTumorType(2, "NSCLC", NSCLC, 2, lung);
+        luad = newTumorType(3, "LUAD", NSCLC, 3, nsclc);
+        lusc = newTumorType(4, "LUSC", NSCLC, 3, nsclc);
+        sclc = newTumorType(5, "SCLC", SCLC, 3, nsclc);
+        luadSubtype = newTumorType(6, "LUADX", NSCLC, 4, luad);
+        allTumors = newTumorType(7, "", SpecialTumorType.ALL_TUMORS.getTumorType(), 0, null);
+        graph = TumorTypeGraph.build(cancerTypes, Arrays.asList(nsclc, luad, lusc, sclc, luadSubtype), Collections.singletonList(allTumors));
+    }
+
+    public void testSameAsWalk() {
+        assertEquals(cancerTypes.size(), graph.size());
+        for (TumorType tumorType : cancerTypes) {
+            for (boolean onlySameMainType : Arrays.asList(true, false)) {
+                assertEquals(new ArrayList<>(TumorTypeGraph.walkParentTumorTypes(tumorType, onlySameMainType)), new ArrayList<>(graph.getParentTumorTypes(tumorType, onlySameMainType)));
+                assertEquals(new ArrayList<>(TumorTypeGraph.walkChildTumorTypes(tumorType, onlySameMainType)), new ArrayList<>(graph.getChildTumorTypes(tumorType, onlySameMainType)));
+            }
+        }
+    }
+
+    public void testRelatives() {
+        // the tissue level is never a parent
+        assertEquals(Arrays.asList(luad, nsclc), new ArrayList<>(graph.getParentTumorTypes(luadSubtype, true)));
+        assertTrue(graph.getParentTumorTypes(sclc, true).isEmpty());
+        assertEquals(Collections.singletonList(nsclc), new ArrayList<>(graph.getParentTumorTypes(sclc, false)));
+
+        assertEquals(Arrays.asList(luad, lusc, luadSubtype), new ArrayList<>(graph.getChildTumorTypes(nsclc, true)));
+        assertEquals(Arrays.asList(luad, lusc, sclc, luadSubtype), new ArrayList<>(graph.getChildTumorTypes(nsclc, false)));
+    }
+
+    public void testNotInGraph() {
+        TumorType other = new TumorType();
+        other.setId(100);
+        assertEquals(-1, graph.getId(other));
+        assertNull(graph.getParentTumorTypes(other, true));
+        assertNull(graph.getChildTumorTypes(other, true));
+
+        // equal cancer types are resolved to the same id
+        TumorType copy = new TumorType();
+        copy.setId(luad.getId());
+        assertEquals(graph.getId(luad), graph.getId(copy));
+    }
+
+    public void testIds() {
+        BitSet ids = new BitSet();
+        ids.set(graph.getId(lusc));
+        ids.set(graph.getId(lung));
+        assertEquals(new LinkedHashSet<>(Arrays.asList(lung, lusc)), graph.toTumorTypes(ids));
+        assertEquals(luad, graph.getTumorType(graph.getId(luad)));
+    }
+
+    public void testMainTypeAndSpecialTumorType() {
+        assertEquals(Arrays.asList(nsclc, luad, lusc, luadSubtype), graph.getSubtypesByMainType(NSCLC));
+        assertEquals(Collections.singletonList(sclc), graph.getSubtypesByMainType(SCLC));
+        assertTrue(graph.getSubtypesByMainType("Melanoma").isEmpty());
+        assertTrue(graph.getSubtypesByMainType(null).isEmpty());
+
+        assertEquals(allTumors, graph.getBySpecialTumor(SpecialTumorType.ALL_TUMORS));
+        assertNull(graph.getBySpecialTumor(SpecialTumorType.ALL_SOLID_TUMORS));
+        assertNull(graph.getBySpecialTumor(null));
+    }
+}
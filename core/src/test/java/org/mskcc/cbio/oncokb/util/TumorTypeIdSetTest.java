@@ -0,0 +1,58 @@
+package org.mskcc.cbio.oncokb.util;
+
+import junit.framework.TestCase;
+import org.mskcc.cbio.oncokb.model.TumorType;
+
+import java.util.*;
+
+public class TumorTypeIdSetTest extends TestCase {
+    private static TumorType newTumorType(int id, String code) {
+        TumorType tumorType = new TumorType();
+        tumorType.setId(id);
+        tumorType.setCode(code);
+        tumorType.setMainType(code);
+        tumorType.setLevel(1);
+        tumorType.setChildren(new HashSet<>());
+        return tumorType;
+    }
+
+    private static final TumorType MEL = newTumorType(1, "MEL");
+    private static final TumorType NSCLC = newTumorType(2, "NSCLC");
+    private static final TumorType LUAD = newTumorType(3, "LUAD");
+    private static final TumorType NOT_IN_GRAPH = newTumorType(100, "OTHER");
+
+    private static final TumorTypeGraph GRAPH = TumorTypeGraph.build(Arrays.asList(MEL, NSCLC, LUAD), Collections.<TumorType>emptyList(), Collections.<TumorType>emptyList());
+
+    private static TumorTypeIdSet of(TumorType... tumorTypes) {
+        return TumorTypeIdSet.of(GRAPH, Arrays.asList(tumorTypes));
+    }
+
+    public void testContains() {
+        TumorTypeIdSet set = of(NSCLC, LUAD, NOT_IN_GRAPH);
+        assertTrue(set.contains(LUAD));
+        assertTrue(set.contains(NOT_IN_GRAPH));
+        assertFalse(set.contains(MEL));
+        assertFalse(set.contains(newTumorType(101, "OTHER")));
+        assertEquals(new LinkedHashSet<>(Arrays.asList(NSCLC, LUAD, NOT_IN_GRAPH)), set.getTumorTypes());
+        assertTrue(of().isEmpty());
+        assertFalse(of(NOT_IN_GRAPH).isEmpty());
+        assertFalse(of(MEL).isEmpty());
+    }
+
+    public void testGetTumorTypesInIdOrder() {
+        assertEquals(Arrays.asList(MEL, NSCLC, LUAD, NOT_IN_GRAPH), new ArrayList<>(of(NOT_IN_GRAPH, LUAD, MEL, NSCLC).getTumorTypes()));
+    }
+
+    public void testIntersects() {
+        assertTrue(of(NSCLC, LUAD).intersects(of(LUAD)));
+        assertFalse(of(NSCLC, LUAD).intersects(of(MEL)));
+        assertFalse(of(NSCLC).intersects(of()));
+        assertTrue(of(NOT_IN_GRAPH).intersects(of(MEL, NOT_IN_GRAPH)));
+        assertFalse(of(NOT_IN_GRAPH).intersects(of(MEL)));
+
+        // sets of different graphs are compared as cancer types
+        TumorTypeGraph reloaded = TumorTypeGraph.build(Arrays.asList(LUAD, NSCLC), Collections.<TumorType>emptyList(), Collections.<TumorType>emptyList());
+        assertTrue(of(MEL, LUAD).intersects(TumorTypeIdSet.of(reloaded, Collections.singleton(LUAD))));
+        assertFalse(of(MEL).intersects(TumorTypeIdSet.of(reloaded, Collections.singleton(LUAD))));
+    }
+}
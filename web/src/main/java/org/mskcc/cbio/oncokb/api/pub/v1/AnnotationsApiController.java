@@ -8,6 +8,7 @@ import org.genome_nexus.client.GenomicLocation;
 import org.mskcc.cbio.oncokb.apiModels.VariantAnnotation;
 import org.mskcc.cbio.oncokb.apiModels.annotation.*;
 import org.mskcc.cbio.oncokb.cache.CacheFetcher;
+import org.mskcc.cbio.oncokb.cache.ProcessQueryParameters;
 import org.mskcc.cbio.oncokb.config.annotation.PremiumPublicApi;
 import org.mskcc.cbio.oncokb.config.annotation.PublicApi;
 import org.mskcc.cbio.oncokb.genomenexus.GNVariantAnnotationType;
@@ -401,7 +402,7 @@ public class AnnotationsApiController {
             limit = DEFAULT_LIMIT;
         }
         if (query != null && query.length() >= QUERY_MIN_LENGTH) {
-            result = annotationSearch(query);
+            result = annotationSearch(query, limit);
         }
 
         LinkedHashSet<AnnotationSearchResult> orderedResult = new LinkedHashSet<>();
@@ -433,9 +434,18 @@ public class AnnotationsApiController {
         Alteration alteration,
         String tumorType,
         Set<EvidenceType> evidenceTypes
+    ) {
+        return processQuery(getProcessQueryParametersFromGenomicLocation(referenceGenome, alteration, tumorType, evidenceTypes));
+    }
+
+    private ProcessQueryParameters getProcessQueryParametersFromGenomicLocation(
+        ReferenceGenome referenceGenome,
+        Alteration alteration,
+        String tumorType,
+        Set<EvidenceType> evidenceTypes
     ) {
         Query query = QueryUtils.getQueryFromAlteration(referenceGenome, tumorType, alteration, null);
-        return this.cacheFetcher.processQuery(
+        return new ProcessQueryParameters(
             referenceGenome,
             query.getEntrezGeneId(),
             query.getHugoSymbol(),
@@ -522,10 +532,20 @@ public class AnnotationsApiController {
         String hgvs,
         String tumorType,
         Set<EvidenceType> evidenceTypes
+    ) {
+        return processQuery(getProcessQueryParametersFromHGVS(referenceGenome, hgvsAlt, hgvs, tumorType, evidenceTypes));
+    }
+
+    private ProcessQueryParameters getProcessQueryParametersFromHGVS(
+        ReferenceGenome referenceGenome,
+        Alteration hgvsAlt,
+        String hgvs,
+        String tumorType,
+        Set<EvidenceType> evidenceTypes
     ) {
         Query query = QueryUtils.getQueryFromAlteration(referenceGenome, tumorType, hgvsAlt, hgvs);
 
-        return this.cacheFetcher.processQuery(
+        return new ProcessQueryParameters(
             referenceGenome,
             query.getEntrezGeneId(),
             query.getHugoSymbol(),
@@ -585,7 +605,7 @@ public class AnnotationsApiController {
     }
 
     private List<IndicatorQueryResp> annotateStructuralVariants(List<AnnotateStructuralVariantQuery> structuralVariants) {
-        List<IndicatorQueryResp> result = new ArrayList<>();
+        List<ProcessQueryParameters> parameters = new ArrayList<>();
         for (AnnotateStructuralVariantQuery query : structuralVariants) {
             Gene geneA = new Gene();
             if (query.getGeneA() != null) {
@@ -627,7 +647,7 @@ public class AnnotationsApiController {
 
             String fusionName = FusionUtils.getFusionName(geneA, geneB);
 
-            IndicatorQueryResp resp = this.cacheFetcher.processQuery(
+            parameters.add(new ProcessQueryParameters(
                 query.getReferenceGenome(),
                 null,
                 fusionName,
@@ -643,15 +663,13 @@ public class AnnotationsApiController {
                 false, 
                 query.getEvidenceTypes(), 
                 false
-            );
-            resp.getQuery().setId(query.getId());
-            result.add(resp);
+            ));
         }
-        return result;
+        return processQueries(parameters, structuralVariants.stream().map(AnnotateStructuralVariantQuery::getId).collect(Collectors.toList()));
     }
 
     private List<IndicatorQueryResp> annotateCopyNumberAlterations(List<AnnotateCopyNumberAlterationQuery> copyNumberAlterations) {
-        List<IndicatorQueryResp> result = new ArrayList<>();
+        List<ProcessQueryParameters> parameters = new ArrayList<>();
         for (AnnotateCopyNumberAlterationQuery query : copyNumberAlterations) {
             Gene gene = new Gene();
             if (query.getGene() != null) {
@@ -669,7 +687,7 @@ public class AnnotationsApiController {
                 } catch (ApiException e) {
                 }
             }
-            IndicatorQueryResp resp = this.cacheFetcher.processQuery(
+            parameters.add(new ProcessQueryParameters(
                 query.getReferenceGenome(),
                 gene.getEntrezGeneId(),
                 gene.getHugoSymbol(),
@@ -685,15 +703,13 @@ public class AnnotationsApiController {
                 false, 
                 query.getEvidenceTypes(),
                 false
-            );
-            resp.getQuery().setId(query.getId());
-            result.add(resp);
+            ));
         }
-        return result;
+        return processQueries(parameters, copyNumberAlterations.stream().map(AnnotateCopyNumberAlterationQuery::getId).collect(Collectors.toList()));
     }
 
     private List<IndicatorQueryResp> annotateMutationsByGenomicChange(List<AnnotateMutationByGenomicChangeQuery> mutations) throws ApiException, org.genome_nexus.ApiException {
-        List<IndicatorQueryResp> result = new ArrayList<>();
+        List<ProcessQueryParameters> parameters = new ArrayList<>();
         List<GenomicLocation> grch37Queries = new ArrayList<>();
         List<GenomicLocation> grch38Queries = new ArrayList<>();
         Map<Integer, Integer> grch37Map = new HashMap<>();
@@ -722,17 +738,15 @@ public class AnnotationsApiController {
             AnnotateMutationByGenomicChangeQuery query = mutations.get(i);
             Alteration alteration = query.getReferenceGenome() == ReferenceGenome.GRCh37 ? grch37Alts.get(grch37Map.get(i)) : grch38Alts.get(grch38Map.get(i));
             if (alteration == null) alteration = new Alteration();
-            IndicatorQueryResp resp = this.getIndicatorQueryFromGenomicLocation(query.getReferenceGenome(), alteration, query.getTumorType(), query.getEvidenceTypes());
-            resp.getQuery().setId(query.getId());
-            result.add(resp);
+            parameters.add(this.getProcessQueryParametersFromGenomicLocation(query.getReferenceGenome(), alteration, query.getTumorType(), query.getEvidenceTypes()));
         }
-        return result;
+        return processQueries(parameters, mutations.stream().map(AnnotateMutationByGenomicChangeQuery::getId).collect(Collectors.toList()));
     }
 
     private List<IndicatorQueryResp> annotateMutationsByProteinChange(List<AnnotateMutationByProteinChangeQuery> mutations) {
-        List<IndicatorQueryResp> result = new ArrayList<>();
+        List<ProcessQueryParameters> parameters = new ArrayList<>();
         for (AnnotateMutationByProteinChangeQuery query : mutations) {
-            IndicatorQueryResp resp = this.cacheFetcher.processQuery(
+            parameters.add(new ProcessQueryParameters(
                 query.getReferenceGenome(),
                 query.getGene() == null ? null : query.getGene().getEntrezGeneId(),
                 query.getGene() == null ? null : query.getGene().getHugoSymbol(),
@@ -748,15 +762,13 @@ public class AnnotationsApiController {
                 false,
                 query.getEvidenceTypes(),
                 false
-            );
-            resp.getQuery().setId(query.getId());
-            result.add(resp);
+            ));
         }
-        return result;
+        return processQueries(parameters, mutations.stream().map(AnnotateMutationByProteinChangeQuery::getId).collect(Collectors.toList()));
     }
 
     private List<IndicatorQueryResp> annotateMutationsByHGVS(List<AnnotateMutationByHGVSQuery> mutations) throws ApiException, org.genome_nexus.ApiException {
-        List<IndicatorQueryResp> result = new ArrayList<>();
+        List<ProcessQueryParameters> parameters = new ArrayList<>();
         List<String> grch37Queries = new ArrayList<>();
         List<String> grch38Queries = new ArrayList<>();
         Map<Integer, Integer> grch37Map = new HashMap<>();
@@ -786,15 +798,45 @@ public class AnnotationsApiController {
             Alteration alteration = query.getReferenceGenome() == ReferenceGenome.GRCh37 ? grch37Alts.get(grch37Map.get(i)) : grch38Alts.get(grch38Map.get(i));
             if (alteration == null) alteration = new Alteration();
 
-            IndicatorQueryResp resp = this.getIndicatorQueryFromHGVS(
+            parameters.add(this.getProcessQueryParametersFromHGVS(
                 query.getReferenceGenome(),
                 alteration,
                 query.getHgvs(),
                 query.getTumorType(),
                 query.getEvidenceTypes()
-            );
-            resp.getQuery().setId(query.getId());
-            result.add(resp);
+            ));
+        }
+        return processQueries(parameters, mutations.stream().map(AnnotateMutationByHGVSQuery::getId).collect(Collectors.toList()));
+    }
+
+    private IndicatorQueryResp processQuery(ProcessQueryParameters query) {
+        return this.cacheFetcher.processQuery(
+            query.getReferenceGenome(),
+            query.getEntrezGeneId(),
+            query.getHugoSymbol(),
+            query.getAlteration(),
+            query.getAlterationType(),
+            query.getTumorType(),
+            query.getConsequence(),
+            query.getProteinStart(),
+            query.getProteinEnd(),
+            query.getSvType(),
+            query.getHgvs(),
+            query.getLevels(),
+            query.getHighestLevelOnly(),
+            query.getEvidenceTypes(),
+            query.getGeneQueryOnly()
+        );
+    }
+
+    // Batch annotations look up and write the cache in one round trip, see CacheFetcher.processQueries
+    private List<IndicatorQueryResp> processQueries(List<ProcessQueryParameters> parameters, List<String> ids) {
+        List<IndicatorQueryResp> result = new ArrayList<>();
+        for (IndicatorQueryResp resp : this.cacheFetcher.processQueries(parameters)) {
+            // The response may be shared with the cache, or with a duplicated query, the id belongs to this query only
+            IndicatorQueryResp copy = resp.copy();
+            copy.getQuery().setId(ids.get(result.size()));
+            result.add(copy);
         }
         return result;
     }
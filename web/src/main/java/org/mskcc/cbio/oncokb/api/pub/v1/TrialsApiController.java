@@ -1,28 +1,17 @@
 package org.mskcc.cbio.oncokb.api.pub.v1;
 
 import java.io.IOException;
-import java.io.InputStreamReader;
-import java.io.UnsupportedEncodingException;
 import java.util.*;
 import java.util.stream.Collectors;
 
-import com.amazonaws.auth.AWSCredentials;
-import com.amazonaws.auth.AWSStaticCredentialsProvider;
-import com.amazonaws.auth.BasicAWSCredentials;
-import com.amazonaws.services.s3.AmazonS3;
-import com.amazonaws.services.s3.AmazonS3ClientBuilder;
-import com.amazonaws.services.s3.model.S3Object;
-import com.amazonaws.services.s3.model.S3ObjectInputStream;
-import com.google.gson.Gson;
-
 import org.apache.commons.lang3.StringUtils;
-import org.json.simple.JSONObject;
-import org.json.simple.parser.JSONParser;
-import org.json.simple.parser.ParseException;
 import org.mskcc.cbio.oncokb.config.annotation.PremiumPublicApi;
 import org.mskcc.cbio.oncokb.controller.advice.ApiHttpError;
 import org.mskcc.cbio.oncokb.controller.advice.ApiHttpErrorException;
+import org.mskcc.cbio.oncokb.service.trials.TrialsIndex;
+import org.mskcc.cbio.oncokb.service.trials.TrialsRepository;
 import org.mskcc.cbio.oncokb.util.ApplicationContextSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
@@ -33,7 +22,6 @@ import org.springframework.web.bind.annotation.RequestParam;
 import org.mskcc.cbio.oncokb.model.SpecialTumorType;
 import org.mskcc.cbio.oncokb.model.clinicalTrialsMathcing.*;
 import org.mskcc.cbio.oncokb.model.TumorType;
-import org.mskcc.cbio.oncokb.util.PropertiesUtils;
 
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
@@ -47,9 +35,8 @@ import io.swagger.annotations.ApiResponses;
 @Api(tags = "Trials", description = "Clinical Trials Matching")
 @Controller
 public class TrialsApiController {
-    final String s3AccessKey = PropertiesUtils.getProperties("aws.s3.accessKey");
-    final String s3SecretKey = PropertiesUtils.getProperties("aws.s3.secretKey");
-    final String s3Region = PropertiesUtils.getProperties("aws.s3.region");
+    @Autowired
+    TrialsRepository trialsRepository;
 
     @PremiumPublicApi
     @ApiOperation("Return a list of trials using OncoTree Code and/or treatment")
@@ -59,25 +46,16 @@ public class TrialsApiController {
     public ResponseEntity<List<Trial>> trialsMatchingGet(
         @ApiParam(value = "", required = true) @RequestParam(value = "", required = true) String oncoTreeCode,
         @ApiParam(value = "", required = false) @RequestParam(value = "", required = false) String treatment)
-        throws IOException, ParseException {
-
-        AWSCredentials credentials = new BasicAWSCredentials(s3AccessKey, s3SecretKey);
-        AmazonS3 s3client = AmazonS3ClientBuilder.standard()
-            .withCredentials(new AWSStaticCredentialsProvider(credentials)).withRegion(s3Region).build();
+        throws IOException {
 
-        S3Object s3object = s3client.getObject("oncokb", "drug-matching/result.json");
-        S3ObjectInputStream inputStream = s3object.getObjectContent();
-        JSONParser jsonParser = new JSONParser();
-        JSONObject jsonObject = (JSONObject) jsonParser.parse(new InputStreamReader(inputStream, "UTF-8"));
-
-        Tumor tumor = new Tumor();
-        if (jsonObject.containsKey(oncoTreeCode)) {
-            tumor = getTumor(jsonObject, oncoTreeCode);
+        TrialsIndex trialsIndex = trialsRepository.getIndex();
+        if (trialsIndex.containsCode(oncoTreeCode)) {
+            List<Trial> trials = trialsIndex.getTrialsByCode(oncoTreeCode);
             if (treatment == null) {
-                return new ResponseEntity<List<Trial>>(tumor.getTrials(), HttpStatus.OK);
+                return new ResponseEntity<List<Trial>>(trials, HttpStatus.OK);
             }
 
-            List<Trial> trial = getTrialByTreatment(tumor.getTrials(), treatment);
+            List<Trial> trial = TrialsIndex.getTrialsByTreatment(trials, treatment);
             return new ResponseEntity<List<Trial>>(trial, HttpStatus.OK);
         }
         return new ResponseEntity<List<Trial>>(new ArrayList<>(), HttpStatus.OK);
@@ -91,57 +69,28 @@ public class TrialsApiController {
     @RequestMapping(value = "/trials/cancerTypes", produces = {"application/json"}, method = RequestMethod.POST)
     public ResponseEntity<Map<String, List<Trial>>> trialsGetByCancerTypes(
         @ApiParam(value = "", required = true) @RequestBody() CancerTypesQuery body)
-        throws UnsupportedEncodingException, IOException, ParseException, ApiHttpErrorException {
+        throws IOException, ApiHttpErrorException {
         Map<String, List<Trial>> result = new HashMap<>();
 
         if (body == null) {
             throw new ApiHttpErrorException("The request body is missing.", HttpStatus.BAD_REQUEST);
         } else {
-            AWSCredentials credentials = new BasicAWSCredentials(s3AccessKey, s3SecretKey);
-            AmazonS3 s3client = AmazonS3ClientBuilder.standard()
-                .withCredentials(new AWSStaticCredentialsProvider(credentials))
-                .withRegion(s3Region)
-                .build();
-            S3Object s3object = s3client.getObject("oncokb", "drug-matching/result.json");
-            S3ObjectInputStream inputStream = s3object.getObjectContent();
-            JSONParser jsonParser = new JSONParser();
-            JSONObject jsonObject = (JSONObject) jsonParser.parse(new InputStreamReader(inputStream, "UTF-8"));
-
+            TrialsIndex trialsIndex = trialsRepository.getIndex();
             Set<String> cancerTypes = new HashSet<>(body.getCancerTypes());
             if (cancerTypes.contains(SpecialTumorType.ALL_TUMORS.getTumorType())) {
-                List<Trial> trials = new ArrayList<>();
-                Set<String> nctIDSet = new HashSet<>();
-                for (Object item : jsonObject.keySet()) {
-                    String oncoTreeCode = (String) item;
-                    Tumor tumor = getTumor(jsonObject, oncoTreeCode);
-                    for (Trial curTrial : tumor.getTrials()) {
-                        if (!nctIDSet.contains(curTrial.getNctId())) {
-                            nctIDSet.add(curTrial.getNctId());
-                            trials.add(curTrial);
-                        }
-                    }
-                }
-                result.put(SpecialTumorType.ALL_TUMORS.getTumorType(), trials);
+                result.put(SpecialTumorType.ALL_TUMORS.getTumorType(), trialsIndex.getAllTrials());
                 return new ResponseEntity<>(result, HttpStatus.OK);
             }
 
             for (String cancerType : cancerTypes) {
-                Set<String> nctIDSet = new HashSet<>();
-                List<Trial> addTrials = new ArrayList<>();
-                List<Trial> trials = new ArrayList<>();
+                List<Trial> trials;
                 SpecialTumorType specialTumorType = ApplicationContextSingleton.getTumorTypeBo().getSpecialTumorTypeByName(cancerType);
                 if (specialTumorType != null) {
-                    trials = getTrialsForSpecialCancerType(jsonObject, specialTumorType);
+                    trials = getTrialsForSpecialCancerType(trialsIndex, specialTumorType);
                 } else {
-                    trials = getTrialsByCancerType(jsonObject, cancerType);
-                }
-                for (Trial trial : trials) {
-                    if (!nctIDSet.contains(trial.getNctId())) {
-                        nctIDSet.add(trial.getNctId());
-                        addTrials.add(trial);
-                    }
+                    trials = getTrialsByCancerType(trialsIndex, cancerType);
                 }
-                result.put(cancerType, addTrials);
+                result.put(cancerType, TrialsIndex.distinct(trials));
             }
 
             if (result.isEmpty()) {
@@ -151,39 +100,7 @@ public class TrialsApiController {
         return new ResponseEntity<>(result, HttpStatus.OK);
     }
 
-    private Tumor getTumor(JSONObject jsonObject, String oncoTreeCode) {
-        Tumor tumor = new Tumor();
-        if (jsonObject.containsKey(oncoTreeCode)) {
-            JSONObject tumorObj = (JSONObject) jsonObject.get(oncoTreeCode);
-            Gson gson = new Gson();
-            tumor = gson.fromJson(tumorObj.toString(), Tumor.class);
-        }
-
-        return tumor;
-    }
-
-    private List<Trial> getTrialByTreatment(List<Trial> trials, String treatment) {
-        List<Trial> res = new ArrayList<>();
-        Set<String> drugsNames = Arrays.stream(treatment.split(",|\\+")).map(item -> item.trim()).collect(Collectors.toSet());
-
-        res = getTrialByDrugName(trials, drugsNames);
-        return res;
-    }
-
-    private List<Trial> getTrialByDrugName(List<Trial> trials, Set<String> drugsNames) {
-        List<Trial> res = new ArrayList<>();
-        for (Trial trial : trials) {
-            for (Arms arm : trial.getArms()) {
-                if (arm.getDrugs().stream().map(Drug::getDrugName).collect(Collectors.toSet()).containsAll(drugsNames)) {
-                    res.add(trial);
-                    break;
-                }
-            }
-        }
-        return res;
-    }
-
-    private List<Trial> getTrialsForSpecialCancerType(JSONObject tumors, SpecialTumorType specialTumorType) {
+    private List<Trial> getTrialsForSpecialCancerType(TrialsIndex trialsIndex, SpecialTumorType specialTumorType) {
         List<Trial> trials = new ArrayList<>();
         if(specialTumorType == null) return trials;
 
@@ -192,51 +109,27 @@ public class TrialsApiController {
 
         switch (specialTumorType) {
             case ALL_TUMORS:
-                return new ArrayList<>(getAllTrials(tumors));
+                return new ArrayList<>(trialsIndex.getAllTrials());
             case ALL_SOLID_TUMORS:
             case ALL_LIQUID_TUMORS:
                 return ApplicationContextSingleton.getTumorTypeBo().getAllTumorTypes().stream()
                     .filter(tumorType -> tumorType.getTumorForm() != null && tumorType.getTumorForm().equals(matchedSpecialTumorType.getTumorForm()))
-                    .map(tumorType -> getTrialsByCancerType(tumors, StringUtils.isNotEmpty(tumorType.getSubtype()) ? tumorType.getSubtype() : tumorType.getMainType()))
+                    .map(tumorType -> getTrialsByCancerType(trialsIndex, StringUtils.isNotEmpty(tumorType.getSubtype()) ? tumorType.getSubtype() : tumorType.getMainType()))
                     .flatMap(Collection::stream).collect(Collectors.toList());
             default:
                 return trials;
         }
     }
 
-    private List<Trial> getTrialsByCancerType(JSONObject tumors, String cancerType) {
-        List<Trial> trials = new ArrayList<>();
-
-        Set<String> tumorCodesByMainType = new HashSet<>();
-        List<TumorType> allOncoTreeSubtypes = ApplicationContextSingleton.getTumorTypeBo().getAllSubtypes();
-        for (TumorType oncoTreeType : allOncoTreeSubtypes) {
-            if (oncoTreeType.getMainType() != null && oncoTreeType.getMainType() != null && cancerType.equalsIgnoreCase(oncoTreeType.getMainType())) {
-                tumorCodesByMainType.add(oncoTreeType.getCode());
-            }
+    private List<Trial> getTrialsByCancerType(TrialsIndex trialsIndex, String cancerType) {
+        List<Trial> trialsByMainType = trialsIndex.getTrialsByMainType(cancerType);
+        if (trialsByMainType != null) {
+            return trialsByMainType;
         }
-        if (tumorCodesByMainType.size() > 0) {
-            for (String code : tumorCodesByMainType) {
-                if (tumors.containsKey(code))
-                    trials.addAll(getTumor(tumors, code).getTrials());
-            }
-        } else {
-            TumorType matchedSubtype = ApplicationContextSingleton.getTumorTypeBo().getBySubtype(cancerType);
-            if (matchedSubtype != null) {
-                String codeByName = matchedSubtype.getCode();
-                if (tumors.containsKey(codeByName))
-                    trials.addAll(getTumor(tumors, codeByName).getTrials());
-            }
+        TumorType matchedSubtype = ApplicationContextSingleton.getTumorTypeBo().getBySubtype(cancerType);
+        if (matchedSubtype != null) {
+            return trialsIndex.getTrialsByCode(matchedSubtype.getCode());
         }
-
-        return trials;
-    }
-
-    private Set<Trial> getAllTrials(JSONObject tumors) {
-        Set<Trial> trials = new HashSet<>();
-
-        tumors.entrySet().forEach(code -> {
-            trials.addAll(getTumor(tumors, (String) code).getTrials());
-        });
-        return trials;
+        return new ArrayList<>();
     }
 }
@@ -14,6 +14,8 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.RequestParam;
 
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
 import java.util.List;
 
@@ -27,6 +29,7 @@ public interface UtilsApi {
     @ApiOperation(value = "", notes = "Get All Annotated Variants.", response = AnnotatedVariant.class, responseContainer = "List", tags = {"Variants"})
     @ApiResponses(value = {
         @ApiResponse(code = 200, message = "OK", response = AnnotatedVariant.class, responseContainer = "List"),
+        @ApiResponse(code = 304, message = "Not Modified"),
         @ApiResponse(code = 404, message = "Not Found"),
         @ApiResponse(code = 503, message = "Service Unavailable")
     })
@@ -34,12 +37,14 @@ public interface UtilsApi {
         method = RequestMethod.GET)
     ResponseEntity<List<AnnotatedVariant>> utilsAllAnnotatedVariantsGet(
         @ApiParam(value = VERSION) @RequestParam(value = "version", required = false) String version
-    );
+        , HttpServletRequest request, HttpServletResponse response
+    ) throws IOException;
 
     @PremiumPublicApi
     @ApiOperation(value = "", notes = "Get All Annotated Variants in text file.", tags = {"Variants"})
     @ApiResponses(value = {
         @ApiResponse(code = 200, message = "OK"),
+        @ApiResponse(code = 304, message = "Not Modified"),
         @ApiResponse(code = 404, message = "Not Found"),
         @ApiResponse(code = 503, message = "Service Unavailable")
     })
@@ -48,7 +53,8 @@ public interface UtilsApi {
         method = RequestMethod.GET)
     ResponseEntity<String> utilsAllAnnotatedVariantsTxtGet(
         @ApiParam(value = VERSION) @RequestParam(value = "version", required = false) String version
-    );
+        , HttpServletRequest request, HttpServletResponse response
+    ) throws IOException;
 
     @PremiumPublicApi
     @ApiOperation(value = "", notes = "Get All Variants of Unknown Significance.", response = VariantOfUnknownSignificance.class, responseContainer = "List", tags = {"Variants"})
@@ -77,6 +83,7 @@ public interface UtilsApi {
     @ApiOperation(value = "", notes = "Get All Actionable Variants.", response = ActionableGene.class, responseContainer = "List", tags = {"Variants"})
     @ApiResponses(value = {
         @ApiResponse(code = 200, message = "OK", response = ActionableGene.class, responseContainer = "List"),
+        @ApiResponse(code = 304, message = "Not Modified"),
         @ApiResponse(code = 404, message = "Not Found"),
         @ApiResponse(code = 503, message = "Service Unavailable")
     })
@@ -84,13 +91,15 @@ public interface UtilsApi {
         method = RequestMethod.GET)
     ResponseEntity<List<ActionableGene>> utilsAllActionableVariantsGet(
         @ApiParam(value = VERSION) @RequestParam(value = "version", required = false) String version
-    );
+        , HttpServletRequest request, HttpServletResponse response
+    ) throws IOException;
 
 
     @PremiumPublicApi
     @ApiOperation(value = "", notes = "Get All Actionable Variants in text file.", tags = {"Variants"})
     @ApiResponses(value = {
         @ApiResponse(code = 200, message = "OK"),
+        @ApiResponse(code = 304, message = "Not Modified"),
         @ApiResponse(code = 404, message = "Not Found"),
         @ApiResponse(code = 503, message = "Service Unavailable")
     })
@@ -99,7 +108,8 @@ public interface UtilsApi {
         method = RequestMethod.GET)
     ResponseEntity<String> utilsAllActionableVariantsTxtGet(
         @ApiParam(value = VERSION) @RequestParam(value = "version", required = false) String version
-    );
+        , HttpServletRequest request, HttpServletResponse response
+    ) throws IOException;
 
     @PublicApi
     @PremiumPublicApi
@@ -114,6 +124,7 @@ public interface UtilsApi {
         method = RequestMethod.GET)
     ResponseEntity<List<CancerGene>> utilsCancerGeneListGet(
         @ApiParam(value = VERSION) @RequestParam(value = "version", required = false) String version
+        , HttpServletRequest request, HttpServletResponse response
     ) throws ApiException, IOException;
 
     @PublicApi
@@ -129,6 +140,7 @@ public interface UtilsApi {
         method = RequestMethod.GET)
     ResponseEntity<String> utilsCancerGeneListTxtGet(
         @ApiParam(value = VERSION) @RequestParam(value = "version", required = false) String version
+        , HttpServletRequest request, HttpServletResponse response
     ) throws ApiException, IOException;
 
     @PublicApi
@@ -136,6 +148,7 @@ public interface UtilsApi {
     @ApiOperation(value = "", notes = "Get list of genes OncoKB curated", tags = {"Cancer Genes"})
     @ApiResponses(value = {
         @ApiResponse(code = 200, message = "OK"),
+        @ApiResponse(code = 304, message = "Not Modified"),
         @ApiResponse(code = 404, message = "Not Found"),
         @ApiResponse(code = 503, message = "Service Unavailable")
     })
@@ -145,13 +158,16 @@ public interface UtilsApi {
     ResponseEntity<List<CuratedGene>> utilsAllCuratedGenesGet(
         @ApiParam(value = VERSION) @RequestParam(value = "version", required = false) String version
         , @ApiParam(value = INCLUDE_EVIDENCE, defaultValue = "TRUE") @RequestParam(value = "includeEvidence", required = false, defaultValue = "TRUE") Boolean includeEvidence
-    );
+
+        , HttpServletRequest request, HttpServletResponse response
+    ) throws IOException;
 
     @PublicApi
     @PremiumPublicApi
     @ApiOperation(value = "", notes = "Get list of genes OncoKB curated in text file.", tags = {"Cancer Genes"})
     @ApiResponses(value = {
         @ApiResponse(code = 200, message = "OK"),
+        @ApiResponse(code = 304, message = "Not Modified"),
         @ApiResponse(code = 404, message = "Not Found"),
         @ApiResponse(code = 503, message = "Service Unavailable")
     })
@@ -161,5 +177,7 @@ public interface UtilsApi {
     ResponseEntity<String> utilsAllCuratedGenesTxtGet(
         @ApiParam(value = VERSION) @RequestParam(value = "version", required = false) String version
         , @ApiParam(value = INCLUDE_EVIDENCE, defaultValue = "TRUE") @RequestParam(value = "includeEvidence", required = false, defaultValue = "TRUE") Boolean includeEvidence
-    );
+
+        , HttpServletRequest request, HttpServletResponse response
+    ) throws IOException;
 }
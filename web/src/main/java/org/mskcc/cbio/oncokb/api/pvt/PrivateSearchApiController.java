@@ -148,7 +148,7 @@ public class PrivateSearchApiController implements PrivateSearchApi {
                     }
                 }
             } else {
-                result.addAll(searchNonHgvsAnnotation(query));
+                result.addAll(searchNonHgvsAnnotation(query, limit));
             }
         } else {
             TypeaheadSearchResp typeaheadSearchResp = new TypeaheadSearchResp();
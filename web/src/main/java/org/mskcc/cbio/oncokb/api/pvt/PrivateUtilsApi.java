@@ -15,6 +15,8 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.xml.sax.SAXException;
 
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
 import javax.xml.parsers.ParserConfigurationException;
 import java.io.IOException;
 import java.util.List;
@@ -62,7 +64,7 @@ public interface PrivateUtilsApi {
     @RequestMapping(value = "/utils/numbers/genes/",
         produces = {"application/json"},
         method = RequestMethod.GET)
-    ResponseEntity<Set<GeneNumber>> utilsNumbersGenesGet();
+    ResponseEntity<Set<GeneNumber>> utilsNumbersGenesGet(HttpServletRequest request, HttpServletResponse response) throws IOException;
 
     @ApiOperation(value = "", notes = "Get numbers served for the main page dashboard.", response = MainNumber.class)
     @ApiResponses(value = {
@@ -70,7 +72,7 @@ public interface PrivateUtilsApi {
     @RequestMapping(value = "/utils/numbers/main/",
         produces = {"application/json"},
         method = RequestMethod.GET)
-    ResponseEntity<MainNumber> utilsNumbersMainGet();
+    ResponseEntity<MainNumber> utilsNumbersMainGet(HttpServletRequest request, HttpServletResponse response) throws IOException;
 
     @ApiOperation(value = "", notes = "Get gene related numbers of all genes. This is for main page word cloud.", response = LevelNumber.class, responseContainer = "Set")
     @ApiResponses(value = {
@@ -78,7 +80,7 @@ public interface PrivateUtilsApi {
     @RequestMapping(value = "/utils/numbers/levels/",
         produces = {"application/json"},
         method = RequestMethod.GET)
-    ResponseEntity<Set<LevelNumber>> utilsNumbersLevelsGet();
+    ResponseEntity<Set<LevelNumber>> utilsNumbersLevelsGet(HttpServletRequest request, HttpServletResponse response) throws IOException;
 
     @ApiOperation(value = "", notes = "Check if clinical trials are valid or not by nctId.", response = Map.class)
     @ApiResponses(value = {
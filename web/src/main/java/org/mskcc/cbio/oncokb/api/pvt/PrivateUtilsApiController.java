@@ -14,11 +14,14 @@ import org.mskcc.cbio.oncokb.apiModels.ensembl.EnsemblGene;
 import org.mskcc.cbio.oncokb.bo.AlterationBo;
 import org.mskcc.cbio.oncokb.bo.PortalAlterationBo;
 import org.mskcc.cbio.oncokb.cache.CacheFetcher;
+import org.mskcc.cbio.oncokb.cache.ExportArtifact;
+import org.mskcc.cbio.oncokb.cache.ExportArtifactStore;
 import org.mskcc.cbio.oncokb.controller.advice.ApiHttpErrorException;
 import org.mskcc.cbio.oncokb.genomenexus.GNVariantAnnotationType;
 import org.mskcc.cbio.oncokb.model.*;
 import org.mskcc.cbio.oncokb.model.TumorType;
 import org.mskcc.cbio.oncokb.bo.OncokbTranscriptService;
+import org.mskcc.cbio.oncokb.service.ExportArtifactResponses;
 import org.mskcc.cbio.oncokb.util.*;
 import org.oncokb.oncokb_transcript.ApiException;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -28,6 +31,8 @@ import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.*;
 import org.xml.sax.SAXException;
 
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
 import javax.xml.parsers.ParserConfigurationException;
 import java.io.IOException;
 import java.util.*;
@@ -45,6 +50,9 @@ public class PrivateUtilsApiController implements PrivateUtilsApi {
     @Autowired
     CacheFetcher cacheFetcher;
 
+    @Autowired
+    ExportArtifactStore exportArtifactStore;
+
     @Override
     public ResponseEntity<List<String>> utilsSuggestedVariantsGet() {
         HttpStatus status = HttpStatus.OK;
@@ -90,7 +98,10 @@ public class PrivateUtilsApiController implements PrivateUtilsApi {
     }
 
     @Override
-    public ResponseEntity<Set<GeneNumber>> utilsNumbersGenesGet() {
+    public ResponseEntity<Set<GeneNumber>> utilsNumbersGenesGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        if (ExportArtifactResponses.serve(exportArtifactStore, ExportArtifact.GENE_NUMBERS_JSON, request, response)) {
+            return null;
+        }
 
         Set<GeneNumber> genes = new HashSet<>();
 
@@ -104,33 +115,15 @@ public class PrivateUtilsApiController implements PrivateUtilsApi {
     }
 
     @Override
-    public ResponseEntity<MainNumber> utilsNumbersMainGet() {
+    public ResponseEntity<MainNumber> utilsNumbersMainGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        if (ExportArtifactResponses.serve(exportArtifactStore, ExportArtifact.MAIN_NUMBERS_JSON, request, response)) {
+            return null;
+        }
         MainNumber mainNumber = new MainNumber();
 
 
         if (CacheUtils.getNumbers("main") == null) {
-            Set<Gene> allGenes = CacheUtils.getAllGenes();
-            Integer numRealGenes = 0;
-            for (Gene gene : allGenes) {
-                if (gene.getEntrezGeneId() > 0)
-                    numRealGenes++;
-            }
-            mainNumber.setGene(numRealGenes);
-
-            List<Alteration> alterations = new ArrayList<>(AlterationUtils.getAllAlterations());
-            alterations = AlterationUtils.excludeVUS(alterations);
-            alterations = AlterationUtils.excludeInferredAlterations(alterations);
-
-            mainNumber.setAlteration(alterations.size());
-            Set<Evidence> evidences = CacheUtils.getAllEvidences();
-            Set<TumorType> treatmentTumorTypes = new HashSet<>();
-            for (Evidence evidence : evidences) {
-                if (evidence.getLevelOfEvidence() != null && !evidence.getCancerTypes().isEmpty()) {
-                    treatmentTumorTypes.addAll(evidence.getCancerTypes());
-                }
-            }
-            mainNumber.setTumorType(treatmentTumorTypes.size());
-            mainNumber.setDrug(NumberUtils.getDrugsCountByLevels(LevelUtils.getPublicLevels()));
+            mainNumber = NumberUtils.getMainNumber(LevelUtils.getPublicLevels());
             CacheUtils.setNumbers("main", mainNumber);
         } else {
             mainNumber = (MainNumber) CacheUtils.getNumbers("main");
@@ -140,7 +133,10 @@ public class PrivateUtilsApiController implements PrivateUtilsApi {
     }
 
     @Override
-    public ResponseEntity<Set<LevelNumber>> utilsNumbersLevelsGet() {
+    public ResponseEntity<Set<LevelNumber>> utilsNumbersLevelsGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        if (ExportArtifactResponses.serve(exportArtifactStore, ExportArtifact.LEVEL_NUMBERS_JSON, request, response)) {
+            return null;
+        }
         Set<LevelNumber> genes = new HashSet<>();
 
 
@@ -277,7 +273,7 @@ public class PrivateUtilsApiController implements PrivateUtilsApi {
                     }
                     Evidence updatedEvidence = new Evidence(evidence, null);
                     if (updatedEvidence.getRelevantCancerTypes() == null || updatedEvidence.getRelevantCancerTypes().size() == 0) {
-                        updatedEvidence.setRelevantCancerTypes(TumorTypeUtils.findEvidenceRelevantCancerTypes(updatedEvidence));
+                        updatedEvidence.setRelevantCancerTypes(new HashSet<>(TumorTypeUtils.findEvidenceRelevantCancerTypes(updatedEvidence)));
                     }
                     result.get(level).add(updatedEvidence);
                 }
@@ -444,7 +440,7 @@ public class PrivateUtilsApiController implements PrivateUtilsApi {
                     updatedEvidence = MainUtils.convertSpecialESR1Evidence(updatedEvidence);
                 }
                 if (updatedEvidence.getRelevantCancerTypes() == null || updatedEvidence.getRelevantCancerTypes().size() == 0) {
-                    updatedEvidence.setRelevantCancerTypes(TumorTypeUtils.findEvidenceRelevantCancerTypes(evidence));
+                    updatedEvidence.setRelevantCancerTypes(new HashSet<>(TumorTypeUtils.findEvidenceRelevantCancerTypes(evidence)));
                 }
                 return updatedEvidence;
             }).collect(Collectors.toList()));
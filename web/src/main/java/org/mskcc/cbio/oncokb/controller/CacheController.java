@@ -7,8 +7,10 @@ package org.mskcc.cbio.oncokb.controller;
 
 import org.apache.commons.collections.map.HashedMap;
 import org.mskcc.cbio.oncokb.model.*;
+import org.mskcc.cbio.oncokb.service.trials.TrialsRepository;
 import org.mskcc.cbio.oncokb.util.*;
 import org.mskcc.cbio.oncokb.model.TumorType;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpMethod;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -24,6 +26,9 @@ import java.util.*;
  */
 @Controller
 public class CacheController {
+    @Autowired
+    TrialsRepository trialsRepository;
+
     @RequestMapping(value = "/legacy-api/cache/getGeneCache", method = RequestMethod.GET, produces = "application/json")
     public
     @ResponseBody
@@ -78,6 +83,9 @@ public class CacheController {
                 case "updateAbbreviationOntology":
                     NamingUtils.cacheAllAbbreviations();
                     break;
+                case "refreshTrials":
+                    trialsRepository.refresh();
+                    break;
                 default:
                     break;
             }
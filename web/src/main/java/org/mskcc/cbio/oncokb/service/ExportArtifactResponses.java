@@ -0,0 +1,112 @@
+package org.mskcc.cbio.oncokb.service;
+
+import org.mskcc.cbio.oncokb.cache.ExportArtifact;
+import org.mskcc.cbio.oncokb.cache.ExportArtifactStore;
+import org.mskcc.cbio.oncokb.util.DataExportUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Serves the artifacts rendered by the {@link ExportArtifactStore} as static files.
+ */
+public class ExportArtifactResponses {
+    private static final String GZIP = "gzip";
+    private static final String X_GZIP = "x-gzip";
+    private static final String ANY_ENCODING = "*";
+
+    /**
+     * @return false when the artifact is not rendered from the current data, the caller generates the response then
+     */
+    public static boolean serve(ExportArtifactStore store, ExportArtifact artifact, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        ExportArtifactStore.ArtifactFile artifactFile = store.getArtifact(artifact);
+        if (artifactFile == null) {
+            return false;
+        }
+        boolean gzip = acceptsGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+        Path file = gzip ? artifactFile.getGzipFile() : artifactFile.getFile();
+
+        // The rendered files are never rewritten, a file opened here is never changed while it is being sent
+        FileChannel channel;
+        try {
+            channel = FileChannel.open(file, StandardOpenOption.READ);
+        } catch (NoSuchFileException e) {
+            // Removed after a newer rendering was published
+            return false;
+        }
+        try (FileChannel fileChannel = channel;
+             InputStream inputStream = Channels.newInputStream(fileChannel)) {
+            response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+            // The same ETag as the generated export, so a client can switch between instances and between both paths
+            String eTag = DataExportUtils.getETag(artifact.getFileName());
+            if (eTag != null && new ServletWebRequest(request, response).checkNotModified(eTag)) {
+                return true;
+            }
+            if (gzip) {
+                response.setHeader(HttpHeaders.CONTENT_ENCODING, GZIP);
+            }
+            response.setContentType(artifact.getContentType());
+            response.setHeader(HttpHeaders.CONTENT_LENGTH, String.valueOf(fileChannel.size()));
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = inputStream.read(buffer)) != -1) {
+                response.getOutputStream().write(buffer, 0, read);
+            }
+        }
+        response.flushBuffer();
+        return true;
+    }
+
+    /**
+     * Whether the Accept-Encoding header allows gzip, i.e. gzip or * is listed with a q value above 0.
+     * An explicit gzip entry takes precedence over *.
+     */
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        Double gzipQuality = null;
+        Double anyQuality = null;
+        for (String entry : acceptEncoding.split(",")) {
+            String[] parts = entry.split(";");
+            String coding = parts[0].trim().toLowerCase();
+            if (coding.equals(GZIP) || coding.equals(X_GZIP)) {
+                gzipQuality = Math.max(gzipQuality == null ? 0 : gzipQuality, getQuality(parts));
+            } else if (coding.equals(ANY_ENCODING)) {
+                anyQuality = getQuality(parts);
+            }
+        }
+        if (gzipQuality != null) {
+            return gzipQuality > 0;
+        }
+        return anyQuality != null && anyQuality > 0;
+    }
+
+    /**
+     * @return the q value of the entry, 1 when it is not given and 0 when it cannot be parsed
+     */
+    private static double getQuality(String[] parts) {
+        for (int i = 1; i < parts.length; i++) {
+            String parameter = parts[i].trim();
+            int separator = parameter.indexOf('=');
+            if (separator > 0 && parameter.substring(0, separator).trim().equalsIgnoreCase("q")) {
+                try {
+                    double quality = Double.parseDouble(parameter.substring(separator + 1).trim());
+                    return quality >= 0 && quality <= 1 ? quality : 0;
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
+}
@@ -0,0 +1,27 @@
+package org.mskcc.cbio.oncokb.service.trials;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Reads the trials dataset from a local file
+ */
+public class FileTrialsSource implements TrialsSource {
+    private final Path file;
+
+    public FileTrialsSource(Path file) {
+        this.file = file;
+    }
+
+    @Override
+    public InputStream open() throws IOException {
+        return Files.newInputStream(file);
+    }
+
+    @Override
+    public String toString() {
+        return file.toString();
+    }
+}
@@ -0,0 +1,55 @@
+package org.mskcc.cbio.oncokb.service.trials;
+
+import com.amazonaws.SdkClientException;
+import com.amazonaws.auth.AWSStaticCredentialsProvider;
+import com.amazonaws.auth.BasicAWSCredentials;
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.AmazonS3ClientBuilder;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Reads the trials dataset from S3. The client is created on the first read, so the application starts without the S3
+ * configuration, and is reused by every refresh.
+ */
+public class S3TrialsSource implements TrialsSource {
+    private final String accessKey;
+    private final String secretKey;
+    private final String region;
+    private final String bucket;
+    private final String key;
+    private AmazonS3 s3client;
+
+    public S3TrialsSource(String accessKey, String secretKey, String region, String bucket, String key) {
+        this.accessKey = accessKey;
+        this.secretKey = secretKey;
+        this.region = region;
+        this.bucket = bucket;
+        this.key = key;
+    }
+
+    private synchronized AmazonS3 getClient() {
+        if (s3client == null) {
+            s3client = AmazonS3ClientBuilder.standard()
+                .withCredentials(new AWSStaticCredentialsProvider(new BasicAWSCredentials(accessKey, secretKey)))
+                .withRegion(region)
+                .build();
+        }
+        return s3client;
+    }
+
+    @Override
+    public InputStream open() throws IOException {
+        try {
+            return getClient().getObject(bucket, key).getObjectContent();
+        } catch (SdkClientException | IllegalArgumentException e) {
+            throw new IOException("Failed to get s3://" + bucket + "/" + key, e);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "s3://" + bucket + "/" + key;
+    }
+}
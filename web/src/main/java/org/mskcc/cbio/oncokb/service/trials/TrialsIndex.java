@@ -0,0 +1,116 @@
+package org.mskcc.cbio.oncokb.service.trials;
+
+import org.mskcc.cbio.oncokb.model.TumorType;
+import org.mskcc.cbio.oncokb.model.clinicalTrialsMathcing.Arms;
+import org.mskcc.cbio.oncokb.model.clinicalTrialsMathcing.Drug;
+import org.mskcc.cbio.oncokb.model.clinicalTrialsMathcing.Trial;
+import org.mskcc.cbio.oncokb.model.clinicalTrialsMathcing.Tumor;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * An immutable snapshot of the trials dataset, indexed by OncoTree code and by OncoTree main type.
+ * <p>
+ * The trials of a main type are the trials of all its subtypes. Every main type of OncoTree is indexed, also the ones
+ * without trials, so a lookup can tell an unknown main type from one without trials.
+ */
+public class TrialsIndex {
+    private final Map<String, List<Trial>> trialsByCode;
+    private final Map<String, List<Trial>> trialsByLowercaseMainType;
+    private final List<Trial> allTrials;
+
+    private TrialsIndex(Map<String, List<Trial>> trialsByCode, Map<String, List<Trial>> trialsByLowercaseMainType, List<Trial> allTrials) {
+        this.trialsByCode = trialsByCode;
+        this.trialsByLowercaseMainType = trialsByLowercaseMainType;
+        this.allTrials = allTrials;
+    }
+
+    /**
+     * @param tumors   the dataset, by OncoTree code
+     * @param subtypes all OncoTree subtypes
+     */
+    public static TrialsIndex build(Map<String, Tumor> tumors, List<TumorType> subtypes) {
+        Map<String, List<Trial>> trialsByCode = new HashMap<>();
+        for (Map.Entry<String, Tumor> entry : tumors.entrySet()) {
+            List<Trial> trials = entry.getValue() == null || entry.getValue().getTrials() == null ? new ArrayList<>() : entry.getValue().getTrials();
+            trialsByCode.put(entry.getKey(), Collections.unmodifiableList(trials));
+        }
+
+        Map<String, List<Trial>> trialsByLowercaseMainType = new HashMap<>();
+        for (TumorType subtype : subtypes) {
+            if (subtype.getMainType() == null) {
+                continue;
+            }
+            List<Trial> trials = trialsByLowercaseMainType.computeIfAbsent(subtype.getMainType().toLowerCase(), key -> new ArrayList<>());
+            if (subtype.getCode() != null && trialsByCode.containsKey(subtype.getCode())) {
+                trials.addAll(trialsByCode.get(subtype.getCode()));
+            }
+        }
+        trialsByLowercaseMainType.replaceAll((mainType, trials) -> Collections.unmodifiableList(distinct(trials)));
+
+        List<Trial> allTrials = new ArrayList<>();
+        for (String code : tumors.keySet()) {
+            allTrials.addAll(trialsByCode.get(code));
+        }
+        return new TrialsIndex(trialsByCode, trialsByLowercaseMainType, Collections.unmodifiableList(distinct(allTrials)));
+    }
+
+    /**
+     * @return the trials in their first occurrence, compared by NCT ID
+     */
+    public static List<Trial> distinct(Collection<Trial> trials) {
+        Set<String> nctIds = new HashSet<>();
+        List<Trial> distinct = new ArrayList<>();
+        for (Trial trial : trials) {
+            if (nctIds.add(trial.getNctId())) {
+                distinct.add(trial);
+            }
+        }
+        return distinct;
+    }
+
+    /**
+     * @param treatment the drug names, separated by comma or plus
+     * @return the trials with an arm which includes all the drugs
+     */
+    public static List<Trial> getTrialsByTreatment(List<Trial> trials, String treatment) {
+        Set<String> drugNames = Arrays.stream(treatment.split(",|\\+")).map(String::trim).collect(Collectors.toSet());
+        List<Trial> result = new ArrayList<>();
+        for (Trial trial : trials) {
+            for (Arms arm : trial.getArms()) {
+                if (arm.getDrugs().stream().map(Drug::getDrugName).collect(Collectors.toSet()).containsAll(drugNames)) {
+                    result.add(trial);
+                    break;
+                }
+            }
+        }
+        return result;
+    }
+
+    public boolean containsCode(String code) {
+        return trialsByCode.containsKey(code);
+    }
+
+    public List<Trial> getTrialsByCode(String code) {
+        return trialsByCode.getOrDefault(code, Collections.emptyList());
+    }
+
+    /**
+     * @return the trials of the main type, or null when it is not an OncoTree main type
+     */
+    public List<Trial> getTrialsByMainType(String mainType) {
+        return mainType == null ? null : trialsByLowercaseMainType.get(mainType.toLowerCase());
+    }
+
+    /**
+     * @return the trials of all cancer types, without duplicates
+     */
+    public List<Trial> getAllTrials() {
+        return allTrials;
+    }
+
+    public int getCodeCount() {
+        return trialsByCode.size();
+    }
+}
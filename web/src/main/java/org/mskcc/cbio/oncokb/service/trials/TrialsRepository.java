@@ -0,0 +1,142 @@
+package org.mskcc.cbio.oncokb.service.trials;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.google.gson.reflect.TypeToken;
+import org.apache.commons.lang3.StringUtils;
+import org.mskcc.cbio.oncokb.model.TumorType;
+import org.mskcc.cbio.oncokb.model.clinicalTrialsMathcing.Tumor;
+import org.mskcc.cbio.oncokb.util.CacheUtils;
+import org.mskcc.cbio.oncokb.util.MainUtils;
+import org.mskcc.cbio.oncokb.util.PropertiesUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Holds the matched trials dataset. It is loaded once, indexed, and reloaded periodically or on demand; the new index
+ * replaces the old one only when it is loaded completely, a failed reload keeps serving the previous one.
+ * <p>
+ * The dataset is read from the file trials.path when set, otherwise from S3.
+ */
+@Component
+public class TrialsRepository {
+    private static final Logger LOG = LoggerFactory.getLogger(TrialsRepository.class);
+
+    private static final String PATH_PROPERTY = "trials.path";
+    private static final String REFRESH_INTERVAL_PROPERTY = "trials.refresh_interval";
+    private static final long DEFAULT_REFRESH_INTERVAL_MINUTES = 60;
+    private static final String S3_BUCKET = "oncokb";
+    private static final String S3_KEY = "drug-matching/result.json";
+
+    private static final Type DATASET_TYPE = new TypeToken<Map<String, Tumor>>() {
+    }.getType();
+
+    private final Supplier<List<TumorType>> subtypes;
+    private TrialsSource source;
+    private ScheduledExecutorService executor;
+    private volatile TrialsIndex index;
+
+    public TrialsRepository() {
+        this.subtypes = CacheUtils::getAllSubtypes;
+    }
+
+    /**
+     * Reads the dataset from the source without the periodic refresh, {@link #init()} is not called.
+     */
+    TrialsRepository(TrialsSource source, Supplier<List<TumorType>> subtypes) {
+        this.source = source;
+        this.subtypes = subtypes;
+    }
+
+    @PostConstruct
+    public void init() {
+        String path = PropertiesUtils.getProperties(PATH_PROPERTY);
+        if (StringUtils.isNotEmpty(path)) {
+            source = new FileTrialsSource(Paths.get(path));
+        } else {
+            source = new S3TrialsSource(
+                PropertiesUtils.getProperties("aws.s3.accessKey"),
+                PropertiesUtils.getProperties("aws.s3.secretKey"),
+                PropertiesUtils.getProperties("aws.s3.region"),
+                S3_BUCKET,
+                S3_KEY
+            );
+        }
+
+        String interval = PropertiesUtils.getProperties(REFRESH_INTERVAL_PROPERTY);
+        long intervalMinutes = StringUtils.isEmpty(interval) ? DEFAULT_REFRESH_INTERVAL_MINUTES : Long.parseLong(interval.trim());
+        if (intervalMinutes > 0) {
+            executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "oncokb-trials");
+                thread.setDaemon(true);
+                return thread;
+            });
+            // The first load happens on the first request, the OncoTree cancer types are loaded by then
+            executor.scheduleWithFixedDelay(() -> {
+                try {
+                    refresh();
+                } catch (Exception e) {
+                    LOG.error("Failed to refresh the trials from " + source + ", keeping the previous ones", e);
+                }
+            }, intervalMinutes, intervalMinutes, TimeUnit.MINUTES);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * @return the current index, it is loaded when the dataset has not been loaded yet
+     */
+    public TrialsIndex getIndex() throws IOException {
+        TrialsIndex current = index;
+        if (current != null) {
+            return current;
+        }
+        synchronized (this) {
+            if (index == null) {
+                refresh();
+            }
+            return index;
+        }
+    }
+
+    /**
+     * Load the dataset again and replace the index
+     */
+    public synchronized void refresh() throws IOException {
+        Long current = MainUtils.getCurrentTimestamp();
+        Map<String, Tumor> tumors;
+        try (InputStream inputStream = source.open(); Reader reader = new InputStreamReader(inputStream, StandardCharsets.UTF_8)) {
+            tumors = new Gson().fromJson(reader, DATASET_TYPE);
+        } catch (JsonParseException e) {
+            throw new IOException("Failed to parse the trials from " + source, e);
+        }
+        if (tumors == null) {
+            throw new IOException("The trials from " + source + " are empty");
+        }
+        index = TrialsIndex.build(tumors, subtypes.get());
+        LOG.info("Loaded the trials of {} cancer types from {}: {}", index.getCodeCount(), source, MainUtils.getTimestampDiff(current));
+    }
+}
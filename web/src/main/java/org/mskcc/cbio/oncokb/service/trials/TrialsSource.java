@@ -0,0 +1,14 @@
+package org.mskcc.cbio.oncokb.service.trials;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Where the matched trials dataset, i.e. drug-matching/result.json, is read from
+ */
+public interface TrialsSource {
+    /**
+     * @return the dataset, the caller closes the stream
+     */
+    InputStream open() throws IOException;
+}
@@ -0,0 +1,88 @@
+package org.mskcc.cbio.oncokb.service.trials;
+
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+import junit.framework.TestCase;
+import org.mskcc.cbio.oncokb.model.TumorType;
+import org.mskcc.cbio.oncokb.model.clinicalTrialsMathcing.Trial;
+import org.mskcc.cbio.oncokb.model.clinicalTrialsMathcing.Tumor;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.stream.Collectors;
+
+public class TrialsIndexTest extends TestCase {
+    static final String TRIALS_PATH = "src/test/resources/test_trials.json";
+
+    static TumorType newSubtype(String code, String mainType) {
+        TumorType tumorType = new TumorType();
+        tumorType.setCode(code);
+        tumorType.setMainType(mainType);
+        return tumorType;
+    }
+
+    static List<TumorType> getSubtypes() {
+        return Arrays.asList(
+            newSubtype("LUAD", "Non-Small Cell Lung Cancer"),
+            newSubtype("LUSC", "Non-Small Cell Lung Cancer"),
+            newSubtype("MEL", "Melanoma"),
+            newSubtype("IDC", "Breast Cancer")
+        );
+    }
+
+    private static TrialsIndex build() throws IOException {
+        try (Reader reader = Files.newBufferedReader(Paths.get(TRIALS_PATH), StandardCharsets.UTF_8)) {
+            Map<String, Tumor> tumors = new Gson().fromJson(reader, new TypeToken<Map<String, Tumor>>() {
+            }.getType());
+            return TrialsIndex.build(tumors, getSubtypes());
+        }
+    }
+
+    private static List<String> getNctIds(List<Trial> trials) {
+        return trials.stream().map(Trial::getNctId).collect(Collectors.toList());
+    }
+
+    public void testGetTrialsByCode() throws IOException {
+        TrialsIndex index = build();
+        assertEquals(3, index.getCodeCount());
+        assertEquals(Arrays.asList("NCT00000001", "NCT00000002"), getNctIds(index.getTrialsByCode("LUAD")));
+        assertEquals(Arrays.asList("NCT00000002", "NCT00000003"), getNctIds(index.getTrialsByCode("LUSC")));
+
+        // a code without trials is still known
+        assertTrue(index.containsCode("MEL"));
+        assertTrue(index.getTrialsByCode("MEL").isEmpty());
+        assertFalse(index.containsCode("IDC"));
+        assertTrue(index.getTrialsByCode("IDC").isEmpty());
+    }
+
+    public void testGetTrialsByMainType() throws IOException {
+        TrialsIndex index = build();
+        // the trials of all the subtypes, the shared trial only once
+        assertEquals(Arrays.asList("NCT00000001", "NCT00000002", "NCT00000003"), getNctIds(index.getTrialsByMainType("non-small cell lung cancer")));
+
+        // a main type without trials is told apart from an unknown one
+        assertTrue(index.getTrialsByMainType("Breast Cancer").isEmpty());
+        assertNull(index.getTrialsByMainType("Lung Cancer"));
+        assertNull(index.getTrialsByMainType(null));
+    }
+
+    public void testGetAllTrials() throws IOException {
+        List<String> nctIds = getNctIds(build().getAllTrials());
+        assertEquals(3, nctIds.size());
+        assertEquals(new HashSet<>(Arrays.asList("NCT00000001", "NCT00000002", "NCT00000003")), new HashSet<>(nctIds));
+    }
+
+    public void testGetTrialsByTreatment() throws IOException {
+        List<Trial> trials = build().getTrialsByMainType("Non-Small Cell Lung Cancer");
+        assertEquals(Collections.singletonList("NCT00000002"), getNctIds(TrialsIndex.getTrialsByTreatment(trials, "Dabrafenib")));
+        // all the drugs are in one arm
+        assertEquals(Collections.singletonList("NCT00000002"), getNctIds(TrialsIndex.getTrialsByTreatment(trials, "Dabrafenib + Trametinib")));
+        assertEquals(Collections.singletonList("NCT00000002"), getNctIds(TrialsIndex.getTrialsByTreatment(trials, "Trametinib,Dabrafenib")));
+        assertTrue(TrialsIndex.getTrialsByTreatment(trials, "Osimertinib+Trametinib").isEmpty());
+        assertTrue(TrialsIndex.getTrialsByTreatment(trials, "Imatinib").isEmpty());
+    }
+}
@@ -0,0 +1,72 @@
+package org.mskcc.cbio.oncokb.service.trials;
+
+import junit.framework.TestCase;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+
+public class TrialsRepositoryTest extends TestCase {
+    private Path file;
+    private TrialsRepository repository;
+
+    @Override
+    protected void setUp() throws IOException {
+        file = File.createTempFile("trials", ".json").toPath();
+        Files.copy(Paths.get(TrialsIndexTest.TRIALS_PATH), file, StandardCopyOption.REPLACE_EXISTING);
+        repository = new TrialsRepository(new FileTrialsSource(file), TrialsIndexTest::getSubtypes);
+    }
+
+    @Override
+    protected void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    public void testRefreshReplacesTheIndex() throws IOException {
+        // loaded on first use
+        TrialsIndex first = repository.getIndex();
+        assertEquals(3, first.getCodeCount());
+        assertSame(first, repository.getIndex());
+
+        write("{\"LUAD\": {\"trials\": [{\"nctId\": \"NCT00000004\", \"arms\": []}]}}");
+        repository.refresh();
+        TrialsIndex refreshed = repository.getIndex();
+        assertNotSame(first, refreshed);
+        assertEquals(1, refreshed.getCodeCount());
+        assertEquals("NCT00000004", refreshed.getTrialsByCode("LUAD").get(0).getNctId());
+
+        // the index taken before the refresh is left as it was
+        assertEquals(3, first.getCodeCount());
+        assertEquals(2, first.getTrialsByCode("LUAD").size());
+    }
+
+    public void testFailedRefreshKeepsTheIndex() throws IOException {
+        TrialsIndex first = repository.getIndex();
+
+        write("{\"LUAD\": ");
+        try {
+            repository.refresh();
+            fail("The truncated dataset should not be loaded");
+        } catch (IOException e) {
+            // expected
+        }
+        assertSame(first, repository.getIndex());
+
+        write("null");
+        try {
+            repository.refresh();
+            fail("The empty dataset should not be loaded");
+        } catch (IOException e) {
+            // expected
+        }
+        assertSame(first, repository.getIndex());
+    }
+
+    private void write(String content) throws IOException {
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+    }
+}